@@ -0,0 +1,23 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+
+/**
+ * Shared helpers for the benchmark fixtures.
+ */
+public class BenchmarkUtils
+{
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static SecureRandom getRandom()
+    {
+        return RANDOM;
+    }
+
+    public static byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,125 @@
+package org.bouncycastle.benchmark.cms;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.SignerId;
+import org.bouncycastle.cms.SignerInformationVerifier;
+import org.bouncycastle.cms.SignerInformationVerifierProvider;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.Store;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and verification costs for CMS SignedData messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CMSSignedDataBenchmark
+{
+    @Param({ "1024", "1048576" })
+    public int contentSize;
+
+    @Param({ "1", "3" })
+    public int signerCount;
+
+    private byte[] encoding;
+    private SignerInformationVerifierProvider verifierProvider;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null)
+        {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC", BouncyCastleProvider.PROVIDER_NAME);
+        kpg.initialize(256, BenchmarkUtils.getRandom());
+        KeyPair keyPair = kpg.generateKeyPair();
+
+        X500Name name = new X500Name("CN=CMS Benchmark");
+        long now = System.currentTimeMillis();
+        X509CertificateHolder cert = new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+            new Date(now - 60000L), new Date(now + 86400000L), name, keyPair.getPublic())
+            .build(new JcaContentSignerBuilder("SHA256withECDSA").setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(keyPair.getPrivate()));
+
+        String[] signatureAlgorithms = new String[]{ "SHA256withECDSA", "SHA384withECDSA", "SHA512withECDSA" };
+
+        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+        for (int i = 0; i < signerCount; ++i)
+        {
+            gen.addSignerInfoGenerator(new JcaSimpleSignerInfoGeneratorBuilder()
+                .setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(signatureAlgorithms[i % signatureAlgorithms.length], keyPair.getPrivate(),
+                    new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME).getCertificate(cert)));
+        }
+        gen.addCertificate(cert);
+
+        CMSSignedData signedData = gen.generate(
+            new CMSProcessableByteArray(BenchmarkUtils.randomBytes(contentSize)), true);
+        encoding = signedData.getEncoded();
+
+        final SignerInformationVerifier verifier = new JcaSimpleSignerInfoVerifierBuilder()
+            .setProvider(BouncyCastleProvider.PROVIDER_NAME).build(cert);
+
+        // all signers share the one certificate
+        verifierProvider = new SignerInformationVerifierProvider()
+        {
+            public SignerInformationVerifier get(SignerId sid)
+            {
+                return verifier;
+            }
+        };
+    }
+
+    @Benchmark
+    public int parse()
+        throws CMSException
+    {
+        CMSSignedData signedData = new CMSSignedData(encoding);
+        Store<X509CertificateHolder> certs = signedData.getCertificates();
+        return signedData.getSignerInfos().size() + certs.getMatches(null).size();
+    }
+
+    @Benchmark
+    public boolean parseAndVerify()
+        throws CMSException
+    {
+        CMSSignedData signedData = new CMSSignedData(encoding);
+        return signedData.verifySignatures(verifierProvider);
+    }
+}
@@ -0,0 +1,125 @@
+package org.bouncycastle.benchmark.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.CCMBlockCipher;
+import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.modes.GCMSIVBlockCipher;
+import org.bouncycastle.crypto.modes.OCBBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Arrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encrypt and decrypt throughput of the AEAD modes, one message per invocation.
+ * <p>
+ * Each invocation re-initialises the cipher with a fresh nonce, as a record layer would, so key
+ * schedule and table setup costs are included in the figures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AEADModeBenchmark
+{
+    @Param({ "GCM", "GCMSIV", "CCM", "OCB", "ChaCha20Poly1305" })
+    public String mode;
+
+    @Param({ "64", "1500", "16384" })
+    public int size;
+
+    private AEADCipher cipher;
+    private KeyParameter key;
+    private byte[] nonce;
+    private byte[] decryptNonce;
+    private byte[] aad;
+
+    private byte[] plaintext;
+    private byte[] ciphertext;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+        throws InvalidCipherTextException
+    {
+        cipher = createCipher(mode);
+        key = new KeyParameter(BenchmarkUtils.randomBytes(mode.startsWith("ChaCha") ? 32 : 16));
+        nonce = BenchmarkUtils.randomBytes(12);
+        decryptNonce = Arrays.clone(nonce);
+        aad = BenchmarkUtils.randomBytes(13);
+
+        plaintext = BenchmarkUtils.randomBytes(size);
+        ciphertext = new byte[size + 16];
+        output = new byte[size + 16];
+
+        cipher.init(true, new AEADParameters(key, 128, nonce, aad));
+        int len = cipher.processBytes(plaintext, 0, size, ciphertext, 0);
+        cipher.doFinal(ciphertext, len);
+    }
+
+    @Benchmark
+    public byte[] encrypt()
+        throws InvalidCipherTextException
+    {
+        // GCM refuses nonce reuse for encryption, so vary the nonce between invocations
+        nonce[0]++;
+
+        cipher.init(true, new AEADParameters(key, 128, nonce, aad));
+        int len = cipher.processBytes(plaintext, 0, size, output, 0);
+        cipher.doFinal(output, len);
+        return output;
+    }
+
+    @Benchmark
+    public byte[] decrypt()
+        throws InvalidCipherTextException
+    {
+        cipher.init(false, new AEADParameters(key, 128, decryptNonce, aad));
+        int len = cipher.processBytes(ciphertext, 0, ciphertext.length, output, 0);
+        cipher.doFinal(output, len);
+        return output;
+    }
+
+    private static AEADCipher createCipher(String mode)
+    {
+        if ("GCM".equals(mode))
+        {
+            return GCMBlockCipher.newInstance(AESEngine.newInstance());
+        }
+        if ("GCMSIV".equals(mode))
+        {
+            return new GCMSIVBlockCipher(AESEngine.newInstance());
+        }
+        if ("CCM".equals(mode))
+        {
+            return CCMBlockCipher.newInstance(AESEngine.newInstance());
+        }
+        if ("OCB".equals(mode))
+        {
+            return new OCBBlockCipher(AESEngine.newInstance(), AESEngine.newInstance());
+        }
+        if ("ChaCha20Poly1305".equals(mode))
+        {
+            return new ChaCha20Poly1305();
+        }
+        throw new IllegalArgumentException("unknown mode: " + mode);
+    }
+}
@@ -0,0 +1,110 @@
+package org.bouncycastle.benchmark.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.crypto.digests.Blake3Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA384Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SM3Digest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Message digest throughput for short and bulk inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigestBenchmark
+{
+    @Param({ "SHA-1", "SHA-256", "SHA-384", "SHA-512", "SHA3-256", "SHAKE128", "SHAKE256", "BLAKE2b-512",
+        "BLAKE3-256", "SM3" })
+    public String algorithm;
+
+    @Param({ "64", "1024", "16384" })
+    public int size;
+
+    private Digest digest;
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+    {
+        digest = createDigest(algorithm);
+        input = BenchmarkUtils.randomBytes(size);
+        output = new byte[digest.getDigestSize()];
+    }
+
+    @Benchmark
+    public byte[] digest()
+    {
+        digest.update(input, 0, size);
+        digest.doFinal(output, 0);
+        return output;
+    }
+
+    static Digest createDigest(String algorithm)
+    {
+        if ("SHA-1".equals(algorithm))
+        {
+            return new SHA1Digest();
+        }
+        if ("SHA-256".equals(algorithm))
+        {
+            return SHA256Digest.newInstance();
+        }
+        if ("SHA-384".equals(algorithm))
+        {
+            return new SHA384Digest();
+        }
+        if ("SHA-512".equals(algorithm))
+        {
+            return new SHA512Digest();
+        }
+        if ("SHA3-256".equals(algorithm))
+        {
+            return new SHA3Digest(256);
+        }
+        if ("SHAKE128".equals(algorithm))
+        {
+            return new SHAKEDigest(128);
+        }
+        if ("SHAKE256".equals(algorithm))
+        {
+            return new SHAKEDigest(256);
+        }
+        if ("BLAKE2b-512".equals(algorithm))
+        {
+            return new Blake2bDigest(512);
+        }
+        if ("BLAKE3-256".equals(algorithm))
+        {
+            return new Blake3Digest(256);
+        }
+        if ("SM3".equals(algorithm))
+        {
+            return new SM3Digest();
+        }
+        throw new IllegalArgumentException("unknown digest: " + algorithm);
+    }
+}
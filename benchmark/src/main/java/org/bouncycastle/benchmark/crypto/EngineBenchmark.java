@@ -0,0 +1,98 @@
+package org.bouncycastle.benchmark.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.MultiBlockCipher;
+import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.ChaCha7539Engine;
+import org.bouncycastle.crypto.engines.ChaChaEngine;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Raw throughput of the block and stream cipher engines, independent of any mode of operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark
+{
+    @Param({ "1024", "16384" })
+    public int size;
+
+    @Param({ "128", "256" })
+    public int keySize;
+
+    private MultiBlockCipher aes;
+    private StreamCipher chacha7539;
+    private StreamCipher chacha20;
+
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+    {
+        input = BenchmarkUtils.randomBytes(size);
+        output = new byte[size];
+
+        KeyParameter key = new KeyParameter(BenchmarkUtils.randomBytes(keySize / 8));
+
+        aes = AESEngine.newInstance();
+        aes.init(true, key);
+
+        chacha7539 = new ChaCha7539Engine();
+        chacha7539.init(true, new ParametersWithIV(new KeyParameter(BenchmarkUtils.randomBytes(32)),
+            BenchmarkUtils.randomBytes(12)));
+
+        chacha20 = new ChaChaEngine();
+        chacha20.init(true, new ParametersWithIV(key, BenchmarkUtils.randomBytes(8)));
+    }
+
+    @Benchmark
+    public byte[] aesProcessBlock()
+    {
+        for (int i = 0; i < size; i += 16)
+        {
+            aes.processBlock(input, i, output, i);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public byte[] aesProcessBlocks()
+    {
+        aes.processBlocks(input, 0, size / 16, output, 0);
+        return output;
+    }
+
+    @Benchmark
+    public byte[] chacha7539()
+    {
+        chacha7539.processBytes(input, 0, size, output, 0);
+        return output;
+    }
+
+    @Benchmark
+    public byte[] chacha20()
+    {
+        chacha20.processBytes(input, 0, size, output, 0);
+        return output;
+    }
+}
@@ -0,0 +1,107 @@
+package org.bouncycastle.benchmark.math.ec;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x9.ECNamedCurveTable;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.bouncycastle.math.ec.WNafL2RMultiplier;
+import org.bouncycastle.util.BigIntegers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point multiplication costs for the generic and custom curve implementations.
+ * <p>
+ * "custom" selects the curve from {@link CustomNamedCurves}, otherwise the generic
+ * {@link ECNamedCurveTable} version of the same curve is used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ECMultiplierBenchmark
+{
+    @Param({ "secp256r1", "secp384r1", "secp256k1", "curve25519" })
+    public String curveName;
+
+    @Param({ "true", "false" })
+    public boolean custom;
+
+    private ECPoint G;
+    private ECPoint Q;
+    private BigInteger k;
+    private BigInteger l;
+
+    private ECMultiplier combMultiplier;
+    private ECMultiplier wnafMultiplier;
+
+    @Setup
+    public void setup()
+    {
+        X9ECParameters spec = custom ? CustomNamedCurves.getByName(curveName) : ECNamedCurveTable.getByName(curveName);
+        if (spec == null)
+        {
+            // e.g. curve25519 has no generic counterpart; benchmark the custom version instead
+            spec = CustomNamedCurves.getByName(curveName);
+        }
+
+        ECCurve curve = spec.getCurve();
+        BigInteger n = spec.getN();
+
+        G = spec.getG();
+        k = BigIntegers.createRandomInRange(BigInteger.ONE, n.subtract(BigInteger.ONE), BenchmarkUtils.getRandom());
+        l = BigIntegers.createRandomInRange(BigInteger.ONE, n.subtract(BigInteger.ONE), BenchmarkUtils.getRandom());
+        Q = G.multiply(l).normalize();
+
+        combMultiplier = new FixedPointCombMultiplier();
+        wnafMultiplier = new WNafL2RMultiplier();
+
+        // make sure precomputations are in place before measuring
+        combMultiplier.multiply(G, k);
+        wnafMultiplier.multiply(Q, k);
+        curve.getMultiplier().multiply(Q, k);
+    }
+
+    @Benchmark
+    public ECPoint fixedPointComb()
+    {
+        return combMultiplier.multiply(G, k).normalize();
+    }
+
+    @Benchmark
+    public ECPoint wnaf()
+    {
+        return wnafMultiplier.multiply(Q, k).normalize();
+    }
+
+    @Benchmark
+    public ECPoint curveDefault()
+    {
+        return Q.multiply(k).normalize();
+    }
+
+    @Benchmark
+    public ECPoint sumOfTwoMultiplies()
+    {
+        return ECAlgorithms.sumOfTwoMultiplies(G, k, Q, l).normalize();
+    }
+}
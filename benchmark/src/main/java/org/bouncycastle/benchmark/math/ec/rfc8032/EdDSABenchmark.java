@@ -0,0 +1,123 @@
+package org.bouncycastle.benchmark.math.ec.rfc8032;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.math.ec.rfc8032.Ed25519;
+import org.bouncycastle.math.ec.rfc8032.Ed448;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key generation, signing and verification costs for Ed25519 and Ed448.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdDSABenchmark
+{
+    private static final byte[] CONTEXT = new byte[0];
+
+    @Param({ "32", "1024" })
+    public int messageSize;
+
+    private byte[] message;
+
+    private byte[] sk25519 = new byte[Ed25519.SECRET_KEY_SIZE];
+    private byte[] pk25519 = new byte[Ed25519.PUBLIC_KEY_SIZE];
+    private byte[] sig25519 = new byte[Ed25519.SIGNATURE_SIZE];
+    private Ed25519.PublicPoint pp25519;
+
+    private byte[] sk448 = new byte[Ed448.SECRET_KEY_SIZE];
+    private byte[] pk448 = new byte[Ed448.PUBLIC_KEY_SIZE];
+    private byte[] sig448 = new byte[Ed448.SIGNATURE_SIZE];
+    private Ed448.PublicPoint pp448;
+
+    private byte[] sigOut25519 = new byte[Ed25519.SIGNATURE_SIZE];
+    private byte[] sigOut448 = new byte[Ed448.SIGNATURE_SIZE];
+
+    @Setup
+    public void setup()
+    {
+        Ed25519.precompute();
+        Ed448.precompute();
+
+        message = BenchmarkUtils.randomBytes(messageSize);
+
+        Ed25519.generatePrivateKey(BenchmarkUtils.getRandom(), sk25519);
+        pp25519 = Ed25519.generatePublicKey(sk25519, 0);
+        Ed25519.encodePublicPoint(pp25519, pk25519, 0);
+        Ed25519.sign(sk25519, 0, pk25519, 0, message, 0, messageSize, sig25519, 0);
+
+        Ed448.generatePrivateKey(BenchmarkUtils.getRandom(), sk448);
+        pp448 = Ed448.generatePublicKey(sk448, 0);
+        Ed448.encodePublicPoint(pp448, pk448, 0);
+        Ed448.sign(sk448, 0, pk448, 0, CONTEXT, message, 0, messageSize, sig448, 0);
+    }
+
+    @Benchmark
+    public byte[] ed25519GeneratePublicKey()
+    {
+        byte[] pk = new byte[Ed25519.PUBLIC_KEY_SIZE];
+        Ed25519.generatePublicKey(sk25519, 0, pk, 0);
+        return pk;
+    }
+
+    @Benchmark
+    public byte[] ed25519Sign()
+    {
+        Ed25519.sign(sk25519, 0, pk25519, 0, message, 0, messageSize, sigOut25519, 0);
+        return sigOut25519;
+    }
+
+    @Benchmark
+    public boolean ed25519Verify()
+    {
+        return Ed25519.verify(sig25519, 0, pk25519, 0, message, 0, messageSize);
+    }
+
+    @Benchmark
+    public boolean ed25519VerifyPublicPoint()
+    {
+        return Ed25519.verify(sig25519, 0, pp25519, message, 0, messageSize);
+    }
+
+    @Benchmark
+    public byte[] ed448GeneratePublicKey()
+    {
+        byte[] pk = new byte[Ed448.PUBLIC_KEY_SIZE];
+        Ed448.generatePublicKey(sk448, 0, pk, 0);
+        return pk;
+    }
+
+    @Benchmark
+    public byte[] ed448Sign()
+    {
+        Ed448.sign(sk448, 0, pk448, 0, CONTEXT, message, 0, messageSize, sigOut448, 0);
+        return sigOut448;
+    }
+
+    @Benchmark
+    public boolean ed448Verify()
+    {
+        return Ed448.verify(sig448, 0, pk448, 0, CONTEXT, message, 0, messageSize);
+    }
+
+    @Benchmark
+    public boolean ed448VerifyPublicPoint()
+    {
+        return Ed448.verify(sig448, 0, pp448, CONTEXT, message, 0, messageSize);
+    }
+}
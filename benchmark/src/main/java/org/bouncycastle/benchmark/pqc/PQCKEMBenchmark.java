@@ -0,0 +1,93 @@
+package org.bouncycastle.benchmark.pqc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.SecretWithEncapsulation;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKEMExtractor;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKEMGenerator;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberParameters;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberPrivateKeyParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key generation, encapsulation and decapsulation costs for the post-quantum KEMs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PQCKEMBenchmark
+{
+    @Param({ "kyber512", "kyber768", "kyber1024" })
+    public String parameterSet;
+
+    private KyberKeyPairGenerator keyPairGenerator;
+    private AsymmetricCipherKeyPair keyPair;
+    private KyberKEMGenerator generator;
+    private KyberKEMExtractor extractor;
+    private byte[] encapsulation;
+
+    @Setup
+    public void setup()
+    {
+        keyPairGenerator = new KyberKeyPairGenerator();
+        keyPairGenerator.init(new KyberKeyGenerationParameters(BenchmarkUtils.getRandom(), getParameters(parameterSet)));
+        keyPair = keyPairGenerator.generateKeyPair();
+
+        generator = new KyberKEMGenerator(BenchmarkUtils.getRandom());
+        extractor = new KyberKEMExtractor((KyberPrivateKeyParameters)keyPair.getPrivate());
+
+        encapsulation = generator.generateEncapsulated(keyPair.getPublic()).getEncapsulation();
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair generateKeyPair()
+    {
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    @Benchmark
+    public SecretWithEncapsulation encapsulate()
+    {
+        return generator.generateEncapsulated(keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] decapsulate()
+    {
+        return extractor.extractSecret(encapsulation);
+    }
+
+    private static KyberParameters getParameters(String name)
+    {
+        if ("kyber512".equals(name))
+        {
+            return KyberParameters.kyber512;
+        }
+        if ("kyber768".equals(name))
+        {
+            return KyberParameters.kyber768;
+        }
+        if ("kyber1024".equals(name))
+        {
+            return KyberParameters.kyber1024;
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+}
@@ -0,0 +1,171 @@
+package org.bouncycastle.benchmark.pqc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.benchmark.BenchmarkUtils;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPairGenerator;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.MessageSigner;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumSigner;
+import org.bouncycastle.pqc.crypto.falcon.FalconKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.falcon.FalconKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.falcon.FalconParameters;
+import org.bouncycastle.pqc.crypto.falcon.FalconSigner;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusParameters;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key generation, signing and verification costs for the post-quantum signature schemes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PQCSignerBenchmark
+{
+    @Param({ "dilithium2", "dilithium3", "dilithium5", "falcon-512", "falcon-1024", "sha2-128f", "shake-128f",
+        "sha2-128s" })
+    public String parameterSet;
+
+    private byte[] message;
+
+    private AsymmetricCipherKeyPairGenerator keyPairGenerator;
+    private MessageSigner signer;
+    private MessageSigner verifier;
+    private byte[] signature;
+
+    @Setup
+    public void setup()
+    {
+        message = BenchmarkUtils.randomBytes(64);
+
+        keyPairGenerator = createKeyPairGenerator(parameterSet);
+        AsymmetricCipherKeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        signer = createSigner(parameterSet);
+        signer.init(true, new ParametersWithRandom(keyPair.getPrivate(), BenchmarkUtils.getRandom()));
+
+        verifier = createSigner(parameterSet);
+        verifier.init(false, keyPair.getPublic());
+
+        signature = signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair generateKeyPair()
+    {
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    @Benchmark
+    public byte[] sign()
+    {
+        return signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        return verifier.verifySignature(message, signature);
+    }
+
+    private static AsymmetricCipherKeyPairGenerator createKeyPairGenerator(String parameterSet)
+    {
+        if (parameterSet.startsWith("dilithium"))
+        {
+            DilithiumKeyPairGenerator kpg = new DilithiumKeyPairGenerator();
+            kpg.init(new DilithiumKeyGenerationParameters(BenchmarkUtils.getRandom(), getDilithiumParameters(parameterSet)));
+            return kpg;
+        }
+        if (parameterSet.startsWith("falcon"))
+        {
+            FalconKeyPairGenerator kpg = new FalconKeyPairGenerator();
+            kpg.init(new FalconKeyGenerationParameters(BenchmarkUtils.getRandom(), getFalconParameters(parameterSet)));
+            return kpg;
+        }
+
+        SPHINCSPlusKeyPairGenerator kpg = new SPHINCSPlusKeyPairGenerator();
+        kpg.init(new SPHINCSPlusKeyGenerationParameters(BenchmarkUtils.getRandom(),
+            getSPHINCSPlusParameters(parameterSet)));
+        return kpg;
+    }
+
+    private static MessageSigner createSigner(String parameterSet)
+    {
+        if (parameterSet.startsWith("dilithium"))
+        {
+            return new DilithiumSigner();
+        }
+        if (parameterSet.startsWith("falcon"))
+        {
+            return new FalconSigner();
+        }
+        return new SPHINCSPlusSigner();
+    }
+
+    private static DilithiumParameters getDilithiumParameters(String name)
+    {
+        if ("dilithium2".equals(name))
+        {
+            return DilithiumParameters.dilithium2;
+        }
+        if ("dilithium3".equals(name))
+        {
+            return DilithiumParameters.dilithium3;
+        }
+        if ("dilithium5".equals(name))
+        {
+            return DilithiumParameters.dilithium5;
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+
+    private static FalconParameters getFalconParameters(String name)
+    {
+        if ("falcon-512".equals(name))
+        {
+            return FalconParameters.falcon_512;
+        }
+        if ("falcon-1024".equals(name))
+        {
+            return FalconParameters.falcon_1024;
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+
+    private static SPHINCSPlusParameters getSPHINCSPlusParameters(String name)
+    {
+        if ("sha2-128f".equals(name))
+        {
+            return SPHINCSPlusParameters.sha2_128f;
+        }
+        if ("sha2-128s".equals(name))
+        {
+            return SPHINCSPlusParameters.sha2_128s;
+        }
+        if ("shake-128f".equals(name))
+        {
+            return SPHINCSPlusParameters.shake_128f;
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+}
@@ -3,6 +3,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.util.Arrays;
 
@@ -143,7 +144,12 @@ static protected byte[] getBytes(int bitString)
         return result;
     }
 
-    final byte[] contents;
+    /*
+     * When decoded from a shared buffer (see ASN1InputStream(ByteBuffer, boolean)), 'slice' holds the contents,
+     * and 'contents' is only filled in (under the object's lock) if the bits are actually asked for.
+     */
+    byte[] contents;
+    final ByteBuffer slice;
 
     ASN1BitString(byte data, int padBits)
     {
@@ -153,6 +159,7 @@ static protected byte[] getBytes(int bitString)
         }
 
         this.contents = new byte[]{ (byte)padBits, data };
+        this.slice = null;
     }
 
     /**
@@ -177,6 +184,7 @@ static protected byte[] getBytes(int bitString)
         }
 
         this.contents = Arrays.prepend(data, (byte)padBits);
+        this.slice = null;
     }
 
     ASN1BitString(byte[] contents, boolean check)
@@ -207,16 +215,27 @@ static protected byte[] getBytes(int bitString)
         }
 
         this.contents = contents;
+        this.slice = null;
+    }
+
+    ASN1BitString(ByteBuffer slice)
+    {
+        this.slice = slice;
     }
 
     public InputStream getBitStream() throws IOException
     {
+        if (null != slice)
+        {
+            return SharedBufferInputStream.toInputStream(slice, 1);
+        }
+
         return new ByteArrayInputStream(contents, 1, contents.length - 1);
     }
 
     public InputStream getOctetStream() throws IOException
     {
-        int padBits = contents[0] & 0xFF;
+        int padBits = getPadBits();
         if (0 != padBits)
         {
             throw new IOException("expected octet-aligned bitstring, but found padBits: " + padBits);
@@ -265,6 +284,7 @@ public String getString()
      */
     public int intValue()
     {
+        byte[] contents = getContents();
         int value = 0;
         int end = Math.min(5, contents.length - 1);
         for (int i = 1; i < end; ++i)
@@ -289,16 +309,34 @@ public int intValue()
      */
     public byte[] getOctets()
     {
-        if (contents[0] != 0)
+        if (getPadBits() != 0)
         {
             throw new IllegalStateException("attempt to get non-octet aligned data from BIT STRING");
         }
 
+        if (null != slice)
+        {
+            return SharedBufferInputStream.toByteArray(slice, 1);
+        }
+
         return Arrays.copyOfRange(contents, 1, contents.length);
     }
 
     public byte[] getBytes()
     {
+        if (null != slice)
+        {
+            if (slice.limit() == 1)
+            {
+                return ASN1OctetString.EMPTY_OCTETS;
+            }
+
+            byte[] rv = SharedBufferInputStream.toByteArray(slice, 1);
+            // DER requires pad bits be zero
+            rv[rv.length - 1] &= (byte)(0xFF << getPadBits());
+            return rv;
+        }
+
         if (contents.length == 1)
         {
             return ASN1OctetString.EMPTY_OCTETS;
@@ -313,6 +351,11 @@ public byte[] getBytes()
 
     public int getPadBits()
     {
+        if (null != slice)
+        {
+            return slice.get(0) & 0xFF;
+        }
+
         return contents[0] & 0xFF;
     }
 
@@ -323,6 +366,11 @@ public String toString()
 
     public int hashCode()
     {
+        if (null != slice)
+        {
+            return hashCode(slice);
+        }
+
         if (contents.length < 2)
         {
             return 1;
@@ -347,7 +395,7 @@ boolean asn1Equals(ASN1Primitive other)
         }
 
         ASN1BitString that = (ASN1BitString)other;
-        byte[] thisContents = this.contents, thatContents = that.contents;
+        byte[] thisContents = this.getContents(), thatContents = that.getContents();
 
         int length = thisContents.length;
         if (thatContents.length != length)
@@ -382,14 +430,41 @@ public ASN1Primitive getLoadedObject()
 
     ASN1Primitive toDERObject()
     {
+        if (null != slice)
+        {
+            return new DERBitString(slice);
+        }
+
         return new DERBitString(contents, false);
     }
 
     ASN1Primitive toDLObject()
     {
+        if (null != slice)
+        {
+            return new DLBitString(slice);
+        }
+
         return new DLBitString(contents, false);
     }
 
+    byte[] getContents()
+    {
+        if (null == slice)
+        {
+            return contents;
+        }
+
+        synchronized (this)
+        {
+            if (null == contents)
+            {
+                contents = SharedBufferInputStream.toByteArray(slice, 0);
+            }
+            return contents;
+        }
+    }
+
     static ASN1BitString createPrimitive(byte[] contents)
     {
         int length = contents.length;
@@ -415,4 +490,49 @@ static ASN1BitString createPrimitive(byte[] contents)
 
         return new DERBitString(contents, false);
     }
+
+    static ASN1BitString createPrimitive(ByteBuffer contents)
+    {
+        int length = contents.limit();
+        if (length < 1)
+        {
+            throw new IllegalArgumentException("truncated BIT STRING detected");
+        }
+
+        int padBits = contents.get(0) & 0xFF;
+        if (padBits > 0)
+        {
+            if (padBits > 7 || length < 2)
+            {
+                throw new IllegalArgumentException("invalid pad bits detected");
+            }
+
+            byte finalOctet = contents.get(length - 1);
+            if (finalOctet != (byte)(finalOctet & (0xFF << padBits)))
+            {
+                return new DLBitString(contents);
+            }
+        }
+
+        return new DERBitString(contents);
+    }
+
+    private static int hashCode(ByteBuffer contents)
+    {
+        int length = contents.limit();
+        if (length < 2)
+        {
+            return 1;
+        }
+
+        int padBits = contents.get(0) & 0xFF;
+        int last = length - 1;
+
+        byte lastOctetDER = (byte)(contents.get(last) & (0xFF << padBits));
+
+        int hc = SharedBufferInputStream.hashCode(contents, 0, last);
+        hc *= 257;
+        hc ^= lastOctetDER;
+        return hc;
+    }
 }
@@ -5,6 +5,7 @@
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.util.io.Streams;
 
@@ -21,6 +22,7 @@
     private final int limit;
     private final boolean lazyEvaluate;
     private final byte[][] tmpBuffers;
+    private final SharedBufferInputStream sharedBuffer;
 
     public ASN1InputStream(InputStream is)
     {
@@ -50,6 +52,30 @@ public ASN1InputStream(byte[] input, boolean lazyEvaluate)
         this(new ByteArrayInputStream(input), input.length, lazyEvaluate);
     }
 
+    /**
+     * Create an ASN1InputStream that decodes the remaining contents of a buffer without copying them where
+     * possible: the contents of the OCTET STRING, BIT STRING and INTEGER objects it returns (other than short
+     * ones), and of lazily evaluated sequences, are slices of the buffer, copied only if their octets are
+     * actually asked for. The buffer may be on the heap (e.g. from {@link ByteBuffer#wrap(byte[])}) or direct
+     * (e.g. a memory-mapped file).
+     * <p>
+     * The buffer's position is not changed, but its contents must not be modified while any object decoded
+     * from it is still in use.
+     * </p>
+     *
+     * @param input buffer containing ASN.1 encoded data between its position and limit.
+     * @param lazyEvaluate true if parsing inside constructed objects can be delayed.
+     */
+    public ASN1InputStream(ByteBuffer input, boolean lazyEvaluate)
+    {
+        this(new SharedBufferInputStream(input), lazyEvaluate);
+    }
+
+    private ASN1InputStream(SharedBufferInputStream input, boolean lazyEvaluate)
+    {
+        this(input, input.available(), lazyEvaluate, new byte[11][], input);
+    }
+
     /**
      * Create an ASN1InputStream where no DER object will be longer than limit.
      * 
@@ -83,15 +109,17 @@ public ASN1InputStream(InputStream input, boolean lazyEvaluate)
      */
     public ASN1InputStream(InputStream input, int limit, boolean lazyEvaluate)
     {
-        this(input, limit, lazyEvaluate, new byte[11][]);
+        this(input, limit, lazyEvaluate, new byte[11][], null);
     }
 
-    private ASN1InputStream(InputStream input, int limit, boolean lazyEvaluate, byte[][] tmpBuffers)
+    private ASN1InputStream(InputStream input, int limit, boolean lazyEvaluate, byte[][] tmpBuffers,
+        SharedBufferInputStream sharedBuffer)
     {
         super(input);
         this.limit = limit;
         this.lazyEvaluate = lazyEvaluate;
         this.tmpBuffers = tmpBuffers;
+        this.sharedBuffer = sharedBuffer;
     }
 
     int getLimit()
@@ -136,6 +164,15 @@ protected ASN1Primitive buildObject(
 
         if (0 == (tag & FLAGS))
         {
+            if (null != sharedBuffer && length >= SharedBufferInputStream.MIN_SLICE_LENGTH)
+            {
+                ASN1Primitive sliced = createSlicedPrimitive(tagNo, defIn);
+                if (null != sliced)
+                {
+                    return sliced;
+                }
+            }
+
             return createPrimitiveDERObject(tagNo, defIn, tmpBuffers);
         }
 
@@ -167,6 +204,11 @@ protected ASN1Primitive buildObject(
             }
             else if (lazyEvaluate)
             {
+                if (null != sharedBuffer)
+                {
+                    return new LazyEncodedSequence(defIn.toSlice(sharedBuffer));
+                }
+
                 return new LazyEncodedSequence(defIn.toByteArray());
             }
             else
@@ -329,7 +371,30 @@ ASN1EncodableVector readVector(DefiniteLengthInputStream defIn) throws IOExcepti
             return new ASN1EncodableVector(0);
         }
 
-        return new ASN1InputStream(defIn, remaining, lazyEvaluate, tmpBuffers).readVector();
+        return new ASN1InputStream(defIn, remaining, lazyEvaluate, tmpBuffers, sharedBuffer).readVector();
+    }
+
+    private ASN1Primitive createSlicedPrimitive(int tagNo, DefiniteLengthInputStream defIn)
+        throws IOException
+    {
+        try
+        {
+            switch (tagNo)
+            {
+            case BIT_STRING:
+                return ASN1BitString.createPrimitive(defIn.toSlice(sharedBuffer));
+            case INTEGER:
+                return ASN1Integer.createPrimitive(defIn.toSlice(sharedBuffer));
+            case OCTET_STRING:
+                return ASN1OctetString.createPrimitive(defIn.toSlice(sharedBuffer));
+            default:
+                return null;
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new ASN1Exception(e.getMessage(), e);
+        }
     }
 
     static int readTagNumber(InputStream s, int tag) 
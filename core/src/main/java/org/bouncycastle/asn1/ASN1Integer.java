@@ -2,6 +2,7 @@
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Properties;
@@ -23,8 +24,13 @@ ASN1Primitive fromImplicitPrimitive(DEROctetString octetString)
     static final int SIGN_EXT_SIGNED = 0xFFFFFFFF;
     static final int SIGN_EXT_UNSIGNED = 0xFF;
 
-    private final byte[] bytes;
+    /*
+     * When decoded from a shared buffer (see ASN1InputStream(ByteBuffer, boolean)), 'slice' holds the contents,
+     * and 'bytes' is only filled in (under the object's lock) if the value is actually asked for.
+     */
+    private byte[] bytes;
     private final int start;
+    private final ByteBuffer slice;
 
     /**
      * Return an integer from the passed in object.
@@ -80,6 +86,7 @@ public ASN1Integer(long value)
     {
         this.bytes = BigInteger.valueOf(value).toByteArray();
         this.start = 0;
+        this.slice = null;
     }
 
     /**
@@ -91,6 +98,7 @@ public ASN1Integer(BigInteger value)
     {
         this.bytes = value.toByteArray();
         this.start = 0;
+        this.slice = null;
     }
 
     /**
@@ -129,6 +137,26 @@ public ASN1Integer(byte[] bytes)
 
         this.bytes = clone ? Arrays.clone(bytes) : bytes;
         this.start = signBytesToSkip(bytes); 
+        this.slice = null;
+    }
+
+    ASN1Integer(ByteBuffer slice)
+    {
+        int length = slice.limit();
+        if (length < 2 ? length < 1 : isMalformed(slice.get(0), slice.get(1)))
+        {
+            throw new IllegalArgumentException("malformed integer");
+        }
+
+        int pos = 0, last = length - 1;
+        while (pos < last
+            && slice.get(pos) == (slice.get(pos + 1) >> 7))
+        {
+            ++pos;
+        }
+
+        this.start = pos;
+        this.slice = slice;
     }
 
     /**
@@ -139,37 +167,38 @@ public ASN1Integer(byte[] bytes)
      */
     public BigInteger getPositiveValue()
     {
-        return new BigInteger(1, bytes);
+        return new BigInteger(1, getBytes());
     }
 
     public BigInteger getValue()
     {
-        return new BigInteger(bytes);
+        return new BigInteger(getBytes());
     }
 
     public boolean hasValue(int x)
     {
-        return (bytes.length - start) <= 4
-            && intValue(bytes, start, SIGN_EXT_SIGNED) == x;
+        return (getLength() - start) <= 4
+            && intValue(getBytes(), start, SIGN_EXT_SIGNED) == x;
     }
 
     public boolean hasValue(long x)
     {
-        return (bytes.length - start) <= 8
-            && longValue(bytes, start, SIGN_EXT_SIGNED) == x;
+        return (getLength() - start) <= 8
+            && longValue(getBytes(), start, SIGN_EXT_SIGNED) == x;
     }
 
     public boolean hasValue(BigInteger x)
     {
         return null != x
             // Fast check to avoid allocation
-            && intValue(bytes, start, SIGN_EXT_SIGNED) == x.intValue()
+            && intValue(getBytes(), start, SIGN_EXT_SIGNED) == x.intValue()
             && getValue().equals(x);
     }
 
     public int intPositiveValueExact()
     {
-        int count = bytes.length - start;
+        int count = getLength() - start;
+        byte[] bytes = getBytes();
         if (count > 4 || (count == 4 && 0 != (bytes[start] & 0x80)))
         {
             throw new ArithmeticException("ASN.1 Integer out of positive int range");
@@ -180,24 +209,24 @@ public int intPositiveValueExact()
 
     public int intValueExact()
     {
-        int count = bytes.length - start;
+        int count = getLength() - start;
         if (count > 4)
         {
             throw new ArithmeticException("ASN.1 Integer out of int range");
         }
 
-        return intValue(bytes, start, SIGN_EXT_SIGNED); 
+        return intValue(getBytes(), start, SIGN_EXT_SIGNED); 
     }
 
     public long longValueExact()
     {
-        int count = bytes.length - start;
+        int count = getLength() - start;
         if (count > 8)
         {
             throw new ArithmeticException("ASN.1 Integer out of long range");
         }
 
-        return longValue(bytes, start, SIGN_EXT_SIGNED);
+        return longValue(getBytes(), start, SIGN_EXT_SIGNED);
     }
 
     boolean encodeConstructed()
@@ -207,16 +236,27 @@ boolean encodeConstructed()
 
     int encodedLength(boolean withTag)
     {
-        return ASN1OutputStream.getLengthOfEncodingDL(withTag, bytes.length);
+        return ASN1OutputStream.getLengthOfEncodingDL(withTag, getLength());
     }
 
     void encode(ASN1OutputStream out, boolean withTag) throws IOException
     {
+        if (null != slice)
+        {
+            out.writeEncodingDL(withTag, BERTags.INTEGER, slice);
+            return;
+        }
+
         out.writeEncodingDL(withTag, BERTags.INTEGER, bytes);
     }
 
     public int hashCode()
     {
+        if (null != slice)
+        {
+            return SharedBufferInputStream.hashCode(slice, 0, slice.limit());
+        }
+
         return Arrays.hashCode(bytes);
     }
 
@@ -229,7 +269,12 @@ boolean asn1Equals(ASN1Primitive o)
 
         ASN1Integer other = (ASN1Integer)o;
 
-        return Arrays.areEqual(this.bytes, other.bytes);
+        if (null != this.slice && null != other.slice)
+        {
+            return this.slice.equals(other.slice);
+        }
+
+        return Arrays.areEqual(this.getBytes(), other.getBytes());
     }
 
     public String toString()
@@ -237,11 +282,38 @@ public String toString()
         return getValue().toString();
     }
 
+    private int getLength()
+    {
+        return null != slice ? slice.limit() : bytes.length;
+    }
+
+    private byte[] getBytes()
+    {
+        if (null == slice)
+        {
+            return bytes;
+        }
+
+        synchronized (this)
+        {
+            if (null == bytes)
+            {
+                bytes = SharedBufferInputStream.toByteArray(slice, 0);
+            }
+            return bytes;
+        }
+    }
+
     static ASN1Integer createPrimitive(byte[] contents)
     {
         return new ASN1Integer(contents, false);
     }
 
+    static ASN1Integer createPrimitive(ByteBuffer contents)
+    {
+        return new ASN1Integer(contents);
+    }
+
     static int intValue(byte[] bytes, int start, int signExt)
     {
         int length = bytes.length;
@@ -283,12 +355,17 @@ static boolean isMalformed(byte[] bytes)
         case 1:
             return false;
         default:
-            return bytes[0] == (bytes[1] >> 7)
-                // Apply loose validation, see note in public constructor ASN1Integer(byte[])
-                && !Properties.isOverrideSet("org.bouncycastle.asn1.allow_unsafe_integer");
+            return isMalformed(bytes[0], bytes[1]);
         }
     }
 
+    private static boolean isMalformed(byte first, byte second)
+    {
+        return first == (second >> 7)
+            // Apply loose validation, see note in public constructor ASN1Integer(byte[])
+            && !Properties.isOverrideSet("org.bouncycastle.asn1.allow_unsafe_integer");
+    }
+
     static int signBytesToSkip(byte[] bytes)
     {
         int pos = 0, last = bytes.length - 1;
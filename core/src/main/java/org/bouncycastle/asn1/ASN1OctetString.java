@@ -3,6 +3,7 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Strings;
@@ -165,7 +166,12 @@ else if (obj instanceof byte[])
 
     static final byte[] EMPTY_OCTETS = new byte[0];
 
+    /*
+     * When decoded from a shared buffer (see ASN1InputStream(ByteBuffer, boolean)), 'slice' holds the contents,
+     * and 'string' is only filled in (under the object's lock) if the octets are actually asked for.
+     */
     byte[] string;
+    final ByteBuffer slice;
 
     /**
      * Base constructor.
@@ -180,6 +186,12 @@ public ASN1OctetString(
             throw new NullPointerException("'string' cannot be null");
         }
         this.string = string;
+        this.slice = null;
+    }
+
+    ASN1OctetString(ByteBuffer slice)
+    {
+        this.slice = slice;
     }
 
     /**
@@ -189,6 +201,11 @@ public ASN1OctetString(
      */
     public InputStream getOctetStream()
     {
+        if (null != slice)
+        {
+            return SharedBufferInputStream.toInputStream(slice, 0);
+        }
+
         return new ByteArrayInputStream(string);
     }
 
@@ -209,16 +226,26 @@ public ASN1OctetStringParser parser()
      */
     public byte[] getOctets()
     {
-        return string;
+        return getContents();
     }
 
     public int getOctetsLength()
     {
+        if (null != slice)
+        {
+            return slice.limit();
+        }
+
         return getOctets().length;
     }
 
     public int hashCode()
     {
+        if (null != slice)
+        {
+            return SharedBufferInputStream.hashCode(slice, 0, slice.limit());
+        }
+
         return Arrays.hashCode(this.getOctets());
     }
 
@@ -232,7 +259,12 @@ boolean asn1Equals(
 
         ASN1OctetString  other = (ASN1OctetString)o;
 
-        return Arrays.areEqual(string, other.string);
+        if (null != slice && null != other.slice)
+        {
+            return slice.equals(other.slice);
+        }
+
+        return Arrays.areEqual(getContents(), other.getContents());
     }
 
     public ASN1Primitive getLoadedObject()
@@ -242,21 +274,43 @@ public ASN1Primitive getLoadedObject()
 
     ASN1Primitive toDERObject()
     {
-        return new DEROctetString(string);
+        return new DEROctetString(getContents());
     }
 
     ASN1Primitive toDLObject()
     {
-        return new DEROctetString(string);
+        return new DEROctetString(getContents());
     }
 
     public String toString()
     {
-      return "#" + Strings.fromByteArray(Hex.encode(string));
+      return "#" + Strings.fromByteArray(Hex.encode(getContents()));
+    }
+
+    byte[] getContents()
+    {
+        if (null == slice)
+        {
+            return string;
+        }
+
+        synchronized (this)
+        {
+            if (null == string)
+            {
+                string = SharedBufferInputStream.toByteArray(slice, 0);
+            }
+            return string;
+        }
     }
 
     static ASN1OctetString createPrimitive(byte[] contents)
     {
         return new DEROctetString(contents);
     }
+
+    static ASN1OctetString createPrimitive(ByteBuffer contents)
+    {
+        return new DEROctetString(contents);
+    }
 }
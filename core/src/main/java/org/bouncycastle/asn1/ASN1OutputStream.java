@@ -2,6 +2,7 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Stream that produces output based on the default encoding for the passed in objects.
@@ -118,6 +119,27 @@ final void write(byte[] bytes, int off, int len) throws IOException
         os.write(bytes, off, len);
     }
 
+    final void write(ByteBuffer slice, int off, int len) throws IOException
+    {
+        if (slice.hasArray())
+        {
+            os.write(slice.array(), slice.arrayOffset() + off, len);
+            return;
+        }
+
+        ByteBuffer dup = slice.duplicate();
+        dup.position(off);
+
+        byte[] buf = new byte[Math.min(len, 4096)];
+        while (len > 0)
+        {
+            int count = Math.min(len, buf.length);
+            dup.get(buf, 0, count);
+            os.write(buf, 0, count);
+            len -= count;
+        }
+    }
+
     void writeElements(ASN1Encodable[] elements)
         throws IOException
     {
@@ -167,6 +189,23 @@ final void writeEncodingDL(boolean withID, int identifier, byte[] contents, int
         write(contentsSuffix);
     }
 
+    final void writeEncodingDL(boolean withID, int identifier, ByteBuffer contents) throws IOException
+    {
+        int contentsLen = contents.limit();
+        writeIdentifier(withID, identifier);
+        writeDL(contentsLen);
+        write(contents, 0, contentsLen);
+    }
+
+    final void writeEncodingDL(boolean withID, int identifier, ByteBuffer contents, int contentsLen,
+        byte contentsSuffix) throws IOException
+    {
+        writeIdentifier(withID, identifier);
+        writeDL(contentsLen + 1);
+        write(contents, 0, contentsLen);
+        write(contentsSuffix);
+    }
+
     final void writeEncodingDL(boolean withID, int flags, int tag, byte[] contents) throws IOException
     {
         writeIdentifier(withID, flags, tag);
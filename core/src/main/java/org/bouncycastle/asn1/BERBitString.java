@@ -22,13 +22,13 @@ static byte[] flattenBitStrings(ASN1BitString[] bitStrings)
             // No bits
             return new byte[]{ 0 };
         case 1:
-            return bitStrings[0].contents;
+            return bitStrings[0].getContents();
         default:
         {
             int last = count - 1, totalLength = 0;
             for (int i = 0; i < last; ++i)
             {
-                byte[] elementContents = bitStrings[i].contents;
+                byte[] elementContents = bitStrings[i].getContents();
                 if (elementContents[0] != 0)
                 {
                     throw new IllegalArgumentException("only the last nested bitstring can have padding");
@@ -38,7 +38,7 @@ static byte[] flattenBitStrings(ASN1BitString[] bitStrings)
             }
 
             // Last one can have padding
-            byte[] lastElementContents = bitStrings[last].contents;
+            byte[] lastElementContents = bitStrings[last].getContents();
             byte padBits = lastElementContents[0];
             totalLength += lastElementContents.length;
 
@@ -48,7 +48,7 @@ static byte[] flattenBitStrings(ASN1BitString[] bitStrings)
             int pos = 1;
             for (int i = 0; i < count; ++i)
             {
-                byte[] elementContents = bitStrings[i].contents;
+                byte[] elementContents = bitStrings[i].getContents();
                 int length = elementContents.length - 1;
                 System.arraycopy(elementContents, 1, contents, pos, length);
                 pos += length;
@@ -35,19 +35,19 @@ static byte[] flattenOctetStrings(ASN1OctetString[] octetStrings)
         case 0:
             return EMPTY_OCTETS;
         case 1:
-            return octetStrings[0].string;
+            return octetStrings[0].getContents();
         default:
         {
             int totalOctets = 0;
             for (int i = 0; i < count; ++i)
             {
-                totalOctets += octetStrings[i].string.length;
+                totalOctets += octetStrings[i].getContents().length;
             }
 
             byte[] string = new byte[totalOctets];
             for (int i = 0, pos = 0; i < count; ++i)
             {
-                byte[] octets = octetStrings[i].string;
+                byte[] octets = octetStrings[i].getContents();
                 System.arraycopy(octets, 0, string, pos, octets.length);
                 pos += octets.length;
             }
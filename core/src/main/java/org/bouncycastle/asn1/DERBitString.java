@@ -1,6 +1,7 @@
 package org.bouncycastle.asn1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A BIT STRING with DER encoding - the first byte contains the count of padding bits included in the byte array's last byte.
@@ -45,6 +46,11 @@ public DERBitString(ASN1Encodable obj) throws IOException
         super(contents, check);
     }
 
+    DERBitString(ByteBuffer slice)
+    {
+        super(slice);
+    }
+
     boolean encodeConstructed()
     {
         return false;
@@ -52,11 +58,18 @@ boolean encodeConstructed()
 
     int encodedLength(boolean withTag)
     {
-        return ASN1OutputStream.getLengthOfEncodingDL(withTag, contents.length);
+        int length = null != slice ? slice.limit() : contents.length;
+        return ASN1OutputStream.getLengthOfEncodingDL(withTag, length);
     }
 
     void encode(ASN1OutputStream out, boolean withTag) throws IOException
     {
+        if (null != slice)
+        {
+            encode(out, withTag, slice);
+            return;
+        }
+
         int padBits = contents[0] & 0xFF;
         int length = contents.length;
         int last = length - 1;
@@ -79,6 +92,25 @@ ASN1Primitive toDERObject()
         return this;
     }
 
+    private static void encode(ASN1OutputStream out, boolean withTag, ByteBuffer contents) throws IOException
+    {
+        int padBits = contents.get(0) & 0xFF;
+        int length = contents.limit();
+        int last = length - 1;
+
+        byte lastOctet = contents.get(last);
+        byte lastOctetDER = (byte)(lastOctet & (0xFF << padBits));
+
+        if (lastOctet == lastOctetDER)
+        {
+            out.writeEncodingDL(withTag, BERTags.BIT_STRING, contents);
+        }
+        else
+        {
+            out.writeEncodingDL(withTag, BERTags.BIT_STRING, contents, last, lastOctetDER);
+        }
+    }
+
     ASN1Primitive toDLObject()
     {
         return this;
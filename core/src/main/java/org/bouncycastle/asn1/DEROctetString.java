@@ -1,6 +1,7 @@
 package org.bouncycastle.asn1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Carrier class for a DER encoding OCTET STRING
@@ -31,6 +32,11 @@ public DEROctetString(
         super(obj.toASN1Primitive().getEncoded(ASN1Encoding.DER));
     }
 
+    DEROctetString(ByteBuffer slice)
+    {
+        super(slice);
+    }
+
     boolean encodeConstructed()
     {
         return false;
@@ -38,11 +44,18 @@ boolean encodeConstructed()
 
     int encodedLength(boolean withTag)
     {
-        return ASN1OutputStream.getLengthOfEncodingDL(withTag, string.length);
+        int length = null != slice ? slice.limit() : string.length;
+        return ASN1OutputStream.getLengthOfEncodingDL(withTag, length);
     }
 
     void encode(ASN1OutputStream out, boolean withTag) throws IOException
     {
+        if (null != slice)
+        {
+            out.writeEncodingDL(withTag, BERTags.OCTET_STRING, slice);
+            return;
+        }
+
         out.writeEncodingDL(withTag, BERTags.OCTET_STRING, string);
     }
 
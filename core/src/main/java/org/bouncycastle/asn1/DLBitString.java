@@ -1,6 +1,7 @@
 package org.bouncycastle.asn1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A Definite length BIT STRING
@@ -40,6 +41,11 @@ public DLBitString(ASN1Encodable obj) throws IOException
         super(contents, check);
     }
 
+    DLBitString(ByteBuffer slice)
+    {
+        super(slice);
+    }
+
     boolean encodeConstructed()
     {
         return false;
@@ -47,11 +53,18 @@ boolean encodeConstructed()
 
     int encodedLength(boolean withTag)
     {
-        return ASN1OutputStream.getLengthOfEncodingDL(withTag, contents.length);
+        int length = null != slice ? slice.limit() : contents.length;
+        return ASN1OutputStream.getLengthOfEncodingDL(withTag, length);
     }
 
     void encode(ASN1OutputStream out, boolean withTag) throws IOException
     {
+        if (null != slice)
+        {
+            out.writeEncodingDL(withTag, BERTags.BIT_STRING, slice);
+            return;
+        }
+
         out.writeEncodingDL(withTag, BERTags.BIT_STRING, contents);
     }
 
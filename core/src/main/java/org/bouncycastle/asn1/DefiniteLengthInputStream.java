@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.util.io.Streams;
 
@@ -91,6 +92,31 @@ public int read(byte[] buf, int off, int len)
         return numRead;
     }
 
+    public long skip(long n)
+        throws IOException
+    {
+        if (n <= 0 || _remaining == 0)
+        {
+            return 0;
+        }
+
+        int toSkip = (int)Math.min(n, (long)_remaining);
+        long numSkipped = _in.skip(toSkip);
+
+        if (numSkipped <= 0)
+        {
+            // Let read() detect truncation
+            return read() < 0 ? 0 : 1;
+        }
+
+        if ((_remaining -= (int)numSkipped) == 0)
+        {
+            setParentEofDetect(true);
+        }
+
+        return numSkipped;
+    }
+
     void readAllIntoByteArray(byte[] buf)
         throws IOException
     {
@@ -141,4 +167,31 @@ byte[] toByteArray()
         setParentEofDetect(true);
         return bytes;
     }
+
+    /**
+     * Return the remaining contents as a slice of the shared buffer at the root of this stream, consuming
+     * them (from every stream in between) without copying.
+     */
+    ByteBuffer toSlice(SharedBufferInputStream sharedBuffer)
+        throws IOException
+    {
+        // make sure it's safe to do this!
+        int limit = getLimit();
+        if (_remaining >= limit)
+        {
+            throw new IOException("corrupted stream - out of bounds length found: " + _remaining + " >= " + limit);
+        }
+
+        ByteBuffer slice = sharedBuffer.slice(_remaining);
+
+        while (_remaining > 0)
+        {
+            if (skip(_remaining) <= 0)
+            {
+                throw new EOFException("DEF length " + _originalLength + " object truncated by " + _remaining);
+            }
+        }
+        setParentEofDetect(true);
+        return slice;
+    }
 }
@@ -1,6 +1,7 @@
 package org.bouncycastle.asn1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Enumeration;
 import java.util.NoSuchElementException;
 
@@ -16,6 +17,12 @@ public LazyConstructionEnumeration(byte[] encoded)
         nextObj = readObject();
     }
 
+    public LazyConstructionEnumeration(ByteBuffer encoded)
+    {
+        aIn = new ASN1InputStream(encoded, true);
+        nextObj = readObject();
+    }
+
     public boolean hasMoreElements()
     {
         return nextObj != null;
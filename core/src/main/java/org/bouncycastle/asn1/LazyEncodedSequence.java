@@ -1,6 +1,7 @@
 package org.bouncycastle.asn1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Enumeration;
 import java.util.Iterator;
 
@@ -11,6 +12,7 @@
     extends ASN1Sequence
 {
     private byte[] encoded;
+    private ByteBuffer slice;
 
     LazyEncodedSequence(byte[] encoded) throws IOException
     {
@@ -25,6 +27,23 @@
         this.encoded = encoded;
     }
 
+    /**
+     * Sequence whose contents are a slice of a shared buffer; the elements will also be decoded in
+     * shared buffer mode.
+     */
+    LazyEncodedSequence(ByteBuffer slice) throws IOException
+    {
+        // NOTE: Initially, the actual 'elements' will be empty
+        super();
+
+        if (null == slice)
+        {
+            throw new NullPointerException("'slice' cannot be null");
+        }
+
+        this.slice = slice;
+    }
+
     public ASN1Encodable getObjectAt(int index)
     {
         force();
@@ -40,6 +59,12 @@ public Enumeration getObjects()
             return new LazyConstructionEnumeration(encoded);
         }
 
+        ByteBuffer slice = getSlice();
+        if (null != slice)
+        {
+            return new LazyConstructionEnumeration(slice);
+        }
+
         return super.getObjects();
     }
 
@@ -87,6 +112,12 @@ int encodedLength(boolean withTag)
             return ASN1OutputStream.getLengthOfEncodingDL(withTag, encoded.length);
         }
 
+        ByteBuffer slice = getSlice();
+        if (null != slice)
+        {
+            return ASN1OutputStream.getLengthOfEncodingDL(withTag, slice.limit());
+        }
+
         return super.toDLObject().encodedLength(withTag);
     }
 
@@ -99,6 +130,13 @@ void encode(ASN1OutputStream out, boolean withTag) throws IOException
             return;
         }
 
+        ByteBuffer slice = getSlice();
+        if (null != slice)
+        {
+            out.writeEncodingDL(withTag, BERTags.CONSTRUCTED | BERTags.SEQUENCE, slice);
+            return;
+        }
+
         super.toDLObject().encode(out, withTag);
     }
 
@@ -138,9 +176,11 @@ ASN1Primitive toDLObject()
 
     private synchronized void force()
     {
-        if (null != encoded)
+        if (null != encoded || null != slice)
         {
-            ASN1InputStream aIn = new ASN1InputStream(encoded, true);
+            ASN1InputStream aIn = null != slice
+                ? new ASN1InputStream(slice, true)
+                : new ASN1InputStream(encoded, true);
             try
             {
                 ASN1EncodableVector v = aIn.readVector();
@@ -148,6 +188,7 @@ private synchronized void force()
 
                 this.elements = v.takeElements();
                 this.encoded = null;
+                this.slice = null;
             }
             catch (IOException e)
             {
@@ -160,4 +201,9 @@ private synchronized byte[] getContents()
     {
         return encoded;
     }
+
+    private synchronized ByteBuffer getSlice()
+    {
+        return slice;
+    }
 }
@@ -0,0 +1,124 @@
+package org.bouncycastle.asn1;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Internal use stream over a ByteBuffer, from which the contents of decoded objects can be taken as slices
+ * (sharing the buffer's storage) rather than copied.
+ * <p>
+ * Slices always have position 0 and limit equal to their length, and are only ever accessed with absolute
+ * get operations, so they may be shared freely.
+ * </p>
+ */
+class SharedBufferInputStream
+    extends InputStream
+{
+    /**
+     * Contents shorter than this are copied as usual; a slice costs about as much as a small copy.
+     */
+    static final int MIN_SLICE_LENGTH = 32;
+
+    private final ByteBuffer buf;
+
+    SharedBufferInputStream(ByteBuffer buf)
+    {
+        this.buf = buf.slice();
+    }
+
+    public int available()
+    {
+        return buf.remaining();
+    }
+
+    public int read()
+    {
+        return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+    }
+
+    public int read(byte[] b, int off, int len)
+    {
+        if (len < 1)
+        {
+            return 0;
+        }
+        if (!buf.hasRemaining())
+        {
+            return -1;
+        }
+
+        int count = Math.min(len, buf.remaining());
+        buf.get(b, off, count);
+        return count;
+    }
+
+    public long skip(long n)
+    {
+        int count = (int)Math.max(0L, Math.min(n, (long)buf.remaining()));
+        buf.position(buf.position() + count);
+        return count;
+    }
+
+    /**
+     * Return a slice of the next length bytes, without consuming them.
+     */
+    ByteBuffer slice(int length)
+        throws EOFException
+    {
+        if (length > buf.remaining())
+        {
+            throw new EOFException("EOF encountered in middle of object");
+        }
+
+        ByteBuffer slice = buf.duplicate();
+        slice.limit(slice.position() + length);
+        return slice.slice();
+    }
+
+    static byte[] toByteArray(ByteBuffer slice, int off)
+    {
+        byte[] bytes = new byte[slice.limit() - off];
+        if (slice.hasArray())
+        {
+            System.arraycopy(slice.array(), slice.arrayOffset() + off, bytes, 0, bytes.length);
+        }
+        else
+        {
+            ByteBuffer dup = slice.duplicate();
+            dup.position(off);
+            dup.get(bytes);
+        }
+        return bytes;
+    }
+
+    static InputStream toInputStream(ByteBuffer slice, int off)
+    {
+        if (slice.hasArray())
+        {
+            return new ByteArrayInputStream(slice.array(), slice.arrayOffset() + off, slice.limit() - off);
+        }
+
+        ByteBuffer dup = slice.duplicate();
+        dup.position(off);
+        return new SharedBufferInputStream(dup);
+    }
+
+    /**
+     * Same result as {@link org.bouncycastle.util.Arrays#hashCode(byte[], int, int)} over the slice contents.
+     */
+    static int hashCode(ByteBuffer slice, int off, int len)
+    {
+        int i = len;
+        int hc = i + 1;
+
+        while (--i >= 0)
+        {
+            hc *= 257;
+            hc ^= slice.get(off + i);
+        }
+
+        return hc;
+    }
+}
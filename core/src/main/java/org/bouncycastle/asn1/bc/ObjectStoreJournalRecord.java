@@ -0,0 +1,86 @@
+package org.bouncycastle.asn1.bc;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A record appended to an ObjectStore, carrying an encrypted ObjectStoreUpdate. The MAC covers the
+ * MAC of the record (or store) before it, so records can only be applied in the order written.
+ * <pre>
+ * ObjectStoreJournalRecord ::= SEQUENCE {
+ *     sequenceNumber INTEGER,
+ *     encryptedUpdate EncryptedObjectStoreData,
+ *     mac OCTET STRING
+ * }
+ * </pre>
+ */
+public class ObjectStoreJournalRecord
+    extends ASN1Object
+{
+    private final BigInteger sequenceNumber;
+    private final EncryptedObjectStoreData encryptedUpdate;
+    private final ASN1OctetString mac;
+
+    public ObjectStoreJournalRecord(BigInteger sequenceNumber, EncryptedObjectStoreData encryptedUpdate, byte[] mac)
+    {
+        this.sequenceNumber = sequenceNumber;
+        this.encryptedUpdate = encryptedUpdate;
+        this.mac = new DEROctetString(Arrays.clone(mac));
+    }
+
+    private ObjectStoreJournalRecord(ASN1Sequence seq)
+    {
+        this.sequenceNumber = ASN1Integer.getInstance(seq.getObjectAt(0)).getValue();
+        this.encryptedUpdate = EncryptedObjectStoreData.getInstance(seq.getObjectAt(1));
+        this.mac = ASN1OctetString.getInstance(seq.getObjectAt(2));
+    }
+
+    public static ObjectStoreJournalRecord getInstance(Object o)
+    {
+        if (o instanceof ObjectStoreJournalRecord)
+        {
+            return (ObjectStoreJournalRecord)o;
+        }
+        else if (o != null)
+        {
+            return new ObjectStoreJournalRecord(ASN1Sequence.getInstance(o));
+        }
+
+        return null;
+    }
+
+    public BigInteger getSequenceNumber()
+    {
+        return sequenceNumber;
+    }
+
+    public EncryptedObjectStoreData getEncryptedUpdate()
+    {
+        return encryptedUpdate;
+    }
+
+    public byte[] getMac()
+    {
+        return Arrays.clone(mac.getOctets());
+    }
+
+    public ASN1Primitive toASN1Primitive()
+    {
+        ASN1EncodableVector v = new ASN1EncodableVector(3);
+
+        v.add(new ASN1Integer(sequenceNumber));
+        v.add(encryptedUpdate);
+        v.add(mac);
+
+        return new DERSequence(v);
+    }
+}
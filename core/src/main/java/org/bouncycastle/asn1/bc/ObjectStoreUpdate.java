@@ -0,0 +1,96 @@
+package org.bouncycastle.asn1.bc;
+
+import java.util.Date;
+
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1GeneralizedTime;
+import org.bouncycastle.asn1.ASN1Object;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.ASN1UTF8String;
+import org.bouncycastle.asn1.DERGeneralizedTime;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERUTF8String;
+
+/**
+ * <pre>
+ * ObjectStoreUpdate ::= SEQUENCE {
+ *     lastModifiedDate GeneralizedTime,
+ *     updatedObjects ObjectDataSequence,
+ *     deletedObjects SEQUENCE OF UTF8String
+ * }
+ * </pre>
+ */
+public class ObjectStoreUpdate
+    extends ASN1Object
+{
+    private final ASN1GeneralizedTime lastModifiedDate;
+    private final ObjectDataSequence updatedObjects;
+    private final String[] deletedObjects;
+
+    public ObjectStoreUpdate(Date lastModifiedDate, ObjectDataSequence updatedObjects, String[] deletedObjects)
+    {
+        this.lastModifiedDate = new DERGeneralizedTime(lastModifiedDate);
+        this.updatedObjects = updatedObjects;
+        this.deletedObjects = (String[])deletedObjects.clone();
+    }
+
+    private ObjectStoreUpdate(ASN1Sequence seq)
+    {
+        this.lastModifiedDate = ASN1GeneralizedTime.getInstance(seq.getObjectAt(0));
+        this.updatedObjects = ObjectDataSequence.getInstance(seq.getObjectAt(1));
+
+        ASN1Sequence deleted = ASN1Sequence.getInstance(seq.getObjectAt(2));
+        this.deletedObjects = new String[deleted.size()];
+        for (int i = 0; i != deletedObjects.length; i++)
+        {
+            deletedObjects[i] = ASN1UTF8String.getInstance(deleted.getObjectAt(i)).getString();
+        }
+    }
+
+    public static ObjectStoreUpdate getInstance(Object o)
+    {
+        if (o instanceof ObjectStoreUpdate)
+        {
+            return (ObjectStoreUpdate)o;
+        }
+        else if (o != null)
+        {
+            return new ObjectStoreUpdate(ASN1Sequence.getInstance(o));
+        }
+
+        return null;
+    }
+
+    public ASN1GeneralizedTime getLastModifiedDate()
+    {
+        return lastModifiedDate;
+    }
+
+    public ObjectDataSequence getUpdatedObjects()
+    {
+        return updatedObjects;
+    }
+
+    public String[] getDeletedObjects()
+    {
+        return (String[])deletedObjects.clone();
+    }
+
+    public ASN1Primitive toASN1Primitive()
+    {
+        ASN1EncodableVector deleted = new ASN1EncodableVector(deletedObjects.length);
+        for (int i = 0; i != deletedObjects.length; i++)
+        {
+            deleted.add(new DERUTF8String(deletedObjects[i]));
+        }
+
+        ASN1EncodableVector v = new ASN1EncodableVector(3);
+
+        v.add(lastModifiedDate);
+        v.add(updatedObjects);
+        v.add(new DERSequence(deleted));
+
+        return new DERSequence(v);
+    }
+}
@@ -0,0 +1,26 @@
+package org.bouncycastle.crypto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A stream cipher that can also process data held in {@link ByteBuffer}s, including direct buffers,
+ * without the caller having to copy it into a byte array first.
+ */
+public interface ByteBufferStreamCipher
+    extends StreamCipher
+{
+    /**
+     * Process all the bytes remaining in the input buffer, putting the result into the output buffer.
+     * <p>
+     * On return the position of in will have been advanced to its limit, and the position of out
+     * advanced by the number of bytes written. The two buffers must not overlap, unless they share the
+     * same starting position.
+     *
+     * @param in the buffer containing the input data.
+     * @param out the buffer the output data goes into.
+     * @return the number of bytes written to out.
+     * @throws OutputLengthException if there is insufficient space remaining in out.
+     */
+    int processBytes(ByteBuffer in, ByteBuffer out)
+        throws DataLengthException;
+}
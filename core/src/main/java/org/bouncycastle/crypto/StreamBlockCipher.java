@@ -1,15 +1,23 @@
 package org.bouncycastle.crypto;
 
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.util.Arrays;
+
 /**
  * A parent class for block cipher modes that do not require block aligned data to be processed, but can function in
  * a streaming mode.
  */
 public abstract class StreamBlockCipher
     extends DefaultMultiBlockCipher
-    implements StreamCipher
+    implements ByteBufferStreamCipher
 {
+    private static final int CHUNK_SIZE = 4096;
+
     private final BlockCipher cipher;
 
+    private byte[] chunk;
+
     protected StreamBlockCipher(BlockCipher cipher)
     {
         this.cipher = cipher;
@@ -54,5 +62,45 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
         return len;
     }
 
+    public int processBytes(ByteBuffer in, ByteBuffer out)
+        throws DataLengthException
+    {
+        int len = in.remaining();
+        if (out.remaining() < len)
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        if (in.hasArray() && out.hasArray())
+        {
+            processBytes(in.array(), in.arrayOffset() + in.position(), len, out.array(), out.arrayOffset() + out.position());
+            in.position(in.limit());
+            out.position(out.position() + len);
+            return len;
+        }
+
+        if (chunk == null)
+        {
+            chunk = new byte[CHUNK_SIZE];
+        }
+
+        try
+        {
+            while (in.hasRemaining())
+            {
+                int chunkLen = Math.min(in.remaining(), CHUNK_SIZE);
+                in.get(chunk, 0, chunkLen);
+                processBytes(chunk, 0, chunkLen, chunk, 0);
+                out.put(chunk, 0, chunkLen);
+            }
+        }
+        finally
+        {
+            Arrays.fill(chunk, (byte)0);
+        }
+
+        return len;
+    }
+
     protected abstract byte calculateByte(byte b);
 }
\ No newline at end of file
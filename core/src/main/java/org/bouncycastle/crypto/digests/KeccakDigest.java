@@ -328,8 +328,11 @@ private void KeccakExtract()
 
     private void KeccakPermutation()
     {
-        long[] A = state;
+        KeccakPermutation(state);
+    }
 
+    static void KeccakPermutation(long[] A)
+    {
         long a00 = A[ 0], a01 = A[ 1], a02 = A[ 2], a03 = A[ 3], a04 = A[ 4];
         long a05 = A[ 5], a06 = A[ 6], a07 = A[ 7], a08 = A[ 8], a09 = A[ 9];
         long a10 = A[10], a11 = A[11], a12 = A[12], a13 = A[13], a14 = A[14];
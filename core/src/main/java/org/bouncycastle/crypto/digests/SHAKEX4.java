@@ -0,0 +1,176 @@
+package org.bouncycastle.crypto.digests;
+
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+
+/**
+ * Four independent SHAKE instances, or lanes, for algorithms which expand a seed into several
+ * separate XOF streams, such as the matrix expansion in Kyber and Dilithium. Input is absorbed lane
+ * by lane, and output is squeezed in whole blocks, either from all the lanes at once or from a single
+ * lane, with the output of each lane being the same as a SHAKEDigest given the same input.
+ * <p>
+ * Note: the lanes are held as separate states and permuted in turn. An interleaved layout, advancing
+ * all four lanes in a single pass, only pays off where the permutation can be vectorized, which is
+ * not the case for the JVMs we support.
+ * </p>
+ */
+public class SHAKEX4
+{
+    private static final int LANES = 4;
+
+    private final long[][] states = new long[LANES][25];
+    private final int[] positions = new int[LANES];
+    private final boolean[] squeezing = new boolean[LANES];
+    private final int bitLength;
+    private final int rate;
+
+    /**
+     * Base constructor.
+     *
+     * @param bitLength the security strength in bits of the XOF, 128 or 256.
+     */
+    public SHAKEX4(int bitLength)
+    {
+        switch (bitLength)
+        {
+        case 128:
+        case 256:
+            break;
+        default:
+            throw new IllegalArgumentException("'bitLength' " + bitLength + " not supported for SHAKE");
+        }
+
+        this.bitLength = bitLength;
+        this.rate = (1600 - (bitLength << 1)) >>> 3;
+    }
+
+    public String getAlgorithmName()
+    {
+        return "SHAKE" + bitLength + "x4";
+    }
+
+    /**
+     * Return the size of an output block in bytes.
+     *
+     * @return the rate of the sponge in bytes.
+     */
+    public int getBlockSize()
+    {
+        return rate;
+    }
+
+    /**
+     * Reset all the lanes, ready to absorb new input.
+     */
+    public void reset()
+    {
+        for (int lane = 0; lane != LANES; lane++)
+        {
+            Arrays.fill(states[lane], 0L);
+            positions[lane] = 0;
+            squeezing[lane] = false;
+        }
+    }
+
+    /**
+     * Absorb input into a lane.
+     *
+     * @param lane the lane to absorb into, 0 to 3.
+     * @param in the input.
+     * @param inOff offset of the start of the input.
+     * @param len length of the input.
+     */
+    public void update(int lane, byte[] in, int inOff, int len)
+    {
+        if (squeezing[lane])
+        {
+            throw new IllegalStateException("attempt to absorb while squeezing");
+        }
+
+        long[] state = states[lane];
+        int pos = positions[lane];
+
+        for (int i = 0; i < len; ++i)
+        {
+            state[pos >>> 3] ^= (long)(in[inOff + i] & 0xFF) << ((pos & 7) << 3);
+            if (++pos == rate)
+            {
+                KeccakDigest.KeccakPermutation(state);
+                pos = 0;
+            }
+        }
+
+        positions[lane] = pos;
+    }
+
+    /**
+     * Squeeze whole blocks of output from the lanes with a non-null output array, finishing the
+     * absorption of their input first if required.
+     *
+     * @param out0 output for lane 0, or null.
+     * @param out1 output for lane 1, or null.
+     * @param out2 output for lane 2, or null.
+     * @param out3 output for lane 3, or null.
+     * @param outOff offset into each output array to write the blocks at.
+     * @param blocks the number of blocks to squeeze from each lane.
+     */
+    public void squeezeBlocks(byte[] out0, byte[] out1, byte[] out2, byte[] out3, int outOff, int blocks)
+    {
+        for (int block = 0; block < blocks; ++block)
+        {
+            int off = outOff + block * rate;
+
+            if (out0 != null)
+            {
+                squeezeBlock(0, out0, off);
+            }
+            if (out1 != null)
+            {
+                squeezeBlock(1, out1, off);
+            }
+            if (out2 != null)
+            {
+                squeezeBlock(2, out2, off);
+            }
+            if (out3 != null)
+            {
+                squeezeBlock(3, out3, off);
+            }
+        }
+    }
+
+    /**
+     * Squeeze whole blocks of output from a single lane, finishing the absorption of its input
+     * first if required.
+     *
+     * @param lane the lane to squeeze, 0 to 3.
+     * @param out the output array.
+     * @param outOff offset into out to write the blocks at.
+     * @param blocks the number of blocks to squeeze.
+     */
+    public void squeezeBlocks(int lane, byte[] out, int outOff, int blocks)
+    {
+        for (int block = 0; block < blocks; ++block)
+        {
+            squeezeBlock(lane, out, outOff + block * rate);
+        }
+    }
+
+    private void squeezeBlock(int lane, byte[] out, int outOff)
+    {
+        long[] state = states[lane];
+
+        if (!squeezing[lane])
+        {
+            // SHAKE domain separation bits and the first bit of pad10*1, then the final bit
+            int pos = positions[lane];
+            state[pos >>> 3] ^= 0x1FL << ((pos & 7) << 3);
+            state[(rate - 1) >>> 3] ^= 1L << 63;
+            squeezing[lane] = true;
+        }
+
+        KeccakDigest.KeccakPermutation(state);
+
+        Pack.longToLittleEndian(state, 0, rate >>> 3, out, outOff);
+    }
+}
@@ -1,5 +1,13 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
 import org.bouncycastle.crypto.params.Argon2Parameters;
@@ -9,6 +17,11 @@
 
 /**
  * Argon2 PBKDF - Based on the results of https://password-hashing.net/ and https://www.ietf.org/archive/id/draft-irtf-cfrg-argon2-03.txt
+ * <p>
+ * If the generator is constructed with an Executor, and the parameters have more than one lane, the segments of
+ * each slice are filled concurrently, one task per lane, with the calling thread filling the first lane and waiting
+ * for the others before moving on to the next slice. The output is the same as from the single threaded generator.
+ * </p>
  */
 public class Argon2BytesGenerator
 {
@@ -41,8 +54,24 @@
     private int segmentLength;
     private int laneLength;
 
+    private final Executor executor;
+
+    /**
+     * Base constructor.
+     */
     public Argon2BytesGenerator()
     {
+        this(null);
+    }
+
+    /**
+     * Constructor for a generator which fills the lanes of each slice concurrently.
+     *
+     * @param executor the executor to run the lanes on, null to fill them on the calling thread.
+     */
+    public Argon2BytesGenerator(Executor executor)
+    {
+        this.executor = executor;
     }
 
     /**
@@ -156,6 +185,12 @@ private void initMemory(int memoryBlocks)
 
     private void fillMemoryBlocks()
     {
+        if (executor != null && parameters.getLanes() > 1)
+        {
+            fillMemoryBlocksConcurrently();
+            return;
+        }
+
         FillBlock filler = new FillBlock();
         Position position = new Position();
         for (int pass = 0; pass < parameters.getIterations(); ++pass)
@@ -176,6 +211,82 @@ private void fillMemoryBlocks()
         }
     }
 
+    private void fillMemoryBlocksConcurrently()
+    {
+        int lanes = parameters.getLanes();
+        FillBlock[] fillers = new FillBlock[lanes];
+        for (int lane = 0; lane < lanes; ++lane)
+        {
+            fillers[lane] = new FillBlock();
+        }
+
+        List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(lanes - 1);
+        for (int pass = 0; pass < parameters.getIterations(); ++pass)
+        {
+            for (int slice = 0; slice < ARGON2_SYNC_POINTS; ++slice)
+            {
+                // a segment only references its own lane and completed slices, so the lanes are independent.
+                tasks.clear();
+                for (int lane = 1; lane < lanes; ++lane)
+                {
+                    final FillBlock filler = fillers[lane];
+                    final Position position = new Position();
+                    position.pass = pass;
+                    position.slice = slice;
+                    position.lane = lane;
+
+                    FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>()
+                    {
+                        public Object call()
+                        {
+                            fillSegment(filler, position);
+                            return null;
+                        }
+                    });
+                    tasks.add(task);
+
+                    try
+                    {
+                        executor.execute(task);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        task.run();
+                    }
+                }
+
+                Position position = new Position();
+                position.pass = pass;
+                position.slice = slice;
+                position.lane = 0;
+
+                fillSegment(fillers[0], position);
+
+                for (int i = 0; i != tasks.size(); i++)
+                {
+                    try
+                    {
+                        tasks.get(i).get();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("interrupted filling memory");
+                    }
+                    catch (ExecutionException e)
+                    {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof RuntimeException)
+                        {
+                            throw (RuntimeException)cause;
+                        }
+                        throw new IllegalStateException("exception filling memory: " + cause.getMessage(), cause);
+                    }
+                }
+            }
+        }
+    }
+
     private void fillSegment(FillBlock filler, Position position)
     {
         Block addressBlock = null, inputBlock = null;
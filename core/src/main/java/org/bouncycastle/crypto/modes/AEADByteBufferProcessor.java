@@ -0,0 +1,266 @@
+package org.bouncycastle.crypto.modes;
+
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.OutputLengthException;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Implements the {@link ByteBufferAEADCipher} methods in terms of the byte[] based {@link AEADCipher} ones.
+ * <p>
+ * Buffers with an accessible backing array are processed directly on it. If the input and output share an
+ * array and overlap, the byte[] methods can't be used on them as they stand, as those may write output for
+ * previously buffered data ahead of the input they have read. Where the output starts after the input, the
+ * input is copied first. Otherwise, including processing in place, the input is moved through a scratch array
+ * a chunk at a time, each chunk being read before any of its output is written.
+ * <p>
+ * Direct and read-only buffers have no accessible array, so their data goes through the scratch array a chunk
+ * (at most 4096 bytes of input) at a time. When only one side is such a buffer, the cipher works straight on the
+ * other side's array, so each chunk is copied once: into the scratch array from the input, or out of it to the
+ * output. Only when neither side has an array is each chunk copied both in and out. The scratch array never
+ * grows past the chunk size plus the output a chunk can produce (which includes any input the cipher was holding
+ * back from earlier chunks), and is cleared when it is replaced and at the end of each call.
+ */
+class AEADByteBufferProcessor
+{
+    private static final int CHUNK_SIZE = 4096;
+
+    private final AEADCipher cipher;
+
+    private byte[] scratch;
+
+    AEADByteBufferProcessor(AEADCipher cipher)
+    {
+        this.cipher = cipher;
+    }
+
+    void processAADBytes(ByteBuffer in)
+    {
+        if (in.hasArray())
+        {
+            cipher.processAADBytes(in.array(), in.arrayOffset() + in.position(), in.remaining());
+            in.position(in.limit());
+            return;
+        }
+
+        byte[] buf = getScratch(CHUNK_SIZE);
+        try
+        {
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+                in.get(buf, 0, chunk);
+                cipher.processAADBytes(buf, 0, chunk);
+            }
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    int processBytes(ByteBuffer in, ByteBuffer out)
+    {
+        int len = in.remaining();
+        if (out.remaining() < cipher.getUpdateOutputSize(len))
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        if (in.hasArray() && out.hasArray())
+        {
+            byte[] inBuf = in.array();
+            int inOff = in.arrayOffset() + in.position();
+            byte[] outBuf = out.array();
+            int outOff = out.arrayOffset() + out.position();
+
+            int resultLen;
+            if (inBuf != outBuf || inOff >= outOff + out.remaining() || outOff >= inOff + len)
+            {
+                resultLen = cipher.processBytes(inBuf, inOff, len, outBuf, outOff);
+            }
+            else if (inOff < outOff)
+            {
+                byte[] input = new byte[len];
+                System.arraycopy(inBuf, inOff, input, 0, len);
+                resultLen = cipher.processBytes(input, 0, len, outBuf, outOff);
+            }
+            else
+            {
+                resultLen = processChunks(inBuf, inOff, len, outBuf, outOff);
+            }
+
+            in.position(in.limit());
+            out.position(out.position() + resultLen);
+            return resultLen;
+        }
+
+        if (out.hasArray())
+        {
+            int resultLen = processChunksFrom(in, out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + resultLen);
+            return resultLen;
+        }
+
+        if (in.hasArray())
+        {
+            int resultLen = processChunksTo(in.array(), in.arrayOffset() + in.position(), len, out);
+            in.position(in.limit());
+            return resultLen;
+        }
+
+        // input chunk, followed by the output it can produce (which may include previously buffered input)
+        byte[] buf = getScratch(CHUNK_SIZE);
+        try
+        {
+            int resultLen = 0;
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+                buf = growScratch(buf, CHUNK_SIZE + cipher.getUpdateOutputSize(chunk));
+                in.get(buf, 0, chunk);
+                int outLen = cipher.processBytes(buf, 0, chunk, buf, CHUNK_SIZE);
+                out.put(buf, CHUNK_SIZE, outLen);
+                resultLen += outLen;
+            }
+            return resultLen;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /*
+     * Only the input lacks an array (so can't share memory with the output): each chunk is copied in, and the
+     * cipher writes its output straight to the output array.
+     */
+    private int processChunksFrom(ByteBuffer in, byte[] out, int outOff)
+    {
+        byte[] buf = getScratch(CHUNK_SIZE);
+        try
+        {
+            int resultLen = 0;
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+                in.get(buf, 0, chunk);
+                resultLen += cipher.processBytes(buf, 0, chunk, out, outOff + resultLen);
+            }
+            return resultLen;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /*
+     * Only the output lacks an array: the cipher reads each chunk straight from the input array, and its output
+     * is copied out.
+     */
+    private int processChunksTo(byte[] in, int inOff, int len, ByteBuffer out)
+    {
+        byte[] buf = getScratch(CHUNK_SIZE);
+        try
+        {
+            int resultLen = 0;
+            while (len > 0)
+            {
+                int chunk = Math.min(len, CHUNK_SIZE);
+                buf = growScratch(buf, cipher.getUpdateOutputSize(chunk));
+                int outLen = cipher.processBytes(in, inOff, chunk, buf, 0);
+                out.put(buf, 0, outLen);
+                resultLen += outLen;
+                inOff += chunk;
+                len -= chunk;
+            }
+            return resultLen;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /*
+     * The output starts at or before the input in the same array. Output for a whole chunk never runs past the
+     * end of the chunk (CHUNK_SIZE is a multiple of the ciphers' block sizes, so the data they hold back is the
+     * same before and after it), so each chunk can be written straight to the output once it has been read.
+     */
+    private int processChunks(byte[] buf, int inOff, int len, byte[] out, int outOff)
+    {
+        byte[] chunkBuf = getScratch(CHUNK_SIZE);
+        try
+        {
+            int resultLen = 0;
+            while (len > 0)
+            {
+                int chunk = Math.min(len, CHUNK_SIZE);
+                System.arraycopy(buf, inOff, chunkBuf, 0, chunk);
+                resultLen += cipher.processBytes(chunkBuf, 0, chunk, out, outOff + resultLen);
+                inOff += chunk;
+                len -= chunk;
+            }
+            return resultLen;
+        }
+        finally
+        {
+            Arrays.fill(chunkBuf, (byte)0);
+        }
+    }
+
+    int doFinal(ByteBuffer out)
+        throws InvalidCipherTextException
+    {
+        int outputSize = cipher.getOutputSize(0);
+        if (out.remaining() < outputSize)
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        if (out.hasArray())
+        {
+            int resultLen = cipher.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + resultLen);
+            return resultLen;
+        }
+
+        byte[] buf = getScratch(outputSize);
+        try
+        {
+            int resultLen = cipher.doFinal(buf, 0);
+            out.put(buf, 0, resultLen);
+            return resultLen;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /*
+     * The output a chunk can produce depends on how much input the cipher is holding back (e.g. a decrypting
+     * cipher keeps the last bytes seen back as a possible tag), so it is checked again for every chunk.
+     */
+    private byte[] growScratch(byte[] buf, int size)
+    {
+        if (buf.length >= size)
+        {
+            return buf;
+        }
+
+        Arrays.fill(buf, (byte)0);
+        return getScratch(size);
+    }
+
+    private byte[] getScratch(int size)
+    {
+        if (scratch == null || scratch.length < size)
+        {
+            scratch = new byte[size];
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,58 @@
+package org.bouncycastle.crypto.modes;
+
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * An AEAD cipher that can also process data held in {@link ByteBuffer}s, including direct buffers, without
+ * the caller having to copy it into a byte array first.
+ * <p>
+ * Each method consumes all the bytes remaining in its input buffer, and advances the position of its
+ * output buffer by the number of bytes written.
+ * </p><p>
+ * Buffers backed by an accessible array are processed directly on it, and may overlap in any way. Overlapping
+ * input is copied, all at once if the output starts after it, otherwise (as when processing in place) through
+ * a small internal array a chunk at a time. Other buffers, such as direct or read-only ones, are copied through
+ * the internal array a chunk (at most 4096 bytes) at a time; if the other buffer has an accessible array the
+ * cipher works directly on it, so each chunk is copied once, otherwise it is copied both in and out. As such
+ * buffers can't be checked for overlap, an output buffer sharing memory with the input must not start after
+ * it - processing in place, with both buffers at the same position, is fine. The internal array is cleared at
+ * the end of each call.
+ * </p>
+ */
+public interface ByteBufferAEADCipher
+    extends AEADCipher
+{
+    /**
+     * Add the bytes remaining in the passed in buffer to the associated data.
+     *
+     * @param in the buffer containing the associated data.
+     */
+    void processAADBytes(ByteBuffer in);
+
+    /**
+     * Process the bytes remaining in the input buffer, putting the result into the output buffer.
+     *
+     * @param in the buffer containing the input data.
+     * @param out the buffer the output data goes into, which must have at least
+     * {@link #getUpdateOutputSize(int)} bytes remaining.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if there is insufficient space remaining in out.
+     */
+    int processBytes(ByteBuffer in, ByteBuffer out)
+        throws DataLengthException;
+
+    /**
+     * Finish the operation, either appending or verifying the MAC at the end of the data.
+     *
+     * @param out the buffer the final output goes into, which must have at least
+     * {@link #getOutputSize(int) getOutputSize(0)} bytes remaining.
+     * @return the number of bytes written to out.
+     * @throws IllegalStateException if the cipher is in an inappropriate state.
+     * @throws InvalidCipherTextException if the MAC fails to match.
+     */
+    int doFinal(ByteBuffer out)
+        throws IllegalStateException, InvalidCipherTextException;
+}
@@ -1,5 +1,7 @@
 package org.bouncycastle.crypto.modes;
 
+import java.nio.ByteBuffer;
+
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
@@ -14,7 +16,7 @@
 import org.bouncycastle.util.Pack;
 
 public class ChaCha20Poly1305
-    implements AEADCipher
+    implements ByteBufferAEADCipher
 {
     private static final class State
     {
@@ -52,6 +54,7 @@
     private long dataCount;
     private int state = State.UNINITIALIZED;
     private int bufPos;
+    private AEADByteBufferProcessor byteBufferProcessor;
 
     public ChaCha20Poly1305()
     {
@@ -449,6 +452,21 @@ public int doFinal(byte[] out, int outOff) throws IllegalStateException, Invalid
         return resultLen;
     }
 
+    public void processAADBytes(ByteBuffer in)
+    {
+        getByteBufferProcessor().processAADBytes(in);
+    }
+
+    public int processBytes(ByteBuffer in, ByteBuffer out) throws DataLengthException
+    {
+        return getByteBufferProcessor().processBytes(in, out);
+    }
+
+    public int doFinal(ByteBuffer out) throws IllegalStateException, InvalidCipherTextException
+    {
+        return getByteBufferProcessor().doFinal(out);
+    }
+
     public byte[] getMac()
     {
         return Arrays.clone(mac);
@@ -459,6 +477,15 @@ public void reset()
         reset(true, true);
     }
 
+    private AEADByteBufferProcessor getByteBufferProcessor()
+    {
+        if (byteBufferProcessor == null)
+        {
+            byteBufferProcessor = new AEADByteBufferProcessor(this);
+        }
+        return byteBufferProcessor;
+    }
+
     private void checkAAD()
     {
         switch (state)
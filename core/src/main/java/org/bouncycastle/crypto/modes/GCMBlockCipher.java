@@ -1,12 +1,16 @@
 package org.bouncycastle.crypto.modes;
 
+import java.nio.ByteBuffer;
+
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMExponentiator;
 import org.bouncycastle.crypto.modes.gcm.GCMExponentiator;
+import org.bouncycastle.crypto.modes.gcm.GCMMultiBlockMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMUtil;
 import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
@@ -19,17 +23,28 @@
 /**
  * Implements the Galois/Counter mode (GCM) detailed in
  * NIST Special Publication 800-38D.
+ * <p>
+ * Bulk data is processed several blocks at a time: the counter blocks for a group are encrypted with a
+ * single call to {@link MultiBlockCipher#processBlocks} where the underlying cipher supports it, and the
+ * group is folded into the GHASH state in one step when the multiplier is a {@link GCMMultiBlockMultiplier}.
  */
 public class GCMBlockCipher
-    implements GCMModeCipher
+    implements GCMModeCipher, ByteBufferAEADCipher
 {
     private static final int BLOCK_SIZE = 16;
+    private static final int DEFAULT_BLOCKS_PER_STEP = 4;
 
     // not final due to a compiler bug
     private BlockCipher   cipher;
     private GCMMultiplier multiplier;
+    private GCMMultiBlockMultiplier multiBlockMultiplier;
     private GCMExponentiator exp;
 
+    // Scratch space for multi-block processing, sized once by the constructor
+    private byte[]      ctrBlocks;
+    private byte[]      keyStream;
+    private AEADByteBufferProcessor byteBufferProcessor;
+
     // These fields are set by init and not modified by processing
     private boolean             forEncryption;
     private boolean             initialised;
@@ -65,6 +80,11 @@ public static GCMModeCipher newInstance(BlockCipher cipher)
 
     /**
      * Return a new GCM mode cipher based on the passed in base cipher and multiplier.
+     * <p>
+     * The default multiplier is a {@link Tables4kGCMMultiplier}. A {@link GCMMultiBlockMultiplier}, such as
+     * {@link org.bouncycastle.crypto.modes.gcm.Tables16kGCMMultiplier} or
+     * {@link org.bouncycastle.crypto.modes.gcm.Tables32kGCMMultiplier}, trades more table memory per key for
+     * faster bulk processing, and also sets how many blocks are processed per step for bulk data.
      *
      * @param cipher the base cipher for the GCM mode.
      * @param m the GCM multiplier to use.
@@ -107,6 +127,16 @@ public GCMBlockCipher(BlockCipher c, GCMMultiplier m)
 
         this.cipher = c;
         this.multiplier = m;
+
+        int blocksPerStep = DEFAULT_BLOCKS_PER_STEP;
+        if (m instanceof GCMMultiBlockMultiplier)
+        {
+            this.multiBlockMultiplier = (GCMMultiBlockMultiplier)m;
+            blocksPerStep = multiBlockMultiplier.getMultiBlockCount();
+        }
+
+        this.ctrBlocks = new byte[blocksPerStep * BLOCK_SIZE];
+        this.keyStream = new byte[blocksPerStep * BLOCK_SIZE];
     }
 
     public BlockCipher getUnderlyingCipher()
@@ -318,6 +348,19 @@ public void processAADBytes(byte[] in, int inOff, int len)
 
         int inLimit = inOff + len - BLOCK_SIZE;
 
+        if (multiBlockMultiplier != null)
+        {
+            int stepSize = keyStream.length;
+            int stepLimit = inOff + len - stepSize;
+
+            while (inOff <= stepLimit)
+            {
+                multiBlockMultiplier.multiplyHBlocks(S_at, in, inOff);
+                atLength += stepSize;
+                inOff += stepSize;
+            }
+        }
+
         while (inOff <= inLimit)
         {
             gHASHBlock(S_at, in, inOff);
@@ -408,6 +451,16 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
 
             int inLimit = inOff + len - BLOCK_SIZE;
 
+            int stepSize = keyStream.length;
+            int stepLimit = inLimit - (stepSize - BLOCK_SIZE);
+
+            while (inOff <= stepLimit)
+            {
+                encryptBlocks(in, inOff, out, outOff + resultLen);
+                inOff += stepSize;
+                resultLen += stepSize;
+            }
+
             while (inOff <= inLimit)
             {
                 encryptBlock(in, inOff, out, outOff + resultLen);
@@ -452,6 +505,16 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             resultLen += BLOCK_SIZE;
             //bufOff = 0;
 
+            int stepSize = keyStream.length;
+            int stepLimit = inLimit - (stepSize - BLOCK_SIZE);
+
+            while (inOff <= stepLimit)
+            {
+                decryptBlocks(in, inOff, out, outOff + resultLen);
+                inOff += stepSize;
+                resultLen += stepSize;
+            }
+
             while (inOff <= inLimit)
             {
                 decryptBlock(in, inOff, out, outOff + resultLen);
@@ -466,6 +529,23 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
         return resultLen;
     }
 
+    public void processAADBytes(ByteBuffer in)
+    {
+        getByteBufferProcessor().processAADBytes(in);
+    }
+
+    public int processBytes(ByteBuffer in, ByteBuffer out)
+        throws DataLengthException
+    {
+        return getByteBufferProcessor().processBytes(in, out);
+    }
+
+    public int doFinal(ByteBuffer out)
+        throws IllegalStateException, InvalidCipherTextException
+    {
+        return getByteBufferProcessor().doFinal(out);
+    }
+
     public int doFinal(byte[] out, int outOff)
         throws IllegalStateException, InvalidCipherTextException
     {
@@ -614,6 +694,7 @@ private void reset(
         {
             Arrays.fill(bufBlock, (byte)0);
         }
+        Arrays.fill(keyStream, (byte)0);
 
         if (clearMac)
         {
@@ -674,6 +755,53 @@ private void encryptBlock(byte[] buf, int bufOff, byte[] out, int outOff)
         totalLength += BLOCK_SIZE;
     }
 
+    private void decryptBlocks(byte[] buf, int bufOff, byte[] out, int outOff)
+    {
+        int stepSize = keyStream.length;
+        if ((out.length - outOff) < stepSize)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        getNextCTRBlocks(keyStream);
+
+        gHASHBlocks(S, buf, bufOff);
+        for (int i = 0; i < stepSize; i += BLOCK_SIZE)
+        {
+            GCMUtil.xor(keyStream, i, buf, bufOff + i, out, outOff + i);
+        }
+
+        totalLength += stepSize;
+    }
+
+    private void encryptBlocks(byte[] buf, int bufOff, byte[] out, int outOff)
+    {
+        int stepSize = keyStream.length;
+        if ((out.length - outOff) < stepSize)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        getNextCTRBlocks(keyStream);
+
+        for (int i = 0; i < stepSize; i += BLOCK_SIZE)
+        {
+            GCMUtil.xor(keyStream, i, buf, bufOff + i, keyStream, i);
+        }
+        gHASHBlocks(S, keyStream, 0);
+        System.arraycopy(keyStream, 0, out, outOff, stepSize);
+
+        totalLength += stepSize;
+    }
+
     private void processPartial(byte[] buf, int off, int len, byte[] out, int outOff)
     {
         byte[] ctrBlock = new byte[BLOCK_SIZE];
@@ -715,6 +843,22 @@ private void gHASHBlock(byte[] Y, byte[] b, int off)
         multiplier.multiplyH(Y);
     }
 
+    private void gHASHBlocks(byte[] Y, byte[] b, int off)
+    {
+        if (multiBlockMultiplier != null)
+        {
+            multiBlockMultiplier.multiplyHBlocks(Y, b, off);
+        }
+        else
+        {
+            int limit = off + keyStream.length;
+            for (int pos = off; pos < limit; pos += BLOCK_SIZE)
+            {
+                gHASHBlock(Y, b, pos);
+            }
+        }
+    }
+
     private void gHASHPartial(byte[] Y, byte[] b, int off, int len)
     {
         GCMUtil.xor(Y, b, off, len);
@@ -738,6 +882,50 @@ private void getNextCTRBlock(byte[] block)
         cipher.processBlock(counter, 0, block, 0);
     }
 
+    private void getNextCTRBlocks(byte[] blocks)
+    {
+        int blockCount = blocks.length / BLOCK_SIZE;
+
+        // blocksRemaining is an unsigned count
+        if ((blocksRemaining & 0xFFFFFFFFL) < blockCount)
+        {
+            throw new IllegalStateException("Attempt to process too many blocks");
+        }
+        blocksRemaining -= blockCount;
+
+        for (int pos = 0; pos < ctrBlocks.length; pos += BLOCK_SIZE)
+        {
+            int c = 1;
+            c += counter[15] & 0xFF; counter[15] = (byte)c; c >>>= 8;
+            c += counter[14] & 0xFF; counter[14] = (byte)c; c >>>= 8;
+            c += counter[13] & 0xFF; counter[13] = (byte)c; c >>>= 8;
+            c += counter[12] & 0xFF; counter[12] = (byte)c;
+
+            System.arraycopy(counter, 0, ctrBlocks, pos, BLOCK_SIZE);
+        }
+
+        if (cipher instanceof MultiBlockCipher)
+        {
+            ((MultiBlockCipher)cipher).processBlocks(ctrBlocks, 0, blockCount, blocks, 0);
+        }
+        else
+        {
+            for (int pos = 0; pos < ctrBlocks.length; pos += BLOCK_SIZE)
+            {
+                cipher.processBlock(ctrBlocks, pos, blocks, pos);
+            }
+        }
+    }
+
+    private AEADByteBufferProcessor getByteBufferProcessor()
+    {
+        if (byteBufferProcessor == null)
+        {
+            byteBufferProcessor = new AEADByteBufferProcessor(this);
+        }
+        return byteBufferProcessor;
+    }
+
     private void checkStatus()
     {
         if (!initialised)
@@ -1,6 +1,7 @@
 package org.bouncycastle.crypto.modes;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
@@ -31,7 +32,7 @@
  * form of <b>ByteArrayInputStream</b> could be used to deliver the data.</p>
  */
 public class GCMSIVBlockCipher
-         implements AEADBlockCipher
+         implements AEADBlockCipher, ByteBufferAEADCipher
 {
      /**
       * The buffer length.
@@ -137,6 +138,11 @@
      // defined fixed
      private byte[]      macBlock = new byte[16];
 
+     /**
+      * The ByteBuffer processor (created on first use).
+      */
+     private AEADByteBufferProcessor theByteBufferProcessor;
+
      /**
       * Constructor.
       */
@@ -415,6 +421,22 @@ public int doFinal(final byte[] pOutput,
          }
      }
 
+     public void processAADBytes(final ByteBuffer pData)
+     {
+         getByteBufferProcessor().processAADBytes(pData);
+     }
+
+     public int processBytes(final ByteBuffer pData,
+                             final ByteBuffer pOutput) throws DataLengthException
+     {
+         return getByteBufferProcessor().processBytes(pData, pOutput);
+     }
+
+     public int doFinal(final ByteBuffer pOutput) throws IllegalStateException, InvalidCipherTextException
+     {
+         return getByteBufferProcessor().doFinal(pOutput);
+     }
+
      public byte[] getMac()
      {
          return Arrays.clone(macBlock);
@@ -440,6 +462,19 @@ public void reset()
          resetStreams();
      }
 
+     /**
+      * Obtain the ByteBuffer processor.
+      * @return the processor
+      */
+     private AEADByteBufferProcessor getByteBufferProcessor()
+     {
+         if (theByteBufferProcessor == null)
+         {
+             theByteBufferProcessor = new AEADByteBufferProcessor(this);
+         }
+         return theByteBufferProcessor;
+     }
+
      /**
       * Reset Streams.
       */
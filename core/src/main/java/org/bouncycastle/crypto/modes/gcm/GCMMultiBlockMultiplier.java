@@ -0,0 +1,26 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+/**
+ * A GCM multiplier that can fold several blocks into the GHASH state at once, using precomputed powers
+ * of H so that the whole group costs a single reduction.
+ */
+public interface GCMMultiBlockMultiplier
+    extends GCMMultiplier
+{
+    /**
+     * Return the number of blocks consumed by each call to {@link #multiplyHBlocks(byte[], byte[], int)}.
+     *
+     * @return the number of 16 byte blocks folded per call.
+     */
+    int getMultiBlockCount();
+
+    /**
+     * Fold getMultiBlockCount() blocks into x, equivalent to XORing in each block and multiplying by H
+     * in turn, i.e. x = (x + B1).H^n + B2.H^(n-1) + ... + Bn.H
+     *
+     * @param x the current GHASH state, updated in place.
+     * @param blocks array containing the blocks to fold.
+     * @param off offset of the first block in blocks.
+     */
+    void multiplyHBlocks(byte[] x, byte[] blocks, int off);
+}
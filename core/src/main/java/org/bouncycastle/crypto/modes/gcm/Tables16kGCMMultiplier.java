@@ -0,0 +1,50 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+import org.bouncycastle.util.Pack;
+
+/**
+ * A 4k table multiplier (see {@link Tables4kGCMMultiplier}) extended with tables for H^2, H^3 and H^4, so
+ * that four blocks can be folded into the GHASH state sharing one reduction per byte.
+ */
+public class Tables16kGCMMultiplier
+    extends TablesGCMMultiBlockMultiplier
+{
+    public Tables16kGCMMultiplier()
+    {
+        super(4);
+    }
+
+    public void multiplyHBlocks(byte[] x, byte[] blocks, int off)
+    {
+        /*
+         * x = (x + B1).H^4 + B2.H^3 + B3.H^2 + B4.H, accumulating all four products together so that the
+         * shift and reduction between byte positions is only done once.
+         */
+        long[][] T1 = T[0], T2 = T[1], T3 = T[2], T4 = T[3];
+
+        int off2 = off + 16, off3 = off + 32, off4 = off + 48;
+
+        long[] t4 = T4[(x[15] ^ blocks[off + 15]) & 0xFF];
+        long[] t3 = T3[blocks[off2 + 15] & 0xFF];
+        long[] t2 = T2[blocks[off3 + 15] & 0xFF];
+        long[] t1 = T1[blocks[off4 + 15] & 0xFF];
+
+        long z0 = t4[0] ^ t3[0] ^ t2[0] ^ t1[0];
+        long z1 = t4[1] ^ t3[1] ^ t2[1] ^ t1[1];
+
+        for (int i = 14; i >= 0; --i)
+        {
+            t4 = T4[(x[i] ^ blocks[off + i]) & 0xFF];
+            t3 = T3[blocks[off2 + i] & 0xFF];
+            t2 = T2[blocks[off3 + i] & 0xFF];
+            t1 = T1[blocks[off4 + i] & 0xFF];
+
+            long c = z1 << 56;
+            z1 = t4[1] ^ t3[1] ^ t2[1] ^ t1[1] ^ ((z1 >>> 8) | (z0 << 56));
+            z0 = t4[0] ^ t3[0] ^ t2[0] ^ t1[0] ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+}
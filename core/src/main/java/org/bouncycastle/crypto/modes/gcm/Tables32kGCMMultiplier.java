@@ -0,0 +1,50 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+import org.bouncycastle.util.Pack;
+
+/**
+ * A 4k table multiplier (see {@link Tables4kGCMMultiplier}) extended with tables for H^2 to H^8, so that
+ * eight blocks can be folded into the GHASH state sharing one reduction per byte.
+ * <p>
+ * Compared to {@link Tables16kGCMMultiplier} this halves the number of reductions again, at the cost of
+ * twice the table memory and key setup time, so it suits long messages under a long-lived key.
+ */
+public class Tables32kGCMMultiplier
+    extends TablesGCMMultiBlockMultiplier
+{
+    public Tables32kGCMMultiplier()
+    {
+        super(8);
+    }
+
+    public void multiplyHBlocks(byte[] x, byte[] blocks, int off)
+    {
+        /*
+         * x = (x + B1).H^8 + B2.H^7 + ... + B8.H, accumulating all eight products together so that the
+         * shift and reduction between byte positions is only done once.
+         */
+        long[][] T1 = T[0], T2 = T[1], T3 = T[2], T4 = T[3], T5 = T[4], T6 = T[5], T7 = T[6], T8 = T[7];
+
+        long z0 = 0L, z1 = 0L;
+
+        for (int i = 15; i >= 0; --i)
+        {
+            long[] t8 = T8[(x[i] ^ blocks[off + i]) & 0xFF];
+            long[] t7 = T7[blocks[off +  16 + i] & 0xFF];
+            long[] t6 = T6[blocks[off +  32 + i] & 0xFF];
+            long[] t5 = T5[blocks[off +  48 + i] & 0xFF];
+            long[] t4 = T4[blocks[off +  64 + i] & 0xFF];
+            long[] t3 = T3[blocks[off +  80 + i] & 0xFF];
+            long[] t2 = T2[blocks[off +  96 + i] & 0xFF];
+            long[] t1 = T1[blocks[off + 112 + i] & 0xFF];
+
+            long c = z1 << 56;
+            z1 = t8[1] ^ t7[1] ^ t6[1] ^ t5[1] ^ t4[1] ^ t3[1] ^ t2[1] ^ t1[1] ^ ((z1 >>> 8) | (z0 << 56));
+            z0 = t8[0] ^ t7[0] ^ t6[0] ^ t5[0] ^ t4[0] ^ t3[0] ^ t2[0] ^ t1[0]
+                ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+}
@@ -0,0 +1,92 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+import org.bouncycastle.util.Pack;
+
+/**
+ * Base for the multi-block table multipliers: a 4k table (see {@link Tables4kGCMMultiplier}) for each of
+ * H, H^2, ..., H^n, where n is the number of blocks folded into the GHASH state at once.
+ */
+abstract class TablesGCMMultiBlockMultiplier
+    implements GCMMultiBlockMultiplier
+{
+    private final int blockCount;
+
+    private byte[] H;
+
+    /**
+     * The tables, T[i] being the 4k table for H^(i+1).
+     */
+    long[][][] T;
+
+    TablesGCMMultiBlockMultiplier(int blockCount)
+    {
+        this.blockCount = blockCount;
+    }
+
+    public void init(byte[] H)
+    {
+        if (T == null)
+        {
+            T = new long[blockCount][256][2];
+        }
+        else if (0 != GCMUtil.areEqual(this.H, H))
+        {
+            return;
+        }
+
+        this.H = new byte[GCMUtil.SIZE_BYTES];
+        GCMUtil.copy(H, this.H);
+
+        long[] h = GCMUtil.asLongs(this.H);
+        long[] p = new long[GCMUtil.SIZE_LONGS];
+        GCMUtil.copy(h, p);
+
+        for (int i = 0; i < blockCount; ++i)
+        {
+            long[][] t = T[i];
+
+            // t[0] = 0
+
+            // t[1] = H^(i+1).p^7
+            if (i > 0)
+            {
+                GCMUtil.multiply(p, h);
+            }
+            GCMUtil.multiplyP7(p, t[1]);
+
+            for (int n = 2; n < 256; n += 2)
+            {
+                // t[2.n] = t[n].p^-1
+                GCMUtil.divideP(t[n >> 1], t[n]);
+
+                // t[2.n + 1] = t[2.n] + t[1]
+                GCMUtil.xor(t[n], t[1], t[n + 1]);
+            }
+        }
+    }
+
+    public int getMultiBlockCount()
+    {
+        return blockCount;
+    }
+
+    public void multiplyH(byte[] x)
+    {
+        long[][] T1 = T[0];
+
+        long[] t = T1[x[15] & 0xFF];
+        long z0 = t[0], z1 = t[1];
+
+        for (int i = 14; i >= 0; --i)
+        {
+            t = T1[x[i] & 0xFF];
+
+            long c = z1 << 56;
+            z1 = t[1] ^ ((z1 >>> 8) | (z0 << 56));
+            z0 = t[0] ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+}
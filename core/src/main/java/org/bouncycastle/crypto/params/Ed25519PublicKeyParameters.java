@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.SecureRandom;
 
 import org.bouncycastle.math.ec.rfc8032.Ed25519;
 import org.bouncycastle.util.io.Streams;
@@ -114,6 +115,24 @@ public boolean verify(int algorithm, byte[] ctx, byte[] msg, int msgOff, int msg
         }
     }
 
+    /**
+     * Verify a batch of (pure) Ed25519 signatures, see
+     * {@link Ed25519#verifyBatch(SecureRandom, byte[][], Ed25519.PublicPoint[], byte[][], boolean[])}.
+     *
+     * @return true if every signature is valid, otherwise false.
+     */
+    public static boolean verifyBatch(SecureRandom random, Ed25519PublicKeyParameters[] publicKeys, byte[][] msgs,
+        byte[][] sigs, boolean[] results)
+    {
+        Ed25519.PublicPoint[] publicPoints = new Ed25519.PublicPoint[publicKeys.length];
+        for (int i = 0; i < publicKeys.length; ++i)
+        {
+            publicPoints[i] = publicKeys[i].publicPoint;
+        }
+
+        return Ed25519.verifyBatch(random, sigs, publicPoints, msgs, results);
+    }
+
     private static Ed25519.PublicPoint parse(byte[] buf, int off)
     {
         Ed25519.PublicPoint publicPoint = Ed25519.validatePublicKeyPartialExport(buf, off);
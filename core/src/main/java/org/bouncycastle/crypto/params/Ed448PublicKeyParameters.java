@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.SecureRandom;
 
 import org.bouncycastle.math.ec.rfc8032.Ed448;
 import org.bouncycastle.util.io.Streams;
@@ -105,6 +106,33 @@ public boolean verify(int algorithm, byte[] ctx, byte[] msg, int msgOff, int msg
         }
     }
 
+    /**
+     * Verify a batch of (pure) Ed448 signatures that share the same context, see
+     * {@link Ed448#verifyBatch(SecureRandom, byte[][], Ed448.PublicPoint[], byte[], byte[][], boolean[])}.
+     *
+     * @return true if every signature is valid, otherwise false.
+     */
+    public static boolean verifyBatch(SecureRandom random, Ed448PublicKeyParameters[] publicKeys, byte[] ctx,
+        byte[][] msgs, byte[][] sigs, boolean[] results)
+    {
+        if (null == ctx)
+        {
+            throw new NullPointerException("'ctx' cannot be null");
+        }
+        if (ctx.length > 255)
+        {
+            throw new IllegalArgumentException("ctx");
+        }
+
+        Ed448.PublicPoint[] publicPoints = new Ed448.PublicPoint[publicKeys.length];
+        for (int i = 0; i < publicKeys.length; ++i)
+        {
+            publicPoints[i] = publicKeys[i].publicPoint;
+        }
+
+        return Ed448.verifyBatch(random, sigs, publicPoints, ctx, msgs, results);
+    }
+
     private static Ed448.PublicPoint parse(byte[] buf, int off)
     {
         Ed448.PublicPoint publicPoint = Ed448.validatePublicKeyPartialExport(buf, off);
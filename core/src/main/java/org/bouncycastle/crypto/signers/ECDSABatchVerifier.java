@@ -0,0 +1,375 @@
+package org.bouncycastle.crypto.signers;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECConstants;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.bouncycastle.util.BigIntegers;
+
+/**
+ * Verifier for batches of ECDSA signatures over a single set of domain parameters. Signatures are collected
+ * with one of the add methods and then checked together; every signature gets the same result that
+ * {@link ECDSASigner#verifySignature(byte[], BigInteger, BigInteger)} would give it.
+ * <p>
+ * All the s values are inverted together (using Montgomery's trick), and the computed points are normalized
+ * together. If every signature in the batch is added with a recovery id (and the curve is a prime curve with
+ * cofactor 1), the batch is first checked with a single random linear combination of the verification
+ * equations: the generator's terms are merged into one multiplication by the base point multiplier (a
+ * fixed-base comb by default, whose table for the generator is kept with the curve), and the rest are
+ * evaluated by multi-scalar multiplication. Only if that check fails are the signatures verified one by one,
+ * each with the interleaved multiplication {@link ECDSASigner} uses.
+ * </p>
+ */
+public class ECDSABatchVerifier
+    implements ECConstants
+{
+    private static final int NO_RECOVERY_ID = -1;
+
+    private final ECDomainParameters parameters;
+    private final SecureRandom random;
+
+    private final List<ECPoint> publicPoints = new ArrayList<ECPoint>();
+    private final List<BigInteger> es = new ArrayList<BigInteger>();
+    private final List<BigInteger> rs = new ArrayList<BigInteger>();
+    private final List<BigInteger> ss = new ArrayList<BigInteger>();
+    private final List<Integer> recoveryIds = new ArrayList<Integer>();
+
+    public ECDSABatchVerifier(ECDomainParameters parameters)
+    {
+        this(parameters, null);
+    }
+
+    public ECDSABatchVerifier(ECDomainParameters parameters, SecureRandom random)
+    {
+        if (null == parameters)
+        {
+            throw new NullPointerException("'parameters' cannot be null");
+        }
+
+        this.parameters = parameters;
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature with, which must use this verifier's domain
+     *            parameters.
+     * @param message the message (hash) that was signed.
+     * @param r the r value of the signature.
+     * @param s the s value of the signature.
+     */
+    public void add(ECPublicKeyParameters publicKey, byte[] message, BigInteger r, BigInteger s)
+    {
+        implAdd(publicKey, message, r, s, NO_RECOVERY_ID);
+    }
+
+    /**
+     * Add a signature to the batch, together with the recovery id that identifies the point R from which
+     * r was calculated: bit 0 is the parity of R's y coordinate, and bit 1 is set if R's x coordinate is
+     * r + n rather than r. The recovery id is only used to speed up verification; a wrong one cannot cause
+     * an otherwise valid signature to fail.
+     *
+     * @param publicKey the public key to verify the signature with, which must use this verifier's domain
+     *            parameters.
+     * @param message the message (hash) that was signed.
+     * @param r the r value of the signature.
+     * @param s the s value of the signature.
+     * @param recoveryId the recovery id (0 to 3).
+     */
+    public void add(ECPublicKeyParameters publicKey, byte[] message, BigInteger r, BigInteger s, int recoveryId)
+    {
+        if (recoveryId < 0 || recoveryId > 3)
+        {
+            throw new IllegalArgumentException("'recoveryId' must be from 0 to 3");
+        }
+
+        implAdd(publicKey, message, r, s, recoveryId);
+    }
+
+    /**
+     * Return the number of signatures currently in the batch.
+     */
+    public int size()
+    {
+        return ss.size();
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify()
+    {
+        return verify(null);
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @param results if not null, receives the verification result of each signature, in the order they were
+     *            added.
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify(boolean[] results)
+    {
+        try
+        {
+            int count = ss.size();
+            if (null != results && results.length < count)
+            {
+                throw new IllegalArgumentException("'results' is too short");
+            }
+
+            boolean[] valid = new boolean[count];
+            BigInteger[] cs = new BigInteger[count];
+            int validCount = invertS(valid, cs);
+
+            boolean all = validCount == count;
+            if (validCount > 0)
+            {
+                if (!(validCount > 1 && verifyCombined(valid, cs)))
+                {
+                    all &= verifyEach(valid, cs);
+                }
+            }
+
+            if (null != results)
+            {
+                System.arraycopy(valid, 0, results, 0, count);
+            }
+            return all;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Remove all signatures from the batch.
+     */
+    public void reset()
+    {
+        publicPoints.clear();
+        es.clear();
+        rs.clear();
+        ss.clear();
+        recoveryIds.clear();
+    }
+
+    protected ECMultiplier createBasePointMultiplier()
+    {
+        return new FixedPointCombMultiplier();
+    }
+
+    private void implAdd(ECPublicKeyParameters publicKey, byte[] message, BigInteger r, BigInteger s,
+        int recoveryId)
+    {
+        if (!parameters.equals(publicKey.getParameters()))
+        {
+            throw new IllegalArgumentException("'publicKey' has different domain parameters");
+        }
+
+        CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("ECDSA", publicKey, false));
+
+        publicPoints.add(publicKey.getQ());
+        es.add(ECDSASigner.truncateMessage(parameters.getN(), message));
+        rs.add(r);
+        ss.add(s);
+        recoveryIds.add(Integer.valueOf(recoveryId));
+    }
+
+    /*
+     * Marks the signatures with r and s in [1, n-1] as valid, and calculates s^-1 mod n for each of them
+     * with a single modular inversion.
+     */
+    private int invertS(boolean[] valid, BigInteger[] cs)
+    {
+        BigInteger n = parameters.getN();
+        int count = valid.length, validCount = 0;
+
+        BigInteger acc = ONE;
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger r = rs.get(i), s = ss.get(i);
+            if (r.compareTo(ONE) < 0 || r.compareTo(n) >= 0 || s.compareTo(ONE) < 0 || s.compareTo(n) >= 0)
+            {
+                continue;
+            }
+
+            valid[i] = true;
+            ++validCount;
+
+            // Prefix products of the s values
+            cs[i] = acc;
+            acc = acc.multiply(s).mod(n);
+        }
+
+        if (validCount > 0)
+        {
+            BigInteger inv = BigIntegers.modOddInverseVar(n, acc);
+            for (int i = count - 1; i >= 0; --i)
+            {
+                if (valid[i])
+                {
+                    BigInteger s = ss.get(i);
+                    cs[i] = cs[i].multiply(inv).mod(n);
+                    inv = inv.multiply(s).mod(n);
+                }
+            }
+        }
+
+        return validCount;
+    }
+
+    /*
+     * Checks sum(z_i * (u1_i * G + u2_i * Q_i - R_i)) == 0 for random 128-bit z_i, where each R_i is recovered
+     * from r_i and its recovery id, and the terms for the same public key are merged. Returns false if this
+     * isn't possible, or if the check fails.
+     */
+    private boolean verifyCombined(boolean[] valid, BigInteger[] cs)
+    {
+        ECCurve curve = parameters.getCurve();
+        if (!ECAlgorithms.isFpCurve(curve) || !ONE.equals(parameters.getH()))
+        {
+            return false;
+        }
+
+        BigInteger n = parameters.getN();
+        int count = valid.length, fieldLength = (curve.getFieldSize() + 7) / 8;
+
+        List<ECPoint> points = new ArrayList<ECPoint>();
+        List<BigInteger> scalars = new ArrayList<BigInteger>();
+        Map<ECPoint, Integer> keyIndices = new HashMap<ECPoint, Integer>();
+        BigInteger sumU1 = ZERO;
+
+        for (int i = 0; i < count; ++i)
+        {
+            if (!valid[i])
+            {
+                continue;
+            }
+
+            int recoveryId = recoveryIds.get(i).intValue();
+            if (recoveryId < 0)
+            {
+                return false;
+            }
+
+            BigInteger x = rs.get(i);
+            if ((recoveryId & 2) != 0)
+            {
+                x = x.add(n);
+            }
+            if (!curve.isValidFieldElement(x))
+            {
+                return false;
+            }
+
+            byte[] encoding = new byte[1 + fieldLength];
+            encoding[0] = (byte)(0x02 | (recoveryId & 1));
+            BigIntegers.asUnsignedByteArray(x, encoding, 1, fieldLength);
+
+            ECPoint R;
+            try
+            {
+                R = curve.decodePoint(encoding);
+            }
+            catch (IllegalArgumentException e)
+            {
+                return false;
+            }
+
+            BigInteger z = BigIntegers.createRandomBigInteger(128, random).setBit(0);
+            BigInteger zc = z.multiply(cs[i]).mod(n);
+
+            sumU1 = sumU1.add(zc.multiply(es.get(i)));
+
+            // Signatures by the same key share a single term
+            ECPoint Q = publicPoints.get(i);
+            BigInteger u2 = zc.multiply(rs.get(i));
+            Integer index = keyIndices.get(Q);
+            if (null == index)
+            {
+                keyIndices.put(Q, Integer.valueOf(points.size()));
+                points.add(Q);
+                scalars.add(u2.mod(n));
+            }
+            else
+            {
+                int j = index.intValue();
+                scalars.set(j, scalars.get(j).add(u2).mod(n));
+            }
+
+            points.add(R.negate());
+            scalars.add(z);
+        }
+
+        ECPoint P = createBasePointMultiplier().multiply(parameters.getG(), sumU1.mod(n));
+        ECPoint T = ECAlgorithms.sumOfMultiplies(points.toArray(new ECPoint[points.size()]),
+            scalars.toArray(new BigInteger[scalars.size()]));
+
+        return P.add(T).isInfinity();
+    }
+
+    /*
+     * Computes u1_i * G + u2_i * Q_i for each signature, normalizes the points together and checks their
+     * x coordinates against r_i.
+     * 
+     * NOTE: The base point multiplier isn't used here; the default comb is constant-time, and with a separate
+     * multiplication for Q_i it is slower than this single interleaved (variable-time) sum.
+     */
+    private boolean verifyEach(boolean[] valid, BigInteger[] cs)
+    {
+        ECCurve curve = parameters.getCurve();
+        ECPoint G = parameters.getG();
+        BigInteger n = parameters.getN();
+
+        int count = valid.length;
+        ECPoint[] points = new ECPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            if (!valid[i])
+            {
+                points[i] = curve.getInfinity();
+                continue;
+            }
+
+            BigInteger c = cs[i];
+            BigInteger u1 = es.get(i).multiply(c).mod(n);
+            BigInteger u2 = rs.get(i).multiply(c).mod(n);
+
+            ECPoint Q = publicPoints.get(i);
+            points[i] = ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
+        }
+
+        curve.normalizeAll(points);
+
+        boolean all = true;
+        for (int i = 0; i < count; ++i)
+        {
+            if (valid[i])
+            {
+                ECPoint point = points[i];
+                valid[i] = !point.isInfinity()
+                    && point.getAffineXCoord().toBigInteger().mod(n).equals(rs.get(i));
+            }
+            all &= valid[i];
+        }
+        return all;
+    }
+}
@@ -220,6 +220,14 @@ public boolean verifySignature(
     }
 
     protected BigInteger calculateE(BigInteger n, byte[] message)
+    {
+        return truncateMessage(n, message);
+    }
+
+    /*
+     * Converts the message hash to an integer, keeping its leftmost n.bitLength() bits (SEC 1, 4.1.3 step 5).
+     */
+    static BigInteger truncateMessage(BigInteger n, byte[] message)
     {
         int log2n = n.bitLength();
         int messageBitLength = message.length * 8;
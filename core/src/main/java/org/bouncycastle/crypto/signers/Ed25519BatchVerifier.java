@@ -0,0 +1,103 @@
+package org.bouncycastle.crypto.signers;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Verifier for batches of (pure) Ed25519 signatures. Signatures are collected with
+ * {@link #add(Ed25519PublicKeyParameters, byte[], int, int, byte[])} and then checked together, which is
+ * considerably cheaper than verifying each of them with an {@link Ed25519Signer}.
+ */
+public class Ed25519BatchVerifier
+{
+    private final SecureRandom random;
+
+    private final List<Ed25519PublicKeyParameters> publicKeys = new ArrayList<Ed25519PublicKeyParameters>();
+    private final List<byte[]> messages = new ArrayList<byte[]>();
+    private final List<byte[]> signatures = new ArrayList<byte[]>();
+
+    public Ed25519BatchVerifier()
+    {
+        this(null);
+    }
+
+    public Ed25519BatchVerifier(SecureRandom random)
+    {
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature with.
+     * @param msg buffer containing the signed message.
+     * @param msgOff offset of the message in msg.
+     * @param msgLen length of the message.
+     * @param signature the signature.
+     */
+    public void add(Ed25519PublicKeyParameters publicKey, byte[] msg, int msgOff, int msgLen, byte[] signature)
+    {
+        CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("Ed25519", 128, publicKey, false));
+
+        publicKeys.add(publicKey);
+        messages.add(Arrays.copyOfRange(msg, msgOff, msgOff + msgLen));
+        signatures.add(Arrays.clone(signature));
+    }
+
+    /**
+     * Return the number of signatures currently in the batch.
+     */
+    public int size()
+    {
+        return signatures.size();
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify()
+    {
+        return verify(null);
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @param results if not null, receives the verification result of each signature, in the order they were
+     *            added.
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify(boolean[] results)
+    {
+        try
+        {
+            int count = signatures.size();
+
+            return Ed25519PublicKeyParameters.verifyBatch(random,
+                publicKeys.toArray(new Ed25519PublicKeyParameters[count]),
+                messages.toArray(new byte[count][]), signatures.toArray(new byte[count][]),
+                results);
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Remove all signatures from the batch.
+     */
+    public void reset()
+    {
+        publicKeys.clear();
+        messages.clear();
+        signatures.clear();
+    }
+}
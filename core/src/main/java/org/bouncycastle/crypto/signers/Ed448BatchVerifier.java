@@ -0,0 +1,110 @@
+package org.bouncycastle.crypto.signers;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Verifier for batches of (pure) Ed448 signatures that share the same context. Signatures are collected with
+ * {@link #add(Ed448PublicKeyParameters, byte[], int, int, byte[])} and then checked together, which is
+ * considerably cheaper than verifying each of them with an {@link Ed448Signer}.
+ */
+public class Ed448BatchVerifier
+{
+    private final SecureRandom random;
+    private final byte[] context;
+
+    private final List<Ed448PublicKeyParameters> publicKeys = new ArrayList<Ed448PublicKeyParameters>();
+    private final List<byte[]> messages = new ArrayList<byte[]>();
+    private final List<byte[]> signatures = new ArrayList<byte[]>();
+
+    public Ed448BatchVerifier(byte[] context)
+    {
+        this(context, null);
+    }
+
+    public Ed448BatchVerifier(byte[] context, SecureRandom random)
+    {
+        if (null == context)
+        {
+            throw new NullPointerException("'context' cannot be null");
+        }
+
+        this.context = Arrays.clone(context);
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature with.
+     * @param msg buffer containing the signed message.
+     * @param msgOff offset of the message in msg.
+     * @param msgLen length of the message.
+     * @param signature the signature.
+     */
+    public void add(Ed448PublicKeyParameters publicKey, byte[] msg, int msgOff, int msgLen, byte[] signature)
+    {
+        CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("Ed448", 224, publicKey, false));
+
+        publicKeys.add(publicKey);
+        messages.add(Arrays.copyOfRange(msg, msgOff, msgOff + msgLen));
+        signatures.add(Arrays.clone(signature));
+    }
+
+    /**
+     * Return the number of signatures currently in the batch.
+     */
+    public int size()
+    {
+        return signatures.size();
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify()
+    {
+        return verify(null);
+    }
+
+    /**
+     * Verify all the signatures in the batch, then clear it.
+     *
+     * @param results if not null, receives the verification result of each signature, in the order they were
+     *            added.
+     * @return true if every signature is valid, otherwise false.
+     */
+    public boolean verify(boolean[] results)
+    {
+        try
+        {
+            int count = signatures.size();
+
+            return Ed448PublicKeyParameters.verifyBatch(random,
+                publicKeys.toArray(new Ed448PublicKeyParameters[count]), context,
+                messages.toArray(new byte[count][]), signatures.toArray(new byte[count][]),
+                results);
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Remove all signatures from the batch.
+     */
+    public void reset()
+    {
+        publicKeys.clear();
+        messages.clear();
+        signatures.clear();
+    }
+}
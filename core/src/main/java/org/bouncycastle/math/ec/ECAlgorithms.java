@@ -11,6 +11,11 @@
 
 public class ECAlgorithms
 {
+    /*
+     * Number of points from which sumOfMultiplies switches from interleaved wNAF to the bucket method.
+     */
+    private static final int PIPPENGER_THRESHOLD = 128;
+
     public static boolean isF2mCurve(ECCurve c)
     {
         return isF2mField(c.getField());
@@ -61,6 +66,12 @@ public static ECPoint sumOfMultiplies(ECPoint[] ps, BigInteger[] ks)
         }
 
         ECEndomorphism endomorphism = c.getEndomorphism();
+
+        if (count >= PIPPENGER_THRESHOLD)
+        {
+            return implCheckResult(implSumOfMultipliesPippenger(imported, ks, endomorphism));
+        }
+
         if (endomorphism instanceof GLVEndomorphism)
         {
             return implCheckResult(implSumOfMultipliesGLV(imported, ks, (GLVEndomorphism)endomorphism));
@@ -487,6 +498,177 @@ static ECPoint implSumOfMultiplies(ECEndomorphism endomorphism, ECPoint[] ps, Bi
         return implSumOfMultiplies(negs, infos, wnafs);
     }
 
+    /*
+     * Multi-scalar multiplication by the "bucket" method (Pippenger). Each scalar is recoded into signed
+     * digits of a fixed window width; for every window, the points are accumulated into one bucket per digit
+     * magnitude, and the buckets are then combined with a running sum. With n points of b bits, the cost
+     * is about (b / w) * (n + 2^w) point additions, and the width w is chosen to minimize it.
+     * 
+     * All points are normalized up front (with a single inversion), so that bucket accumulation uses
+     * mixed additions, which the custom curve implementations (e.g. SecP256R1Point) special-case.
+     */
+    static ECPoint implSumOfMultipliesPippenger(ECPoint[] ps, BigInteger[] ks, ECEndomorphism endomorphism)
+    {
+        ECCurve c = ps[0].getCurve();
+        BigInteger n = c.getOrder();
+
+        if (endomorphism instanceof GLVEndomorphism && null != n)
+        {
+            GLVEndomorphism glvEndomorphism = (GLVEndomorphism)endomorphism;
+
+            int len = ps.length;
+            ECPoint[] pqs = new ECPoint[len << 1];
+            BigInteger[] abs = new BigInteger[len << 1];
+            for (int i = 0, j = 0; i < len; ++i)
+            {
+                BigInteger[] ab = glvEndomorphism.decomposeScalar(ks[i].mod(n));
+                ECPoint p = ps[i];
+                pqs[j] = p;
+                abs[j++] = ab[0];
+                pqs[j] = EndoUtil.mapPoint(glvEndomorphism, p);
+                abs[j++] = ab[1];
+            }
+
+            ps = pqs;
+            ks = abs;
+        }
+
+        int count = ps.length;
+        ECPoint[] points = new ECPoint[count];
+        int[][] mags = new int[count][];
+        boolean[] negs = new boolean[count];
+
+        int bits = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger k = ks[i];
+            if (null != n && k.bitLength() > n.bitLength())
+            {
+                k = k.mod(n);
+            }
+
+            negs[i] = k.signum() < 0;
+            k = k.abs();
+
+            int kBits = k.bitLength();
+            bits = Math.max(bits, kBits);
+            mags[i] = Nat.fromBigInteger(Math.max(1, kBits), k);
+            points[i] = ps[i];
+        }
+
+        ECPoint infinity = c.getInfinity();
+        if (bits == 0)
+        {
+            return infinity;
+        }
+
+        c.normalizeAll(points);
+
+        /*
+         * Choose the window width to minimize the (approximate) number of point additions. Signed digits
+         * need one extra bit for the final carry.
+         */
+        int width = 1;
+        {
+            long minCost = Long.MAX_VALUE;
+            for (int w = 2; w <= 20; ++w)
+            {
+                long cost = (long)((bits + w) / w) * (count + (1L << w));
+                if (cost < minCost)
+                {
+                    minCost = cost;
+                    width = w;
+                }
+            }
+        }
+
+        int windows = (bits + width) / width;
+        int half = 1 << (width - 1), mask = (1 << width) - 1;
+
+        // Recode every scalar into signed digits in [-2^(w-1), 2^(w-1)]
+        short[][] digits = new short[count][windows];
+        for (int i = 0; i < count; ++i)
+        {
+            int[] mag = mags[i];
+            int magBits = mag.length << 5;
+            short[] d = digits[i];
+            int carry = 0;
+            for (int j = 0; j < windows; ++j)
+            {
+                int digit = carry + extractBits(mag, magBits, j * width, width, mask);
+                carry = (digit + half - 1) >>> width;
+                digit -= carry << width;
+                d[j] = (short)digit;
+            }
+        }
+
+        ECPoint[] negPoints = new ECPoint[count];
+        ECPoint[] buckets = new ECPoint[half];
+
+        ECPoint R = infinity;
+        for (int j = windows - 1; j >= 0; --j)
+        {
+            for (int b = 0; b < half; ++b)
+            {
+                buckets[b] = infinity;
+            }
+
+            for (int i = 0; i < count; ++i)
+            {
+                int digit = digits[i][j];
+                if (digit == 0)
+                {
+                    continue;
+                }
+
+                boolean neg = (digit < 0) != negs[i];
+                ECPoint p;
+                if (neg)
+                {
+                    p = negPoints[i];
+                    if (null == p)
+                    {
+                        p = negPoints[i] = points[i].negate();
+                    }
+                }
+                else
+                {
+                    p = points[i];
+                }
+
+                int b = Math.abs(digit) - 1;
+                buckets[b] = buckets[b].add(p);
+            }
+
+            ECPoint sum = infinity, acc = infinity;
+            for (int b = half - 1; b >= 0; --b)
+            {
+                sum = sum.add(buckets[b]);
+                acc = acc.add(sum);
+            }
+
+            R = R.timesPow2(width).add(acc);
+        }
+
+        return R;
+    }
+
+    private static int extractBits(int[] x, int xBits, int pos, int len, int mask)
+    {
+        if (pos >= xBits)
+        {
+            return 0;
+        }
+
+        int word = pos >>> 5, shift = pos & 31;
+        int bits = x[word] >>> shift;
+        if (shift + len > 32 && word + 1 < x.length)
+        {
+            bits |= x[word + 1] << (32 - shift);
+        }
+        return bits & mask;
+    }
+
     private static ECPoint implSumOfMultiplies(boolean[] negs, WNafPreCompInfo[] infos, byte[][] wnafs)
     {
         int len = 0, count = wnafs.length;
@@ -85,7 +85,7 @@ private static class F extends X25519Field {};
     private static final int[] C_d4 = new int[]{ 0x0165E2B2, 0x034DCA13, 0x002ADD7A, 0x01A8283B, 0x00038052, 0x01E7A260,
         0x03407977, 0x019CE331, 0x01C56DFF, 0x00901B67 };
 
-//    private static final int WNAF_WIDTH = 5;
+    private static final int WNAF_WIDTH = 5;
     private static final int WNAF_WIDTH_128 = 4;
     private static final int WNAF_WIDTH_BASE = 6;
 
@@ -97,6 +97,9 @@ private static class F extends X25519Field {};
     private static final int PRECOMP_POINTS = 1 << (PRECOMP_TEETH - 1);
     private static final int PRECOMP_MASK = PRECOMP_POINTS - 1;
 
+    // Number of signatures combined into each multi-scalar multiplication by verifyBatch
+    private static final int BATCH_SIZE = 64;
+
     private static final Object PRECOMP_LOCK = new Object();
     private static PointPrecomp[] PRECOMP_BASE_WNAF = null;
     private static PointPrecomp[] PRECOMP_BASE128_WNAF = null;    
@@ -636,6 +639,172 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         return normalizeToNeutralElementVar(pZ);
     }
 
+    private static boolean implVerifyBatch(SecureRandom random, byte[][] sigs, byte[][] pks,
+        PublicPoint[] publicPoints, byte[][] ms, boolean[] results)
+    {
+        int count = sigs.length;
+        if ((null != pks ? pks.length : publicPoints.length) != count || ms.length != count)
+        {
+            throw new IllegalArgumentException("batch arrays must all have the same length");
+        }
+        if (null != results && results.length < count)
+        {
+            throw new IllegalArgumentException("'results' too short");
+        }
+
+        boolean allValid = true;
+        for (int batchOff = 0; batchOff < count; batchOff += BATCH_SIZE)
+        {
+            int batchLen = Math.min(BATCH_SIZE, count - batchOff);
+            allValid &= implVerifyBatch(random, sigs, pks, publicPoints, ms, batchOff, batchLen, results);
+        }
+        return allValid;
+    }
+
+    private static boolean implVerifyBatch(SecureRandom random, byte[][] sigs, byte[][] pks,
+        PublicPoint[] publicPoints, byte[][] ms, int batchOff, int batchLen, boolean[] results)
+    {
+        /*
+         * Check a random linear combination of the (cofactored) verification equations:
+         * 
+         *   [8]([sum(z_i.S_i)]B - sum([z_i]R_i) - sum([z_i.k_i]A_i)) == 0
+         * 
+         * where the z_i are random odd 127-bit values (so 2^126 possible values each, all less than the group
+         * order). If any signature is invalid its term is non-zero, and the combination can only vanish for one
+         * value of its z_i, so an invalid batch is accepted with probability at most 2^-126. If the combination
+         * fails, the signatures of the batch are verified individually to find out which of them are invalid.
+         */
+
+        int[] indices = new int[batchLen];
+        PointAffine[] pAs = new PointAffine[batchLen];
+        PointAffine[] pRs = new PointAffine[batchLen];
+        int[][] nAs = new int[batchLen][];
+        int[][] nRs = new int[batchLen][];
+        int[] nB = new int[SCALAR_INTS];
+        int[] nS = new int[SCALAR_INTS];
+        int[] zS = new int[SCALAR_INTS];
+
+        boolean allValid = true;
+        int count = 0;
+
+        Digest d = createDigest();
+        byte[] h = new byte[64];
+        byte[] A = new byte[PUBLIC_KEY_SIZE];
+
+        for (int i = 0; i < batchLen; ++i)
+        {
+            int index = batchOff + i;
+            byte[] sig = sigs[index];
+
+            PointAffine pA = new PointAffine();
+            PointAffine pR = new PointAffine();
+
+            boolean valid = sig.length == SIGNATURE_SIZE;
+            if (valid)
+            {
+                byte[] R = copy(sig, 0, POINT_BYTES);
+                byte[] S = copy(sig, POINT_BYTES, SCALAR_BYTES);
+
+                valid = checkPointVar(R) && Scalar25519.checkVar(S, nS) && decodePointVar(R, true, pR);
+                if (valid)
+                {
+                    if (null != pks)
+                    {
+                        byte[] pk = pks[index];
+                        valid = pk.length == PUBLIC_KEY_SIZE;
+                        if (valid)
+                        {
+                            System.arraycopy(pk, 0, A, 0, PUBLIC_KEY_SIZE);
+                            valid = checkPointFullVar(A) && decodePointVar(A, true, pA);
+                        }
+                    }
+                    else
+                    {
+                        PublicPoint publicPoint = publicPoints[index];
+                        F.negate(publicPoint.data, pA.x);
+                        F.copy(publicPoint.data, F.SIZE, pA.y, 0);
+                        encodePublicPoint(publicPoint, A, 0);
+                    }
+                }
+                if (valid)
+                {
+                    byte[] m = ms[index];
+                    d.update(R, 0, POINT_BYTES);
+                    d.update(A, 0, POINT_BYTES);
+                    d.update(m, 0, m.length);
+                    d.doFinal(h, 0);
+
+                    int[] nk = new int[SCALAR_INTS];
+                    Scalar25519.decode(Scalar25519.reduce512(h), nk);
+
+                    int[] z = new int[4];
+                    for (int j = 0; j < 4; ++j)
+                    {
+                        z[j] = random.nextInt();
+                    }
+                    z[0] |= 1;
+                    z[3] &= 0x7FFFFFFF;
+
+                    Scalar25519.multiply128Var(nk, z, nk);
+                    Scalar25519.multiply128Var(nS, z, zS);
+                    Scalar25519.addVar(nB, zS, nB);
+
+                    indices[count] = index;
+                    pAs[count] = pA;
+                    pRs[count] = pR;
+                    nAs[count] = nk;
+                    nRs[count] = z;
+                    ++count;
+                }
+            }
+
+            if (!valid)
+            {
+                allValid = false;
+                if (null != results)
+                {
+                    results[index] = false;
+                }
+            }
+        }
+
+        if (count == 0)
+        {
+            return allValid;
+        }
+
+        PointAccum pZ = new PointAccum();
+        scalarMultStrausBatchVar(nB, count, nAs, pAs, nRs, pRs, pZ);
+        if (normalizeToNeutralElementVar(pZ))
+        {
+            if (null != results)
+            {
+                for (int i = 0; i < count; ++i)
+                {
+                    results[indices[i]] = true;
+                }
+            }
+            return allValid;
+        }
+
+        for (int i = 0; i < count; ++i)
+        {
+            int index = indices[i];
+            byte[] sig = sigs[index], m = ms[index];
+
+            boolean valid = null != pks
+                ?   implVerify(sig, 0, pks[index], 0, null, (byte)0x00, m, 0, m.length)
+                :   implVerify(sig, 0, publicPoints[index], null, (byte)0x00, m, 0, m.length);
+
+            allValid &= valid;
+            if (null != results)
+            {
+                results[index] = valid;
+            }
+        }
+        return allValid;
+    }
+
     private static void invertDoubleZs(PointExtended[] points)
     {
         int count = points.length;
@@ -1402,6 +1571,89 @@ private static void scalarMultStraus128Var(int[] nb, int[] np, PointAffine p, in
         pointDouble(r);
     }
 
+    private static void scalarMultStrausBatchVar(int[] nb, int count, int[][] np, PointAffine[] p, int[][] nq,
+        PointAffine[] q, PointAccum r)
+    {
+//        assert nb.length == SCALAR_INTS;
+//        assert np[i].length == SCALAR_INTS;
+//        assert nq[i].length == 4;
+
+        precompute();
+
+        byte[] ws_b = new byte[256];
+        Wnaf.getSignedVar(nb, WNAF_WIDTH_BASE, ws_b);
+
+        int tableSize = 1 << (WNAF_WIDTH - 2);
+        byte[][] ws_p = new byte[count][256];
+        byte[][] ws_q = new byte[count][128];
+        PointPrecompZ[][] tp = new PointPrecompZ[count][tableSize];
+        PointPrecompZ[][] tq = new PointPrecompZ[count][tableSize];
+        PointTemp t = new PointTemp();
+
+        for (int i = 0; i < count; ++i)
+        {
+            Wnaf.getSignedVar(np[i], WNAF_WIDTH, ws_p[i]);
+            Wnaf.getSignedVar(nq[i], WNAF_WIDTH, ws_q[i]);
+            pointPrecomputeZ(p[i], tp[i], tableSize, t);
+            pointPrecomputeZ(q[i], tq[i], tableSize, t);
+        }
+
+        pointSetNeutral(r);
+
+        int bit = 256;
+        while (--bit >= 128)
+        {
+            int w = ws_b[bit];
+            for (int i = 0; i < count; ++i)
+            {
+                w |= ws_p[i][bit];
+            }
+            if (w != 0)
+            {
+                break;
+            }
+        }
+
+        for (; bit >= 0; --bit)
+        {
+            int wb = ws_b[bit];
+            if (wb != 0)
+            {
+                int index = (wb >> 1) ^ (wb >> 31);
+                pointAddVar(wb < 0, PRECOMP_BASE_WNAF[index], r, t);
+            }
+
+            for (int i = 0; i < count; ++i)
+            {
+                int wp = ws_p[i][bit];
+                if (wp != 0)
+                {
+                    int index = (wp >> 1) ^ (wp >> 31);
+                    pointAddVar(wp < 0, tp[i][index], r, t);
+                }
+            }
+
+            if (bit < 128)
+            {
+                for (int i = 0; i < count; ++i)
+                {
+                    int wq = ws_q[i][bit];
+                    if (wq != 0)
+                    {
+                        int index = (wq >> 1) ^ (wq >> 31);
+                        pointAddVar(wq < 0, tq[i][index], r, t);
+                    }
+                }
+            }
+
+            pointDouble(r);
+        }
+
+        // NOTE: Together with the final pointDouble of the loop, this clears the cofactor of 8
+        pointDouble(r);
+        pointDouble(r);
+    }
+
     public static void sign(byte[] sk, int skOff, byte[] m, int mOff, int mLen, byte[] sig, int sigOff)
     {
         byte[] ctx = null;
@@ -1579,6 +1831,39 @@ public static boolean verify(byte[] sig, int sigOff, PublicPoint publicPoint, by
         return implVerify(sig, sigOff, publicPoint, ctx, phflag, m, mOff, mLen);
     }
 
+    /**
+     * Verify a batch of (pure) Ed25519 signatures. Each signature, public key and message is given as a whole
+     * array, and the public keys are fully validated as in {@link #validatePublicKeyFull(byte[], int)}.
+     * <p>
+     * A random linear combination of the verification equations is checked with a single multi-scalar
+     * multiplication per (up to) 64 signatures, using random odd 127-bit coefficients, so a batch containing an
+     * invalid signature passes that check with probability at most 2^-126. When the check fails, the signatures
+     * involved are verified individually, so that every entry of <code>results</code> is exact.
+     * </p>
+     *
+     * @param random a source of randomness for the linear combination.
+     * @param sigs the signatures.
+     * @param pks the public keys, one per signature.
+     * @param ms the messages, one per signature.
+     * @param results if not null, receives the verification result of each signature.
+     * @return true if every signature is valid, otherwise false.
+     */
+    public static boolean verifyBatch(SecureRandom random, byte[][] sigs, byte[][] pks, byte[][] ms,
+        boolean[] results)
+    {
+        return implVerifyBatch(random, sigs, pks, null, ms, results);
+    }
+
+    /**
+     * Verify a batch of (pure) Ed25519 signatures, as for {@link #verifyBatch(SecureRandom, byte[][], byte[][],
+     * byte[][], boolean[])}, but with public keys that have already been decoded.
+     */
+    public static boolean verifyBatch(SecureRandom random, byte[][] sigs, PublicPoint[] publicPoints, byte[][] ms,
+        boolean[] results)
+    {
+        return implVerifyBatch(random, sigs, null, publicPoints, ms, results);
+    }
+
     public static boolean verifyPrehash(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[] ctx, byte[] ph, int phOff)
     {
         byte phflag = 0x01;
@@ -318,18 +318,62 @@ public byte[][] generateKeyPair()
         return new byte[][]{ sk[0], sk[1], sk[2], sk[3], sk[4], sk[5], encT1};
     }
 
+    DilithiumExpandedKey expandPrivateKey(byte[] rho, byte[] t0Enc, byte[] s1Enc, byte[] s2Enc)
+    {
+        PolyVecL s1 = new PolyVecL(this);
+        PolyVecK t0 = new PolyVecK(this), s2 = new PolyVecK(this);
+        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
+
+        Packing.unpackSecretKey(t0, s1, s2, t0Enc, s1Enc, s2Enc, this);
+
+        aMatrix.expandMatrix(rho);
+
+        s1.polyVecNtt();
+        s2.polyVecNtt();
+
+        t0.polyVecNtt();
+
+        return new DilithiumExpandedKey(this, aMatrix, s1, s2, t0, null);
+    }
+
+    DilithiumExpandedKey expandPublicKey(byte[] rho, byte[] encT1)
+    {
+        PolyVecK t1 = new PolyVecK(this);
+        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
+
+        Packing.unpackPublicKey(t1, encT1, this);
+
+        aMatrix.expandMatrix(rho);
+
+        t1.shiftLeft();
+        t1.polyVecNtt();
+
+        return new DilithiumExpandedKey(this, aMatrix, null, null, null, t1);
+    }
+
     public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte[] tr, byte[] t0Enc, byte[] s1Enc, byte[] s2Enc)
+    {
+        return signSignature(msg, msglen, rho, key, tr, t0Enc, s1Enc, s2Enc, null);
+    }
+
+    byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte[] tr, byte[] t0Enc, byte[] s1Enc, byte[] s2Enc, DilithiumExpandedKey expanded)
     {
         int n;
         byte[] outSig = new byte[CryptoBytes + msglen];
         byte[] mu = new byte[CrhBytes], rhoPrime = new byte[CrhBytes];
         short nonce = 0;
-        PolyVecL s1 = new PolyVecL(this), y = new PolyVecL(this), z = new PolyVecL(this);
-        PolyVecK t0 = new PolyVecK(this), s2 = new PolyVecK(this), w1 = new PolyVecK(this), w0 = new PolyVecK(this), h = new PolyVecK(this);
+        PolyVecL y = new PolyVecL(this), z = new PolyVecL(this);
+        PolyVecK w1 = new PolyVecK(this), w0 = new PolyVecK(this), h = new PolyVecK(this);
         Poly cp = new Poly(this);
-        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
 
-        Packing.unpackSecretKey(t0, s1, s2, t0Enc, s1Enc, s2Enc, this);
+        if (expanded == null)
+        {
+            expanded = expandPrivateKey(rho, t0Enc, s1Enc, s2Enc);
+        }
+
+        PolyVecMatrix aMatrix = expanded.aMatrix;
+        PolyVecL s1 = expanded.s1;
+        PolyVecK s2 = expanded.s2, t0 = expanded.t0;
 
         this.shake256Digest.update(tr, 0, TrBytes);
         this.shake256Digest.update(msg, 0, msglen);
@@ -347,13 +391,6 @@ public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte
         shake256Digest.update(keyMu, 0, SeedBytes + RndBytes + CrhBytes);
         shake256Digest.doFinal(rhoPrime, 0, CrhBytes);
 
-        aMatrix.expandMatrix(rho);
-
-        s1.polyVecNtt();
-        s2.polyVecNtt();
-
-        t0.polyVecNtt();
-
         int count = 0;
         while (count < 1000)
         {
@@ -425,17 +462,26 @@ public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte
 
     public byte[] sign(byte[] msg, int mlen, byte[] rho, byte[] key, byte[] tr, byte[] t0, byte[] s1, byte[] s2)
     {
-        return signSignature(msg, mlen, rho, key, tr, t0, s1, s2);
+        return signSignature(msg, mlen, rho, key, tr, t0, s1, s2, null);
+    }
+
+    byte[] sign(byte[] msg, int mlen, byte[] rho, byte[] key, byte[] tr, byte[] t0, byte[] s1, byte[] s2, DilithiumExpandedKey expanded)
+    {
+        return signSignature(msg, mlen, rho, key, tr, t0, s1, s2, expanded);
     }
 
     public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[] rho, byte[] encT1)
+    {
+        return signVerify(sig, siglen, msg, msglen, rho, encT1, null);
+    }
+
+    boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[] rho, byte[] encT1, DilithiumExpandedKey expanded)
     {
         byte[] buf,
             mu = new byte[CrhBytes],
             c,
             c2 = new byte[DilithiumCTilde];
         Poly cp = new Poly(this);
-        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
         PolyVecL z = new PolyVecL(this);
         PolyVecK t1 = new PolyVecK(this), w1 = new PolyVecK(this), h = new PolyVecK(this);
 
@@ -444,13 +490,6 @@ public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[]
             return false;
         }
 
-        // System.out.println("publickey = ");
-        // Helper.printByteArray(publicKey);
-
-        t1 = Packing.unpackPublicKey(t1, encT1, this);
-
-        // System.out.println(t1.toString("t1"));
-
         // System.out.println("rho = ");
         // Helper.printByteArray(rho);
 
@@ -487,20 +526,21 @@ public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[]
         // System.out.println("cp = ");
         // System.out.println(cp.toString());
 
-        aMatrix.expandMatrix(rho);
-        // System.out.println(aMatrix.toString("aMatrix = "));
+        if (expanded == null)
+        {
+            expanded = expandPublicKey(rho, encT1);
+        }
+        // System.out.println(expanded.aMatrix.toString("aMatrix = "));
 
 
         z.polyVecNtt();
-        aMatrix.pointwiseMontgomery(w1, z);
+        expanded.aMatrix.pointwiseMontgomery(w1, z);
 
         cp.polyNtt();
         // System.out.println("cp = ");
         // System.out.println(cp.toString());
 
-        t1.shiftLeft();
-        t1.polyVecNtt();
-        t1.pointwisePolyMontgomery(cp, t1);
+        t1.pointwisePolyMontgomery(cp, expanded.t1);
 
         // System.out.println(t1.toString("t1"));
 
@@ -548,6 +588,11 @@ public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[]
 
     public boolean signOpen(byte[] msg, byte[] signedMsg, int signedMsglen, byte[] rho, byte[] t1)
     {
-        return signVerify(signedMsg, signedMsglen, msg, msg.length, rho, t1);
+        return signVerify(signedMsg, signedMsglen, msg, msg.length, rho, t1, null);
+    }
+
+    boolean signOpen(byte[] msg, byte[] signedMsg, int signedMsglen, byte[] rho, byte[] t1, DilithiumExpandedKey expanded)
+    {
+        return signVerify(signedMsg, signedMsglen, msg, msg.length, rho, t1, expanded);
     }
 }
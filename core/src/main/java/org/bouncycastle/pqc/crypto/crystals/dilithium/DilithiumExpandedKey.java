@@ -0,0 +1,109 @@
+package org.bouncycastle.pqc.crypto.crystals.dilithium;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * The NTT domain form of a key, as used by the engine: the matrix A generated from rho, and either the
+ * secret vectors s1, s2 and t0 of a private key, or the vector t1 * 2^d of a public key.
+ * <p>
+ * The contents are only ever read once created, so an expanded key can be shared between threads. Operations
+ * using the key bracket their use with {@link #acquire()} and {@link #release()}, so that the secret vectors
+ * are only zeroed by {@link #clear()} once no signature generation is using them.
+ * </p>
+ */
+class DilithiumExpandedKey
+{
+    final PolyVecMatrix aMatrix;
+    final PolyVecL s1;
+    final PolyVecK s2;
+    final PolyVecK t0;
+    final PolyVecK t1;
+
+    private final int size;
+
+    private int users;
+    private boolean cleared;
+
+    DilithiumExpandedKey(DilithiumEngine engine, PolyVecMatrix aMatrix, PolyVecL s1, PolyVecK s2, PolyVecK t0, PolyVecK t1)
+    {
+        this.aMatrix = aMatrix;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.t0 = t0;
+        this.t1 = t1;
+
+        int k = engine.getDilithiumK(), l = engine.getDilithiumL();
+        int polys = k * l + ((t1 != null) ? k : l + 2 * k);
+        this.size = polys * DilithiumEngine.DilithiumN * 4;
+    }
+
+    /**
+     * Return the size of the expanded key.
+     *
+     * @return the number of bytes of coefficients held.
+     */
+    int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Register an operation that is about to use the key.
+     *
+     * @return false if the key has been cleared and must not be used, true otherwise, in which case
+     * {@link #release()} must be called once the operation is done with the key.
+     */
+    synchronized boolean acquire()
+    {
+        if (cleared)
+        {
+            return false;
+        }
+        ++users;
+        return true;
+    }
+
+    /**
+     * Mark an operation registered by {@link #acquire()} as done with the key.
+     */
+    synchronized void release()
+    {
+        if (--users == 0 && cleared)
+        {
+            zeroSecrets();
+        }
+    }
+
+    /**
+     * Clear the key, zeroing its secret coefficients once no operation is still using them.
+     */
+    synchronized void clear()
+    {
+        if (!cleared)
+        {
+            cleared = true;
+            if (users == 0)
+            {
+                zeroSecrets();
+            }
+        }
+    }
+
+    private void zeroSecrets()
+    {
+        if (s1 != null)
+        {
+            zero(s1.vec);
+            zero(s2.vec);
+            zero(t0.vec);
+        }
+    }
+
+    private static void zero(Poly[] vec)
+    {
+        for (int i = 0; i < vec.length; ++i)
+        {
+            Arrays.fill(vec[i].getCoeffs(), 0);
+        }
+    }
+}
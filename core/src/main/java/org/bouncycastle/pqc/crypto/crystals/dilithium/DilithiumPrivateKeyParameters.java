@@ -14,6 +14,8 @@
 
     private final byte[] t1;
 
+    private volatile DilithiumExpandedKey expanded;
+
     public DilithiumPrivateKeyParameters(DilithiumParameters params, byte[] rho, byte[] K, byte[] tr, byte[] s1, byte[] s2, byte[] t0, byte[] t1)
     {
         super(true, params);
@@ -107,4 +109,51 @@ public byte[] getTr()
     {
         return Arrays.clone(tr);
     }
+
+    /**
+     * Expand the key, keeping the matrix A generated from rho, and the secret vectors s1, s2 and t0, in the NTT
+     * domain so they do not have to be regenerated for each signature generated with this key. The expanded form
+     * holds secret key material and is held until {@link #clearExpanded()} is called, expanding an already
+     * expanded key has no further effect.
+     *
+     * @return the number of bytes of coefficients held by the expanded key.
+     */
+    public synchronized int expand()
+    {
+        DilithiumExpandedKey expanded = this.expanded;
+        if (expanded == null)
+        {
+            expanded = getParameters().getEngine(null).expandPrivateKey(rho, t0, s1, s2);
+            this.expanded = expanded;
+        }
+        return expanded.getSize();
+    }
+
+    /**
+     * Release the expanded form of the key, if any. Its secret coefficients are zeroed, once any signature generation
+     * still using them has finished.
+     */
+    public synchronized void clearExpanded()
+    {
+        DilithiumExpandedKey expanded = this.expanded;
+        this.expanded = null;
+        if (expanded != null)
+        {
+            expanded.clear();
+        }
+    }
+
+    /**
+     * Return the expanded form of the key, registered as in use, or null if there is none. A non-null result
+     * must be passed to {@link DilithiumExpandedKey#release()} once the operation is done with it.
+     */
+    DilithiumExpandedKey acquireExpanded()
+    {
+        DilithiumExpandedKey expanded = this.expanded;
+        if (expanded != null && expanded.acquire())
+        {
+            return expanded;
+        }
+        return null;
+    }
 }
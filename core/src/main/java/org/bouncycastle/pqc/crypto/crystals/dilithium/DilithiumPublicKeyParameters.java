@@ -13,6 +13,8 @@ static byte[] getEncoded(byte[] rho, byte[] t1)
     final byte[] rho;
     final byte[] t1;
 
+    private volatile DilithiumExpandedKey expanded;
+
     public DilithiumPublicKeyParameters(DilithiumParameters params, byte[] encoding)
     {
         super(false, params);
@@ -41,4 +43,35 @@ public byte[] getT1()
     {
         return Arrays.clone(t1);
     }
+
+    /**
+     * Expand the key, keeping the matrix A generated from rho, and t1, in the NTT domain so they do not have to
+     * be regenerated for each signature verified with this key. The expanded form is held until
+     * {@link #clearExpanded()} is called, expanding an already expanded key has no further effect.
+     *
+     * @return the number of bytes of coefficients held by the expanded key.
+     */
+    public int expand()
+    {
+        DilithiumExpandedKey expanded = this.expanded;
+        if (expanded == null)
+        {
+            expanded = getParameters().getEngine(null).expandPublicKey(rho, t1);
+            this.expanded = expanded;
+        }
+        return expanded.getSize();
+    }
+
+    /**
+     * Release the expanded form of the key, if any.
+     */
+    public void clearExpanded()
+    {
+        this.expanded = null;
+    }
+
+    DilithiumExpandedKey getExpanded()
+    {
+        return expanded;
+    }
 }
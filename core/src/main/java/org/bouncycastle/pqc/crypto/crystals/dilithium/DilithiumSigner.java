@@ -43,13 +43,24 @@ public byte[] generateSignature(byte[] message)
     {
         DilithiumEngine engine = privKey.getParameters().getEngine(random);
 
-        return engine.sign(message, message.length, privKey.rho, privKey.k, privKey.tr, privKey.t0, privKey.s1, privKey.s2);
+        DilithiumExpandedKey expanded = privKey.acquireExpanded();
+        try
+        {
+            return engine.sign(message, message.length, privKey.rho, privKey.k, privKey.tr, privKey.t0, privKey.s1, privKey.s2, expanded);
+        }
+        finally
+        {
+            if (expanded != null)
+            {
+                expanded.release();
+            }
+        }
     }
 
     public boolean verifySignature(byte[] message, byte[] signature)
     {
         DilithiumEngine engine = pubKey.getParameters().getEngine(random);
 
-        return engine.signOpen(message, signature, signature.length, pubKey.rho, pubKey.t1);
+        return engine.signOpen(message, signature, signature.length, pubKey.rho, pubKey.t1, pubKey.getExpanded());
     }
 }
@@ -1,6 +1,7 @@
 package org.bouncycastle.pqc.crypto.crystals.dilithium;
 
 import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SHAKEX4;
 
 class Poly
 {
@@ -69,6 +70,63 @@ public void uniformBlocks(byte[] seed, short nonce)
 
     }
 
+    /*
+     * As uniformBlocks(), for each polynomial in vec, with nonces counting up from nonce,
+     * sampling four polynomials at a time.
+     */
+    static void uniformBlocks(SHAKEX4 xof, byte[] seed, Poly[] vec, short nonce)
+    {
+        int blockBytes = xof.getBlockSize(),
+            buflen = vec[0].polyUniformNBlocks * blockBytes;
+        byte[][] bufs = new byte[4][buflen + 2];
+
+        for (int start = 0; start < vec.length; start += 4)
+        {
+            int count = Math.min(4, vec.length - start);
+
+            absorbSeeds(xof, seed, (short)(nonce + start), count);
+            xof.squeezeBlocks(bufs[0], (count > 1) ? bufs[1] : null, (count > 2) ? bufs[2] : null,
+                (count > 3) ? bufs[3] : null, 0, vec[0].polyUniformNBlocks);
+
+            for (int lane = 0; lane < count; lane++)
+            {
+                Poly poly = vec[start + lane];
+                byte[] buf = bufs[lane];
+                int len = buflen;
+
+                int ctr = rejectUniform(poly, 0, poly.dilithiumN, buf, len);
+
+                while (ctr < poly.dilithiumN)
+                {
+                    int off = len % 3;
+                    for (int i = 0; i < off; ++i)
+                    {
+                        buf[i] = buf[len - off + i];
+                    }
+                    xof.squeezeBlocks(lane, buf, off, 1);
+                    len = blockBytes + off;
+                    ctr += rejectUniform(poly, ctr, poly.dilithiumN - ctr, buf, len);
+                }
+            }
+        }
+    }
+
+    private static void absorbSeeds(SHAKEX4 xof, byte[] seed, short nonce, int count)
+    {
+        byte[] temp = new byte[2];
+
+        xof.reset();
+        for (int lane = 0; lane < count; lane++)
+        {
+            short n = (short)(nonce + lane);
+            temp[0] = (byte)n;
+            temp[1] = (byte)(n >> 8);
+
+            xof.update(lane, seed, 0, seed.length);
+            xof.update(lane, temp, 0, temp.length);
+        }
+    }
+
     private static int rejectUniform(Poly outputPoly, int coeffOff, int len, byte[] inpBuf, int buflen)
     {
         int ctr, pos;
@@ -95,20 +153,7 @@ private static int rejectUniform(Poly outputPoly, int coeffOff, int len, byte[]
 
     public void uniformEta(byte[] seed, short nonce)
     {
-        int ctr, polyUniformEtaNBlocks, eta = engine.getDilithiumEta();
-
-        if (engine.getDilithiumEta() == 2)
-        {
-            polyUniformEtaNBlocks = ((136 + symmetric.stream256BlockBytes - 1) / symmetric.stream256BlockBytes); // TODO: change with class
-        }
-        else if (engine.getDilithiumEta() == 4)
-        {
-            polyUniformEtaNBlocks = ((227 + symmetric.stream256BlockBytes - 1) / symmetric.stream256BlockBytes); // TODO: change with class
-        }
-        else
-        {
-            throw new RuntimeException("Wrong Dilithium Eta!");
-        }
+        int ctr, polyUniformEtaNBlocks = getPolyUniformEtaNBlocks(), eta = engine.getDilithiumEta();
 
         int buflen = polyUniformEtaNBlocks * symmetric.stream256BlockBytes;
 
@@ -127,6 +172,58 @@ else if (engine.getDilithiumEta() == 4)
 
     }
 
+    /*
+     * As uniformEta(), for each polynomial in vec, with nonces counting up from nonce,
+     * sampling four polynomials at a time.
+     */
+    static void uniformEta(SHAKEX4 xof, byte[] seed, Poly[] vec, short nonce)
+    {
+        int blockBytes = xof.getBlockSize(),
+            nBlocks = vec[0].getPolyUniformEtaNBlocks(),
+            buflen = nBlocks * blockBytes,
+            eta = vec[0].engine.getDilithiumEta();
+        byte[][] bufs = new byte[4][buflen];
+
+        for (int start = 0; start < vec.length; start += 4)
+        {
+            int count = Math.min(4, vec.length - start);
+
+            absorbSeeds(xof, seed, (short)(nonce + start), count);
+            xof.squeezeBlocks(bufs[0], (count > 1) ? bufs[1] : null, (count > 2) ? bufs[2] : null,
+                (count > 3) ? bufs[3] : null, 0, nBlocks);
+
+            for (int lane = 0; lane < count; lane++)
+            {
+                Poly poly = vec[start + lane];
+                byte[] buf = bufs[lane];
+
+                int ctr = rejectEta(poly, 0, poly.dilithiumN, buf, buflen, eta);
+
+                while (ctr < DilithiumEngine.DilithiumN)
+                {
+                    xof.squeezeBlocks(lane, buf, 0, 1);
+                    ctr += rejectEta(poly, ctr, poly.dilithiumN - ctr, buf, blockBytes, eta);
+                }
+            }
+        }
+    }
+
+    private int getPolyUniformEtaNBlocks()
+    {
+        if (engine.getDilithiumEta() == 2)
+        {
+            return ((136 + symmetric.stream256BlockBytes - 1) / symmetric.stream256BlockBytes); // TODO: change with class
+        }
+        else if (engine.getDilithiumEta() == 4)
+        {
+            return ((227 + symmetric.stream256BlockBytes - 1) / symmetric.stream256BlockBytes); // TODO: change with class
+        }
+        else
+        {
+            throw new RuntimeException("Wrong Dilithium Eta!");
+        }
+    }
+
     private static int rejectEta(Poly outputPoly, int coeffOff, int len, byte[] buf, int buflen, int eta)
     {
         int ctr, pos;
@@ -1,5 +1,7 @@
 package org.bouncycastle.pqc.crypto.crystals.dilithium;
 
+import org.bouncycastle.crypto.digests.SHAKEX4;
+
 class PolyVecK
 {
     Poly[] vec;
@@ -41,6 +43,13 @@ public void setVectorIndex(int i, Poly p)
 
     public void uniformEta(byte[] seed, short nonce)
     {
+        SHAKEX4 xofX4 = engine.GetSymmetric().getStream256X4();
+        if (xofX4 != null)
+        {
+            Poly.uniformEta(xofX4, seed, vec, nonce);
+            return;
+        }
+
         int i;
         short n = nonce;
         for (i = 0; i < dilithiumK; ++i)
@@ -1,5 +1,7 @@
 package org.bouncycastle.pqc.crypto.crystals.dilithium;
 
+import org.bouncycastle.crypto.digests.SHAKEX4;
+
 class PolyVecL
 {
     Poly[] vec;
@@ -36,6 +38,13 @@ public Poly getVectorIndex(int i)
 
     public void expandMatrix(byte[] rho, int i)
     {
+        SHAKEX4 xofX4 = engine.GetSymmetric().getStream128X4();
+        if (xofX4 != null)
+        {
+            Poly.uniformBlocks(xofX4, rho, vec, (short)(i << 8));
+            return;
+        }
+
         int j;
         for (j = 0; j < dilithiumL; j++)
         {
@@ -45,6 +54,13 @@ public void expandMatrix(byte[] rho, int i)
 
     public void uniformEta(byte[] seed, short nonce)
     {
+        SHAKEX4 xofX4 = engine.GetSymmetric().getStream256X4();
+        if (xofX4 != null)
+        {
+            Poly.uniformEta(xofX4, seed, vec, nonce);
+            return;
+        }
+
         int i;
         short n = nonce;
         for (i = 0; i < dilithiumL; ++i)
@@ -35,13 +35,10 @@ public void pointwiseMontgomery(PolyVecK t, PolyVecL v)
 
     public void expandMatrix(byte[] rho)
     {
-        int i, j;
+        int i;
         for (i = 0; i < dilithiumK; ++i)
         {
-            for (j = 0; j < dilithiumL; ++j)
-            {
-                this.mat[i].getVectorIndex(j).uniformBlocks(rho, (short)((i << 8) + j));
-            }
+            this.mat[i].expandMatrix(rho, i);
         }
     }
 
@@ -2,6 +2,7 @@
 
 import org.bouncycastle.crypto.StreamCipher;
 import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SHAKEX4;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.modes.SICBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
@@ -27,6 +28,22 @@
 
     abstract void stream256squeezeBlocks(byte[] output, int offset, int size);
 
+    /**
+     * Return a four lane version of stream128 for sampling several polynomials at once, null if there isn't one.
+     */
+    SHAKEX4 getStream128X4()
+    {
+        return null;
+    }
+
+    /**
+     * Return a four lane version of stream256 for sampling several polynomials at once, null if there isn't one.
+     */
+    SHAKEX4 getStream256X4()
+    {
+        return null;
+    }
+
 
     /**
      * @deprecated
@@ -92,12 +109,28 @@ void stream256squeezeBlocks(byte[] output, int offset, int size)
     {
         private final SHAKEDigest digest128;
         private final SHAKEDigest digest256;
+        private final SHAKEX4 digest128X4;
+        private final SHAKEX4 digest256X4;
 
         ShakeSymmetric()
         {
             super(168, 136);
             digest128 = new SHAKEDigest(128);
             digest256 = new SHAKEDigest(256);
+            digest128X4 = new SHAKEX4(128);
+            digest256X4 = new SHAKEX4(256);
+        }
+
+        @Override
+        SHAKEX4 getStream128X4()
+        {
+            return digest128X4;
+        }
+
+        @Override
+        SHAKEX4 getStream256X4()
+        {
+            return digest256X4;
         }
 
         private void streamInit(SHAKEDigest digest, byte[] seed, short nonce)
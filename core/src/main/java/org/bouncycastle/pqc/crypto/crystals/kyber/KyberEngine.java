@@ -215,7 +215,17 @@ public byte[][] generateKemKeyPair()
         return new byte[][]{ Arrays.copyOfRange(outputPublicKey, 0, outputPublicKey.length - 32), Arrays.copyOfRange(outputPublicKey, outputPublicKey.length - 32, outputPublicKey.length), s, hashedPublicKey, z };
     }
 
+    KyberExpandedKey expandKey(byte[] publicKeyInput, byte[] indCpaSecretKey)
+    {
+        return indCpa.expandKey(publicKeyInput, indCpaSecretKey);
+    }
+
     public byte[][] kemEncrypt(byte[] publicKeyInput)
+    {
+        return kemEncrypt(publicKeyInput, null);
+    }
+
+    byte[][] kemEncrypt(byte[] publicKeyInput, KyberExpandedKey expanded)
     {
         byte[] outputCipherText;
 
@@ -235,7 +245,7 @@ public byte[][] kemEncrypt(byte[] publicKeyInput)
         symmetric.hash_g(kr, buf);
 
         // IndCpa Encryption
-        outputCipherText = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKeyInput, Arrays.copyOfRange(kr, 32, kr.length));
+        outputCipherText = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKeyInput, Arrays.copyOfRange(kr, 32, kr.length), expanded);
 
         byte[] outputSharedSecret = new byte[sessionKeyLength];
 
@@ -249,19 +259,24 @@ public byte[][] kemEncrypt(byte[] publicKeyInput)
     }
 
     public byte[] kemDecrypt(byte[] cipherText, byte[] secretKey)
+    {
+        return kemDecrypt(cipherText, secretKey, null);
+    }
+
+    byte[] kemDecrypt(byte[] cipherText, byte[] secretKey, KyberExpandedKey expanded)
     {
         byte[] buf = new byte[2 * KyberSymBytes],
             kr = new byte[2 * KyberSymBytes];
 
         byte[] publicKey = Arrays.copyOfRange(secretKey, KyberIndCpaSecretKeyBytes, secretKey.length);
 
-        System.arraycopy(indCpa.decrypt(cipherText, secretKey), 0, buf, 0, KyberSymBytes);
+        System.arraycopy(indCpa.decrypt(cipherText, secretKey, expanded), 0, buf, 0, KyberSymBytes);
 
         System.arraycopy(secretKey, KyberSecretKeyBytes - 2 * KyberSymBytes, buf, KyberSymBytes, KyberSymBytes);
 
         symmetric.hash_g(kr, buf);
 
-        byte[] cmp = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKey, Arrays.copyOfRange(kr, KyberSymBytes, kr.length));
+        byte[] cmp = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKey, Arrays.copyOfRange(kr, KyberSymBytes, kr.length), expanded);
 
         boolean fail = !(Arrays.constantTimeAreEqual(cipherText, cmp));
 
@@ -0,0 +1,98 @@
+package org.bouncycastle.pqc.crypto.crystals.kyber;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * The unpacked form of a key, as used by the IND-CPA scheme: the transpose of the matrix A generated from
+ * rho, the public vector t and, for a private key, the secret vector s.
+ * <p>
+ * The contents are only ever read once created, so an expanded key can be shared between threads. Operations
+ * using the key bracket their use with {@link #acquire()} and {@link #release()}, so that the secret vector is
+ * only zeroed by {@link #clear()} once no decapsulation is using it.
+ * </p>
+ */
+class KyberExpandedKey
+{
+    final PolyVec[] aMatrixTranspose;
+    final PolyVec t;
+    final PolyVec s;
+
+    private final int size;
+
+    private int users;
+    private boolean cleared;
+
+    KyberExpandedKey(KyberEngine engine, PolyVec[] aMatrixTranspose, PolyVec t, PolyVec s)
+    {
+        this.aMatrixTranspose = aMatrixTranspose;
+        this.t = t;
+        this.s = s;
+
+        int k = engine.getKyberK();
+        int polys = k * k + ((s != null) ? 2 * k : k);
+        this.size = polys * KyberEngine.KyberN * 2;
+    }
+
+    /**
+     * Return the size of the expanded key.
+     *
+     * @return the number of bytes of coefficients held.
+     */
+    int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Register an operation that is about to use the key.
+     *
+     * @return false if the key has been cleared and must not be used, true otherwise, in which case
+     * {@link #release()} must be called once the operation is done with the key.
+     */
+    synchronized boolean acquire()
+    {
+        if (cleared)
+        {
+            return false;
+        }
+        ++users;
+        return true;
+    }
+
+    /**
+     * Mark an operation registered by {@link #acquire()} as done with the key.
+     */
+    synchronized void release()
+    {
+        if (--users == 0 && cleared)
+        {
+            zeroSecrets();
+        }
+    }
+
+    /**
+     * Clear the key, zeroing its secret coefficients once no operation is still using them.
+     */
+    synchronized void clear()
+    {
+        if (!cleared)
+        {
+            cleared = true;
+            if (users == 0)
+            {
+                zeroSecrets();
+            }
+        }
+    }
+
+    private void zeroSecrets()
+    {
+        if (s != null)
+        {
+            for (int i = 0; i < s.vec.length; ++i)
+            {
+                Arrays.fill(s.vec[i].getCoeffs(), (short)0);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.bouncycastle.pqc.crypto.crystals.kyber;
 
 import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SHAKEX4;
 import org.bouncycastle.util.Arrays;
 
 class KyberIndCpa
@@ -141,16 +142,41 @@ byte[][] generateKeyPair()
         return new byte[][]{packPublicKey(publicKey, publicSeed), packSecretKey(secretKey)};
     }
 
+    KyberExpandedKey expandKey(byte[] publicKeyInput, byte[] secretKey)
+    {
+        PolyVec publicKeyPolyVec = new PolyVec(engine), secretKeyPolyVec = null;
+        PolyVec[] aMatrixTranspose = new PolyVec[kyberK];
+
+        byte[] seed = unpackPublicKey(publicKeyPolyVec, publicKeyInput);
+
+        for (int i = 0; i < kyberK; i++)
+        {
+            aMatrixTranspose[i] = new PolyVec(engine);
+        }
+
+        generateMatrix(aMatrixTranspose, seed, true);
+
+        if (secretKey != null)
+        {
+            secretKeyPolyVec = new PolyVec(engine);
+            unpackSecretKey(secretKeyPolyVec, secretKey);
+        }
+
+        return new KyberExpandedKey(engine, aMatrixTranspose, publicKeyPolyVec, secretKeyPolyVec);
+    }
+
     public byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins)
+    {
+        return encrypt(msg, publicKeyInput, coins, null);
+    }
+
+    byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins, KyberExpandedKey expanded)
     {
         int i;
-        byte[] seed;
         byte nonce = (byte)0;
         PolyVec sp = new PolyVec(engine),
-            publicKeyPolyVec = new PolyVec(engine),
             errorPolyVector = new PolyVec(engine),
             bp = new PolyVec(engine);
-        PolyVec[] aMatrixTranspose = new PolyVec[engine.getKyberK()];
         Poly errorPoly = new Poly(engine),
             v = new Poly(engine),
             k = new Poly(engine);
@@ -160,7 +186,13 @@ public byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins)
         // Helper.printByteArray(publicKeyInput);
         // System.out.println();
 
-        seed = unpackPublicKey(publicKeyPolyVec, publicKeyInput);
+        if (expanded == null)
+        {
+            expanded = expandKey(publicKeyInput, null);
+        }
+
+        PolyVec publicKeyPolyVec = expanded.t;
+        PolyVec[] aMatrixTranspose = expanded.aMatrixTranspose;
 
         // System.out.print("publickeyPolyVec = [");
         // for (i = 0; i < kyberK; i++) {
@@ -175,13 +207,6 @@ public byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins)
 
         k.fromMsg(msg);
 
-        for (i = 0; i < kyberK; i++)
-        {
-            aMatrixTranspose[i] = new PolyVec(engine);
-        }
-
-        generateMatrix(aMatrixTranspose, seed, true);
-
         // System.out.print("matrix transposed = ");
         // for (i = 0; i < kyberK; i++) {
         //     System.out.print("[");
@@ -321,6 +346,13 @@ public void unpackSecretKey(PolyVec secretKeyPolyVec, byte[] secretKey)
 
     public void generateMatrix(PolyVec[] aMatrix, byte[] seed, boolean transposed)
     {
+        SHAKEX4 xofX4 = symmetric.getXofX4();
+        if (xofX4 != null)
+        {
+            generateMatrix(aMatrix, seed, transposed, xofX4);
+            return;
+        }
+
         int i, j, k, ctr, off;
         SHAKEDigest kyberXOF;
         byte[] buf = new byte[KyberGenerateMatrixNBlocks * symmetric.xofBlockBytes + 2];
@@ -358,6 +390,56 @@ public void generateMatrix(PolyVec[] aMatrix, byte[] seed, boolean transposed)
 
     }
 
+    /*
+     * As above, but expanding the matrix entries four at a time, in row major order.
+     */
+    private void generateMatrix(PolyVec[] aMatrix, byte[] seed, boolean transposed, SHAKEX4 xof)
+    {
+        int entries = kyberK * kyberK;
+        int blockBytes = symmetric.xofBlockBytes;
+        byte[][] bufs = new byte[4][KyberGenerateMatrixNBlocks * blockBytes + 2];
+        byte[] ij = new byte[2];
+
+        for (int e = 0; e < entries; e += 4)
+        {
+            int lanes = Math.min(4, entries - e);
+
+            xof.reset();
+            for (int lane = 0; lane < lanes; lane++)
+            {
+                int i = (e + lane) / kyberK, j = (e + lane) % kyberK;
+                ij[0] = (byte)(transposed ? i : j);
+                ij[1] = (byte)(transposed ? j : i);
+                xof.update(lane, seed, 0, seed.length);
+                xof.update(lane, ij, 0, 2);
+            }
+            xof.squeezeBlocks(bufs[0], (lanes > 1) ? bufs[1] : null, (lanes > 2) ? bufs[2] : null,
+                (lanes > 3) ? bufs[3] : null, 0, KyberGenerateMatrixNBlocks);
+
+            for (int lane = 0; lane < lanes; lane++)
+            {
+                Poly poly = aMatrix[(e + lane) / kyberK].getVectorIndex((e + lane) % kyberK);
+                byte[] buf = bufs[lane];
+
+                int buflen = KyberGenerateMatrixNBlocks * blockBytes;
+                int ctr = rejectionSampling(poly, 0, KyberEngine.KyberN, buf, buflen);
+
+                while (ctr < KyberEngine.KyberN)
+                {
+                    int off = buflen % 3;
+                    for (int k = 0; k < off; k++)
+                    {
+                        buf[k] = buf[buflen - off + k];
+                    }
+                    // two blocks, as squeezed by the single stream version
+                    xof.squeezeBlocks(lane, buf, off, 2);
+                    buflen = off + blockBytes;
+                    ctr += rejectionSampling(poly, ctr, KyberEngine.KyberN - ctr, buf, buflen);
+                }
+            }
+        }
+    }
+
     private static int rejectionSampling(Poly outputBuffer, int coeffOff, int len, byte[] inpBuf, int inpBufLen)
     {
         int ctr, pos;
@@ -384,11 +466,16 @@ private static int rejectionSampling(Poly outputBuffer, int coeffOff, int len, b
     }
 
     public byte[] decrypt(byte[] cipherText, byte[] secretKey)
+    {
+        return decrypt(cipherText, secretKey, null);
+    }
+
+    byte[] decrypt(byte[] cipherText, byte[] secretKey, KyberExpandedKey expanded)
     {
         int i;
         byte[] outputMessage = new byte[KyberEngine.getKyberIndCpaMsgBytes()];
 
-        PolyVec bp = new PolyVec(engine), secretKeyPolyVec = new PolyVec(engine);
+        PolyVec bp = new PolyVec(engine), secretKeyPolyVec;
         Poly v = new Poly(engine), mp = new Poly(engine);
 
         unpackCipherText(bp, v, cipherText);
@@ -405,7 +492,15 @@ public byte[] decrypt(byte[] cipherText, byte[] secretKey)
         // Helper.printShortArray(v.getCoeffs());
         // System.out.println();
 
-        unpackSecretKey(secretKeyPolyVec, secretKey);
+        if (expanded != null)
+        {
+            secretKeyPolyVec = expanded.s;
+        }
+        else
+        {
+            secretKeyPolyVec = new PolyVec(engine);
+            unpackSecretKey(secretKeyPolyVec, secretKey);
+        }
 
         // System.out.print("decrypt secretkey = ");;
         // Helper.printByteArray(secretKey);
@@ -26,8 +26,19 @@ private void initCipher(AsymmetricKeyParameter recipientKey)
     public byte[] extractSecret(byte[] encapsulation)
     {
         // Decryption
-        byte[] sharedSecret = engine.kemDecrypt(encapsulation, key.getEncoded());
-        return sharedSecret;
+        KyberExpandedKey expanded = key.acquireExpanded();
+        try
+        {
+            byte[] sharedSecret = engine.kemDecrypt(encapsulation, key.getEncoded(), expanded);
+            return sharedSecret;
+        }
+        finally
+        {
+            if (expanded != null)
+            {
+                expanded.release();
+            }
+        }
     }
 
     public int getEncapsulationLength()
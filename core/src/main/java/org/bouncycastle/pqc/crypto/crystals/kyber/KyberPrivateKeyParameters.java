@@ -11,6 +11,8 @@
     final byte[] t;
     final byte[] rho;
 
+    private volatile KyberExpandedKey expanded;
+
     public KyberPrivateKeyParameters(KyberParameters params, byte[] s, byte[] hpk, byte[] nonce, byte[] t, byte[] rho)
     {
         super(true, params);
@@ -80,4 +82,51 @@ public byte[] getT()
     {
         return Arrays.clone(t);
     }
+
+    /**
+     * Expand the key, keeping the matrix A generated from rho, and the unpacked vectors s and t, so they do not
+     * have to be regenerated for each decapsulation made with this key. The expanded form holds secret key
+     * material and is held until {@link #clearExpanded()} is called, expanding an already expanded key has no
+     * further effect.
+     *
+     * @return the number of bytes of coefficients held by the expanded key.
+     */
+    public synchronized int expand()
+    {
+        KyberExpandedKey expanded = this.expanded;
+        if (expanded == null)
+        {
+            expanded = getParameters().getEngine().expandKey(getPublicKey(), s);
+            this.expanded = expanded;
+        }
+        return expanded.getSize();
+    }
+
+    /**
+     * Release the expanded form of the key, if any. Its secret coefficients are zeroed, once any decapsulation
+     * still using them has finished.
+     */
+    public synchronized void clearExpanded()
+    {
+        KyberExpandedKey expanded = this.expanded;
+        this.expanded = null;
+        if (expanded != null)
+        {
+            expanded.clear();
+        }
+    }
+
+    /**
+     * Return the expanded form of the key, registered as in use, or null if there is none. A non-null result
+     * must be passed to {@link KyberExpandedKey#release()} once the operation is done with it.
+     */
+    KyberExpandedKey acquireExpanded()
+    {
+        KyberExpandedKey expanded = this.expanded;
+        if (expanded != null && expanded.acquire())
+        {
+            return expanded;
+        }
+        return null;
+    }
 }
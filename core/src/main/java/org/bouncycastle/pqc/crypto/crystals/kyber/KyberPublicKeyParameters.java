@@ -13,6 +13,8 @@ static byte[] getEncoded(byte[] t, byte[] rho)
     final byte[] t;
     final byte[] rho;
 
+    private volatile KyberExpandedKey expanded;
+
     public KyberPublicKeyParameters(KyberParameters params, byte[] t, byte[] rho)
     {
         super(false, params);
@@ -47,4 +49,35 @@ public byte[] getT()
     {
         return Arrays.clone(t);
     }
+
+    /**
+     * Expand the key, keeping the matrix A generated from rho, and the unpacked vector t, so they do not have to
+     * be regenerated for each encapsulation made with this key. The expanded form is held until
+     * {@link #clearExpanded()} is called, expanding an already expanded key has no further effect.
+     *
+     * @return the number of bytes of coefficients held by the expanded key.
+     */
+    public int expand()
+    {
+        KyberExpandedKey expanded = this.expanded;
+        if (expanded == null)
+        {
+            expanded = getParameters().getEngine().expandKey(getEncoded(), null);
+            this.expanded = expanded;
+        }
+        return expanded.getSize();
+    }
+
+    /**
+     * Release the expanded form of the key, if any.
+     */
+    public void clearExpanded()
+    {
+        this.expanded = null;
+    }
+
+    KyberExpandedKey getExpanded()
+    {
+        return expanded;
+    }
 }
@@ -6,6 +6,7 @@
 import org.bouncycastle.crypto.digests.SHA3Digest;
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SHAKEX4;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.modes.SICBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
@@ -33,11 +34,20 @@
         this.xofBlockBytes = blockBytes;
     }
 
+    /**
+     * Return a four lane version of the XOF for expanding several matrix entries at once, null if there isn't one.
+     */
+    SHAKEX4 getXofX4()
+    {
+        return null;
+    }
+
 
     static class ShakeSymmetric
         extends Symmetric
     {
         private final SHAKEDigest xof;
+        private final SHAKEX4 xofX4;
         private final SHA3Digest sha3Digest512;
         private final SHA3Digest sha3Digest256;
         private final SHAKEDigest shakeDigest;
@@ -46,11 +56,18 @@
         {
             super(168);
             this.xof = new SHAKEDigest(128);
+            this.xofX4 = new SHAKEX4(128);
             this.shakeDigest = new SHAKEDigest(256);
             this.sha3Digest256 = new SHA3Digest(256);
             this.sha3Digest512 = new SHA3Digest(512);
         }
 
+        @Override
+        SHAKEX4 getXofX4()
+        {
+            return xofX4;
+        }
+
         @Override
         void hash_h(byte[] out, byte[] in, int outOffset)
         {
@@ -9,89 +9,6 @@
         fpr = new FPREngine();
     }
 
-    // complex number functions
-    ComplexNumberWrapper FPC_ADD(FalconFPR a_re, FalconFPR a_im, FalconFPR b_re, FalconFPR b_im)
-    {
-        FalconFPR fpct_re, fpct_im;
-        fpct_re = fpr.fpr_add(a_re, b_re);
-        fpct_im = fpr.fpr_add(a_im, b_im);
-        return new ComplexNumberWrapper(fpct_re, fpct_im);
-    }
-
-    ComplexNumberWrapper FPC_SUB(FalconFPR a_re, FalconFPR a_im, FalconFPR b_re, FalconFPR b_im)
-    {
-        FalconFPR fpct_re, fpct_im;
-        fpct_re = fpr.fpr_sub(a_re, b_re);
-        fpct_im = fpr.fpr_sub(a_im, b_im);
-        return new ComplexNumberWrapper(fpct_re, fpct_im);
-    }
-
-    ComplexNumberWrapper FPC_MUL(FalconFPR a_re, FalconFPR a_im, FalconFPR b_re, FalconFPR b_im)
-    {
-        FalconFPR fpct_a_re, fpct_a_im;
-        FalconFPR fpct_b_re, fpct_b_im;
-        FalconFPR fpct_d_re, fpct_d_im;
-        fpct_a_re = (a_re);
-        fpct_a_im = (a_im);
-        fpct_b_re = (b_re);
-        fpct_b_im = (b_im);
-        fpct_d_re = fpr.fpr_sub(
-            fpr.fpr_mul(fpct_a_re, fpct_b_re),
-            fpr.fpr_mul(fpct_a_im, fpct_b_im));
-        fpct_d_im = fpr.fpr_add(
-            fpr.fpr_mul(fpct_a_re, fpct_b_im),
-            fpr.fpr_mul(fpct_a_im, fpct_b_re));
-        return new ComplexNumberWrapper(fpct_d_re, fpct_d_im);
-    }
-
-    ComplexNumberWrapper FPC_SQR(FalconFPR a_re, FalconFPR a_im)
-    {
-        FalconFPR fpct_a_re, fpct_a_im;
-        FalconFPR fpct_d_re, fpct_d_im;
-        fpct_a_re = (a_re);
-        fpct_a_im = (a_im);
-        fpct_d_re = fpr.fpr_sub(fpr.fpr_sqr(fpct_a_re), fpr.fpr_sqr(fpct_a_im));
-        fpct_d_im = fpr.fpr_double(fpr.fpr_mul(fpct_a_re, fpct_a_im));
-        return new ComplexNumberWrapper(fpct_d_re, fpct_d_im);
-    }
-
-    ComplexNumberWrapper FPC_INV(FalconFPR a_re, FalconFPR a_im)
-    {
-        FalconFPR fpct_a_re, fpct_a_im;
-        FalconFPR fpct_d_re, fpct_d_im;
-        FalconFPR fpct_m;
-        fpct_a_re = (a_re);
-        fpct_a_im = (a_im);
-        fpct_m = fpr.fpr_add(fpr.fpr_sqr(fpct_a_re), fpr.fpr_sqr(fpct_a_im));
-        fpct_m = fpr.fpr_inv(fpct_m);
-        fpct_d_re = fpr.fpr_mul(fpct_a_re, fpct_m);
-        fpct_d_im = fpr.fpr_mul(fpr.fpr_neg(fpct_a_im), fpct_m);
-        return new ComplexNumberWrapper(fpct_d_re, fpct_d_im);
-    }
-
-    ComplexNumberWrapper FPC_DIV(FalconFPR a_re, FalconFPR a_im, FalconFPR b_re, FalconFPR b_im)
-    {
-        FalconFPR fpct_a_re, fpct_a_im;
-        FalconFPR fpct_b_re, fpct_b_im;
-        FalconFPR fpct_d_re, fpct_d_im;
-        FalconFPR fpct_m;
-        fpct_a_re = (a_re);
-        fpct_a_im = (a_im);
-        fpct_b_re = (b_re);
-        fpct_b_im = (b_im);
-        fpct_m = fpr.fpr_add(fpr.fpr_sqr(fpct_b_re), fpr.fpr_sqr(fpct_b_im));
-        fpct_m = fpr.fpr_inv(fpct_m);
-        fpct_b_re = fpr.fpr_mul(fpct_b_re, fpct_m);
-        fpct_b_im = fpr.fpr_mul(fpr.fpr_neg(fpct_b_im), fpct_m);
-        fpct_d_re = fpr.fpr_sub(
-            fpr.fpr_mul(fpct_a_re, fpct_b_re),
-            fpr.fpr_mul(fpct_a_im, fpct_b_im));
-        fpct_d_im = fpr.fpr_add(
-            fpr.fpr_mul(fpct_a_re, fpct_b_im),
-            fpr.fpr_mul(fpct_a_im, fpct_b_re));
-        return new ComplexNumberWrapper(fpct_d_re, fpct_d_im);
-    }
-
     /*
      * Let w = exp(i*pi/N); w is a primitive 2N-th root of 1. We define the
      * values w_j = w^(2j+1) for all j from 0 to N-1: these are the roots
@@ -117,7 +34,7 @@ ComplexNumberWrapper FPC_DIV(FalconFPR a_re, FalconFPR a_im, FalconFPR b_re, Fal
      */
 
     /* see inner.h */
-    void FFT(FalconFPR[] srcf, int f, int logn)
+    void FFT(double[] srcf, int f, int logn)
     {
         /*
          * FFT algorithm in bit-reversal order uses the following
@@ -176,30 +93,27 @@ void FFT(FalconFPR[] srcf, int f, int logn)
                 int j, j2;
 
                 j2 = j1 + ht;
-                FalconFPR s_re, s_im;
+                double s_re, s_im;
 
                 s_re = fpr.fpr_gm_tab[((m + i1) << 1) + 0];
                 s_im = fpr.fpr_gm_tab[((m + i1) << 1) + 1];
                 for (j = j1; j < j2; j++)
                 {
-                    FalconFPR x_re, x_im, y_re, y_im;
-                    ComplexNumberWrapper res;
+                    double x_re, x_im, y_re, y_im, t_re;
 
                     x_re = srcf[f + j];
                     x_im = srcf[f + j + hn];
                     y_re = srcf[f + j + ht];
                     y_im = srcf[f + j + ht + hn];
-                    res = FPC_MUL(y_re, y_im, s_re, s_im);
-                    y_re = res.re;
-                    y_im = res.im;
 
-                    res = FPC_ADD(x_re, x_im, y_re, y_im);
-                    srcf[f + j] = res.re;
-                    srcf[f + j + hn] = res.im;
+                    t_re = y_re * s_re - y_im * s_im;
+                    y_im = y_re * s_im + y_im * s_re;
+                    y_re = t_re;
 
-                    res = FPC_SUB(x_re, x_im, y_re, y_im);
-                    srcf[f + j + ht] = res.re;
-                    srcf[f + j + ht + hn] = res.im;
+                    srcf[f + j] = x_re + y_re;
+                    srcf[f + j + hn] = x_im + y_im;
+                    srcf[f + j + ht] = x_re - y_re;
+                    srcf[f + j + ht + hn] = x_im - y_im;
                 }
             }
             t = ht;
@@ -207,7 +121,7 @@ void FFT(FalconFPR[] srcf, int f, int logn)
     }
 
     /* see inner.h */
-    void iFFT(FalconFPR[] srcf, int f, int logn)
+    void iFFT(double[] srcf, int f, int logn)
     {
         /*
          * Inverse FFT algorithm in bit-reversal order uses the following
@@ -268,30 +182,26 @@ void iFFT(FalconFPR[] srcf, int f, int logn)
                 int j, j2;
 
                 j2 = j1 + t;
-                FalconFPR s_re, s_im;
+                double s_re, s_im;
 
                 s_re = fpr.fpr_gm_tab[((hm + i1) << 1) + 0];
-                s_im = fpr.fpr_neg(fpr.fpr_gm_tab[((hm + i1) << 1) + 1]);
+                s_im = -fpr.fpr_gm_tab[((hm + i1) << 1) + 1];
                 for (j = j1; j < j2; j++)
                 {
-                    FalconFPR x_re, x_im, y_re, y_im;
-                    ComplexNumberWrapper res;
+                    double x_re, x_im, y_re, y_im;
 
                     x_re = srcf[f + j];
                     x_im = srcf[f + j + hn];
                     y_re = srcf[f + j + t];
                     y_im = srcf[f + j + t + hn];
-                    res = FPC_ADD(x_re, x_im, y_re, y_im);
-                    srcf[f + j] = res.re;
-                    srcf[f + j + hn] = res.im;
+                    srcf[f + j] = x_re + y_re;
+                    srcf[f + j + hn] = x_im + y_im;
 
-                    res = FPC_SUB(x_re, x_im, y_re, y_im);
-                    x_re = res.re;
-                    x_im = res.im;
+                    x_re -= y_re;
+                    x_im -= y_im;
 
-                    res = FPC_MUL(x_re, x_im, s_re, s_im);
-                    srcf[f + j + t] = res.re;
-                    srcf[f + j + t + hn] = res.im;
+                    srcf[f + j + t] = x_re * s_re - x_im * s_im;
+                    srcf[f + j + t + hn] = x_re * s_im + x_im * s_re;
                 }
             }
             t = dt;
@@ -304,69 +214,69 @@ void iFFT(FalconFPR[] srcf, int f, int logn)
          */
         if (logn > 0)
         {
-            FalconFPR ni;
+            double ni;
 
             ni = fpr.fpr_p2_tab[logn];
             for (u = 0; u < n; u++)
             {
-                srcf[f + u] = fpr.fpr_mul(srcf[f + u], ni);
+                srcf[f + u] *= ni;
             }
         }
     }
 
     /* see inner.h */
     void poly_add(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, u;
 
         n = 1 << logn;
         for (u = 0; u < n; u++)
         {
-            srca[a + u] = fpr.fpr_add(srca[a + u], srcb[b + u]);
+            srca[a + u] += srcb[b + u];
         }
     }
 
     /* see inner.h */
     void poly_sub(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, u;
 
         n = 1 << logn;
         for (u = 0; u < n; u++)
         {
-            srca[a + u] = fpr.fpr_sub(srca[a + u], srcb[b + u]);
+            srca[a + u] -= srcb[b + u];
         }
     }
 
     /* see inner.h */
-    void poly_neg(FalconFPR[] srca, int a, int logn)
+    void poly_neg(double[] srca, int a, int logn)
     {
         int n, u;
 
         n = 1 << logn;
         for (u = 0; u < n; u++)
         {
-            srca[a + u] = fpr.fpr_neg(srca[a + u]);
+            srca[a + u] = -srca[a + u];
         }
     }
 
     /* see inner.h */
-    void poly_adj_fft(FalconFPR[] srca, int a, int logn)
+    void poly_adj_fft(double[] srca, int a, int logn)
     {
         int n, u;
 
         n = 1 << logn;
         for (u = (n >> 1); u < n; u++)
         {
-            srca[a + u] = fpr.fpr_neg(srca[a + u]);
+            srca[a + u] = -srca[a + u];
         }
     }
 
     /* see inner.h */
     void poly_mul_fft(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -374,22 +284,20 @@ void poly_mul_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR a_re, a_im, b_re, b_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im, b_re, b_im;
 
             a_re = srca[a + u];
             a_im = srca[a + u + hn];
             b_re = srcb[b + u];
             b_im = srcb[b + u + hn];
-            res = FPC_MUL(a_re, a_im, b_re, b_im);
-            srca[a + u] = res.re;
-            srca[a + u + hn] = res.im;
+            srca[a + u] = a_re * b_re - a_im * b_im;
+            srca[a + u + hn] = a_re * b_im + a_im * b_re;
         }
     }
 
     /* see inner.h */
     void poly_muladj_fft(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -397,21 +305,19 @@ void poly_muladj_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR a_re, a_im, b_re, b_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im, b_re, b_im;
 
             a_re = srca[a + u];
             a_im = srca[a + u + hn];
             b_re = srcb[b + u];
-            b_im = fpr.fpr_neg(srcb[b + u + hn]);
-            res = FPC_MUL(a_re, a_im, b_re, b_im);
-            srca[a + u] = res.re;
-            srca[a + u + hn] = res.im;
+            b_im = -srcb[b + u + hn];
+            srca[a + u] = a_re * b_re - a_im * b_im;
+            srca[a + u + hn] = a_re * b_im + a_im * b_re;
         }
     }
 
     /* see inner.h */
-    void poly_mulselfadj_fft(FalconFPR[] srca, int a, int logn)
+    void poly_mulselfadj_fft(double[] srca, int a, int logn)
     {
         /*
          * Since each coefficient is multiplied with its own conjugate,
@@ -423,31 +329,30 @@ void poly_mulselfadj_fft(FalconFPR[] srca, int a, int logn)
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR a_re, a_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im;
 
             a_re = srca[a + u];
             a_im = srca[a + u + hn];
-            srca[a + u] = fpr.fpr_add(fpr.fpr_sqr(a_re), fpr.fpr_sqr(a_im));
-            srca[a + u + hn] = fpr.fpr_zero;
+            srca[a + u] = a_re * a_re + a_im * a_im;
+            srca[a + u + hn] = 0.0;
         }
     }
 
     /* see inner.h */
-    void poly_mulconst(FalconFPR[] srca, int a, FalconFPR x, int logn)
+    void poly_mulconst(double[] srca, int a, double x, int logn)
     {
         int n, u;
 
         n = 1 << logn;
         for (u = 0; u < n; u++)
         {
-            srca[a + u] = fpr.fpr_mul(srca[a + u], x);
+            srca[a + u] *= x;
         }
     }
 
     /* see inner.h */
     void poly_div_fft(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -455,22 +360,23 @@ void poly_div_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR a_re, a_im, b_re, b_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im, b_re, b_im, m;
 
             a_re = srca[a + u];
             a_im = srca[a + u + hn];
             b_re = srcb[b + u];
             b_im = srcb[b + u + hn];
-            res = FPC_DIV(a_re, a_im, b_re, b_im);
-            srca[a + u] = res.re;
-            srca[a + u + hn] = res.im;
+            m = 1.0 / (b_re * b_re + b_im * b_im);
+            b_re *= m;
+            b_im = -b_im * m;
+            srca[a + u] = a_re * b_re - a_im * b_im;
+            srca[a + u + hn] = a_re * b_im + a_im * b_re;
         }
     }
 
     /* see inner.h */
-    void poly_invnorm2_fft(FalconFPR[] srcd, int d,
-                           FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+    void poly_invnorm2_fft(double[] srcd, int d,
+                           double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -478,23 +384,21 @@ void poly_invnorm2_fft(FalconFPR[] srcd, int d,
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR a_re, a_im;
-            FalconFPR b_re, b_im;
+            double a_re, a_im;
+            double b_re, b_im;
 
             a_re = srca[a + u];
             a_im = srca[a + u + hn];
             b_re = srcb[b + u];
             b_im = srcb[b + u + hn];
-            srcd[d + u] = fpr.fpr_inv(fpr.fpr_add(
-                fpr.fpr_add(fpr.fpr_sqr(a_re), fpr.fpr_sqr(a_im)),
-                fpr.fpr_add(fpr.fpr_sqr(b_re), fpr.fpr_sqr(b_im))));
+            srcd[d + u] = 1.0 / ((a_re * a_re + a_im * a_im) + (b_re * b_re + b_im * b_im));
         }
     }
 
     /* see inner.h */
-    void poly_add_muladj_fft(FalconFPR[] srcd, int d,
-                             FalconFPR[] srcF, int F, FalconFPR[] srcG, int G,
-                             FalconFPR[] srcf, int f, FalconFPR[] srcg, int g, int logn)
+    void poly_add_muladj_fft(double[] srcd, int d,
+                             double[] srcF, int F, double[] srcG, int G,
+                             double[] srcf, int f, double[] srcg, int g, int logn)
     {
         int n, hn, u;
 
@@ -502,10 +406,9 @@ void poly_add_muladj_fft(FalconFPR[] srcd, int d,
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR F_re, F_im, G_re, G_im;
-            FalconFPR f_re, f_im, g_re, g_im;
-            FalconFPR a_re, a_im, b_re, b_im;
-            ComplexNumberWrapper res;
+            double F_re, F_im, G_re, G_im;
+            double f_re, f_im, g_re, g_im;
+            double a_re, a_im, b_re, b_im;
 
             F_re = srcF[F + u];
             F_im = srcF[F + u + hn];
@@ -516,20 +419,20 @@ void poly_add_muladj_fft(FalconFPR[] srcd, int d,
             g_re = srcg[g + u];
             g_im = srcg[g + u + hn];
 
-            res = FPC_MUL(F_re, F_im, f_re, fpr.fpr_neg(f_im));
-            a_re = res.re;
-            a_im = res.im;
-            res = FPC_MUL(G_re, G_im, g_re, fpr.fpr_neg(g_im));
-            b_re = res.re;
-            b_im = res.im;
-            srcd[d + u] = fpr.fpr_add(a_re, b_re);
-            srcd[d + u + hn] = fpr.fpr_add(a_im, b_im);
+            f_im = -f_im;
+            g_im = -g_im;
+            a_re = F_re * f_re - F_im * f_im;
+            a_im = F_re * f_im + F_im * f_re;
+            b_re = G_re * g_re - G_im * g_im;
+            b_im = G_re * g_im + G_im * g_re;
+            srcd[d + u] = a_re + b_re;
+            srcd[d + u + hn] = a_im + b_im;
         }
     }
 
     /* see inner.h */
     void poly_mul_autoadj_fft(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -537,14 +440,14 @@ void poly_mul_autoadj_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            srca[a + u] = fpr.fpr_mul(srca[a + u], srcb[b + u]);
-            srca[a + u + hn] = fpr.fpr_mul(srca[a + u + hn], srcb[b + u]);
+            srca[a + u] *= srcb[b + u];
+            srca[a + u + hn] *= srcb[b + u];
         }
     }
 
     /* see inner.h */
     void poly_div_autoadj_fft(
-        FalconFPR[] srca, int a, FalconFPR[] srcb, int b, int logn)
+        double[] srca, int a, double[] srcb, int b, int logn)
     {
         int n, hn, u;
 
@@ -552,18 +455,18 @@ void poly_div_autoadj_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR ib;
+            double ib;
 
-            ib = fpr.fpr_inv(srcb[b + u]);
-            srca[a + u] = fpr.fpr_mul(srca[a + u], ib);
-            srca[a + u + hn] = fpr.fpr_mul(srca[a + u + hn], ib);
+            ib = 1.0 / srcb[b + u];
+            srca[a + u] *= ib;
+            srca[a + u + hn] *= ib;
         }
     }
 
     /* see inner.h */
     void poly_LDL_fft(
-        FalconFPR[] srcg00, int g00,
-        FalconFPR[] srcg01, int g01, FalconFPR[] srcg11, int g11, int logn)
+        double[] srcg00, int g00,
+        double[] srcg01, int g01, double[] srcg11, int g11, int logn)
     {
         int n, hn, u;
 
@@ -571,9 +474,8 @@ void poly_LDL_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR g00_re, g00_im, g01_re, g01_im, g11_re, g11_im;
-            FalconFPR mu_re, mu_im;
-            ComplexNumberWrapper res;
+            double g00_re, g00_im, g01_re, g01_im, g11_re, g11_im;
+            double mu_re, mu_im, m;
 
             g00_re = srcg00[g00 + u];
             g00_im = srcg00[g00 + u + hn];
@@ -581,25 +483,27 @@ void poly_LDL_fft(
             g01_im = srcg01[g01 + u + hn];
             g11_re = srcg11[g11 + u];
             g11_im = srcg11[g11 + u + hn];
-            res = FPC_DIV(g01_re, g01_im, g00_re, g00_im);
-            mu_re = res.re;
-            mu_im = res.im;
-            res = FPC_MUL(mu_re, mu_im, g01_re, fpr.fpr_neg(g01_im));
-            g01_re = res.re;
-            g01_im = res.im;
-            res = FPC_SUB(g11_re, g11_im, g01_re, g01_im);
-            srcg11[g11 + u] = res.re;
-            srcg11[g11 + u + hn] = res.im;
+            m = 1.0 / (g00_re * g00_re + g00_im * g00_im);
+            g00_re *= m;
+            g00_im = -g00_im * m;
+            mu_re = g01_re * g00_re - g01_im * g00_im;
+            mu_im = g01_re * g00_im + g01_im * g00_re;
+            g01_im = -g01_im;
+            m = mu_re * g01_re - mu_im * g01_im;
+            g01_im = mu_re * g01_im + mu_im * g01_re;
+            g01_re = m;
+            srcg11[g11 + u] = g11_re - g01_re;
+            srcg11[g11 + u + hn] = g11_im - g01_im;
             srcg01[g01 + u] = mu_re;
-            srcg01[g01 + u + hn] = fpr.fpr_neg(mu_im);
+            srcg01[g01 + u + hn] = -mu_im;
         }
     }
 
     /* see inner.h */
     void poly_LDLmv_fft(
-        FalconFPR[] srcd11, int d11, FalconFPR[] srcl10, int l10,
-        FalconFPR[] srcg00, int g00, FalconFPR[] srcg01, int g01,
-        FalconFPR[] srcg11, int g11, int logn)
+        double[] srcd11, int d11, double[] srcl10, int l10,
+        double[] srcg00, int g00, double[] srcg01, int g01,
+        double[] srcg11, int g11, int logn)
     {
         int n, hn, u;
 
@@ -607,9 +511,8 @@ void poly_LDLmv_fft(
         hn = n >> 1;
         for (u = 0; u < hn; u++)
         {
-            FalconFPR g00_re, g00_im, g01_re, g01_im, g11_re, g11_im;
-            FalconFPR mu_re, mu_im;
-            ComplexNumberWrapper res;
+            double g00_re, g00_im, g01_re, g01_im, g11_re, g11_im;
+            double mu_re, mu_im, m;
 
             g00_re = srcg00[g00 + u];
             g00_im = srcg00[g00 + u + hn];
@@ -617,24 +520,26 @@ void poly_LDLmv_fft(
             g01_im = srcg01[g01 + u + hn];
             g11_re = srcg11[g11 + u];
             g11_im = srcg11[g11 + u + hn];
-            res = FPC_DIV(g01_re, g01_im, g00_re, g00_im);
-            mu_re = res.re;
-            mu_im = res.im;
-            res = FPC_MUL(mu_re, mu_im, g01_re, fpr.fpr_neg(g01_im));
-            g01_re = res.re;
-            g01_im = res.im;
-            res = FPC_SUB(g11_re, g11_im, g01_re, g01_im);
-            srcd11[d11 + u] = res.re;
-            srcd11[d11 + u + hn] = res.im;
+            m = 1.0 / (g00_re * g00_re + g00_im * g00_im);
+            g00_re *= m;
+            g00_im = -g00_im * m;
+            mu_re = g01_re * g00_re - g01_im * g00_im;
+            mu_im = g01_re * g00_im + g01_im * g00_re;
+            g01_im = -g01_im;
+            m = mu_re * g01_re - mu_im * g01_im;
+            g01_im = mu_re * g01_im + mu_im * g01_re;
+            g01_re = m;
+            srcd11[d11 + u] = g11_re - g01_re;
+            srcd11[d11 + u + hn] = g11_im - g01_im;
             srcl10[l10 + u] = mu_re;
-            srcl10[l10 + u + hn] = fpr.fpr_neg(mu_im);
+            srcl10[l10 + u + hn] = -mu_im;
         }
     }
 
     /* see inner.h */
     void poly_split_fft(
-        FalconFPR[] srcf0, int f0, FalconFPR[] srcf1, int f1,
-        FalconFPR[] srcf, int f, int logn)
+        double[] srcf0, int f0, double[] srcf1, int f1,
+        double[] srcf, int f, int logn)
     {
         /*
          * The FFT representation we use is in bit-reversed order
@@ -659,38 +564,30 @@ void poly_split_fft(
 
         for (u = 0; u < qn; u++)
         {
-            FalconFPR a_re, a_im, b_re, b_im;
-            FalconFPR t_re, t_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im, b_re, b_im;
+            double t_re, t_im, s_re, s_im;
 
             a_re = srcf[f + (u << 1) + 0];
             a_im = srcf[f + (u << 1) + 0 + hn];
             b_re = srcf[f + (u << 1) + 1];
             b_im = srcf[f + (u << 1) + 1 + hn];
 
-            res = FPC_ADD(a_re, a_im, b_re, b_im);
-            t_re = res.re;
-            t_im = res.im;
-            srcf0[f0 + u] = fpr.fpr_half(t_re);
-            srcf0[f0 + u + qn] = fpr.fpr_half(t_im);
-
-            res = FPC_SUB(a_re, a_im, b_re, b_im);
-            t_re = res.re;
-            t_im = res.im;
-            res = FPC_MUL(t_re, t_im,
-                fpr.fpr_gm_tab[((u + hn) << 1) + 0],
-                fpr.fpr_neg(fpr.fpr_gm_tab[((u + hn) << 1) + 1]));
-            t_re = res.re;
-            t_im = res.im;
-            srcf1[f1 + u] = fpr.fpr_half(t_re);
-            srcf1[f1 + u + qn] = fpr.fpr_half(t_im);
+            srcf0[f0 + u] = (a_re + b_re) * 0.5;
+            srcf0[f0 + u + qn] = (a_im + b_im) * 0.5;
+
+            t_re = a_re - b_re;
+            t_im = a_im - b_im;
+            s_re = fpr.fpr_gm_tab[((u + hn) << 1) + 0];
+            s_im = -fpr.fpr_gm_tab[((u + hn) << 1) + 1];
+            srcf1[f1 + u] = (t_re * s_re - t_im * s_im) * 0.5;
+            srcf1[f1 + u + qn] = (t_re * s_im + t_im * s_re) * 0.5;
         }
     }
 
     /* see inner.h */
     void poly_merge_fft(
-        FalconFPR[] srcf, int f,
-        FalconFPR[] srcf0, int f0, FalconFPR[] srcf1, int f1, int logn)
+        double[] srcf, int f,
+        double[] srcf0, int f0, double[] srcf1, int f1, int logn)
     {
         int n, hn, qn, u;
 
@@ -706,27 +603,21 @@ void poly_merge_fft(
 
         for (u = 0; u < qn; u++)
         {
-            FalconFPR a_re, a_im, b_re, b_im;
-            FalconFPR t_re, t_im;
-            ComplexNumberWrapper res;
+            double a_re, a_im, b_re, b_im;
+            double t_re, t_im, s_re, s_im;
 
             a_re = srcf0[f0 + u];
             a_im = srcf0[f0 + u + qn];
-            res = FPC_MUL(srcf1[f1 + u], srcf1[f1 + u + qn],
-                fpr.fpr_gm_tab[((u + hn) << 1) + 0],
-                fpr.fpr_gm_tab[((u + hn) << 1) + 1]);
-            b_re = res.re;
-            b_im = res.im;
-            res = FPC_ADD(a_re, a_im, b_re, b_im);
-            t_re = res.re;
-            t_im = res.im;
-            srcf[f + (u << 1) + 0] = t_re;
-            srcf[f + (u << 1) + 0 + hn] = t_im;
-            res = FPC_SUB(a_re, a_im, b_re, b_im);
-            t_re = res.re;
-            t_im = res.im;
-            srcf[f + (u << 1) + 1] = t_re;
-            srcf[f + (u << 1) + 1 + hn] = t_im;
+            t_re = srcf1[f1 + u];
+            t_im = srcf1[f1 + u + qn];
+            s_re = fpr.fpr_gm_tab[((u + hn) << 1) + 0];
+            s_im = fpr.fpr_gm_tab[((u + hn) << 1) + 1];
+            b_re = t_re * s_re - t_im * s_im;
+            b_im = t_re * s_im + t_im * s_re;
+            srcf[f + (u << 1) + 0] = a_re + b_re;
+            srcf[f + (u << 1) + 0 + hn] = a_im + b_im;
+            srcf[f + (u << 1) + 1] = a_re - b_re;
+            srcf[f + (u << 1) + 1 + hn] = a_im - b_im;
         }
     }
 
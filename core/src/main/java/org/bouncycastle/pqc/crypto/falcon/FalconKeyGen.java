@@ -1446,7 +1446,7 @@ int zint_one_to_plain(int[] srcx, int x)
      * they should be "trimmed" by pointing not to the lowest word of each,
      * but upper.
      */
-    void poly_big_to_fp(FalconFPR[] srcd, int d, int[] srcf, int f, int flen, int fstride,
+    void poly_big_to_fp(double[] srcd, int d, int[] srcf, int f, int flen, int fstride,
                         int logn)
     {
         int n, u;
@@ -1464,7 +1464,7 @@ void poly_big_to_fp(FalconFPR[] srcd, int d, int[] srcf, int f, int flen, int fs
         {
             int v;
             int neg, cc, xm;
-            FalconFPR x, fsc;
+            double x, fsc;
 
             /*
              * Get sign of the integer; if it is negative, then we
@@ -1891,7 +1891,7 @@ int poly_small_sqnorm(byte[] srcf, int f, int logn)
     /*
      * Convert a small vector to floating point.
      */
-    void poly_small_to_fp(FalconFPR[] srcx, int x, byte[] srcf, int f, int logn)
+    void poly_small_to_fp(double[] srcx, int x, byte[] srcf, int f, int logn)
     {
         int n, u;
 
@@ -2192,7 +2192,7 @@ int solve_NTRU_intermediate(int logn_top,
         int logn;
         int n, hn, slen, dlen, llen, rlen, FGlen, u;
         int Fd, Gd, Ft, Gt, ft, gt, t1;
-        FalconFPR[] rt1, rt2, rt3, rt4, rt5;
+        double[] rt1, rt2, rt3, rt4, rt5;
         int scale_fg, minbl_fg, maxbl_fg, maxbl_FG, scale_k;
         int x, y;
         int[] k;
@@ -2477,11 +2477,11 @@ int solve_NTRU_intermediate(int logn_top,
          * We ensure that the base is at a properly aligned offset (the
          * source array tmp[] is supposed to be already aligned).
          */
-        rt1 = new FalconFPR[n];
-        rt2 = new FalconFPR[n];
-        rt3 = new FalconFPR[n];
-        rt4 = new FalconFPR[n];
-        rt5 = new FalconFPR[n >> 1];
+        rt1 = new double[n];
+        rt2 = new double[n];
+        rt3 = new double[n];
+        rt4 = new double[n];
+        rt5 = new double[n >> 1];
         k = new int[n];
 
         /*
@@ -2563,7 +2563,7 @@ int solve_NTRU_intermediate(int logn_top,
         {
             int scale_FG, dc, new_maxbl_FG;
             int scl, sch;
-            FalconFPR pdc, pt;
+            double pdc, pt;
 
             /*
              * Convert current F and G into floating-point. We apply
@@ -2630,7 +2630,7 @@ int solve_NTRU_intermediate(int logn_top,
 
             for (u = 0; u < n; u++)
             {
-                FalconFPR xv;
+                double xv;
 
                 xv = fpr.fpr_mul(rt2[u], pdc);
 
@@ -2764,7 +2764,7 @@ int solve_NTRU_binary_depth1(int logn_top,
         int depth, logn;
         int n_top, n, hn, slen, dlen, llen, u;
         int Fd, Gd, Ft, Gt, ft, gt, t1;
-        FalconFPR[] rt1, rt2, rt3, rt4, rt5, rt6;
+        double[] rt1, rt2, rt3, rt4, rt5, rt6;
         int x, y;
 
         depth = 1;
@@ -3025,8 +3025,8 @@ int solve_NTRU_binary_depth1(int logn_top,
          * Convert F and G into floating point (rt1 and rt2).
          */
 //        rt1 = align_fpr(tmp, gt + slen * n);
-        rt1 = new FalconFPR[n];
-        rt2 = new FalconFPR[n];
+        rt1 = new double[n];
+        rt2 = new double[n];
         poly_big_to_fp(rt1, 0, srctmp, Ft, llen, llen, logn);
         poly_big_to_fp(rt2, 0, srctmp, Gt, llen, llen, logn);
 
@@ -3042,8 +3042,8 @@ int solve_NTRU_binary_depth1(int logn_top,
 //        memmove(rt3, rt1, 2 * n * sizeof *rt1);
 //        rt1 = rt3;
 //        rt2 = rt1 + n;
-        rt3 = new FalconFPR[n];
-        rt4 = new FalconFPR[n];
+        rt3 = new double[n];
+        rt4 = new double[n];
 
         /*
          * Convert f and g into floating point (rt3 and rt4).
@@ -3079,8 +3079,8 @@ int solve_NTRU_binary_depth1(int logn_top,
          *   rt6 = 1 / (f*adj(f) + g*adj(g))
          * (Note that rt6 is half-length.)
          */
-        rt5 = new FalconFPR[n];
-        rt6 = new FalconFPR[n >> 1];
+        rt5 = new double[n];
+        rt6 = new double[n >> 1];
         fft.poly_add_muladj_fft(rt5, 0, rt1, 0, rt2, 0, rt3, 0, rt4, 0, logn);
         fft.poly_invnorm2_fft(rt6, 0, rt3, 0, rt4, 0, logn);
 
@@ -3100,7 +3100,7 @@ int solve_NTRU_binary_depth1(int logn_top,
         fft.iFFT(rt5, 0, logn);
         for (u = 0; u < n; u++)
         {
-            FalconFPR z;
+            double z;
 
             z = rt5[u];
             if (!fpr.fpr_lt(z, fpr.fpr_ptwo63m1) || !fpr.fpr_lt(fpr.fpr_mtwo63m1, z))
@@ -3344,8 +3344,8 @@ int solve_NTRU_binary_depth0(int logn,
          * representation are actually real, so we can truncate off
          * the imaginary parts.
          */
-        FalconFPR[]
-            tmp2 = new FalconFPR[3 * n];
+        double[]
+            tmp2 = new double[3 * n];
 //        rt3 = align_fpr(tmp, t3);
         rt1 = 0;
         rt2 = rt1 + n;
@@ -3631,7 +3631,7 @@ void keygen(SHAKE256 rng,
         int[] itmp;
         byte[] btmp;
         short[] stmp;
-        FalconFPR[] ftmp;
+        double[] ftmp;
         int h2, tmp2;
         SHAKE256 rc;
 
@@ -3659,9 +3659,9 @@ void keygen(SHAKE256 rng,
          */
         for (; ; )
         {
-            ftmp = new FalconFPR[3 * n];
+            ftmp = new double[3 * n];
             int rt1, rt2, rt3;
-            FalconFPR bnorm;
+            double bnorm;
             int normf, normg, norm;
             int lim;
 
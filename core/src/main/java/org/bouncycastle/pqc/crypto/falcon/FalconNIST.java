@@ -18,6 +18,10 @@
 
     private FalconCodec codec;
 
+    // signing engine and its working area, kept between signatures
+    private FalconSign sign;
+    private double[] signTmp;
+
     FalconNIST(int logn, int noncelen, SecureRandom random)
     {
         codec = new FalconCodec();
@@ -146,10 +150,15 @@ byte[] crypto_sign(boolean attached, byte[] srcsm,
 
         SHAKE256 sc = new SHAKE256();
         int u, v, sig_len;
-        FalconSign sign = new FalconSign();
         FalconVrfy vrfy = new FalconVrfy();
         FalconCommon common = new FalconCommon();
 
+        if (sign == null)
+        {
+            sign = new FalconSign();
+            signTmp = new double[10 * N];
+        }
+
         /*
          * Decode the private key.
          */
@@ -228,45 +237,54 @@ byte[] crypto_sign(boolean attached, byte[] srcsm,
          * Compute the signature.
          */
 //        Zf(sign_dyn)(r.sig, &sc, f, g, F, G, r.hm, 10, tmp.b);
-        sign.sign_dyn(sig, 0, sc, f, 0, g, 0, F, 0, G, 0, hm, 0, LOGN, new FalconFPR[10 * N], 0);
+        try
+        {
+            sign.sign_dyn(sig, 0, sc, f, 0, g, 0, F, 0, G, 0, hm, 0, LOGN, signTmp, 0);
 
 //        set_fpu_cw(savcw);
 
-        byte[] esig = new byte[CRYPTO_BYTES - 2 - NONCELEN];
-        if (attached)
-        {
-            /*
-             * Encode the signature. Format is:
-             *   signature header     1 bytes
-             *   nonce                40 bytes
-             *   signature            slen bytes
-             */
-            esig[0] = (byte)(0x20 + LOGN);
-            sig_len = codec.comp_encode(esig, 1, esig.length - 1, sig, 0, LOGN);
-            if (sig_len == 0)
+            byte[] esig = new byte[CRYPTO_BYTES - 2 - NONCELEN];
+            if (attached)
             {
-                throw new IllegalStateException("signature failed to generate");
+                /*
+                 * Encode the signature. Format is:
+                 *   signature header     1 bytes
+                 *   nonce                40 bytes
+                 *   signature            slen bytes
+                 */
+                esig[0] = (byte)(0x20 + LOGN);
+                sig_len = codec.comp_encode(esig, 1, esig.length - 1, sig, 0, LOGN);
+                if (sig_len == 0)
+                {
+                    throw new IllegalStateException("signature failed to generate");
+                }
+                sig_len++;
             }
-            sig_len++;
-        }
-        else
-        {
-            sig_len = codec.comp_encode(esig, 0, esig.length, sig, 0, LOGN);
-            if (sig_len == 0)
+            else
             {
-                throw new IllegalStateException("signature failed to generate");
+                sig_len = codec.comp_encode(esig, 0, esig.length, sig, 0, LOGN);
+                if (sig_len == 0)
+                {
+                    throw new IllegalStateException("signature failed to generate");
+                }
             }
-        }
 
-        // header
-        srcsm[0] = (byte)(0x30 + LOGN);
-        // nonce
-        System.arraycopy(nonce, 0, srcsm, 1, NONCELEN);
+            // header
+            srcsm[0] = (byte)(0x30 + LOGN);
+            // nonce
+            System.arraycopy(nonce, 0, srcsm, 1, NONCELEN);
 
-        // signature
-        System.arraycopy(esig, 0, srcsm, 1 + NONCELEN, sig_len);
+            // signature
+            System.arraycopy(esig, 0, srcsm, 1 + NONCELEN, sig_len);
 
-        return Arrays.copyOfRange(srcsm, 0, 1 + NONCELEN + sig_len);
+            return Arrays.copyOfRange(srcsm, 0, 1 + NONCELEN + sig_len);
+        }
+        finally
+        {
+            // the working area holds values derived from the private key
+            java.util.Arrays.fill(signTmp, 0.0);
+            sign.clearScratch();
+        }
     }
 
     int crypto_sign_open(boolean attached, byte[] sig_encoded, byte[] nonce, byte[] msg,
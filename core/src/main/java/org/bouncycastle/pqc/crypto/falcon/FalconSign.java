@@ -1,5 +1,7 @@
 package org.bouncycastle.pqc.crypto.falcon;
 
+import org.bouncycastle.util.Arrays;
+
 class FalconSign
 {
 
@@ -7,6 +9,9 @@
     FalconFFT fft;
     FalconCommon common;
 
+    // scratch space for the candidate signature, reused across calls
+    private short[] s1tmp, s2tmp;
+
     FalconSign()
     {
         this.fpr = new FPREngine();
@@ -14,6 +19,23 @@
         this.common = new FalconCommon();
     }
 
+    private static short[] getScratch(short[] buf, int n)
+    {
+        return (buf != null && buf.length == n) ? buf : new short[n];
+    }
+
+    void clearScratch()
+    {
+        if (s1tmp != null)
+        {
+            Arrays.fill(s1tmp, (short)0);
+        }
+        if (s2tmp != null)
+        {
+            Arrays.fill(s2tmp, (short)0);
+        }
+    }
+
     private static int MKN(int logn)
     {
         return 1 << logn;
@@ -50,9 +72,9 @@ int ffLDL_treesize(int logn)
      *
      * tmp[] must have room for at least one polynomial.
      */
-    void ffLDL_fft_inner(FalconFPR[] srctree, int tree,
-                         FalconFPR[] srcg0, int g0, FalconFPR[] srcg1, int g1,
-                         int logn, FalconFPR[] srctmp, int tmp)
+    void ffLDL_fft_inner(double[] srctree, int tree,
+                         double[] srcg0, int g0, double[] srcg1, int g1,
+                         int logn, double[] srctmp, int tmp)
     {
         int n, hn;
 
@@ -101,9 +123,9 @@ void ffLDL_fft_inner(FalconFPR[] srctree, int tree,
      * arrays g00, g01 and g11. tmp[] should have room for at least three
      * polynomials of 2^logn elements each.
      */
-    void ffLDL_fft(FalconFPR[] srctree, int tree, FalconFPR[] srcg00, int g00,
-                   FalconFPR[] srcg01, int g01, FalconFPR[] srcg11, int g11,
-                   int logn, FalconFPR[] srctmp, int tmp)
+    void ffLDL_fft(double[] srctree, int tree, double[] srcg00, int g00,
+                   double[] srcg01, int g01, double[] srcg11, int g11,
+                   int logn, double[] srctmp, int tmp)
     {
         int n, hn;
         int d00, d11;
@@ -137,7 +159,7 @@ void ffLDL_fft(FalconFPR[] srctree, int tree, FalconFPR[] srcg00, int g00,
      * Normalize an ffLDL tree: each leaf of value x is replaced with
      * sigma / sqrt(x).
      */
-    void ffLDL_binary_normalize(FalconFPR[] srctree, int tree, int orig_logn, int logn)
+    void ffLDL_binary_normalize(double[] srctree, int tree, int orig_logn, int logn)
     {
         /*
          * TODO: make an iterative version.
@@ -168,7 +190,7 @@ void ffLDL_binary_normalize(FalconFPR[] srctree, int tree, int orig_logn, int lo
      * Convert an integer polynomial (with small values) into the
      * representation with complex numbers.
      */
-    void smallints_to_fpr(FalconFPR[] srcr, int r, byte[] srct, int t, int logn)
+    void smallints_to_fpr(double[] srcr, int r, byte[] srct, int t, int logn)
     {
         int n, u;
 
@@ -212,10 +234,10 @@ int skoff_tree(int logn)
     }
 
     /* see inner.h */
-    void expand_privkey(FalconFPR[] srcexpanded_key, int expanded_key,
+    void expand_privkey(double[] srcexpanded_key, int expanded_key,
                         byte[] srcf, int f, byte[] srcg, int g,
                         byte[] srcF, int F, byte[] srcG, int G,
-                        int logn, FalconFPR[] srctmp, int tmp)
+                        int logn, double[] srctmp, int tmp)
     {
         int n;
         int rf, rg, rF, rG;
@@ -311,9 +333,9 @@ void expand_privkey(FalconFPR[] srcexpanded_key, int expanded_key,
      * tmp[] buffer must have room for four polynomials.
      */
     void ffSampling_fft_dyntree(SamplerZ samp, SamplerCtx samp_ctx,
-                                FalconFPR[] srct0, int t0, FalconFPR[] srct1, int t1,
-                                FalconFPR[] srcg00, int g00, FalconFPR[] srcg01, int g01, FalconFPR[] srcg11, int g11,
-                                int orig_logn, int logn, FalconFPR[] srctmp, int tmp)
+                                double[] srct0, int t0, double[] srct1, int t1,
+                                double[] srcg00, int g00, double[] srcg01, int g01, double[] srcg11, int g11,
+                                int orig_logn, int logn, double[] srctmp, int tmp)
     {
         int n, hn;
         int z0, z1;
@@ -325,7 +347,7 @@ void ffSampling_fft_dyntree(SamplerZ samp, SamplerCtx samp_ctx,
          */
         if (logn == 0)
         {
-            FalconFPR leaf;
+            double leaf;
 
             leaf = srcg00[g00 + 0];
             leaf = fpr.fpr_mul(fpr.fpr_sqrt(leaf), fpr.fpr_inv_sigma[orig_logn]);
@@ -410,10 +432,10 @@ void ffSampling_fft_dyntree(SamplerZ samp, SamplerCtx samp_ctx,
      * tmp[] must have size for at least two polynomials of size 2^logn.
      */
     void ffSampling_fft(SamplerZ samp, SamplerCtx samp_ctx,
-                        FalconFPR[] srcz0, int z0, FalconFPR[] srcz1, int z1,
-                        FalconFPR[] srctree, int tree,
-                        FalconFPR[] srct0, int t0, FalconFPR[] srct1, int t1, int logn,
-                        FalconFPR[] srctmp, int tmp)
+                        double[] srcz0, int z0, double[] srcz1, int z1,
+                        double[] srctree, int tree,
+                        double[] srct0, int t0, double[] srct1, int t1, int logn,
+                        double[] srctmp, int tmp)
     {
         int n, hn;
         int tree0, tree1;
@@ -423,8 +445,8 @@ void ffSampling_fft(SamplerZ samp, SamplerCtx samp_ctx,
          */
         if (logn == 2)
         {
-            FalconFPR x0, x1, y0, y1, w0, w1, w2, w3, sigma;
-            FalconFPR a_re, a_im, b_re, b_im, c_re, c_im;
+            double x0, x1, y0, y1, w0, w1, w2, w3, sigma;
+            double a_re, a_im, b_re, b_im, c_re, c_im;
 
             tree0 = tree + 4;
             tree1 = tree + 8;
@@ -554,8 +576,8 @@ void ffSampling_fft(SamplerZ samp, SamplerCtx samp_ctx,
          */
         if (logn == 1)
         {
-            FalconFPR x0, x1, y0, y1, sigma;
-            FalconFPR a_re, a_im, b_re, b_im, c_re, c_im;
+            double x0, x1, y0, y1, sigma;
+            double a_re, a_im, b_re, b_im, c_re, c_im;
 
             x0 = srct1[t1 + 0];
             x1 = srct1[t1 + 1];
@@ -644,16 +666,15 @@ void ffSampling_fft(SamplerZ samp, SamplerCtx samp_ctx,
      * tmp[] must have room for at least six polynomials.
      */
     int do_sign_tree(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
-                     FalconFPR[] srcexpanded_key, int expanded_key,
+                     double[] srcexpanded_key, int expanded_key,
                      short[] srchm, int hm,
-                     int logn, FalconFPR[] srctmp, int tmp)
+                     int logn, double[] srctmp, int tmp)
     {
         int n, u;
         int t0, t1, tx, ty;
         int b00, b01, b10, b11, tree;
-        FalconFPR ni;
+        double ni;
         int sqn, ng;
-        short[] s1tmp, s2tmp;
 
         n = MKN(logn);
         t0 = tmp;
@@ -722,7 +743,7 @@ int do_sign_tree(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
         /*
          * Compute the signature.
          */
-        s1tmp = new short[n];
+        s1tmp = getScratch(s1tmp, n);
         sqn = 0;
         ng = 0;
         for (u = 0; u < n; u++)
@@ -745,7 +766,7 @@ int do_sign_tree(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
          * s2[] may overlap with the hashed message hm[] and we need
          * hm[] for the next iteration.
          */
-        s2tmp = new short[n];
+        s2tmp = getScratch(s2tmp, n);
         for (u = 0; u < n; u++)
         {
             s2tmp[u] = (short)-fpr.fpr_rint(srctmp[t1 + u]);
@@ -773,14 +794,13 @@ int do_sign_tree(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
     int do_sign_dyn(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
                     byte[] srcf, int f, byte[] srcg, int g,
                     byte[] srcF, int F, byte[] srcG, int G,
-                    short[] srchm, int hm, int logn, FalconFPR[] srctmp, int tmp)
+                    short[] srchm, int hm, int logn, double[] srctmp, int tmp)
     {
         int n, u;
         int t0, t1, tx, ty;
         int b00, b01, b10, b11, g00, g01, g11;
-        FalconFPR ni;
+        double ni;
         int sqn, ng;
-        short[] s1tmp, s2tmp;
 
         n = MKN(logn);
 
@@ -947,7 +967,7 @@ int do_sign_dyn(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
         fft.iFFT(srctmp, t0, logn);
         fft.iFFT(srctmp, t1, logn);
 
-        s1tmp = new short[n];
+        s1tmp = getScratch(s1tmp, n);
         sqn = 0;
         ng = 0;
         for (u = 0; u < n; u++)
@@ -970,7 +990,7 @@ int do_sign_dyn(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
          * s2[] may overlap with the hashed message hm[] and we need
          * hm[] for the next iteration.
          */
-        s2tmp = new short[n];
+        s2tmp = getScratch(s2tmp, n);
         for (u = 0; u < n; u++)
         {
             s2tmp[u] = (short)-fpr.fpr_rint(srctmp[t1 + u]);
@@ -989,8 +1009,8 @@ int do_sign_dyn(SamplerZ samp, SamplerCtx samp_ctx, short[] srcs2, int s2,
 
     /* see inner.h */
     void sign_tree(short[] srcsig, int sig, SHAKE256 rng,
-                   FalconFPR[] srcexpanded_key, int expanded_key,
-                   short[] srchm, int hm, int logn, FalconFPR[] srctmp, int tmp)
+                   double[] srcexpanded_key, int expanded_key,
+                   short[] srchm, int hm, int logn, double[] srctmp, int tmp)
     {
         int ftmp;
 
@@ -1034,7 +1054,7 @@ void sign_tree(short[] srcsig, int sig, SHAKE256 rng,
     void sign_dyn(short[] srcsig, int sig, SHAKE256 rng,
                   byte[] srcf, int f, byte[] srcg, int g,
                   byte[] srcF, int F, byte[] srcG, int G,
-                  short[] srchm, int hm, int logn, FalconFPR[] srctmp, int tmp)
+                  short[] srchm, int hm, int logn, double[] srctmp, int tmp)
     {
         int ftmp;
 
@@ -3,12 +3,12 @@
 class SamplerCtx
 {
 
-    FalconFPR sigma_min;
+    double sigma_min;
     FalconRNG p;
 
     SamplerCtx()
     {
-        this.sigma_min = new FalconFPR(0.0);
+        this.sigma_min = 0.0;
         this.p = new FalconRNG();
     }
 }
@@ -10,7 +10,7 @@
         this.fpr = new FPREngine();
     }
 
-    int sample(SamplerCtx ctx, FalconFPR mu, FalconFPR iSigma)
+    int sample(SamplerCtx ctx, double mu, double iSigma)
     {
         return sampler(ctx, mu, iSigma);
     }
@@ -81,10 +81,10 @@ int gaussian0_sampler(FalconRNG p)
     /*
      * Sample a bit with probability exp(-x) for some x >= 0.
      */
-    int BerExp(FalconRNG p, FalconFPR x, FalconFPR ccs)
+    int BerExp(FalconRNG p, double x, double ccs)
     {
         int s, i;
-        FalconFPR r;
+        double r;
         int sw, w;
         long z;
 
@@ -145,11 +145,11 @@ int BerExp(FalconRNG p, FalconFPR x, FalconFPR ccs)
      * The value of sigma MUST lie between 1 and 2 (i.e. isigma lies between
      * 0.5 and 1); in Falcon, sigma should always be between 1.2 and 1.9.
      */
-    int sampler(SamplerCtx ctx, FalconFPR mu, FalconFPR isigma)
+    int sampler(SamplerCtx ctx, double mu, double isigma)
     {
         SamplerCtx spc;
         int s;
-        FalconFPR r, dss, ccs;
+        double r, dss, ccs;
 
         spc = ctx;
 
@@ -176,7 +176,7 @@ int sampler(SamplerCtx ctx, FalconFPR mu, FalconFPR isigma)
         for (; ; )
         {
             int z0, z, b;
-            FalconFPR x;
+            double x;
 
             /*
              * Sample z for a Gaussian distribution. Then get a
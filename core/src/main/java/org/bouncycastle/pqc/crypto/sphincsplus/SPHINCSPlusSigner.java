@@ -1,6 +1,13 @@
 package org.bouncycastle.pqc.crypto.sphincsplus;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
@@ -16,6 +23,11 @@
  *     "https://github.com/sphincs/sphincsplus/commit/61cd2695c6f984b4f4d6ed675378ed9a486cbede"
  *     for further details.
  * </p>
+ * <p>
+ *     If the signer is constructed with an Executor the FORS trees and the XMSS authentication paths
+ *     for each hypertree layer, which make up most of the work of signing, are calculated as separate
+ *     tasks on the executor. The signatures produced are the same as those from the single threaded signer.
+ * </p>
  */
 public class SPHINCSPlusSigner
     implements MessageSigner
@@ -25,11 +37,24 @@
 
     private SecureRandom random;
 
+    private final Executor executor;
+
     /**
      * Base constructor.
      */
     public SPHINCSPlusSigner()
     {
+        this(null);
+    }
+
+    /**
+     * Constructor for a signer which calculates the independent parts of a signature concurrently.
+     *
+     * @param executor the executor to run the calculations on, null to do them on the calling thread.
+     */
+    public SPHINCSPlusSigner(Executor executor)
+    {
+        this.executor = executor;
     }
 
     public void init(boolean forSigning, CipherParameters param)
@@ -82,13 +107,25 @@ public byte[] generateSignature(byte[] message)
         long idx_tree = idxDigest.idx_tree;
         int idx_leaf = idxDigest.idx_leaf;
         // FORS sign
-        ADRS adrs = new ADRS();
-        adrs.setType(ADRS.FORS_TREE);
-        adrs.setTreeAddress(idx_tree);
-        adrs.setKeyPairAddress(idx_leaf);
-        SIG_FORS[] sig_fors = fors.sign(mHash, privKey.sk.seed, privKey.pk.seed, adrs);
+        SIG_FORS[] sig_fors;
+        byte[][][] authPaths = null;
+        if (executor != null)
+        {
+            // FORS trees and hypertree authentication paths
+            sig_fors = new SIG_FORS[engine.K];
+            authPaths = new byte[engine.D][][];
+            calculateConcurrently(engine, mHash, idx_tree, idx_leaf, sig_fors, authPaths);
+        }
+        else
+        {
+            ADRS adrs = new ADRS();
+            adrs.setType(ADRS.FORS_TREE);
+            adrs.setTreeAddress(idx_tree);
+            adrs.setKeyPairAddress(idx_leaf);
+            sig_fors = fors.sign(mHash, privKey.sk.seed, privKey.pk.seed, adrs);
+        }
         // get FORS public key - spec shows M?
-        adrs = new ADRS();
+        ADRS adrs = new ADRS();
         adrs.setType(ADRS.FORS_TREE);
         adrs.setTreeAddress(idx_tree);
         adrs.setKeyPairAddress(idx_leaf);
@@ -99,7 +136,7 @@ public byte[] generateSignature(byte[] message)
         treeAdrs.setType(ADRS.TREE);
 
         HT ht = new HT(engine, privKey.getSeed(), privKey.getPublicSeed());
-        byte[] SIG_HT = ht.sign(PK_FORS, idx_tree, idx_leaf);
+        byte[] SIG_HT = ht.sign(PK_FORS, idx_tree, idx_leaf, authPaths);
 
         byte[][] sigComponents = new byte[sig_fors.length + 2][];
         sigComponents[0] = R;
@@ -150,5 +187,101 @@ public boolean verifySignature(byte[] message, byte[] signature)
         HT ht = new HT(engine, null, pubKey.getSeed());
         return ht.verify(PK_FORS, SIG_HT, pubKey.getSeed(), idx_tree, idx_leaf, pubKey.getRoot());
     }
-}
 
+    /**
+     * Calculate the FORS tree signatures and the XMSS authentication paths for each hypertree layer on the
+     * executor. Each task has its own engine, as the engines are not thread safe.
+     */
+    private void calculateConcurrently(SPHINCSPlusEngine engine, byte[] mHash, long idx_tree, int idx_leaf,
+        final SIG_FORS[] sig_fors, final byte[][][] authPaths)
+    {
+        final SPHINCSPlusParameters parameters = privKey.getParameters();
+        final byte[] skSeed = privKey.getSeed();
+        final byte[] pkSeed = privKey.getPublicSeed();
+
+        List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>();
+
+        // the hypertree layers are the larger tasks, so are started first.
+        long tree = idx_tree;
+        int leaf = idx_leaf;
+        for (int j = 0; j != engine.D; j++)
+        {
+            final int layer = j;
+            final int layerLeaf = leaf;
+            final ADRS adrs = new ADRS();
+            adrs.setLayerAddress(layer);
+            adrs.setTreeAddress(tree);
+
+            tasks.add(new FutureTask<Object>(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    SPHINCSPlusEngine taskEngine = parameters.getEngine();
+                    taskEngine.init(pkSeed);
+
+                    authPaths[layer] = new HT(taskEngine, null, pkSeed).xmss_authPath(skSeed, layerLeaf, pkSeed, adrs);
+                    return null;
+                }
+            }));
+
+            leaf = (int)(tree & ((1 << engine.H_PRIME) - 1));  // least significant bits of tree;
+            tree >>>= engine.H_PRIME; // most significant bits of tree;
+        }
+
+        final int[] idxs = Fors.message_to_idxs(mHash, engine.K, engine.A);
+        final ADRS forsAdrs = new ADRS();
+        forsAdrs.setType(ADRS.FORS_TREE);
+        forsAdrs.setTreeAddress(idx_tree);
+        forsAdrs.setKeyPairAddress(idx_leaf);
+        for (int i = 0; i != engine.K; i++)
+        {
+            final int forsTree = i;
+            tasks.add(new FutureTask<Object>(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    SPHINCSPlusEngine taskEngine = parameters.getEngine();
+                    taskEngine.init(pkSeed);
+
+                    sig_fors[forsTree] = new Fors(taskEngine).signTree(forsTree, idxs[forsTree], skSeed, pkSeed, forsAdrs);
+                    return null;
+                }
+            }));
+        }
+
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            FutureTask<Object> task = tasks.get(i);
+            try
+            {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException e)
+            {
+                task.run();
+            }
+        }
+
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted calculating signature");
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException)cause;
+                }
+                throw new IllegalStateException("exception calculating signature: " + cause.getMessage(), cause);
+            }
+        }
+    }
+}
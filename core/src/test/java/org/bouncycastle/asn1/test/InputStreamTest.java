@@ -1,11 +1,26 @@
 package org.bouncycastle.asn1.test;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
+import org.bouncycastle.asn1.ASN1BitString;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.DLBitString;
+import org.bouncycastle.asn1.DLSequence;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Base64;
+import org.bouncycastle.util.io.Streams;
 import org.bouncycastle.util.test.SimpleTest;
 
 public class InputStreamTest
@@ -83,6 +98,95 @@ public void performTest()
         // TODO Error dependent on parser choices; needs to be reworked
 //        testWithByteArray(memoryError1, "corrupted stream - out of bounds length found: 2078365180 >= 39");
 //        testWithByteArray(memoryError2, "corrupted stream - out of bounds length found: 2102504523 >= 39");
+
+        testSharedBuffer(false, false);
+        testSharedBuffer(false, true);
+        testSharedBuffer(true, false);
+        testSharedBuffer(true, true);
+    }
+
+    private void testSharedBuffer(boolean direct, boolean lazyEvaluate)
+        throws IOException
+    {
+        byte[] octets = new byte[100];
+        byte[] bits = new byte[50];
+        for (int i = 0; i < octets.length; ++i)
+        {
+            octets[i] = (byte)(i * 7);
+        }
+        for (int i = 0; i < bits.length; ++i)
+        {
+            bits[i] = (byte)(i * 13 + 1);
+        }
+        BigInteger value = BigInteger.ONE.shiftLeft(400).subtract(BigInteger.valueOf(12345));
+
+        ASN1EncodableVector inner = new ASN1EncodableVector();
+        inner.add(new DEROctetString(Arrays.copyOf(octets, 40)));
+        inner.add(new ASN1Integer(7));
+
+        ASN1EncodableVector v = new ASN1EncodableVector();
+        v.add(new ASN1Integer(value));
+        v.add(new DEROctetString(octets));
+        // Non-zero pad bits, so this is not DER and must be re-encoded for it
+        v.add(new DLBitString(bits, 3));
+        v.add(new DERSequence(inner));
+        v.add(new DERUTF8String("short string"));
+        ASN1Sequence seq = new DLSequence(v);
+
+        byte[] encoding = seq.getEncoded(ASN1Encoding.DER);
+        byte[] dlEncoding = seq.getEncoded(ASN1Encoding.DL);
+        isTrue("shared buffer check 1", !Arrays.areEqual(encoding, dlEncoding));
+
+        ByteBuffer buf = direct ? ByteBuffer.allocateDirect(dlEncoding.length + 10) : ByteBuffer.allocate(dlEncoding.length + 10);
+        buf.position(5);
+        buf.put(dlEncoding);
+        buf.position(5);
+        buf.limit(5 + dlEncoding.length);
+
+        ASN1InputStream aIn = new ASN1InputStream(buf, lazyEvaluate);
+        ASN1Sequence parsed = ASN1Sequence.getInstance(aIn.readObject());
+        isTrue("unexpected trailing object", null == aIn.readObject());
+        isEquals(5, buf.position());
+
+        isTrue("shared buffer check 2", Arrays.areEqual(dlEncoding, parsed.getEncoded()));
+        isTrue("shared buffer check 3", Arrays.areEqual(encoding, parsed.getEncoded(ASN1Encoding.DER)));
+        isTrue("shared buffer check 4", seq.equals(parsed));
+        isEquals(seq.hashCode(), parsed.hashCode());
+
+        ASN1Integer integer = ASN1Integer.getInstance(parsed.getObjectAt(0));
+        isEquals(value, integer.getValue());
+        isTrue("shared buffer check 5", !integer.hasValue(7));
+        isEquals(new ASN1Integer(value).hashCode(), integer.hashCode());
+
+        ASN1OctetString octetString = ASN1OctetString.getInstance(parsed.getObjectAt(1));
+        isEquals(octets.length, octetString.getOctetsLength());
+        isTrue("shared buffer check 6", Arrays.areEqual(octets, Streams.readAll(octetString.getOctetStream())));
+        isTrue("shared buffer check 7", Arrays.areEqual(octets, octetString.getOctets()));
+
+        ASN1BitString bitString = ASN1BitString.getInstance(parsed.getObjectAt(2));
+        isTrue("shared buffer check 8", bitString instanceof DLBitString);
+        isEquals(3, bitString.getPadBits());
+        byte[] derBits = Arrays.clone(bits);
+        derBits[derBits.length - 1] &= (byte)0xF8;
+        isTrue("shared buffer check 9", Arrays.areEqual(derBits, bitString.getBytes()));
+        isEquals(new DERBitString(bits, 3).hashCode(), bitString.hashCode());
+
+        ASN1Sequence innerParsed = ASN1Sequence.getInstance(parsed.getObjectAt(3));
+        isTrue("shared buffer check 10", new DERSequence(inner).equals(innerParsed));
+        isTrue("shared buffer check 11", ASN1Integer.getInstance(innerParsed.getObjectAt(1)).hasValue(7));
+
+        // A truncated buffer must be detected
+        ByteBuffer truncated = buf.duplicate();
+        truncated.limit(truncated.limit() - 1);
+        try
+        {
+            ASN1Sequence.getInstance(new ASN1InputStream(truncated, false).readObject());
+            fail("truncated buffer not detected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
     }
 
     private void testWithByteArray(byte[] data, String message)
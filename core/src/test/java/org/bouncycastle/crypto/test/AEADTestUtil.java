@@ -1,11 +1,15 @@
 package org.bouncycastle.crypto.test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.modes.AEADBlockCipher;
 import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.ByteBufferAEADCipher;
 import org.bouncycastle.crypto.params.AEADParameters;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
@@ -67,6 +71,228 @@ public static void testTampering(Test test, AEADCipher cipher, CipherParameters
         }
     }
 
+    /**
+     * Check the ByteBuffer methods against the byte[] ones, for every combination of heap and direct
+     * buffers, with the data split across two calls so output buffering is exercised.
+     */
+    public static void testByteBuffers(Test test, ByteBufferAEADCipher cipher, AEADParameters params)
+        throws InvalidCipherTextException
+    {
+        byte[] aad = new byte[37];
+        byte[] plaintext = new byte[16400];
+        for (int i = 0; i < plaintext.length; i++)
+        {
+            plaintext[i] = (byte)i;
+        }
+        for (int i = 0; i < aad.length; i++)
+        {
+            aad[i] = (byte)(i * 3);
+        }
+
+        // a distinct nonce for each combination, as the cipher may refuse to encrypt twice under the same one
+        byte[][] ciphertexts = new byte[4][];
+        for (int i = 0; i != 4; i++)
+        {
+            AEADParameters p = withNonce(params, i);
+            cipher.init(true, p);
+            cipher.processAADBytes(aad, 0, aad.length);
+            ciphertexts[i] = new byte[cipher.getOutputSize(plaintext.length)];
+            crypt(cipher, plaintext, ciphertexts[i]);
+        }
+
+        // all the input in one call, so that it spans several of the processor's chunks and the cipher holds
+        // input back between them. Decryption runs first, with direct output first, so the processor's scratch
+        // space hasn't already been grown by other calls.
+        int[] order = new int[]{ 2, 3, 0, 1 };
+        for (int j = 0; j != order.length; j++)
+        {
+            int i = order[j];
+            boolean directIn = (i & 1) != 0, directOut = (i & 2) != 0;
+
+            byte[] dec = cryptByteBuffers(cipher, false, withNonce(params, i), aad, ciphertexts[i], directIn,
+                directOut, ciphertexts[i].length);
+            if (!Arrays.areEqual(plaintext, dec))
+            {
+                fail(test, "single call ByteBuffer decryption mismatch");
+            }
+        }
+        for (int i = 0; i != 4; i++)
+        {
+            boolean directIn = (i & 1) != 0, directOut = (i & 2) != 0;
+
+            byte[] enc = cryptByteBuffers(cipher, true, withNonce(params, i), aad, plaintext, directIn, directOut,
+                plaintext.length);
+            if (!Arrays.areEqual(ciphertexts[i], enc))
+            {
+                fail(test, "single call ByteBuffer encryption mismatch", Hex.toHexString(ciphertexts[i]),
+                    Hex.toHexString(enc));
+            }
+        }
+
+        for (int i = 0; i != 4; i++)
+        {
+            boolean directIn = (i & 1) != 0, directOut = (i & 2) != 0;
+            AEADParameters p = withNonce(params, i);
+
+            byte[] enc = cryptByteBuffers(cipher, true, p, aad, plaintext, directIn, directOut,
+                plaintext.length / 3 + 5);
+            if (!Arrays.areEqual(ciphertexts[i], enc))
+            {
+                fail(test, "ByteBuffer encryption mismatch", Hex.toHexString(ciphertexts[i]), Hex.toHexString(enc));
+            }
+
+            byte[] dec = cryptByteBuffers(cipher, false, p, aad, ciphertexts[i], directIn, directOut,
+                ciphertexts[i].length / 3 + 5);
+            if (!Arrays.areEqual(plaintext, dec))
+            {
+                fail(test, "ByteBuffer decryption mismatch");
+            }
+        }
+
+        // in place, with the split leaving data buffered between calls, then (heap only) with the output
+        // overlapping the input but starting before or after it
+        int[] shifts = new int[]{ 0, 0, -5, 5 };
+        for (int i = 0; i != shifts.length; i++)
+        {
+            boolean direct = i == 1;
+            AEADParameters p = withNonce(params, i);
+
+            byte[] enc = cryptInPlace(cipher, true, p, aad, plaintext, direct, shifts[i]);
+            if (!Arrays.areEqual(ciphertexts[i], enc))
+            {
+                fail(test, "in place ByteBuffer encryption mismatch", Hex.toHexString(ciphertexts[i]),
+                    Hex.toHexString(enc));
+            }
+
+            byte[] dec = cryptInPlace(cipher, false, p, aad, ciphertexts[i], direct, shifts[i]);
+            if (!Arrays.areEqual(plaintext, dec))
+            {
+                fail(test, "in place ByteBuffer decryption mismatch");
+            }
+        }
+
+        byte[] tampered = Arrays.clone(ciphertexts[0]);
+        tampered[tampered.length - 1] ^= 1;
+        try
+        {
+            cryptByteBuffers(cipher, false, withNonce(params, 0), aad, tampered, true, true, tampered.length / 3 + 5);
+            fail(test, "ByteBuffer tampering of ciphertext not detected.");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            // Expected
+        }
+
+        // (a cipher that only produces output in doFinal can't be short of space here)
+        cipher.init(true, withNonce(params, 4));
+        if (cipher.getUpdateOutputSize(plaintext.length) > 0)
+        {
+            try
+            {
+                cipher.processBytes(ByteBuffer.wrap(plaintext), ByteBuffer.allocateDirect(plaintext.length / 2));
+                fail(test, "ByteBuffer processBytes with short output buffer not detected.");
+            }
+            catch (OutputLengthException e)
+            {
+                // Expected
+            }
+        }
+    }
+
+    private static byte[] cryptByteBuffers(ByteBufferAEADCipher cipher, boolean forEncryption,
+        AEADParameters params, byte[] aad, byte[] input, boolean directIn, boolean directOut, int split)
+        throws InvalidCipherTextException
+    {
+        cipher.init(forEncryption, params);
+
+        ByteBuffer aadBuf = allocate(directIn, aad.length);
+        aadBuf.put(aad).flip();
+        cipher.processAADBytes(aadBuf);
+
+        int offset = 11;
+        ByteBuffer in = allocate(directIn, offset + input.length);
+        in.position(offset);
+        in.put(input);
+        in.position(offset);
+
+        ByteBuffer out = allocate(directOut, offset + cipher.getOutputSize(input.length));
+        out.position(offset);
+
+        in.limit(offset + split);
+        int len = cipher.processBytes(in, out);
+        in.limit(offset + input.length);
+        len += cipher.processBytes(in, out);
+        len += cipher.doFinal(out);
+
+        byte[] output = new byte[len];
+        out.flip();
+        out.position(offset);
+        out.get(output);
+        return output;
+    }
+
+    /*
+     * Each call is made with its input and output starting at the same position, so output for data buffered by
+     * an earlier call has to be written over input that hasn't been read yet.
+     */
+    private static byte[] cryptInPlace(ByteBufferAEADCipher cipher, boolean forEncryption,
+        AEADParameters params, byte[] aad, byte[] input, boolean direct, int shift)
+        throws InvalidCipherTextException
+    {
+        cipher.init(forEncryption, params);
+        cipher.processAADBytes(aad, 0, aad.length);
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        int offset = 11, split = 23;
+
+        ByteBuffer buf = allocate(direct, 2 * offset + input.length + cipher.getOutputSize(input.length));
+        cryptChunkInPlace(cipher, buf, offset, offset + shift, input, 0, split, bOut);
+        cryptChunkInPlace(cipher, buf, offset, offset + shift, input, split, input.length - split, bOut);
+
+        buf.clear();
+        int len = cipher.doFinal(buf);
+        byte[] output = new byte[len];
+        buf.flip();
+        buf.get(output);
+        bOut.write(output, 0, len);
+
+        return bOut.toByteArray();
+    }
+
+    private static void cryptChunkInPlace(ByteBufferAEADCipher cipher, ByteBuffer buf, int offset, int outOffset,
+        byte[] input, int inOff, int inLen, ByteArrayOutputStream bOut)
+    {
+        buf.clear();
+        buf.position(offset);
+        buf.put(input, inOff, inLen);
+
+        ByteBuffer in = buf.duplicate();
+        in.position(offset);
+        in.limit(offset + inLen);
+        ByteBuffer out = buf.duplicate();
+        out.clear();
+        out.position(outOffset);
+
+        int len = cipher.processBytes(in, out);
+        byte[] output = new byte[len];
+        buf.clear();
+        buf.position(outOffset);
+        buf.get(output);
+        bOut.write(output, 0, len);
+    }
+
+    private static AEADParameters withNonce(AEADParameters params, int variant)
+    {
+        byte[] nonce = params.getNonce();
+        nonce[0] ^= (byte)variant;
+        return new AEADParameters(params.getKey(), params.getMacSize(), nonce, params.getAssociatedText());
+    }
+
+    private static ByteBuffer allocate(boolean direct, int capacity)
+    {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
     private static void fail(Test test, String message)
     {
         throw new TestFailedException(SimpleTestResult.failed(test, message));
@@ -1,12 +1,15 @@
 package org.bouncycastle.crypto.test;
 
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.ByteBufferStreamCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DefaultBufferedBlockCipher;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.modes.CFBBlockCipher;
@@ -492,6 +495,57 @@ private void ctrFragmentedTest()
         }
     }
 
+    private void ctrByteBufferTest()
+    {
+        ByteBufferStreamCipher engine = (ByteBufferStreamCipher)SICBlockCipher.newInstance(AESEngine.newInstance());
+        KeyParameter kp = new KeyParameter(Hex.decode("5F060D3716B345C253F6749ABAC10917"));
+
+        for (int i = 0; i != 4; i++)
+        {
+            boolean directIn = (i & 1) != 0, directOut = (i & 2) != 0;
+
+            ByteBuffer in = directIn ? ByteBuffer.allocateDirect(tData.length + 3) : ByteBuffer.allocate(tData.length + 3);
+            ByteBuffer out = directOut ? ByteBuffer.allocateDirect(tData.length + 5) : ByteBuffer.allocate(tData.length + 5);
+
+            in.position(3);
+            in.put(tData);
+            in.position(3);
+            out.position(5);
+
+            engine.init(true, new ParametersWithIV(kp, new byte[16]));
+
+            // uneven split so the second call starts part way through a block
+            in.limit(3 + 7);
+            int len = engine.processBytes(in, out);
+            in.limit(3 + tData.length);
+            len += engine.processBytes(in, out);
+
+            isEquals(tData.length, len);
+            isEquals(in.limit(), in.position());
+            isEquals(5 + tData.length, out.position());
+
+            byte[] result = new byte[tData.length];
+            out.position(5);
+            out.get(result);
+
+            if (!areEqual(outSIC1, result))
+            {
+                fail("no match for ByteBuffer check: " + (directIn ? "direct" : "heap") + "/" + (directOut ? "direct" : "heap"));
+            }
+        }
+
+        engine.init(true, new ParametersWithIV(kp, new byte[16]));
+        try
+        {
+            engine.processBytes(ByteBuffer.wrap(tData), ByteBuffer.allocateDirect(tData.length - 1));
+            fail("short output buffer not detected");
+        }
+        catch (OutputLengthException e)
+        {
+            // expected
+        }
+    }
+
     public void performTest()
         throws Exception
     {
@@ -539,6 +593,7 @@ public void performTest()
         ctrCounterTest();
         ctrFragmentedTest();
         testLastByte();
+        ctrByteBufferTest();
     }
 
     public static void main(
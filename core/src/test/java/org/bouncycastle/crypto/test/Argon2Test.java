@@ -2,6 +2,8 @@
 
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
 import org.bouncycastle.crypto.params.Argon2Parameters;
@@ -33,6 +35,7 @@ public void performTest()
 
         testPermutations();
         testVectorsFromInternetDraft();
+        testConcurrentLanes();
 
         int version = Argon2Parameters.ARGON2_VERSION_10;
 
@@ -314,6 +317,64 @@ private void testVectorsFromInternetDraft()
 
     }
 
+    private void testConcurrentLanes()
+    {
+        int[] types = { Argon2Parameters.ARGON2_d, Argon2Parameters.ARGON2_i, Argon2Parameters.ARGON2_id };
+        byte[] password = Strings.toByteArray("password");
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            for (int i = 0; i != types.length; i++)
+            {
+                Argon2Parameters params = new Argon2Parameters.Builder(types[i])
+                    .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                    .withIterations(2)
+                    .withMemoryPowOfTwo(12)
+                    .withParallelism(4)
+                    .withSalt(Strings.toByteArray("somesalt"))
+                    .build();
+
+                Argon2BytesGenerator gen = new Argon2BytesGenerator();
+                gen.init(params);
+                byte[] expected = new byte[32];
+                gen.generateBytes(password, expected);
+
+                gen = new Argon2BytesGenerator(executor);
+                gen.init(params);
+                byte[] result = new byte[32];
+                gen.generateBytes(password, result);
+                isTrue("concurrent lanes failed", areEqual(expected, result));
+
+                // should be able to re-use generator after successful use
+                gen.generateBytes(password, result);
+                isTrue("concurrent lanes failed on reuse", areEqual(expected, result));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // a shut down executor rejects the lanes, which are then filled on the calling thread.
+        Argon2Parameters params = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+            .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+            .withIterations(3)
+            .withMemoryAsKB(32)
+            .withParallelism(4)
+            .withAdditional(Hex.decode("040404040404040404040404"))
+            .withSecret(Hex.decode("0303030303030303"))
+            .withSalt(Hex.decode("02020202020202020202020202020202"))
+            .build();
+
+        Argon2BytesGenerator gen = new Argon2BytesGenerator(executor);
+        gen.init(params);
+        byte[] result = new byte[32];
+        gen.generateBytes(Hex.decode("0101010101010101010101010101010101010101010101010101010101010101"), result);
+        isTrue("Argon 2id with rejecting executor failed", areEqual(result,
+            Hex.decode("0d640df58d78766c08c037a34a8b53c9d01ef0452d75b65eb52520e96b01e659")));
+    }
+
     private static int getJvmVersion()
     {
         String version = System.getProperty("java.specification.version");
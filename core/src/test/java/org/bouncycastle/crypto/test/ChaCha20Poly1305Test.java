@@ -56,6 +56,9 @@ public void performTest() throws Exception
         outputSizeTests();
         randomTests();
         testExceptions();
+
+        AEADTestUtil.testByteBuffers(this, new ChaCha20Poly1305(),
+            new AEADParameters(new KeyParameter(new byte[32]), 128, new byte[12]));
     }
 
     private void checkTestCase(
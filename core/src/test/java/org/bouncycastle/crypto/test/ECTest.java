@@ -31,7 +31,9 @@
 import org.bouncycastle.crypto.params.MQVPublicParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.crypto.signers.DSADigestSigner;
+import org.bouncycastle.crypto.signers.ECDSABatchVerifier;
 import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.math.ec.ECAlgorithms;
 import org.bouncycastle.math.ec.ECConstants;
 import org.bouncycastle.math.ec.ECCurve;
 import org.bouncycastle.math.ec.ECPoint;
@@ -477,6 +479,122 @@ private void testECDSAP256sha256()
         }
     }
 
+    private void testECDSABatchVerifier(X9ECParameters x9)
+    {
+        SecureRandom random = new SecureRandom();
+        ECDomainParameters params = new ECDomainParameters(x9);
+
+        ECKeyPairGenerator kpGen = new ECKeyPairGenerator();
+        kpGen.init(new ECKeyGenerationParameters(params, random));
+
+        AsymmetricCipherKeyPair[] kps = new AsymmetricCipherKeyPair[3];
+        for (int i = 0; i < kps.length; ++i)
+        {
+            kps[i] = kpGen.generateKeyPair();
+        }
+
+        int count = 20;
+        ECPublicKeyParameters[] pubKeys = new ECPublicKeyParameters[count];
+        byte[][] messages = new byte[count][];
+        BigInteger[][] sigs = new BigInteger[count][];
+        int[] recoveryIds = new int[count];
+
+        ECDSASigner signer = new ECDSASigner();
+        for (int i = 0; i < count; ++i)
+        {
+            AsymmetricCipherKeyPair kp = kps[i % kps.length];
+            pubKeys[i] = (ECPublicKeyParameters)kp.getPublic();
+            messages[i] = new byte[32];
+            random.nextBytes(messages[i]);
+
+            signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+            sigs[i] = signer.generateSignature(messages[i]);
+            recoveryIds[i] = getRecoveryId(params, pubKeys[i], messages[i], sigs[i]);
+        }
+
+        ECDSABatchVerifier verifier = new ECDSABatchVerifier(params, random);
+        boolean[] results = new boolean[count];
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(pubKeys[i], messages[i], sigs[i][0], sigs[i][1]);
+        }
+        isTrue("batch failed", verifier.verify(results));
+        isEquals(0, verifier.size());
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(pubKeys[i], messages[i], sigs[i][0], sigs[i][1], recoveryIds[i]);
+        }
+        isTrue("batch with recovery ids failed", verifier.verify(results));
+
+        // A wrong recovery id must not invalidate a signature
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(pubKeys[i], messages[i], sigs[i][0], sigs[i][1], recoveryIds[i] ^ (i == 3 ? 1 : 0));
+        }
+        isTrue("batch with wrong recovery id failed", verifier.verify(results));
+
+        BigInteger n = params.getN();
+        for (int recover = 0; recover < 2; ++recover)
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                BigInteger r = sigs[i][0], s = sigs[i][1];
+                byte[] message = messages[i];
+                ECPublicKeyParameters pubKey = pubKeys[i];
+                switch (i)
+                {
+                case 2:
+                    s = s.add(ECConstants.ONE).mod(n);
+                    break;
+                case 7:
+                    r = ECConstants.ZERO;
+                    break;
+                case 11:
+                    message = messages[i - 1];
+                    break;
+                case 17:
+                    pubKey = pubKeys[i - 1];
+                    break;
+                }
+
+                if (recover == 0)
+                {
+                    verifier.add(pubKey, message, r, s);
+                }
+                else
+                {
+                    verifier.add(pubKey, message, r, s, recoveryIds[i]);
+                }
+            }
+            isTrue("batch with invalid signatures passed", !verifier.verify(results));
+
+            for (int i = 0; i < count; ++i)
+            {
+                boolean expected = i != 2 && i != 7 && i != 11 && i != 17;
+                isTrue("wrong result for signature " + i, expected == results[i]);
+            }
+        }
+    }
+
+    private static int getRecoveryId(ECDomainParameters params, ECPublicKeyParameters pubKey, byte[] message,
+        BigInteger[] sig)
+    {
+        BigInteger n = params.getN();
+        BigInteger c = sig[1].modInverse(n);
+        BigInteger u1 = new BigInteger(1, message).multiply(c).mod(n);
+        BigInteger u2 = sig[0].multiply(c).mod(n);
+
+        ECPoint R = ECAlgorithms.sumOfTwoMultiplies(params.getG(), u1, pubKey.getQ(), u2).normalize();
+        int recoveryId = R.getAffineYCoord().testBitZero() ? 1 : 0;
+        if (R.getAffineXCoord().toBigInteger().compareTo(n) >= 0)
+        {
+            recoveryId |= 2;
+        }
+        return recoveryId;
+    }
+
     private void testECDSAP256sha3(int size, BigInteger s)
     {
         X9ECParameters p = NISTNamedCurves.getByName("P-256");
@@ -1158,6 +1276,11 @@ public void performTest()
         testECDSASecP224k1sha256();
         testECDSA239bitBinaryAndLargeDigest();
 
+        testECDSABatchVerifier(CustomNamedCurves.getByName("secp256r1"));
+        testECDSABatchVerifier(CustomNamedCurves.getByName("secp256k1"));
+        testECDSABatchVerifier(ECNamedCurveTable.getByName("brainpoolP256r1"));
+        testECDSABatchVerifier(ECNamedCurveTable.getByName("sect233r1"));
+
         testECDSAP256sha3(224, new BigInteger("84d7d8e68e405064109cd9fc3e3026d74d278aada14ce6b7a9dd0380c154dc94", 16));
         testECDSAP256sha3(256, new BigInteger("99a43bdab4af989aaf2899079375642f2bae2dce05bcd8b72ec8c4a8d9a143f", 16));
         testECDSAP256sha3(384, new BigInteger("aa27726509c37aaf601de6f7e01e11c19add99530c9848381c23365dc505b11a", 16));
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed25519KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.crypto.signers.Ed25519ctxSigner;
 import org.bouncycastle.crypto.signers.Ed25519phSigner;
@@ -43,6 +44,47 @@ public void performTest() throws Exception
         }
 
         basicSigTest();
+        testBatchVerifier();
+    }
+
+    private void testBatchVerifier() throws Exception
+    {
+        Ed25519KeyPairGenerator kpg = new Ed25519KeyPairGenerator();
+        kpg.init(new Ed25519KeyGenerationParameters(RANDOM));
+
+        Ed25519BatchVerifier batchVerifier = new Ed25519BatchVerifier(RANDOM);
+        Signer signer = new Ed25519Signer();
+
+        int count = 20;
+        for (int i = 0; i < count; ++i)
+        {
+            AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+            byte[] msg = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msg);
+
+            signer.init(true, kp.getPrivate());
+            signer.update(msg, 0, msg.length);
+            byte[] signature = signer.generateSignature();
+
+            if (i == 7)
+            {
+                signature[(RANDOM.nextInt() >>> 1) % signature.length] ^= 1 << (RANDOM.nextInt() & 7);
+            }
+
+            batchVerifier.add((Ed25519PublicKeyParameters)kp.getPublic(), msg, 0, msg.length, signature);
+        }
+
+        isEquals(count, batchVerifier.size());
+
+        boolean[] results = new boolean[count];
+        isTrue("Ed25519 batch with bad signature incorrectly verified", !batchVerifier.verify(results));
+        isEquals(0, batchVerifier.size());
+
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("Ed25519 batch verification result #" + i, results[i] == (i != 7));
+        }
     }
 
     private void basicSigTest()
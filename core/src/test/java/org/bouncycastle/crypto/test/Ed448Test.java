@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed448KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed448PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed448BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed448Signer;
 import org.bouncycastle.crypto.signers.Ed448phSigner;
 import org.bouncycastle.math.ec.rfc8032.Ed448;
@@ -40,6 +41,49 @@ public void performTest() throws Exception
             testConsistency(Ed448.Algorithm.Ed448, context);
             testConsistency(Ed448.Algorithm.Ed448ph, context);
         }
+
+        testBatchVerifier();
+    }
+
+    private void testBatchVerifier() throws Exception
+    {
+        Ed448KeyPairGenerator kpg = new Ed448KeyPairGenerator();
+        kpg.init(new Ed448KeyGenerationParameters(RANDOM));
+
+        byte[] context = randomContext(RANDOM.nextInt() & 255);
+        Ed448BatchVerifier batchVerifier = new Ed448BatchVerifier(context, RANDOM);
+        Signer signer = new Ed448Signer(context);
+
+        int count = 20;
+        for (int i = 0; i < count; ++i)
+        {
+            AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+            byte[] msg = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msg);
+
+            signer.init(true, kp.getPrivate());
+            signer.update(msg, 0, msg.length);
+            byte[] signature = signer.generateSignature();
+
+            if (i == 7)
+            {
+                signature[(RANDOM.nextInt() >>> 1) % signature.length] ^= 1 << (RANDOM.nextInt() & 7);
+            }
+
+            batchVerifier.add((Ed448PublicKeyParameters)kp.getPublic(), msg, 0, msg.length, signature);
+        }
+
+        isEquals(count, batchVerifier.size());
+
+        boolean[] results = new boolean[count];
+        isTrue("Ed448 batch with bad signature incorrectly verified", !batchVerifier.verify(results));
+        isEquals(0, batchVerifier.size());
+
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("Ed448 batch verification result #" + i, results[i] == (i != 7));
+        }
     }
 
     private void basicSigTest()
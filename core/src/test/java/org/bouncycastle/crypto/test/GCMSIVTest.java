@@ -29,6 +29,9 @@ public void performTest()
         new AESGCMSIV256Test2().testTheCipher(this);
         new AESGCMSIV256Test3().testTheCipher(this);
         new AESGCMSIV256Test4().testTheCipher(this);
+
+        AEADTestUtil.testByteBuffers(this, new GCMSIVBlockCipher(),
+            new AEADParameters(new KeyParameter(new byte[16]), 128, new byte[12]));
     }
 
     /**
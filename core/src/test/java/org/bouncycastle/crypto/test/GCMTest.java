@@ -10,6 +10,8 @@
 import org.bouncycastle.crypto.modes.GCMModeCipher;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
+import org.bouncycastle.crypto.modes.gcm.Tables16kGCMMultiplier;
+import org.bouncycastle.crypto.modes.gcm.Tables32kGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables64kGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables8kGCMMultiplier;
@@ -312,6 +314,65 @@ public void performTest() throws Exception
         outputSizeTests();
         testExceptions();
         testResetBehavior();
+        testMultiBlock();
+
+        AEADTestUtil.testByteBuffers(this, new GCMBlockCipher(AESEngine.newInstance()),
+            new AEADParameters(new KeyParameter(new byte[16]), 128, new byte[12]));
+    }
+
+    /*
+     * Bulk data goes through the multi-block path, so check it against the single block multiplier
+     * for lengths and split points either side of a multi-block boundary.
+     */
+    private void testMultiBlock() throws InvalidCipherTextException
+    {
+        testMultiBlock(new Tables16kGCMMultiplier());
+        testMultiBlock(new Tables32kGCMMultiplier());
+    }
+
+    private void testMultiBlock(GCMMultiplier m) throws InvalidCipherTextException
+    {
+        SecureRandom rnd = new SecureRandom();
+
+        byte[] K = new byte[16];
+        byte[] IV = new byte[12];
+        rnd.nextBytes(K);
+        rnd.nextBytes(IV);
+
+        for (int pLength = 0; pLength <= 300; ++pLength)
+        {
+            byte[] A = new byte[rnd.nextInt(300)];
+            byte[] P = new byte[pLength];
+            rnd.nextBytes(A);
+            rnd.nextBytes(P);
+
+            AEADParameters parameters = new AEADParameters(new KeyParameter(K), 128, IV, A);
+
+            GCMModeCipher expected = initCipher(new BasicGCMMultiplier(), true, parameters);
+            byte[] C = new byte[expected.getOutputSize(pLength)];
+            int len = expected.processBytes(P, 0, pLength, C, 0);
+            expected.doFinal(C, len);
+
+            int split = rnd.nextInt(pLength + 1);
+
+            GCMModeCipher enc = initCipher(m, true, parameters);
+            byte[] encC = new byte[enc.getOutputSize(pLength)];
+            len = enc.processBytes(P, 0, split, encC, 0);
+            len += enc.processBytes(P, split, pLength - split, encC, len);
+            enc.doFinal(encC, len);
+
+            isTrue("multi-block encryption mismatch", areEqual(C, encC));
+
+            split = rnd.nextInt(C.length + 1);
+
+            GCMModeCipher dec = initCipher(m, false, parameters);
+            byte[] decP = new byte[dec.getOutputSize(C.length)];
+            len = dec.processBytes(C, 0, split, decP, 0);
+            len += dec.processBytes(C, split, C.length - split, decP, len);
+            dec.doFinal(decP, len);
+
+            isTrue("multi-block decryption mismatch", areEqual(P, decP));
+        }
     }
 
 
@@ -458,6 +519,9 @@ private void runTestCase(String[] testVector, int macLength)
 
         runTestCase(new BasicGCMMultiplier(), new BasicGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables4kGCMMultiplier(), new Tables4kGCMMultiplier(), testName, K, IV, A, P, C, T);
+        runTestCase(new Tables16kGCMMultiplier(), new Tables16kGCMMultiplier(), testName, K, IV, A, P, C, T);
+        runTestCase(new Tables32kGCMMultiplier(), new Tables32kGCMMultiplier(), testName, K, IV, A, P, C, T);
+        runTestCase(new Tables4kGCMMultiplier(), new Tables32kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables8kGCMMultiplier(), new Tables8kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables64kGCMMultiplier(), new Tables64kGCMMultiplier(), testName, K, IV, A, P, C, T);
     }
@@ -596,6 +660,8 @@ private void randomTests()
         randomTests(srng, null);
         randomTests(srng, new BasicGCMMultiplier());
         randomTests(srng, new Tables4kGCMMultiplier());
+        randomTests(srng, new Tables16kGCMMultiplier());
+        randomTests(srng, new Tables32kGCMMultiplier());
         randomTests(srng, new Tables8kGCMMultiplier());
         randomTests(srng, new Tables64kGCMMultiplier());
     }
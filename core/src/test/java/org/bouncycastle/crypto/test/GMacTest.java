@@ -5,6 +5,7 @@
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.macs.GMac;
 import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.modes.gcm.Tables32kGCMMultiplier;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.encoders.Hex;
@@ -113,6 +114,11 @@ public void performTest()
             mac = new GMac(GCMBlockCipher.newInstance(AESEngine.newInstance()), testCase.getTag().length * 8);
             mac.init(new ParametersWithIV(key, testCase.getIv()));
             testMultibyte(mac, testCase);
+
+            mac = new GMac(GCMBlockCipher.newInstance(AESEngine.newInstance(), new Tables32kGCMMultiplier()),
+                testCase.getTag().length * 8);
+            mac.init(new ParametersWithIV(key, testCase.getIv()));
+            testMultibyte(mac, testCase);
         }
 
         // Invalid mac size
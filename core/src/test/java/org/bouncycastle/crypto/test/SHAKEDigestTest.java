@@ -8,6 +8,7 @@
 import java.util.List;
 
 import org.bouncycastle.crypto.digests.SHAKEDigest;
+import org.bouncycastle.crypto.digests.SHAKEX4;
 import org.bouncycastle.test.TestResourceFinder;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
@@ -43,9 +44,61 @@ public String getName()
 
     public void performTest() throws Exception
     {
+        testX4(128);
+        testX4(256);
         testVectors();
     }
 
+    private void testX4(int bitLength)
+    {
+        SHAKEX4 x4 = new SHAKEX4(bitLength);
+        int rate = x4.getBlockSize();
+        // lengths either side of the block boundaries, including empty input
+        int[] lengths = new int[]{ 0, 34, rate - 1, rate, 2 * rate + 3 };
+        byte[] input = new byte[2 * rate + 3];
+        for (int i = 0; i != input.length; i++)
+        {
+            input[i] = (byte)(i * 7);
+        }
+
+        for (int round = 0; round != 2; round++)
+        {
+            x4.reset();
+
+            byte[][] expected = new byte[4][3 * rate];
+            byte[][] outputs = new byte[4][3 * rate];
+            for (int lane = 0; lane != 4; lane++)
+            {
+                int len = lengths[(lane + round) % lengths.length];
+                SHAKEDigest d = new SHAKEDigest(bitLength);
+                d.update(input, 0, len);
+                d.doFinal(expected[lane], 0, expected[lane].length);
+
+                // absorb in two pieces to check the lane position is kept
+                x4.update(lane, input, 0, len / 2);
+                x4.update(lane, input, len / 2, len - len / 2);
+            }
+
+            x4.squeezeBlocks(outputs[0], outputs[1], outputs[2], outputs[3], 0, 2);
+            for (int lane = 0; lane != 4; lane++)
+            {
+                x4.squeezeBlocks(lane, outputs[lane], 2 * rate, 1);
+
+                isTrue("SHAKE" + bitLength + "x4 lane " + lane + " mismatch", Arrays.areEqual(expected[lane], outputs[lane]));
+            }
+        }
+
+        try
+        {
+            x4.update(0, input, 0, 1);
+            fail("no exception on absorb while squeezing");
+        }
+        catch (IllegalStateException e)
+        {
+            isEquals("attempt to absorb while squeezing", e.getMessage());
+        }
+    }
+
     public void testVectors() throws Exception
     {
         BufferedReader r = new BufferedReader(new InputStreamReader(
@@ -202,6 +202,57 @@ public void testEd25519phConsistency()
         }
     }
 
+//    @Test
+    public void testEd25519VerifyBatch()
+    {
+        // Spans more than one internal batch
+        int count = 150;
+
+        byte[] sk = new byte[Ed25519.SECRET_KEY_SIZE];
+        byte[][] pks = new byte[count][Ed25519.PUBLIC_KEY_SIZE];
+        Ed25519.PublicPoint[] publicPoints = new Ed25519.PublicPoint[count];
+        byte[][] ms = new byte[count][];
+        byte[][] sigs = new byte[count][Ed25519.SIGNATURE_SIZE];
+
+        for (int i = 0; i < count; ++i)
+        {
+            Ed25519.generatePrivateKey(RANDOM, sk);
+            publicPoints[i] = Ed25519.generatePublicKey(sk, 0);
+            Ed25519.encodePublicPoint(publicPoints[i], pks[i], 0);
+
+            ms[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(ms[i]);
+
+            Ed25519.sign(sk, 0, ms[i], 0, ms[i].length, sigs[i], 0);
+        }
+
+        boolean[] results = new boolean[count];
+
+        assertTrue(Ed25519.verifyBatch(RANDOM, sigs, pks, ms, results));
+        for (int i = 0; i < count; ++i)
+        {
+            assertTrue("Ed25519 batch verification #" + i, results[i]);
+        }
+
+        assertTrue(Ed25519.verifyBatch(RANDOM, sigs, publicPoints, ms, null));
+
+        sigs[3][Ed25519.PUBLIC_KEY_SIZE - 1] ^= 0x80;
+        sigs[70][Ed25519.SIGNATURE_SIZE - 2] ^= 0x01;
+        ms[71] = Arrays.append(ms[71], (byte)0);
+        sigs[149] = Arrays.copyOf(sigs[149], Ed25519.SIGNATURE_SIZE - 1);
+
+        assertFalse(Ed25519.verifyBatch(RANDOM, sigs, pks, ms, results));
+        checkBatchResults(sigs, pks, ms, results);
+
+        assertFalse(Ed25519.verifyBatch(RANDOM, sigs, publicPoints, ms, results));
+        checkBatchResults(sigs, pks, ms, results);
+
+        pks[100] = Arrays.copyOf(pks[100], Ed25519.PUBLIC_KEY_SIZE - 1);
+
+        assertFalse(Ed25519.verifyBatch(RANDOM, sigs, pks, ms, results));
+        checkBatchResults(sigs, pks, ms, results);
+    }
+
 //    @Test
     public void testEd25519Vector1()
     {
@@ -700,6 +751,18 @@ private static boolean implTamingVector(String msgHex, String pubHex, String sig
         }
     }
 
+    private static void checkBatchResults(byte[][] sigs, byte[][] pks, byte[][] ms, boolean[] results)
+    {
+        for (int i = 0; i < sigs.length; ++i)
+        {
+            boolean expected = sigs[i].length == Ed25519.SIGNATURE_SIZE
+                && pks[i].length == Ed25519.PUBLIC_KEY_SIZE
+                && Ed25519.verify(sigs[i], 0, pks[i], 0, ms[i], 0, ms[i].length);
+
+            assertEquals("Ed25519 batch verification result #" + i, expected, results[i]);
+        }
+    }
+
     private static void checkEd25519Vector(String sSK, String sPK, String sM, String sSig, String text)
     {
         byte[] sk = Hex.decode(sSK);
@@ -80,6 +80,60 @@ public void testEd448Consistency()
         }
     }
 
+//    @Test
+    public void testEd448VerifyBatch()
+    {
+        // Spans more than one internal batch
+        int count = 150;
+
+        byte[] sk = new byte[Ed448.SECRET_KEY_SIZE];
+        byte[] ctx = new byte[RANDOM.nextInt() & 7];
+        byte[][] pks = new byte[count][Ed448.PUBLIC_KEY_SIZE];
+        Ed448.PublicPoint[] publicPoints = new Ed448.PublicPoint[count];
+        byte[][] ms = new byte[count][];
+        byte[][] sigs = new byte[count][Ed448.SIGNATURE_SIZE];
+
+        RANDOM.nextBytes(ctx);
+
+        for (int i = 0; i < count; ++i)
+        {
+            Ed448.generatePrivateKey(RANDOM, sk);
+            publicPoints[i] = Ed448.generatePublicKey(sk, 0);
+            Ed448.encodePublicPoint(publicPoints[i], pks[i], 0);
+
+            ms[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(ms[i]);
+
+            Ed448.sign(sk, 0, ctx, ms[i], 0, ms[i].length, sigs[i], 0);
+        }
+
+        boolean[] results = new boolean[count];
+
+        assertTrue(Ed448.verifyBatch(RANDOM, sigs, pks, ctx, ms, results));
+        for (int i = 0; i < count; ++i)
+        {
+            assertTrue("Ed448 batch verification #" + i, results[i]);
+        }
+
+        assertTrue(Ed448.verifyBatch(RANDOM, sigs, publicPoints, ctx, ms, null));
+
+        sigs[3][Ed448.PUBLIC_KEY_SIZE - 2] ^= 0x80;
+        sigs[70][Ed448.SIGNATURE_SIZE - 2] ^= 0x01;
+        ms[71] = Arrays.append(ms[71], (byte)0);
+        sigs[149] = Arrays.copyOf(sigs[149], Ed448.SIGNATURE_SIZE - 1);
+
+        assertFalse(Ed448.verifyBatch(RANDOM, sigs, pks, ctx, ms, results));
+        checkBatchResults(sigs, pks, ctx, ms, results);
+
+        assertFalse(Ed448.verifyBatch(RANDOM, sigs, publicPoints, ctx, ms, results));
+        checkBatchResults(sigs, pks, ctx, ms, results);
+
+        pks[100] = Arrays.copyOf(pks[100], Ed448.PUBLIC_KEY_SIZE - 1);
+
+        assertFalse(Ed448.verifyBatch(RANDOM, sigs, pks, ctx, ms, results));
+        checkBatchResults(sigs, pks, ctx, ms, results);
+    }
+
 //    @Test
     public void testEd448phConsistency()
     {
@@ -615,6 +669,18 @@ public void testPublicKeyValidationPartial()
         assertTrue(Ed448.validatePublicKeyPartial(Hex.decodeStrict("43482D0750D4830AAAF578346288050EAE8ADF96DF66F243E73252114E432B448730517FD8726871508CAD7ECECFDB33120CA5558788B6C800"), 0));
     }
 
+    private static void checkBatchResults(byte[][] sigs, byte[][] pks, byte[] ctx, byte[][] ms, boolean[] results)
+    {
+        for (int i = 0; i < sigs.length; ++i)
+        {
+            boolean expected = sigs[i].length == Ed448.SIGNATURE_SIZE
+                && pks[i].length == Ed448.PUBLIC_KEY_SIZE
+                && Ed448.verify(sigs[i], 0, pks[i], 0, ctx, ms[i], 0, ms[i].length);
+
+            assertEquals("Ed448 batch verification result #" + i, expected, results[i]);
+        }
+    }
+
     private static void checkEd448Vector(String sSK, String sPK, String sM, String sCTX, String sSig, String text)
     {
         byte[] sk = Hex.decode(sSK);
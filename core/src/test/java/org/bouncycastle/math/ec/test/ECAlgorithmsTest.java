@@ -43,6 +43,21 @@ public void testSumOfMultipliesComplete()
         }
     }
 
+    public void testSumOfManyMultiplies()
+    {
+        String[] names = new String[]{ "secp256r1", "secp256k1", "sect283k1", "brainpoolP256r1" };
+        for (int i = 0; i < names.length; ++i)
+        {
+            X9ECParameters x9 = CustomNamedCurves.getByName(names[i]);
+            if (x9 == null)
+            {
+                x9 = ECNamedCurveTable.getByName(names[i]);
+            }
+            assertNotNull(x9);
+            doTestSumOfManyMultiplies(x9);
+        }
+    }
+
     public void testSumOfTwoMultiplies()
     {
         X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
@@ -86,6 +101,53 @@ private void doTestSumOfMultiplies(X9ECParameters x9)
         }
     }
 
+    /*
+     * Uses enough points for sumOfMultiplies to switch to the bucket method, with some zero, negative and
+     * over-sized scalars, and repeated points.
+     */
+    private void doTestSumOfManyMultiplies(X9ECParameters x9)
+    {
+        int count = 128 + RND.nextInt(64);
+
+        ECPoint[] points = new ECPoint[count];
+        BigInteger[] scalars = new BigInteger[count];
+        for (int i = 0; i < count; ++i)
+        {
+            points[i] = (i % 7 == 6) ? points[i - 1] : getRandomPoint(x9);
+
+            BigInteger k = getRandomScalar(x9);
+            switch (i % 5)
+            {
+            case 1:
+                k = k.negate();
+                break;
+            case 2:
+                k = k.shiftLeft(8).add(x9.getN());
+                break;
+            case 3:
+                if (i % 2 == 1)
+                {
+                    k = BigInteger.valueOf(0);
+                }
+                break;
+            }
+            scalars[i] = k;
+        }
+
+        ECPoint u = x9.getCurve().getInfinity();
+        for (int i = 0; i < count; ++i)
+        {
+            u = u.add(points[i].multiply(scalars[i].mod(x9.getN())));
+        }
+
+        ECPoint v = ECAlgorithms.sumOfMultiplies(points, scalars);
+
+        ECPoint[] results = new ECPoint[]{ u, v };
+        x9.getCurve().normalizeAll(results);
+
+        assertPointsEqual("ECAlgorithms.sumOfMultiplies is incorrect", results[0], results[1]);
+    }
+
     private void doTestSumOfTwoMultiplies(X9ECParameters x9)
     {
         ECPoint p = getRandomPoint(x9);
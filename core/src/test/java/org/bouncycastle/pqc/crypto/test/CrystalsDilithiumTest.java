@@ -230,6 +230,101 @@ public void testVectors()
         }
     }
 
+    public void testExpandedKeys()
+    {
+        byte[] msg = Strings.toByteArray("Hello World!");
+        DilithiumParameters[] params = new DilithiumParameters[]{
+            DilithiumParameters.dilithium2, DilithiumParameters.dilithium3, DilithiumParameters.dilithium5 };
+
+        for (int i = 0; i != params.length; i++)
+        {
+            DilithiumKeyPairGenerator keyGen = new DilithiumKeyPairGenerator();
+            keyGen.init(new DilithiumKeyGenerationParameters(new SecureRandom(), params[i]));
+
+            AsymmetricCipherKeyPair keyPair = keyGen.generateKeyPair();
+            DilithiumPrivateKeyParameters skparam = (DilithiumPrivateKeyParameters)keyPair.getPrivate();
+            DilithiumPublicKeyParameters pkparam = (DilithiumPublicKeyParameters)keyPair.getPublic();
+
+            DilithiumSigner signer = new DilithiumSigner();
+            signer.init(true, skparam);
+            byte[] sig = signer.generateSignature(msg);
+
+            int size = skparam.expand();
+            assertTrue(size > 0);
+            assertEquals(size, skparam.expand());
+            assertTrue(pkparam.expand() > 0);
+
+            // deterministic signing, so the expanded key must give the same signature
+            assertTrue(Arrays.areEqual(sig, signer.generateSignature(msg)));
+
+            DilithiumSigner verifier = new DilithiumSigner();
+            verifier.init(false, pkparam);
+            assertTrue(verifier.verifySignature(msg, sig));
+            sig[sig.length - 1] ^= 1;
+            assertFalse(verifier.verifySignature(msg, sig));
+
+            skparam.clearExpanded();
+            pkparam.clearExpanded();
+            sig[sig.length - 1] ^= 1;
+            assertTrue(Arrays.areEqual(sig, signer.generateSignature(msg)));
+            assertTrue(verifier.verifySignature(msg, sig));
+        }
+    }
+
+    public void testClearExpandedWhileSigning()
+        throws Exception
+    {
+        final byte[] msg = Strings.toByteArray("Hello World!");
+
+        DilithiumKeyPairGenerator keyGen = new DilithiumKeyPairGenerator();
+        keyGen.init(new DilithiumKeyGenerationParameters(new SecureRandom(), DilithiumParameters.dilithium2));
+
+        final DilithiumPrivateKeyParameters skparam = (DilithiumPrivateKeyParameters)keyGen.generateKeyPair().getPrivate();
+
+        DilithiumSigner signer = new DilithiumSigner();
+        signer.init(true, skparam);
+        final byte[] sig = signer.generateSignature(msg);
+
+        // signatures in progress must not see the secret vectors zeroed underneath them
+        final boolean[] mismatch = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    DilithiumSigner signer = new DilithiumSigner();
+                    signer.init(true, skparam);
+                    for (int j = 0; j != 50; j++)
+                    {
+                        if (!Arrays.areEqual(sig, signer.generateSignature(msg)))
+                        {
+                            mismatch[0] = true;
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        boolean running = true;
+        while (running)
+        {
+            skparam.expand();
+            Thread.yield();
+            skparam.clearExpanded();
+
+            running = false;
+            for (int i = 0; i != threads.length; i++)
+            {
+                running |= threads[i].isAlive();
+            }
+        }
+
+        assertFalse(mismatch[0]);
+    }
+
     public void testDilithiumRandom()
     {
         byte[] msg = Strings.toByteArray("Hello World!");
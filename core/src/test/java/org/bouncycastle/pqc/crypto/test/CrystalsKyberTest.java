@@ -241,6 +241,51 @@ public void testVectors()
         }
     }
 
+    public void testExpandedKeys()
+    {
+        KyberParameters[] params = new KyberParameters[]{
+            KyberParameters.kyber512, KyberParameters.kyber768, KyberParameters.kyber1024 };
+        byte[] seed = Hex.decode("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f");
+
+        for (int i = 0; i != params.length; i++)
+        {
+            KyberKeyPairGenerator keyGen = new KyberKeyPairGenerator();
+            keyGen.init(new KyberKeyGenerationParameters(new SecureRandom(), params[i]));
+
+            AsymmetricCipherKeyPair keyPair = keyGen.generateKeyPair();
+            KyberPublicKeyParameters pubKey = (KyberPublicKeyParameters)keyPair.getPublic();
+            KyberPrivateKeyParameters privKey = (KyberPrivateKeyParameters)keyPair.getPrivate();
+
+            SecretWithEncapsulation secretEncap = new KyberKEMGenerator(new FixedSecureRandom(seed)).generateEncapsulated(pubKey);
+
+            int size = pubKey.expand();
+            assertTrue(size > 0);
+            assertEquals(size, pubKey.expand());
+            assertTrue(privKey.expand() > size);
+
+            SecretWithEncapsulation expandedEncap = new KyberKEMGenerator(new FixedSecureRandom(seed)).generateEncapsulated(pubKey);
+
+            assertTrue(Arrays.areEqual(secretEncap.getSecret(), expandedEncap.getSecret()));
+            assertTrue(Arrays.areEqual(secretEncap.getEncapsulation(), expandedEncap.getEncapsulation()));
+
+            KyberKEMExtractor kemExtract = new KyberKEMExtractor(privKey);
+            assertTrue(Arrays.areEqual(secretEncap.getSecret(), kemExtract.extractSecret(secretEncap.getEncapsulation())));
+
+            byte[] encap = secretEncap.getEncapsulation();
+            encap[0] ^= 1;
+            byte[] implicit = kemExtract.extractSecret(encap);
+            assertFalse(Arrays.areEqual(secretEncap.getSecret(), implicit));
+
+            privKey.clearExpanded();
+            assertTrue(Arrays.areEqual(implicit, kemExtract.extractSecret(encap)));
+
+            // clearing zeroes the old expanded form, which a new one must not share
+            privKey.expand();
+            assertTrue(Arrays.areEqual(secretEncap.getSecret(), kemExtract.extractSecret(secretEncap.getEncapsulation())));
+            privKey.clearExpanded();
+        }
+    }
+
     public void testKyberRandom()
     {
         SecureRandom random = new SecureRandom();
@@ -8,6 +8,8 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.TestCase;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
@@ -324,6 +326,47 @@ public void testDeterministicSignature()
         assertTrue(signer.verifySignature(msg, sig));
     }
 
+    public void testParallelSignature()
+    {
+        SPHINCSPlusParameters[] params = new SPHINCSPlusParameters[]{
+            SPHINCSPlusParameters.sha2_128f_robust, SPHINCSPlusParameters.shake_128f, SPHINCSPlusParameters.haraka_128s_simple };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            for (int i = 0; i != params.length; i++)
+            {
+                SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
+
+                kpGen.init(new SPHINCSPlusKeyGenerationParameters(new SecureRandom(), params[i]));
+
+                AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+                byte[] msg = Hex.decode("D81C4D8D734FCBFBEADE3D3F8A039FAA2A2C9957E835AD55B22E75BF57BB556AC8");
+
+                SPHINCSPlusSigner signer = new SPHINCSPlusSigner();
+
+                signer.init(true, kp.getPrivate());
+
+                byte[] sig = signer.generateSignature(msg);
+
+                SPHINCSPlusSigner parallelSigner = new SPHINCSPlusSigner(executor);
+
+                parallelSigner.init(true, kp.getPrivate());
+
+                assertTrue(params[i].getName(), Arrays.areEqual(sig, parallelSigner.generateSignature(msg)));
+
+                parallelSigner.init(false, kp.getPublic());
+
+                assertTrue(parallelSigner.verifySignature(msg, sig));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     public void testBasicKeyGenerationShake256128fSimple()
     {
         SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
@@ -0,0 +1,355 @@
+package org.bouncycastle.openpgp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
+import org.bouncycastle.util.Strings;
+
+/**
+ * Secondary indexes over the key rings in a key ring collection, mapping the key IDs and fingerprints of every
+ * key in a ring, and the lower cased user IDs and e-mail addresses of its master key, to the key ID of the ring's
+ * master key.
+ * <p>
+ * Fingerprints, user IDs and e-mail addresses are indexed by hash, so lookups return candidate rings which need
+ * to be checked. The e-mail addresses of a user ID are those in angle brackets, as in "Alice &lt;alice@example.com&gt;",
+ * or the whole user ID if it is a bare address. Partial user ID matches for a string holding an address in angle
+ * brackets use the e-mail index, as any user ID containing the string contains the same address.
+ * Optionally, if the {@value #NGRAM_INDEX_PROPERTY} property is set when the index is built, user IDs are also
+ * indexed by each three character substring to speed up partial user ID matching, at a considerable cost in memory.
+ * </p>
+ */
+class KeyRingIndex
+{
+    static final String NGRAM_INDEX_PROPERTY = "org.bouncycastle.openpgp.user_id_ngram_index";
+
+    private static final int NGRAM_LENGTH = 3;
+
+    private final LongMultiMap keyIDs;
+    private final LongMultiMap fingerprints;
+    private final LongMultiMap userIDs;
+    private final LongMultiMap emails;
+    private final LongMultiMap nGrams;
+
+    KeyRingIndex()
+    {
+        this.keyIDs = new LongMultiMap();
+        this.fingerprints = new LongMultiMap();
+        this.userIDs = new LongMultiMap();
+        this.emails = new LongMultiMap();
+        this.nGrams = Properties.isOverrideSet(NGRAM_INDEX_PROPERTY) ? new LongMultiMap() : null;
+    }
+
+    KeyRingIndex(KeyRingIndex other)
+    {
+        this.keyIDs = new LongMultiMap(other.keyIDs);
+        this.fingerprints = new LongMultiMap(other.fingerprints);
+        this.userIDs = new LongMultiMap(other.userIDs);
+        this.emails = new LongMultiMap(other.emails);
+        this.nGrams = (other.nGrams != null) ? new LongMultiMap(other.nGrams) : null;
+    }
+
+    void add(PGPKeyRing ring)
+    {
+        long ringID = ring.getPublicKey().getKeyID();
+
+        addAll(keyIDs, getKeyIDs(ring), ringID);
+        addAll(fingerprints, getFingerprints(ring), ringID);
+        addAll(userIDs, getUserIDs(ring), ringID);
+        addAll(emails, getEmails(ring), ringID);
+        if (nGrams != null)
+        {
+            addAll(nGrams, getNGrams(ring), ringID);
+        }
+    }
+
+    void remove(PGPKeyRing ring)
+    {
+        long ringID = ring.getPublicKey().getKeyID();
+
+        removeAll(keyIDs, getKeyIDs(ring), ringID);
+        removeAll(fingerprints, getFingerprints(ring), ringID);
+        removeAll(userIDs, getUserIDs(ring), ringID);
+        removeAll(emails, getEmails(ring), ringID);
+        if (nGrams != null)
+        {
+            removeAll(nGrams, getNGrams(ring), ringID);
+        }
+    }
+
+    /**
+     * Return the master key IDs of the rings containing a key with the passed in key ID.
+     */
+    long[] getKeyIDMatches(long keyID)
+    {
+        return keyIDs.get(keyID);
+    }
+
+    /**
+     * Return the master key IDs of the rings which may contain a key with the passed in fingerprint.
+     */
+    long[] getFingerprintMatches(byte[] fingerprint)
+    {
+        return fingerprints.get(hash(fingerprint));
+    }
+
+    /**
+     * Return the master key IDs of the rings which may have a user ID equal, ignoring case, to the passed in one.
+     */
+    long[] getUserIDMatches(String userID)
+    {
+        return userIDs.get(hash(Strings.toLowerCase(userID)));
+    }
+
+    /**
+     * Return the master key IDs of the rings which may have a user ID with the passed in e-mail address,
+     * ignoring case.
+     */
+    long[] getEmailMatches(String email)
+    {
+        return emails.get(hash(normalizeEmail(email)));
+    }
+
+    /**
+     * Return the master key IDs of the rings which may have a user ID containing, ignoring case, the passed
+     * in one, or null if the rings cannot be narrowed down.
+     */
+    long[] getPartialUserIDMatches(String userID)
+    {
+        String id = Strings.toLowerCase(userID);
+
+        List<String> bracketed = getBracketedEmails(id);
+        if (!bracketed.isEmpty())
+        {
+            return emails.get(hash((String)bracketed.get(0)));
+        }
+
+        if (nGrams == null || id.length() < NGRAM_LENGTH)
+        {
+            return null;
+        }
+
+        // every candidate has all the n-grams in userID, so the rarest of them gives the fewest candidates.
+        long rarest = 0;
+        int rarestCount = Integer.MAX_VALUE;
+        for (int i = 0; i <= id.length() - NGRAM_LENGTH; i++)
+        {
+            long nGram = nGram(id, i);
+            int count = nGrams.count(nGram);
+            if (count < rarestCount)
+            {
+                rarest = nGram;
+                rarestCount = count;
+            }
+        }
+
+        return nGrams.get(rarest);
+    }
+
+    private static long[] getKeyIDs(PGPKeyRing ring)
+    {
+        LongList ids = new LongList();
+        for (Iterator<PGPPublicKey> it = ring.getPublicKeys(); it.hasNext();)
+        {
+            ids.add(((PGPPublicKey)it.next()).getKeyID());
+        }
+        return ids.toDistinctArray();
+    }
+
+    private static long[] getFingerprints(PGPKeyRing ring)
+    {
+        LongList ids = new LongList();
+        for (Iterator<PGPPublicKey> it = ring.getPublicKeys(); it.hasNext();)
+        {
+            ids.add(hash(((PGPPublicKey)it.next()).getFingerprint()));
+        }
+        return ids.toDistinctArray();
+    }
+
+    private static long[] getUserIDs(PGPKeyRing ring)
+    {
+        LongList ids = new LongList();
+        for (Iterator<String> it = ring.getPublicKey().getUserIDs(); it.hasNext();)
+        {
+            ids.add(hash(Strings.toLowerCase((String)it.next())));
+        }
+        return ids.toDistinctArray();
+    }
+
+    /**
+     * Return true if the passed in user ID has the passed in e-mail address, ignoring case.
+     */
+    static boolean hasEmail(String userID, String email)
+    {
+        return getEmails(Strings.toLowerCase(userID)).contains(normalizeEmail(email));
+    }
+
+    private static long[] getEmails(PGPKeyRing ring)
+    {
+        LongList ids = new LongList();
+        for (Iterator<String> it = ring.getPublicKey().getUserIDs(); it.hasNext();)
+        {
+            List<String> addresses = getEmails(Strings.toLowerCase((String)it.next()));
+            for (int i = 0; i != addresses.size(); i++)
+            {
+                ids.add(hash((String)addresses.get(i)));
+            }
+        }
+        return ids.toDistinctArray();
+    }
+
+    private static List<String> getEmails(String id)
+    {
+        List<String> addresses = getBracketedEmails(id);
+        if (addresses.isEmpty() && isBareEmail(id))
+        {
+            addresses.add(id.trim());
+        }
+        return addresses;
+    }
+
+    /*
+     * Return the trimmed contents of each pair of angle brackets with no other angle brackets between them.
+     */
+    private static List<String> getBracketedEmails(String id)
+    {
+        List<String> addresses = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i != id.length(); i++)
+        {
+            char c = id.charAt(i);
+            if (c == '<')
+            {
+                start = i + 1;
+            }
+            else if (c == '>' && start >= 0)
+            {
+                addresses.add(id.substring(start, i).trim());
+                start = -1;
+            }
+        }
+        return addresses;
+    }
+
+    private static boolean isBareEmail(String id)
+    {
+        String address = id.trim();
+        if (address.indexOf('@') < 0)
+        {
+            return false;
+        }
+
+        for (int i = 0; i != address.length(); i++)
+        {
+            if (Character.isWhitespace(address.charAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeEmail(String email)
+    {
+        String address = Strings.toLowerCase(email).trim();
+        if (address.length() > 1 && address.charAt(0) == '<' && address.charAt(address.length() - 1) == '>')
+        {
+            address = address.substring(1, address.length() - 1).trim();
+        }
+        return address;
+    }
+
+    private static long[] getNGrams(PGPKeyRing ring)
+    {
+        LongList ids = new LongList();
+        for (Iterator<String> it = ring.getPublicKey().getUserIDs(); it.hasNext();)
+        {
+            String id = Strings.toLowerCase((String)it.next());
+            for (int i = 0; i <= id.length() - NGRAM_LENGTH; i++)
+            {
+                ids.add(nGram(id, i));
+            }
+        }
+        return ids.toDistinctArray();
+    }
+
+    private static void addAll(LongMultiMap map, long[] keys, long ringID)
+    {
+        for (int i = 0; i != keys.length; i++)
+        {
+            map.add(keys[i], ringID);
+        }
+    }
+
+    private static void removeAll(LongMultiMap map, long[] keys, long ringID)
+    {
+        for (int i = 0; i != keys.length; i++)
+        {
+            map.remove(keys[i], ringID);
+        }
+    }
+
+    private static long nGram(String s, int off)
+    {
+        return ((long)s.charAt(off) << 32) | ((long)s.charAt(off + 1) << 16) | s.charAt(off + 2);
+    }
+
+    // 64 bit FNV-1a
+    private static long hash(byte[] data)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i != data.length; i++)
+        {
+            h ^= data[i] & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long hash(String s)
+    {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i != s.length(); i++)
+        {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static class LongList
+    {
+        private long[] values = new long[8];
+        private int count = 0;
+
+        void add(long value)
+        {
+            if (count == values.length)
+            {
+                long[] tmp = new long[count * 2];
+                System.arraycopy(values, 0, tmp, 0, count);
+                values = tmp;
+            }
+            values[count++] = value;
+        }
+
+        long[] toDistinctArray()
+        {
+            long[] rv = Arrays.copyOf(values, count);
+            java.util.Arrays.sort(rv);
+
+            int len = 0;
+            for (int i = 0; i != rv.length; i++)
+            {
+                if (len == 0 || rv[len - 1] != rv[i])
+                {
+                    rv[len++] = rv[i];
+                }
+            }
+
+            return Arrays.copyOf(rv, len);
+        }
+    }
+}
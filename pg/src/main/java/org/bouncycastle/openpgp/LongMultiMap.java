@@ -0,0 +1,248 @@
+package org.bouncycastle.openpgp;
+
+/**
+ * An open addressing hash map from long keys to long values, where a key may have several values. Keys with
+ * a single value, the common case for key IDs, hold it inline, so no objects are created per entry.
+ * <p>
+ * The map does not check for duplicate values under a key, callers are expected to avoid adding them.
+ * </p>
+ */
+class LongMultiMap
+{
+    private static final long[] EMPTY = new long[0];
+
+    private long[] keys;
+    private int[] counts;           // zero for an empty slot
+    private long[] values;          // the value, for a slot with a count of one
+    private long[][] multiValues;   // the values, for a slot with a count greater than one
+    private int size;
+
+    LongMultiMap()
+    {
+        allocate(16);
+    }
+
+    LongMultiMap(LongMultiMap other)
+    {
+        this.keys = (long[])other.keys.clone();
+        this.counts = (int[])other.counts.clone();
+        this.values = (long[])other.values.clone();
+        this.multiValues = new long[other.multiValues.length][];
+        for (int i = 0; i != multiValues.length; i++)
+        {
+            if (other.multiValues[i] != null)
+            {
+                multiValues[i] = (long[])other.multiValues[i].clone();
+            }
+        }
+        this.size = other.size;
+    }
+
+    /**
+     * Return the number of distinct keys in the map.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    void add(long key, long value)
+    {
+        int slot = find(key);
+        if (slot >= 0)
+        {
+            int count = counts[slot];
+            if (count == 1)
+            {
+                long[] vals = new long[4];
+                vals[0] = values[slot];
+                vals[1] = value;
+                multiValues[slot] = vals;
+            }
+            else
+            {
+                long[] vals = multiValues[slot];
+                if (count == vals.length)
+                {
+                    long[] tmp = new long[count * 2];
+                    System.arraycopy(vals, 0, tmp, 0, count);
+                    multiValues[slot] = vals = tmp;
+                }
+                vals[count] = value;
+            }
+            counts[slot] = count + 1;
+            return;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3)
+        {
+            resize(keys.length * 2);
+        }
+
+        slot = ~find(key);
+        keys[slot] = key;
+        counts[slot] = 1;
+        values[slot] = value;
+        size++;
+    }
+
+    void remove(long key, long value)
+    {
+        int slot = find(key);
+        if (slot < 0)
+        {
+            return;
+        }
+
+        int count = counts[slot];
+        if (count == 1)
+        {
+            if (values[slot] == value)
+            {
+                delete(slot);
+            }
+            return;
+        }
+
+        long[] vals = multiValues[slot];
+        for (int i = 0; i != count; i++)
+        {
+            if (vals[i] == value)
+            {
+                vals[i] = vals[--count];
+                if (count == 1)
+                {
+                    values[slot] = vals[0];
+                    multiValues[slot] = null;
+                }
+                counts[slot] = count;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return the number of values held for key.
+     */
+    int count(long key)
+    {
+        int slot = find(key);
+
+        return (slot < 0) ? 0 : counts[slot];
+    }
+
+    /**
+     * Return the values held for key, an empty array if there are none.
+     */
+    long[] get(long key)
+    {
+        int slot = find(key);
+        if (slot < 0)
+        {
+            return EMPTY;
+        }
+
+        int count = counts[slot];
+        if (count == 1)
+        {
+            return new long[]{ values[slot] };
+        }
+
+        long[] rv = new long[count];
+        System.arraycopy(multiValues[slot], 0, rv, 0, count);
+        return rv;
+    }
+
+    /**
+     * Return the slot holding key if present, otherwise the ones complement of the empty slot it would go in.
+     */
+    private int find(long key)
+    {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (counts[slot] != 0)
+        {
+            if (keys[slot] == key)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return ~slot;
+    }
+
+    /**
+     * Empty slot, moving back any later entries in the same probe sequence so no gaps are left in it.
+     */
+    private void delete(int slot)
+    {
+        int mask = keys.length - 1;
+        int next = slot;
+
+        for (;;)
+        {
+            next = (next + 1) & mask;
+            if (counts[next] == 0)
+            {
+                break;
+            }
+
+            int home = hash(keys[next]) & mask;
+            // the entry at next can only move back to slot if slot is not before its home position
+            if (((next - home) & mask) >= ((next - slot) & mask))
+            {
+                keys[slot] = keys[next];
+                counts[slot] = counts[next];
+                values[slot] = values[next];
+                multiValues[slot] = multiValues[next];
+                slot = next;
+            }
+        }
+
+        counts[slot] = 0;
+        multiValues[slot] = null;
+        size--;
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldValues = values;
+        long[][] oldMultiValues = multiValues;
+
+        allocate(capacity);
+
+        for (int i = 0; i != oldKeys.length; i++)
+        {
+            if (oldCounts[i] != 0)
+            {
+                int slot = ~find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                values[slot] = oldValues[i];
+                multiValues[slot] = oldMultiValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        values = new long[capacity];
+        multiValues = new long[capacity][];
+    }
+
+    private static int hash(long key)
+    {
+        // key IDs are already well distributed, but n-gram and other derived keys need mixing
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+
+        return (int)key;
+    }
+}
@@ -21,6 +21,13 @@
 /**
  * Often a PGP key ring file is made up of a succession of master/sub-key key rings.
  * If you want to read an entire public key file in one hit this is the class for you.
+ * <p>
+ * Lookups by key ID, fingerprint, and user ID use indexes which are built on first use, and carried over to
+ * the collections returned by addPublicKeyRing() and removePublicKeyRing(). Partial user ID matches are only
+ * indexed if the user ID holds an e-mail address in angle brackets, or if the system property
+ * "org.bouncycastle.openpgp.user_id_ngram_index" is set to true when the index is built, otherwise they examine
+ * every ring. Use getKeyRingsByEmail() to find rings by a bare e-mail address.
+ * </p>
  */
 public class PGPPublicKeyRingCollection
     implements Iterable<PGPPublicKeyRing>
@@ -28,12 +35,16 @@
     private Map<Long, PGPPublicKeyRing> pubRings = new HashMap<Long, PGPPublicKeyRing>();
     private List<Long> order = new ArrayList<Long>();
 
+    private volatile KeyRingIndex index;
+
     private PGPPublicKeyRingCollection(
         Map<Long, PGPPublicKeyRing> pubRings,
-        List<Long> order)
+        List<Long> order,
+        KeyRingIndex index)
     {
         this.pubRings = pubRings;
         this.order = order;
+        this.index = index;
     }
 
     public PGPPublicKeyRingCollection(
@@ -154,7 +165,8 @@ public Iterator<PGPPublicKeyRing> getKeyRings(
         boolean matchPartial,
         boolean ignoreCase)
     {
-        Iterator<PGPPublicKeyRing> it = this.getKeyRings();
+        long[] candidates = matchPartial ? getIndex().getPartialUserIDMatches(userID) : getIndex().getUserIDMatches(userID);
+        Iterator<PGPPublicKeyRing> it = (candidates != null) ? getKeyRings(candidates) : this.getKeyRings();
         List<PGPPublicKeyRing> rings = new ArrayList<PGPPublicKeyRing>();
 
         if (ignoreCase)
@@ -195,6 +207,38 @@ public Iterator<PGPPublicKeyRing> getKeyRings(
         return rings.iterator();
     }
 
+    /**
+     * Return an iterator of the key rings with a user ID for the passed in e-mail address, either in angle
+     * brackets, as in "Alice &lt;alice@example.com&gt;", or as the whole user ID. Addresses are compared ignoring
+     * case.
+     *
+     * @param email the e-mail address to be matched, with or without angle brackets.
+     * @return an iterator (possibly empty) of key rings which matched.
+     */
+    public Iterator<PGPPublicKeyRing> getKeyRingsByEmail(
+        String email)
+    {
+        Iterator<PGPPublicKeyRing> it = getKeyRings(getIndex().getEmailMatches(email));
+        List<PGPPublicKeyRing> rings = new ArrayList<PGPPublicKeyRing>();
+
+        while (it.hasNext())
+        {
+            PGPPublicKeyRing pubRing = (PGPPublicKeyRing)it.next();
+            Iterator<String> uIt = pubRing.getPublicKey().getUserIDs();
+
+            while (uIt.hasNext())
+            {
+                if (KeyRingIndex.hasEmail((String)uIt.next(), email))
+                {
+                    rings.add(pubRing);
+                    break;
+                }
+            }
+        }
+
+        return rings.iterator();
+    }
+
     /**
      * Return the PGP public key associated with the given key id.
      *
@@ -204,7 +248,7 @@ public Iterator<PGPPublicKeyRing> getKeyRings(
     public PGPPublicKey getPublicKey(
         long keyID)
     {
-        Iterator<PGPPublicKeyRing> it = this.getKeyRings();
+        Iterator<PGPPublicKeyRing> it = getKeyRings(getIndex().getKeyIDMatches(keyID));
 
         while (it.hasNext())
         {
@@ -236,7 +280,7 @@ public PGPPublicKeyRing getPublicKeyRing(
             return (PGPPublicKeyRing)pubRings.get(id);
         }
 
-        Iterator<PGPPublicKeyRing> it = this.getKeyRings();
+        Iterator<PGPPublicKeyRing> it = getKeyRings(getIndex().getKeyIDMatches(keyID));
 
         while (it.hasNext())
         {
@@ -261,7 +305,7 @@ public PGPPublicKeyRing getPublicKeyRing(
     public PGPPublicKey getPublicKey(
         byte[] fingerprint)
     {
-        Iterator<PGPPublicKeyRing> it = this.getKeyRings();
+        Iterator<PGPPublicKeyRing> it = getKeyRings(getIndex().getFingerprintMatches(fingerprint));
 
         while (it.hasNext())
         {
@@ -286,7 +330,7 @@ public PGPPublicKey getPublicKey(
     public PGPPublicKeyRing getPublicKeyRing(
         byte[] fingerprint)
     {
-        Iterator<PGPPublicKeyRing> it = this.getKeyRings();
+        Iterator<PGPPublicKeyRing> it = getKeyRings(getIndex().getFingerprintMatches(fingerprint));
 
         while (it.hasNext())
         {
@@ -398,7 +442,14 @@ public static PGPPublicKeyRingCollection addPublicKeyRing(
         newPubRings.put(key, publicKeyRing);
         newOrder.add(key);
 
-        return new PGPPublicKeyRingCollection(newPubRings, newOrder);
+        KeyRingIndex newIndex = null;
+        if (ringCollection.index != null)
+        {
+            newIndex = new KeyRingIndex(ringCollection.index);
+            newIndex.add(publicKeyRing);
+        }
+
+        return new PGPPublicKeyRingCollection(newPubRings, newOrder, newIndex);
     }
 
     /**
@@ -437,7 +488,14 @@ public static PGPPublicKeyRingCollection removePublicKeyRing(
             }
         }
 
-        return new PGPPublicKeyRingCollection(newPubRings, newOrder);
+        KeyRingIndex newIndex = null;
+        if (ringCollection.index != null)
+        {
+            newIndex = new KeyRingIndex(ringCollection.index);
+            newIndex.remove((PGPPublicKeyRing)ringCollection.pubRings.get(key));
+        }
+
+        return new PGPPublicKeyRingCollection(newPubRings, newOrder, newIndex);
     }
 
     /**
@@ -447,4 +505,40 @@ public Iterator<PGPPublicKeyRing> iterator()
     {
         return new KeyRingIterator<PGPPublicKeyRing>(order, pubRings);
     }
+
+    private Iterator<PGPPublicKeyRing> getKeyRings(long[] ringIDs)
+    {
+        List<PGPPublicKeyRing> rings = new ArrayList<PGPPublicKeyRing>(ringIDs.length);
+
+        for (int i = 0; i != ringIDs.length; i++)
+        {
+            rings.add(pubRings.get(Longs.valueOf(ringIDs[i])));
+        }
+
+        return rings.iterator();
+    }
+
+    private KeyRingIndex getIndex()
+    {
+        KeyRingIndex idx = index;
+
+        if (idx == null)
+        {
+            synchronized (this)
+            {
+                idx = index;
+                if (idx == null)
+                {
+                    idx = new KeyRingIndex();
+                    for (Iterator<PGPPublicKeyRing> it = pubRings.values().iterator(); it.hasNext();)
+                    {
+                        idx.add(it.next());
+                    }
+                    index = idx;
+                }
+            }
+        }
+
+        return idx;
+    }
 }
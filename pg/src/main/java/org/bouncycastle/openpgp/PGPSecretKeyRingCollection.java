@@ -21,6 +21,13 @@
 /**
  * Often a PGP key ring file is made up of a succession of master/sub-key key rings.
  * If you want to read an entire secret key file in one hit this is the class for you.
+ * <p>
+ * Lookups by key ID and user ID use indexes which are built on first use, and carried over to the collections
+ * returned by addSecretKeyRing() and removeSecretKeyRing(). Partial user ID matches are only indexed if the
+ * user ID holds an e-mail address in angle brackets, or if the system property
+ * "org.bouncycastle.openpgp.user_id_ngram_index" is set to true when the index is built, otherwise they examine
+ * every ring. Use getKeyRingsByEmail() to find rings by a bare e-mail address.
+ * </p>
  */
 public class PGPSecretKeyRingCollection
     implements Iterable<PGPSecretKeyRing>
@@ -28,12 +35,16 @@
     private Map<Long, PGPSecretKeyRing> secretRings = new HashMap<Long, PGPSecretKeyRing>();
     private List<Long> order = new ArrayList<Long>();
 
+    private volatile KeyRingIndex index;
+
     private PGPSecretKeyRingCollection(
         Map<Long, PGPSecretKeyRing> secretRings,
-        List<Long> order)
+        List<Long> order,
+        KeyRingIndex index)
     {
         this.secretRings = secretRings;
         this.order = order;
+        this.index = index;
     }
 
     public PGPSecretKeyRingCollection(
@@ -153,7 +164,8 @@ public Iterator<PGPSecretKeyRing> getKeyRings(
         boolean matchPartial,
         boolean ignoreCase)
     {
-        Iterator<PGPSecretKeyRing> it = this.getKeyRings();
+        long[] candidates = matchPartial ? getIndex().getPartialUserIDMatches(userID) : getIndex().getUserIDMatches(userID);
+        Iterator<PGPSecretKeyRing> it = (candidates != null) ? getKeyRings(candidates) : this.getKeyRings();
         List<PGPSecretKeyRing> rings = new ArrayList<PGPSecretKeyRing>();
 
         if (ignoreCase)
@@ -194,6 +206,38 @@ public Iterator<PGPSecretKeyRing> getKeyRings(
         return rings.iterator();
     }
 
+    /**
+     * Return an iterator of the key rings with a user ID for the passed in e-mail address, either in angle
+     * brackets, as in "Alice &lt;alice@example.com&gt;", or as the whole user ID. Addresses are compared ignoring
+     * case.
+     *
+     * @param email the e-mail address to be matched, with or without angle brackets.
+     * @return an iterator (possibly empty) of key rings which matched.
+     */
+    public Iterator<PGPSecretKeyRing> getKeyRingsByEmail(
+        String email)
+    {
+        Iterator<PGPSecretKeyRing> it = getKeyRings(getIndex().getEmailMatches(email));
+        List<PGPSecretKeyRing> rings = new ArrayList<PGPSecretKeyRing>();
+
+        while (it.hasNext())
+        {
+            PGPSecretKeyRing secRing = (PGPSecretKeyRing)it.next();
+            Iterator<String> uIt = secRing.getSecretKey().getUserIDs();
+
+            while (uIt.hasNext())
+            {
+                if (KeyRingIndex.hasEmail((String)uIt.next(), email))
+                {
+                    rings.add(secRing);
+                    break;
+                }
+            }
+        }
+
+        return rings.iterator();
+    }
+
     /**
      * Return the PGP secret key associated with the given key id.
      *
@@ -203,7 +247,7 @@ public Iterator<PGPSecretKeyRing> getKeyRings(
     public PGPSecretKey getSecretKey(
         long keyID)
     {
-        Iterator<PGPSecretKeyRing> it = this.getKeyRings();
+        Iterator<PGPSecretKeyRing> it = getKeyRings(getIndex().getKeyIDMatches(keyID));
 
         while (it.hasNext())
         {
@@ -235,7 +279,7 @@ public PGPSecretKeyRing getSecretKeyRing(
             return (PGPSecretKeyRing)secretRings.get(id);
         }
 
-        Iterator<PGPSecretKeyRing> it = this.getKeyRings();
+        Iterator<PGPSecretKeyRing> it = getKeyRings(getIndex().getKeyIDMatches(keyID));
 
         while (it.hasNext())
         {
@@ -312,7 +356,14 @@ public static PGPSecretKeyRingCollection addSecretKeyRing(
         newSecretRings.put(key, secretKeyRing);
         newOrder.add(key);
 
-        return new PGPSecretKeyRingCollection(newSecretRings, newOrder);
+        KeyRingIndex newIndex = null;
+        if (ringCollection.index != null)
+        {
+            newIndex = new KeyRingIndex(ringCollection.index);
+            newIndex.add(secretKeyRing);
+        }
+
+        return new PGPSecretKeyRingCollection(newSecretRings, newOrder, newIndex);
     }
 
     /**
@@ -351,7 +402,14 @@ public static PGPSecretKeyRingCollection removeSecretKeyRing(
             }
         }
 
-        return new PGPSecretKeyRingCollection(newSecretRings, newOrder);
+        KeyRingIndex newIndex = null;
+        if (ringCollection.index != null)
+        {
+            newIndex = new KeyRingIndex(ringCollection.index);
+            newIndex.remove((PGPSecretKeyRing)ringCollection.secretRings.get(key));
+        }
+
+        return new PGPSecretKeyRingCollection(newSecretRings, newOrder, newIndex);
     }
 
     /**
@@ -361,4 +419,40 @@ public Iterator<PGPSecretKeyRing> iterator()
     {
         return new KeyRingIterator<PGPSecretKeyRing>(order, secretRings);
     }
+
+    private Iterator<PGPSecretKeyRing> getKeyRings(long[] ringIDs)
+    {
+        List<PGPSecretKeyRing> rings = new ArrayList<PGPSecretKeyRing>(ringIDs.length);
+
+        for (int i = 0; i != ringIDs.length; i++)
+        {
+            rings.add(secretRings.get(Longs.valueOf(ringIDs[i])));
+        }
+
+        return rings.iterator();
+    }
+
+    private KeyRingIndex getIndex()
+    {
+        KeyRingIndex idx = index;
+
+        if (idx == null)
+        {
+            synchronized (this)
+            {
+                idx = index;
+                if (idx == null)
+                {
+                    idx = new KeyRingIndex();
+                    for (Iterator<PGPSecretKeyRing> it = secretRings.values().iterator(); it.hasNext();)
+                    {
+                        idx.add(it.next());
+                    }
+                    index = idx;
+                }
+            }
+        }
+
+        return idx;
+    }
 }
@@ -10,8 +10,10 @@
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Security;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 
 import javax.crypto.Cipher;
 
@@ -3561,6 +3563,7 @@ public void performTest()
             testKeyRingWithMarker();
             testKeyRingGeneratorDirectKeySignedPrimaryKey();
             testSubKeyCreation();
+            testCollectionIndexes();
         }
         catch (PGPException e)
         {
@@ -3576,6 +3579,160 @@ public void performTest()
         }
     }
 
+    private void testCollectionIndexes()
+        throws Exception
+    {
+        List<PGPPublicKeyRing> rings = new ArrayList<PGPPublicKeyRing>();
+        byte[][] encodings = new byte[][]{ pub1, pub2, pub3, pub5, pub8 };
+        for (int i = 0; i != encodings.length; i++)
+        {
+            for (Iterator<PGPPublicKeyRing> it = new JcaPGPPublicKeyRingCollection(encodings[i]).iterator(); it.hasNext();)
+            {
+                rings.add(it.next());
+            }
+        }
+
+        PGPPublicKeyRingCollection pubRings = new PGPPublicKeyRingCollection(rings);
+
+        checkCollectionLookups(pubRings, rings);
+
+        // the index is carried over, and updated, as rings are removed and added
+        PGPPublicKeyRing removed = (PGPPublicKeyRing)rings.remove(1);
+        PGPPublicKey removedSubKey = null;
+        for (Iterator<PGPPublicKey> it = removed.getPublicKeys(); it.hasNext();)
+        {
+            removedSubKey = it.next();
+        }
+
+        pubRings = PGPPublicKeyRingCollection.removePublicKeyRing(pubRings, removed);
+
+        isTrue(pubRings.getPublicKey(removedSubKey.getKeyID()) == null);
+        isTrue(pubRings.getPublicKeyRing(removedSubKey.getFingerprint()) == null);
+        isTrue(!pubRings.getKeyRings((String)removed.getPublicKey().getUserIDs().next()).hasNext());
+        checkCollectionLookups(pubRings, rings);
+
+        pubRings = PGPPublicKeyRingCollection.addPublicKeyRing(pubRings, removed);
+        rings.add(removed);
+
+        checkCollectionLookups(pubRings, rings);
+
+        // partial matching of addresses in angle brackets goes through the e-mail index
+        isEquals(1, countRings(pubRings.getKeyRings("<TEST@ubicall.com>", true, true)));
+        isEquals(0, countRings(pubRings.getKeyRings("<TEST@ubicall.com>", true)));
+        isEquals(1, countRings(pubRings.getKeyRings("key) <test@ubicall.com>", true)));
+        isEquals(0, countRings(pubRings.getKeyRings("<test@ubicall.co>", true)));
+        isEquals(1, countRings(pubRings.getKeyRingsByEmail("<test@ubicall.com>")));
+        isEquals(0, countRings(pubRings.getKeyRingsByEmail("test@ubicall.co")));
+
+        // partial matching, with and without the n-gram index
+        int partialCount = countRings(pubRings.getKeyRings("test", true, true));
+
+        System.setProperty("org.bouncycastle.openpgp.user_id_ngram_index", "true");
+        try
+        {
+            PGPPublicKeyRingCollection nGramRings = new PGPPublicKeyRingCollection(rings);
+
+            isEquals(partialCount, countRings(nGramRings.getKeyRings("test", true, true)));
+            isEquals(0, countRings(nGramRings.getKeyRings("XXX", true)));
+            isEquals(countRings(pubRings.getKeyRings("TEST", true)), countRings(nGramRings.getKeyRings("TEST", true)));
+
+            nGramRings = PGPPublicKeyRingCollection.removePublicKeyRing(nGramRings, removed);
+
+            isEquals(partialCount - countRings(PGPPublicKeyRingCollection.removePublicKeyRing(pubRings, removed).getKeyRings("test", true, true)),
+                partialCount - countRings(nGramRings.getKeyRings("test", true, true)));
+        }
+        finally
+        {
+            System.clearProperty("org.bouncycastle.openpgp.user_id_ngram_index");
+        }
+
+        JcaPGPSecretKeyRingCollection secRings = new JcaPGPSecretKeyRingCollection(sec2);
+        for (Iterator<PGPSecretKeyRing> rIt = secRings.iterator(); rIt.hasNext();)
+        {
+            PGPSecretKeyRing secRing = rIt.next();
+            for (Iterator<PGPSecretKey> it = secRing.getSecretKeys(); it.hasNext();)
+            {
+                PGPSecretKey secKey = it.next();
+
+                isTrue(secKey == secRings.getSecretKey(secKey.getKeyID()));
+                isTrue(secRing == secRings.getSecretKeyRing(secKey.getKeyID()));
+            }
+        }
+        isTrue(secRings.getSecretKey(0x0102030405060708L) == null);
+    }
+
+    private void checkCollectionLookups(PGPPublicKeyRingCollection pubRings, List<PGPPublicKeyRing> rings)
+    {
+        isEquals(rings.size(), pubRings.size());
+
+        for (int i = 0; i != rings.size(); i++)
+        {
+            PGPPublicKeyRing ring = (PGPPublicKeyRing)rings.get(i);
+
+            for (Iterator<PGPPublicKey> it = ring.getPublicKeys(); it.hasNext();)
+            {
+                PGPPublicKey key = it.next();
+
+                isTrue(key == pubRings.getPublicKey(key.getKeyID()));
+                isTrue(ring == pubRings.getPublicKeyRing(key.getKeyID()));
+                isTrue(key == pubRings.getPublicKey(key.getFingerprint()));
+                isTrue(ring == pubRings.getPublicKeyRing(key.getFingerprint()));
+                isTrue(pubRings.contains(key.getKeyID()));
+            }
+
+            for (Iterator<String> it = ring.getPublicKey().getUserIDs(); it.hasNext();)
+            {
+                String userID = it.next();
+
+                boolean found = false;
+                for (Iterator<PGPPublicKeyRing> rIt = pubRings.getKeyRings(userID); rIt.hasNext();)
+                {
+                    found |= (rIt.next() == ring);
+                }
+                isTrue(found);
+
+                found = false;
+                for (Iterator<PGPPublicKeyRing> rIt = pubRings.getKeyRings(Strings.toUpperCase(userID), false, true); rIt.hasNext();)
+                {
+                    found |= (rIt.next() == ring);
+                }
+                isTrue(found);
+
+                String email = userID.substring(userID.lastIndexOf('<') + 1, userID.lastIndexOf('>'));
+
+                found = false;
+                for (Iterator<PGPPublicKeyRing> rIt = pubRings.getKeyRingsByEmail(Strings.toUpperCase(email)); rIt.hasNext();)
+                {
+                    found |= (rIt.next() == ring);
+                }
+                isTrue(found);
+
+                found = false;
+                for (Iterator<PGPPublicKeyRing> rIt = pubRings.getKeyRings("<" + email + ">", true); rIt.hasNext();)
+                {
+                    found |= (rIt.next() == ring);
+                }
+                isTrue(found);
+            }
+        }
+
+        isTrue(pubRings.getPublicKey(0x0102030405060708L) == null);
+        isTrue(pubRings.getPublicKeyRing(new byte[20]) == null);
+        isTrue(!pubRings.getKeyRings("nobody@example.com").hasNext());
+        isTrue(!pubRings.getKeyRingsByEmail("nobody@example.com").hasNext());
+    }
+
+    private static int countRings(Iterator rings)
+    {
+        int count = 0;
+        while (rings.hasNext())
+        {
+            rings.next();
+            count++;
+        }
+        return count;
+    }
+
     private void testSubKeyCreation()
         throws Exception
     {
@@ -12,6 +12,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
@@ -31,7 +32,6 @@
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.operator.DefaultDigestAlgorithmIdentifierFinder;
 import org.bouncycastle.operator.DigestAlgorithmIdentifierFinder;
-import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.util.Encodable;
 import org.bouncycastle.util.Store;
 
@@ -423,63 +423,31 @@ public boolean verifySignatures(SignerInformationVerifierProvider verifierProvid
     public boolean verifySignatures(SignerInformationVerifierProvider verifierProvider, boolean ignoreCounterSignatures)
         throws CMSException
     {
-        Collection signers = this.getSignerInfos().getSigners();
-
-        for (Iterator it = signers.iterator(); it.hasNext(); )
-        {
-            SignerInformation signer = (SignerInformation)it.next();
-
-            try
-            {
-                SignerInformationVerifier verifier = verifierProvider.get(signer.getSID());
-
-                if (!signer.verify(verifier))
-                {
-                    return false;
-                }
-
-                if (!ignoreCounterSignatures)
-                {
-                    Collection counterSigners = signer.getCounterSignatures().getSigners();
-
-                    for (Iterator cIt = counterSigners.iterator(); cIt.hasNext(); )
-                    {
-                        if (!verifyCounterSignature((SignerInformation)cIt.next(), verifierProvider))
-                        {
-                            return false;
-                        }
-                    }
-                }
-            }
-            catch (OperatorCreationException e)
-            {
-                throw new CMSException("failure in verifier provider: " + e.getMessage(), e);
-            }
-        }
-
-        return true;
+        return verifySignatures(verifierProvider, ignoreCounterSignatures, null);
     }
 
-    private boolean verifyCounterSignature(SignerInformation counterSigner, SignerInformationVerifierProvider verifierProvider)
-        throws OperatorCreationException, CMSException
+    /**
+     * Verify all the SignerInformation objects and optionally their associated counter signatures attached
+     * to this CMS SignedData object, using an executor to verify the signers concurrently.
+     * <p>
+     * The content is only processed once, whatever the number of signers, with each distinct content digest
+     * calculated once. If an executor is given the digests are calculated, and the signers then verified,
+     * as tasks on it - any task the executor rejects is run in the calling thread. Note the verifier provider
+     * must be able to deal with being used from multiple threads if an executor is passed in.
+     * </p>
+     *
+     * @param verifierProvider        a provider of SignerInformationVerifier objects.
+     * @param ignoreCounterSignatures if true don't check counter signatures. If false check counter signatures as well.
+     * @param executor                the executor to verify the signers with, null to verify them in the calling thread.
+     * @return true if all verify, false otherwise.
+     * @throws CMSException if an exception occurs during the verification process.
+     */
+    public boolean verifySignatures(SignerInformationVerifierProvider verifierProvider, boolean ignoreCounterSignatures, Executor executor)
+        throws CMSException
     {
-        SignerInformationVerifier counterVerifier = verifierProvider.get(counterSigner.getSID());
-
-        if (!counterSigner.verify(counterVerifier))
-        {
-            return false;
-        }
-
-        Collection counterSigners = counterSigner.getCounterSignatures().getSigners();
-        for (Iterator cIt = counterSigners.iterator(); cIt.hasNext(); )
-        {
-            if (!verifyCounterSignature((SignerInformation)cIt.next(), verifierProvider))
-            {
-                return false;
-            }
-        }
+        SignerVerificationEngine engine = new SignerVerificationEngine(verifierProvider, ignoreCounterSignatures, executor);
 
-        return true;
+        return engine.verify(this.getSignerInfos().getSigners());
     }
 
     /**
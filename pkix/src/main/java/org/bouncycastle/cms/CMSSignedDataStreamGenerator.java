@@ -3,10 +3,17 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1Integer;
@@ -53,6 +60,7 @@
     extends CMSSignedGenerator
 {
     private int  _bufferSize;
+    private Executor executor;
 
     /**
      * base constructor
@@ -80,6 +88,23 @@ public void setBufferSize(
         _bufferSize = bufferSize;
     }
 
+    /**
+     * Set an executor to calculate the signers' digests and signatures on. With an executor, the content written
+     * to the stream is passed to each signer's calculator by a task on the executor, with the content digest only
+     * calculated once for all the signers using signed attributes with the same digest algorithm, and the
+     * signatures are then generated concurrently. The generated structure is the same as without an executor.
+     * <p>
+     * Note: in this mode the signer info generators must not share ContentSigner or DigestCalculator instances.
+     * </p>
+     *
+     * @param executor the executor to use, null (the default) to do all the calculations on the writing thread.
+     */
+    public void setExecutor(
+        Executor executor)
+    {
+        this.executor = executor;
+    }
+
     /**
      * generate a signed object that for a CMS Signed Data
      * object using the given provider.
@@ -236,10 +261,36 @@ public OutputStream open(
         // Also send the data to 'dataOutputStream' if necessary
         OutputStream contentStream = CMSUtils.getSafeTeeOutputStream(dataOutputStream, encapStream);
 
+        if (executor != null)
+        {
+            // one calculating stream for each signer, apart from signers sharing a content digest
+            Map<AlgorithmIdentifier, SignerInfoGenerator> digesters = new HashMap<AlgorithmIdentifier, SignerInfoGenerator>();
+            List<OutputStream> calculatingStreams = new ArrayList<OutputStream>();
+
+            for (Iterator it = signerGens.iterator(); it.hasNext();)
+            {
+                SignerInfoGenerator signerGen = (SignerInfoGenerator)it.next();
+
+                if (signerGen.isContentDigestOnly())
+                {
+                    if (digesters.containsKey(signerGen.getDigestAlgorithm()))
+                    {
+                        continue;
+                    }
+                    digesters.put(signerGen.getDigestAlgorithm(), signerGen);
+                }
+                calculatingStreams.add(signerGen.getCalculatingOutputStream());
+            }
+
+            OutputStream sigStream = new ParallelTeeOutputStream(contentStream, calculatingStreams, executor);
+
+            return new CmsSignedDataOutputStream(sigStream, eContentType, sGen, sigGen, eiGen, digesters, executor);
+        }
+
         // Let all the signers see the data as it is written
         OutputStream sigStream = CMSUtils.attachSignersToOutputStream(signerGens, contentStream);
 
-        return new CmsSignedDataOutputStream(sigStream, eContentType, sGen, sigGen, eiGen);
+        return new CmsSignedDataOutputStream(sigStream, eContentType, sGen, sigGen, eiGen, null, null);
     }
 
     /**
@@ -405,19 +456,25 @@ private boolean checkForVersion3(List signerInfos, List signerInfoGens)
         private BERSequenceGenerator _sGen;
         private BERSequenceGenerator _sigGen;
         private BERSequenceGenerator _eiGen;
+        private Map<AlgorithmIdentifier, SignerInfoGenerator> _digesters;
+        private Executor _executor;
 
         public CmsSignedDataOutputStream(
             OutputStream         out,
             ASN1ObjectIdentifier contentOID,
             BERSequenceGenerator sGen,
             BERSequenceGenerator sigGen,
-            BERSequenceGenerator eiGen)
+            BERSequenceGenerator eiGen,
+            Map<AlgorithmIdentifier, SignerInfoGenerator> digesters,
+            Executor executor)
         {
             _out = out;
             _contentOID = contentOID;
             _sGen = sGen;
             _sigGen = sigGen;
             _eiGen = eiGen;
+            _digesters = digesters;
+            _executor = executor;
         }
 
         public void write(
@@ -474,22 +531,28 @@ public void close()
             // add the generated SignerInfo objects
             //
 
-            for (Iterator it = signerGens.iterator(); it.hasNext();)
+            if (_executor != null)
             {
-                SignerInfoGenerator sigGen = (SignerInfoGenerator)it.next();
-
-
-                try
+                generateConcurrently(signerInfos);
+            }
+            else
+            {
+                for (Iterator it = signerGens.iterator(); it.hasNext();)
                 {
-                    signerInfos.add(sigGen.generate(_contentOID));
+                    SignerInfoGenerator sigGen = (SignerInfoGenerator)it.next();
 
-                    byte[] calculatedDigest = sigGen.getCalculatedDigest();
+                    try
+                    {
+                        signerInfos.add(sigGen.generate(_contentOID));
 
-                    digests.put(sigGen.getDigestAlgorithm().getAlgorithm().getId(), calculatedDigest);
-                }
-                catch (CMSException e)
-                {
-                    throw new CMSStreamException("exception generating signers: " + e.getMessage(), e);
+                        byte[] calculatedDigest = sigGen.getCalculatedDigest();
+
+                        digests.put(sigGen.getDigestAlgorithm().getAlgorithm().getId(), calculatedDigest);
+                    }
+                    catch (CMSException e)
+                    {
+                        throw new CMSStreamException("exception generating signers: " + e.getMessage(), e);
+                    }
                 }
             }
 
@@ -530,5 +593,66 @@ public void close()
             _sigGen.close();
             _sGen.close();
         }
+
+        private void generateConcurrently(ASN1EncodableVector signerInfos)
+            throws IOException
+        {
+            Map<AlgorithmIdentifier, byte[]> contentDigests = new HashMap<AlgorithmIdentifier, byte[]>();
+            for (Iterator<Map.Entry<AlgorithmIdentifier, SignerInfoGenerator>> it = _digesters.entrySet().iterator(); it.hasNext();)
+            {
+                Map.Entry<AlgorithmIdentifier, SignerInfoGenerator> entry = it.next();
+
+                contentDigests.put(entry.getKey(), entry.getValue().calculateContentDigest());
+            }
+
+            List<FutureTask<SignerInfo>> tasks = new ArrayList<FutureTask<SignerInfo>>();
+            for (Iterator it = signerGens.iterator(); it.hasNext();)
+            {
+                final SignerInfoGenerator sigGen = (SignerInfoGenerator)it.next();
+                final byte[] contentDigest = sigGen.isContentDigestOnly()
+                    ? contentDigests.get(sigGen.getDigestAlgorithm()) : null;
+
+                FutureTask<SignerInfo> task = new FutureTask<SignerInfo>(new Callable<SignerInfo>()
+                {
+                    public SignerInfo call()
+                        throws CMSException
+                    {
+                        return sigGen.generate(_contentOID, contentDigest);
+                    }
+                });
+                tasks.add(task);
+
+                try
+                {
+                    _executor.execute(task);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    task.run();
+                }
+            }
+
+            for (int i = 0; i != tasks.size(); i++)
+            {
+                SignerInfoGenerator sigGen = (SignerInfoGenerator)signerGens.get(i);
+
+                try
+                {
+                    signerInfos.add(tasks.get(i).get());
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new CMSStreamException("interrupted generating signers");
+                }
+                catch (ExecutionException e)
+                {
+                    Throwable cause = e.getCause();
+                    throw new CMSStreamException("exception generating signers: " + cause.getMessage(), cause);
+                }
+
+                digests.put(sigGen.getDigestAlgorithm().getAlgorithm().getId(), sigGen.getCalculatedDigest());
+            }
+        }
     }
 }
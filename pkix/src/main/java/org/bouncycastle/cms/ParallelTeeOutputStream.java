@@ -0,0 +1,283 @@
+package org.bouncycastle.cms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * An output stream that writes its data to a primary stream on the calling thread, and to a number of other streams
+ * (typically digest and signature calculators) as tasks on an executor, one task at a time for each stream.
+ * <p>
+ * Data for the other streams is copied into chunks, and the calling thread blocks once too many chunks are waiting
+ * to be processed. If the executor rejects a task it is run on the calling thread.
+ * </p>
+ */
+class ParallelTeeOutputStream
+    extends OutputStream
+{
+    private static final int CHUNK_SIZE = 32 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 8;
+
+    private final OutputStream out;
+    private final Worker[] workers;
+    private final Executor executor;
+    private final Semaphore pending;
+
+    private byte[] buf = new byte[CHUNK_SIZE];
+    private int bufOff = 0;
+    private boolean closed = false;
+
+    ParallelTeeOutputStream(OutputStream out, List<OutputStream> targets, Executor executor)
+    {
+        this.out = out;
+        this.executor = executor;
+        this.workers = new Worker[targets.size()];
+        for (int i = 0; i != workers.length; i++)
+        {
+            workers[i] = new Worker(targets.get(i));
+        }
+        this.pending = new Semaphore(MAX_PENDING_CHUNKS * Math.max(1, workers.length));
+    }
+
+    public void write(int b)
+        throws IOException
+    {
+        out.write(b);
+
+        buf[bufOff++] = (byte)b;
+        if (bufOff == buf.length)
+        {
+            dispatch();
+        }
+    }
+
+    public void write(byte[] b, int off, int len)
+        throws IOException
+    {
+        out.write(b, off, len);
+
+        while (len > 0)
+        {
+            int count = Math.min(len, buf.length - bufOff);
+            System.arraycopy(b, off, buf, bufOff, count);
+            bufOff += count;
+            off += count;
+            len -= count;
+
+            if (bufOff == buf.length)
+            {
+                dispatch();
+            }
+        }
+    }
+
+    public void close()
+        throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+
+        // the workers are finished even if closing the primary stream fails; the first failure is thrown
+        IOException failure = null;
+        try
+        {
+            out.close();
+        }
+        catch (IOException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            try
+            {
+                if (bufOff > 0)
+                {
+                    byte[] chunk = new byte[bufOff];
+                    System.arraycopy(buf, 0, chunk, 0, bufOff);
+                    dispatch(chunk);
+                }
+            }
+            catch (IOException e)
+            {
+                if (failure == null)
+                {
+                    failure = e;
+                }
+            }
+            buf = null;
+
+            for (int i = 0; i != workers.length; i++)
+            {
+                IOException e = workers[i].finish();
+                if (failure == null)
+                {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    private void dispatch()
+        throws IOException
+    {
+        byte[] chunk = buf;
+        buf = new byte[CHUNK_SIZE];
+        bufOff = 0;
+
+        dispatch(chunk);
+    }
+
+    private void dispatch(byte[] chunk)
+        throws IOException
+    {
+        // the chunk is only ever read, so it is shared by all the workers
+        for (int i = 0; i != workers.length; i++)
+        {
+            try
+            {
+                pending.acquire();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new CMSStreamException("interrupted waiting for signer calculations");
+            }
+
+            workers[i].add(chunk);
+        }
+    }
+
+    private class Worker
+        implements Runnable
+    {
+        private final OutputStream target;
+        private final LinkedList<byte[]> chunks = new LinkedList<byte[]>();
+
+        private boolean scheduled = false;
+        private Throwable failure = null;
+
+        Worker(OutputStream target)
+        {
+            this.target = target;
+        }
+
+        void add(byte[] chunk)
+        {
+            synchronized (this)
+            {
+                chunks.addLast(chunk);
+                if (scheduled)
+                {
+                    return;
+                }
+                scheduled = true;
+            }
+
+            try
+            {
+                executor.execute(this);
+            }
+            catch (RejectedExecutionException e)
+            {
+                run();
+            }
+        }
+
+        public void run()
+        {
+            for (;;)
+            {
+                byte[] chunk;
+                synchronized (this)
+                {
+                    chunk = chunks.poll();
+                    if (chunk == null)
+                    {
+                        scheduled = false;
+                        notifyAll();
+                        return;
+                    }
+                }
+
+                try
+                {
+                    if (failure == null)
+                    {
+                        target.write(chunk, 0, chunk.length);
+                    }
+                }
+                catch (Throwable t)
+                {
+                    failure = t;
+                }
+                finally
+                {
+                    pending.release();
+                }
+            }
+        }
+
+        /**
+         * Wait for the chunks added so far to be written, then close the target.
+         *
+         * @return any exception from writing to, or closing, the target.
+         */
+        IOException finish()
+        {
+            synchronized (this)
+            {
+                boolean interrupted = false;
+                while (scheduled)
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (failure == null)
+                {
+                    try
+                    {
+                        target.close();
+                    }
+                    catch (Throwable t)
+                    {
+                        failure = t;
+                    }
+                }
+
+                if (failure == null)
+                {
+                    return null;
+                }
+                if (failure instanceof IOException)
+                {
+                    return (IOException)failure;
+                }
+                return new CMSStreamException("exception calculating signer data: " + failure.getMessage(), failure);
+            }
+        }
+    }
+}
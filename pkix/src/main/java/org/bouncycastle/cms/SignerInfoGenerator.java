@@ -125,6 +125,36 @@ public OutputStream getCalculatingOutputStream()
 
     public SignerInfo generate(ASN1ObjectIdentifier contentType)
         throws CMSException
+    {
+        return generate(contentType, null);
+    }
+
+    /**
+     * Return true if this generator signs signed attributes, so only needs the digest of the content (as calculated
+     * by its digest calculator).
+     */
+    boolean isContentDigestOnly()
+    {
+        return digester != null && sAttrGen != null;
+    }
+
+    /**
+     * Return the digest of the content written to the calculating output stream.
+     */
+    byte[] calculateContentDigest()
+    {
+        return digester.getDigest();
+    }
+
+    /**
+     * Generate the SignerInfo, using a content digest calculated elsewhere (with the same digest algorithm) if
+     * this generator only needs the digest of the content.
+     *
+     * @param contentType the content type.
+     * @param contentDigest the content digest, or null to use this generator's digest calculator.
+     */
+    SignerInfo generate(ASN1ObjectIdentifier contentType, byte[] contentDigest)
+        throws CMSException
     {
         try
         {
@@ -146,7 +176,7 @@ public SignerInfo generate(ASN1ObjectIdentifier contentType)
             if (sAttrGen != null)
             {
                 digestAlg = digester.getAlgorithmIdentifier();
-                calculatedDigest = digester.getDigest();
+                calculatedDigest = (contentDigest != null) ? Arrays.clone(contentDigest) : digester.getDigest();
                 Map parameters = getBaseParameters(contentType, digester.getAlgorithmIdentifier(), digestEncryptionAlgorithm, calculatedDigest);
                 AttributeTable signed = sAttrGen.getAttributes(Collections.unmodifiableMap(parameters));
 
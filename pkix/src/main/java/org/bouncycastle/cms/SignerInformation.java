@@ -354,19 +354,8 @@ private boolean doVerify(
         SignerInformationVerifier verifier)
         throws CMSException
     {
-        String encName = CMSSignedHelper.INSTANCE.getEncryptionAlgName(this.getEncryptionAlgOID());
-        AlgorithmIdentifier realDigestAlgorithm = signedAttributeSet != null ?
-            info.getDigestAlgorithm() : translateBrokenRSAPkcs7(encryptionAlgorithm, info.getDigestAlgorithm());
-        ContentVerifier contentVerifier;
-
-        try
-        {
-            contentVerifier = verifier.getContentVerifier(encryptionAlgorithm, realDigestAlgorithm);
-        }
-        catch (OperatorCreationException e)
-        {
-            throw new CMSException("can't create content verifier: " + e.getMessage(), e);
-        }
+        AlgorithmIdentifier realDigestAlgorithm = getContentDigestAlgorithm();
+        ContentVerifier contentVerifier = createContentVerifier(verifier);
 
         try
         {
@@ -440,6 +429,94 @@ else if (signedAttributeSet != null)
             throw new CMSException("can't create digest calculator: " + e.getMessage(), e);
         }
 
+        return verifySignature(contentVerifier, realDigestAlgorithm);
+    }
+
+    /**
+     * Return the digest algorithm used for the content, allowing for old PKCS#7 messages that put the
+     * signature algorithm in the digest algorithm field.
+     */
+    AlgorithmIdentifier getContentDigestAlgorithm()
+    {
+        return signedAttributeSet != null ?
+            info.getDigestAlgorithm() : translateBrokenRSAPkcs7(encryptionAlgorithm, info.getDigestAlgorithm());
+    }
+
+    ContentVerifier createContentVerifier(SignerInformationVerifier verifier)
+        throws CMSException
+    {
+        try
+        {
+            return verifier.getContentVerifier(encryptionAlgorithm, getContentDigestAlgorithm());
+        }
+        catch (OperatorCreationException e)
+        {
+            throw new CMSException("can't create content verifier: " + e.getMessage(), e);
+        }
+    }
+
+    CMSProcessable getContent()
+    {
+        return content;
+    }
+
+    /**
+     * Return true if a content digest still has to be calculated to verify this signer.
+     */
+    boolean isContentDigestRequired()
+    {
+        return resultDigest == null;
+    }
+
+    /**
+     * Return true if the content itself, rather than just its digest, has to be written to the
+     * content verifier.
+     */
+    boolean isContentSigned(ContentVerifier contentVerifier)
+    {
+        return signedAttributeSet == null && !(contentVerifier instanceof RawContentVerifier);
+    }
+
+    /**
+     * Complete verification of the signer where the content has already been processed - the content
+     * digest has been calculated separately, and if the content is signed directly it has already been
+     * written to the content verifier.
+     *
+     * @param contentVerifier the content verifier created by createContentVerifier().
+     * @param contentDigest the digest of the content, or null if the digest is already known.
+     */
+    boolean verify(ContentVerifier contentVerifier, byte[] contentDigest)
+        throws CMSException
+    {
+        if (resultDigest == null)
+        {
+            resultDigest = contentDigest;
+        }
+
+        try
+        {
+            OutputStream sigOut = contentVerifier.getOutputStream();
+
+            if (signedAttributeSet != null)
+            {
+                sigOut.write(this.getEncodedSignedAttributes());
+            }
+
+            sigOut.close();
+        }
+        catch (IOException e)
+        {
+            throw new CMSException("can't process mime object to create signature.", e);
+        }
+
+        return verifySignature(contentVerifier, getContentDigestAlgorithm());
+    }
+
+    private boolean verifySignature(ContentVerifier contentVerifier, AlgorithmIdentifier realDigestAlgorithm)
+        throws CMSException
+    {
+        String encName = CMSSignedHelper.INSTANCE.getEncryptionAlgName(this.getEncryptionAlgOID());
+
         // RFC 3852 11.1 Check the content-type attribute is correct
         verifyContentTypeAttributeValue();
 
@@ -640,6 +717,14 @@ private void verifyCounterSignatureAttribute(AttributeTable signedAttrTable)
      */
     public boolean verify(SignerInformationVerifier verifier)
         throws CMSException
+    {
+        checkSigningTime(verifier);
+
+        return doVerify(verifier);
+    }
+
+    void checkSigningTime(SignerInformationVerifier verifier)
+        throws CMSException
     {
         Time signingTime = getSigningTime();   // has to be validated if present.
 
@@ -655,8 +740,6 @@ public boolean verify(SignerInformationVerifier verifier)
                 }
             }
         }
-
-        return doVerify(verifier);
     }
 
     /**
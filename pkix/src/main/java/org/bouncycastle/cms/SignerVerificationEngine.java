@@ -0,0 +1,386 @@
+package org.bouncycastle.cms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.ContentVerifier;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.OperatorCreationException;
+
+/**
+ * Verifier for a collection of signers over the same content. The content is processed once, with each
+ * distinct content digest only calculated once, after which the signers are verified, optionally as tasks
+ * on an executor.
+ */
+class SignerVerificationEngine
+{
+    private final SignerInformationVerifierProvider verifierProvider;
+    private final boolean ignoreCounterSignatures;
+    private final Executor executor;
+
+    SignerVerificationEngine(SignerInformationVerifierProvider verifierProvider, boolean ignoreCounterSignatures, Executor executor)
+    {
+        this.verifierProvider = verifierProvider;
+        this.ignoreCounterSignatures = ignoreCounterSignatures;
+        this.executor = executor;
+    }
+
+    boolean verify(Collection signerInfos)
+        throws CMSException
+    {
+        SignerInformation[] signers = (SignerInformation[])signerInfos.toArray(new SignerInformation[signerInfos.size()]);
+        SignerState[] states = new SignerState[signers.length];
+
+        CMSProcessable content = getSharedContent(signers);
+        Map<AlgorithmIdentifier, DigestCalculator> calculators = new LinkedHashMap<AlgorithmIdentifier, DigestCalculator>();
+        List<OutputStream> contentStreams = new ArrayList<OutputStream>();
+        List<SignerState> contentStates = new ArrayList<SignerState>();
+
+        for (int i = 0; i != signers.length; i++)
+        {
+            SignerInformation signer = signers[i];
+            SignerState state = states[i] = new SignerState(signer);
+
+            // subclasses may override verify(), so they are left to it, as are signers with content of their
+            // own, or with no content and nothing else to verify against.
+            if (signer.getClass() != SignerInformation.class || (content == null && signer.getContent() != null)
+                || (content == null && signer.isContentDigestRequired() && signer.toASN1Structure().getAuthenticatedAttributes() == null))
+            {
+                continue;
+            }
+
+            // anything going wrong is only reported when the signer is verified, so an earlier signer failing
+            // to verify still takes precedence.
+            try
+            {
+                state.verifier = getVerifier(signer);
+
+                ContentVerifier contentVerifier = signer.createContentVerifier(state.verifier);
+
+                if (signer.isContentDigestRequired())
+                {
+                    AlgorithmIdentifier digestAlgorithm = signer.getContentDigestAlgorithm();
+                    if (!calculators.containsKey(digestAlgorithm))
+                    {
+                        try
+                        {
+                            calculators.put(digestAlgorithm, state.verifier.getDigestCalculator(digestAlgorithm));
+                        }
+                        catch (OperatorCreationException e)
+                        {
+                            throw new CMSException("can't create digest calculator: " + e.getMessage(), e);
+                        }
+                    }
+                }
+
+                if (content != null && signer.isContentSigned(contentVerifier))
+                {
+                    contentStreams.add(contentVerifier.getOutputStream());
+                }
+
+                state.contentVerifier = contentVerifier;
+                contentStates.add(state);
+            }
+            catch (CMSException e)
+            {
+                state.failure = e;
+            }
+            catch (RuntimeException e)
+            {
+                state.failure = e;
+            }
+        }
+
+        for (Iterator<DigestCalculator> it = calculators.values().iterator(); it.hasNext();)
+        {
+            contentStreams.add(it.next().getOutputStream());
+        }
+
+        if (content != null && !contentStreams.isEmpty())
+        {
+            try
+            {
+                writeContent(content, contentStreams);
+            }
+            catch (CMSException e)
+            {
+                setFailure(contentStates, e);
+            }
+            catch (RuntimeException e)
+            {
+                setFailure(contentStates, e);
+            }
+        }
+
+        Map<AlgorithmIdentifier, byte[]> contentDigests = new HashMap<AlgorithmIdentifier, byte[]>();
+        for (Iterator<Map.Entry<AlgorithmIdentifier, DigestCalculator>> it = calculators.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<AlgorithmIdentifier, DigestCalculator> entry = it.next();
+
+            contentDigests.put(entry.getKey(), entry.getValue().getDigest());
+        }
+
+        if (executor == null)
+        {
+            for (int i = 0; i != states.length; i++)
+            {
+                if (!verifySigner(states[i], contentDigests))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return verifyConcurrently(states, contentDigests);
+    }
+
+    private boolean verifyConcurrently(SignerState[] states, final Map<AlgorithmIdentifier, byte[]> contentDigests)
+        throws CMSException
+    {
+        List<FutureTask<Boolean>> tasks = new ArrayList<FutureTask<Boolean>>();
+        for (int i = 0; i != states.length; i++)
+        {
+            final SignerState state = states[i];
+
+            FutureTask<Boolean> task = new FutureTask<Boolean>(new Callable<Boolean>()
+            {
+                public Boolean call()
+                    throws CMSException
+                {
+                    return Boolean.valueOf(verifySigner(state, contentDigests));
+                }
+            });
+            tasks.add(task);
+
+            try
+            {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException e)
+            {
+                task.run();
+            }
+        }
+
+        // results are checked in signer order, so the outcome is the same as verifying one signer at a time.
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                if (!tasks.get(i).get().booleanValue())
+                {
+                    return false;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new CMSException("interrupted verifying signers");
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof CMSException)
+                {
+                    throw (CMSException)cause;
+                }
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException)cause;
+                }
+                if (cause instanceof Error)
+                {
+                    throw (Error)cause;
+                }
+                throw new CMSException("exception verifying signers: " + cause.getMessage(), (Exception)cause);
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * Verify a signer, making its checks in the same order as SignerInformation.verify(), and reporting any
+     * failure from processing the content at the point it would have occurred there.
+     */
+    private boolean verifySigner(SignerState state, Map<AlgorithmIdentifier, byte[]> contentDigests)
+        throws CMSException
+    {
+        SignerInformation signer = state.signer;
+
+        boolean verified;
+        if (state.contentVerifier == null && state.failure == null)
+        {
+            verified = signer.verify(getVerifier(signer));
+        }
+        else
+        {
+            if (state.verifier != null)
+            {
+                signer.checkSigningTime(state.verifier);
+            }
+
+            if (state.failure instanceof CMSException)
+            {
+                throw (CMSException)state.failure;
+            }
+            if (state.failure != null)
+            {
+                throw (RuntimeException)state.failure;
+            }
+
+            verified = signer.verify(state.contentVerifier, (byte[])contentDigests.get(signer.getContentDigestAlgorithm()));
+        }
+
+        if (!verified)
+        {
+            return false;
+        }
+
+        if (!ignoreCounterSignatures)
+        {
+            Collection counterSigners = signer.getCounterSignatures().getSigners();
+
+            for (Iterator cIt = counterSigners.iterator(); cIt.hasNext(); )
+            {
+                if (!verifyCounterSignature((SignerInformation)cIt.next()))
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean verifyCounterSignature(SignerInformation counterSigner)
+        throws CMSException
+    {
+        SignerInformationVerifier counterVerifier = getVerifier(counterSigner);
+
+        if (!counterSigner.verify(counterVerifier))
+        {
+            return false;
+        }
+
+        Collection counterSigners = counterSigner.getCounterSignatures().getSigners();
+        for (Iterator cIt = counterSigners.iterator(); cIt.hasNext(); )
+        {
+            if (!verifyCounterSignature((SignerInformation)cIt.next()))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private SignerInformationVerifier getVerifier(SignerInformation signer)
+        throws CMSException
+    {
+        try
+        {
+            return verifierProvider.get(signer.getSID());
+        }
+        catch (OperatorCreationException e)
+        {
+            throw new CMSException("failure in verifier provider: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeContent(CMSProcessable content, List<OutputStream> contentStreams)
+        throws CMSException
+    {
+        OutputStream out;
+        if (executor != null && contentStreams.size() > 1)
+        {
+            out = new ParallelTeeOutputStream(new NullOutputStream(), contentStreams, executor);
+        }
+        else
+        {
+            out = null;
+            for (Iterator<OutputStream> it = contentStreams.iterator(); it.hasNext();)
+            {
+                out = CMSUtils.getSafeTeeOutputStream(out, it.next());
+            }
+        }
+
+        try
+        {
+            content.write(out);
+
+            out.close();
+        }
+        catch (IOException e)
+        {
+            throw new CMSException("can't process mime object to create signature.", e);
+        }
+    }
+
+    private static void setFailure(List<SignerState> states, Exception failure)
+    {
+        for (int i = 0; i != states.size(); i++)
+        {
+            SignerState state = states.get(i);
+            if (state.failure == null)
+            {
+                state.failure = failure;
+            }
+        }
+    }
+
+    /**
+     * Return the content shared by all the signers, or null if there is none, or they don't all share it.
+     */
+    private static CMSProcessable getSharedContent(SignerInformation[] signers)
+    {
+        CMSProcessable content = null;
+        for (int i = 0; i != signers.length; i++)
+        {
+            CMSProcessable signerContent = signers[i].getContent();
+            if (i == 0)
+            {
+                content = signerContent;
+            }
+            else if (signerContent != content)
+            {
+                return null;
+            }
+        }
+
+        return content;
+    }
+
+    /**
+     * A signer, with whatever was prepared for it while processing the content: its verifier and content
+     * verifier, or the exception that stopped them being prepared.
+     */
+    private static class SignerState
+    {
+        final SignerInformation signer;
+
+        SignerInformationVerifier verifier;
+        ContentVerifier contentVerifier;
+        Exception failure;
+
+        SignerState(SignerInformation signer)
+        {
+            this.signer = signer;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package org.bouncycastle.pkix.jcajce;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.security.cert.CRL;
@@ -12,13 +12,11 @@
 import java.security.cert.X509CRL;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import javax.naming.Context;
 import javax.naming.NamingException;
@@ -28,71 +26,101 @@
 import javax.naming.directory.InitialDirContext;
 
 import org.bouncycastle.jcajce.PKIXCRLStore;
+import org.bouncycastle.jcajce.util.RevocationCache;
 import org.bouncycastle.util.CollectionStore;
 import org.bouncycastle.util.Iterable;
 import org.bouncycastle.util.Selector;
 import org.bouncycastle.util.Store;
 
+/**
+ * Fetches CRLs from distribution points, through the shared {@link RevocationCache#getCRLCache() CRL cache}.
+ */
 class CrlCache
 {
     private static final int DEFAULT_TIMEOUT = 15000;
 
-    private static Map<URI, WeakReference<PKIXCRLStore>> cache =
-        Collections.synchronizedMap(new WeakHashMap<URI, WeakReference<PKIXCRLStore>>());
-
-    static synchronized PKIXCRLStore getCrl(CertificateFactory certFact, Date validDate, URI distributionPoint)
+    static PKIXCRLStore getCrl(final CertificateFactory certFact, Date validDate, URI distributionPoint)
         throws IOException, CRLException
     {
-        PKIXCRLStore crlStore = null;
-
-        WeakReference<PKIXCRLStore> markerRef = (WeakReference)cache.get(distributionPoint);
-        if (markerRef != null)
+        try
         {
-            crlStore = (PKIXCRLStore)markerRef.get();
+            return RevocationCache.getCRLCache().get(distributionPoint, validDate,
+                new RevocationCache.Loader<URI, PKIXCRLStore>()
+                {
+                    public RevocationCache.Result<PKIXCRLStore> load(URI distributionPoint)
+                        throws IOException, CRLException
+                    {
+                        return loadCrls(certFact, distributionPoint);
+                    }
+                });
         }
-
-        if (crlStore != null)
+        catch (IOException e)
         {
-            boolean isExpired = false;
-            for (Iterator it = crlStore.getMatches(null).iterator(); it.hasNext();)
-            {
-                X509CRL crl = (X509CRL)it.next();
-
-                Date nextUpdate = crl.getNextUpdate();
-                if (nextUpdate != null && nextUpdate.before(validDate))
-                {
-                    isExpired = true;
-                    break;
-                }
-            }
-
-            if (!isExpired)
-            {
-                return crlStore;
-            }
+            throw e;
         }
+        catch (CRLException e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new CRLException("unable to fetch CRL from: " + distributionPoint, e);
+        }
+    }
 
-        Collection crls;
+    private static RevocationCache.Result<PKIXCRLStore> loadCrls(CertificateFactory certFact, URI distributionPoint)
+        throws IOException, CRLException
+    {
+        CountingInputStream crlIn;
 
         if (distributionPoint.getScheme().equals("ldap"))
         {
-            crls = getCrlsFromLDAP(certFact, distributionPoint);
+            crlIn = new CountingInputStream(getCrlsFromLDAP(distributionPoint));
         }
         else
         {
             // http, https, ftp
-            crls = getCrls(certFact, distributionPoint);
+            crlIn = new CountingInputStream(getCrls(distributionPoint));
         }
 
-        LocalCRLStore localCRLStore = new LocalCRLStore(new CollectionStore<CRL>(crls));
+        Collection crls;
+        try
+        {
+            crls = certFact.generateCRLs(crlIn);
+        }
+        finally
+        {
+            crlIn.close();
+        }
+
+        // the store is valid until the first of its CRLs has to be updated
+        Date thisUpdate = null;
+        Date nextUpdate = null;
+        for (Iterator it = crls.iterator(); it.hasNext();)
+        {
+            X509CRL crl = (X509CRL)it.next();
+
+            if (thisUpdate == null || crl.getThisUpdate().after(thisUpdate))
+            {
+                thisUpdate = crl.getThisUpdate();
+            }
+            if (crl.getNextUpdate() != null && (nextUpdate == null || crl.getNextUpdate().before(nextUpdate)))
+            {
+                nextUpdate = crl.getNextUpdate();
+            }
+        }
 
-        cache.put(distributionPoint, new WeakReference<PKIXCRLStore>(localCRLStore));
+        LocalCRLStore localCRLStore = new LocalCRLStore(new CollectionStore<CRL>(crls));
 
-        return localCRLStore;
+        return new RevocationCache.Result<PKIXCRLStore>(localCRLStore, thisUpdate, nextUpdate, crlIn.getCount());
     }
 
-    private static Collection getCrlsFromLDAP(CertificateFactory certFact, URI distributionPoint)
-        throws IOException, CRLException
+    private static InputStream getCrlsFromLDAP(URI distributionPoint)
+        throws CRLException
     {
         Map<String, String> env = new Hashtable<String, String>();
 
@@ -118,24 +146,64 @@ private static Collection getCrlsFromLDAP(CertificateFactory certFact, URI distr
         }
         else
         {
-            return certFact.generateCRLs(new ByteArrayInputStream(val));
+            return new ByteArrayInputStream(val);
         }
     }
 
-    private static Collection getCrls(CertificateFactory certFact, URI distributionPoint)
-        throws IOException, CRLException
+    private static InputStream getCrls(URI distributionPoint)
+        throws IOException
     {
         HttpURLConnection crlCon = (HttpURLConnection)distributionPoint.toURL().openConnection();
         crlCon.setConnectTimeout(DEFAULT_TIMEOUT);
         crlCon.setReadTimeout(DEFAULT_TIMEOUT);
 
-        InputStream crlIn = crlCon.getInputStream();
+        return crlCon.getInputStream();
+    }
 
-        Collection crls = certFact.generateCRLs(crlIn);
+    private static class CountingInputStream
+        extends FilterInputStream
+    {
+        private long count = 0;
 
-        crlIn.close();
+        CountingInputStream(InputStream in)
+        {
+            super(in);
+        }
 
-        return crls;
+        public int read()
+            throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                ++count;
+            }
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len)
+            throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n > 0)
+            {
+                count += n;
+            }
+            return n;
+        }
+
+        public long skip(long n)
+            throws IOException
+        {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount()
+        {
+            return count;
+        }
     }
 
     private static class LocalCRLStore<T extends CRL>
@@ -13,16 +13,21 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
+import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.DEROctetString;
@@ -32,6 +37,7 @@
 import org.bouncycastle.asn1.cms.CMSAttributes;
 import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
 import org.bouncycastle.asn1.ocsp.OCSPResponse;
+import org.bouncycastle.asn1.x509.Time;
 import org.bouncycastle.cert.X509AttributeCertificateHolder;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaCRLStore;
@@ -58,6 +64,7 @@
 import org.bouncycastle.operator.ContentSigner;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.CollectionStore;
 import org.bouncycastle.util.Store;
 import org.bouncycastle.util.encoders.Base64;
@@ -587,6 +594,140 @@ public void testSHA1AndMD5WithRSA()
         verifySignatures(sp);
     }
     
+    public void testParallelSigners()
+        throws Exception
+    {
+        byte[] data = new byte[200000];
+        for (int i = 0; i != data.length; i++)
+        {
+            data[i] = (byte)(i * 31 + (i >> 8));
+        }
+
+        // a fixed signing time, so the outputs can be compared
+        Date signingTime = new Date();
+
+        byte[] expected = generateMultiSignerData(data, signingTime, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        ExecutorService singleExecutor = Executors.newSingleThreadExecutor();
+        try
+        {
+            assertTrue(Arrays.areEqual(expected, generateMultiSignerData(data, signingTime, executor)));
+            assertTrue(Arrays.areEqual(expected, generateMultiSignerData(data, signingTime, singleExecutor)));
+        }
+        finally
+        {
+            executor.shutdown();
+            singleExecutor.shutdown();
+        }
+
+        CMSSignedDataParser sp = new CMSSignedDataParser(new JcaDigestCalculatorProviderBuilder().setProvider(BC).build(), expected);
+
+        sp.getSignedContent().drain();
+
+        assertEquals(4, sp.getSignerInfos().size());
+
+        verifySignatures(sp);
+    }
+
+    public void testParallelSignersCloseFailure()
+        throws Exception
+    {
+        CMSSignedDataStreamGenerator gen = new CMSSignedDataStreamGenerator();
+
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().setProvider(BC).build()).build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_origKP.getPrivate()), _origCert));
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().setProvider(BC).build()).build(
+            new JcaContentSignerBuilder("SHA384withRSA").setProvider(BC).build(_signKP.getPrivate()), _signCert));
+
+        final int[] tasks = new int[1];
+        gen.setExecutor(new Executor()
+        {
+            public void execute(Runnable task)
+            {
+                tasks[0]++;
+                task.run();
+            }
+        });
+
+        final boolean[] fail = new boolean[1];
+        OutputStream bOut = new OutputStream()
+        {
+            public void write(int b)
+                throws IOException
+            {
+                if (fail[0])
+                {
+                    throw new IOException("write failed");
+                }
+            }
+        };
+
+        OutputStream sigOut = gen.open(bOut, true);
+
+        // less than a chunk, so nothing reaches the signers until the stream is closed
+        sigOut.write(new byte[1000]);
+        assertEquals(0, tasks[0]);
+
+        fail[0] = true;
+        try
+        {
+            sigOut.close();
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            assertEquals("write failed", e.getMessage());
+        }
+
+        // the final chunk was still passed to every signer
+        assertEquals(2, tasks[0]);
+    }
+
+    private byte[] generateMultiSignerData(byte[] data, Date signingTime, Executor executor)
+        throws Exception
+    {
+        ASN1EncodableVector signedAttrs = new ASN1EncodableVector();
+        signedAttrs.add(new Attribute(CMSAttributes.signingTime, new DERSet(new Time(signingTime))));
+        CMSAttributeTableGenerator signedAttrGen = new DefaultSignedAttributeTableGenerator(new AttributeTable(signedAttrs));
+
+        JcaSignerInfoGeneratorBuilder signerInfoGeneratorBuilder = new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().setProvider(BC).build());
+        signerInfoGeneratorBuilder.setSignedAttributeGenerator(signedAttrGen);
+
+        CMSSignedDataStreamGenerator gen = new CMSSignedDataStreamGenerator();
+
+        gen.addSignerInfoGenerator(signerInfoGeneratorBuilder.build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_origKP.getPrivate()), _origCert));
+        gen.addSignerInfoGenerator(signerInfoGeneratorBuilder.build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_signKP.getPrivate()), _signCert));
+        gen.addSignerInfoGenerator(signerInfoGeneratorBuilder.build(
+            new JcaContentSignerBuilder("SHA384withRSA").setProvider(BC).build(_origKP.getPrivate()), _origCert));
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().setProvider(BC).build())
+            .setDirectSignature(true)
+            .build(new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_signKP.getPrivate()), _signCert));
+
+        List certList = new ArrayList();
+        certList.add(_origCert);
+        certList.add(_signCert);
+        gen.addCertificates(new JcaCertStore(certList));
+
+        gen.setExecutor(executor);
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        OutputStream sigOut = gen.open(bOut, true);
+
+        sigOut.write(data, 0, 7);
+        sigOut.write(data[7]);
+        for (int off = 8; off < data.length; off += 10007)
+        {
+            sigOut.write(data, off, Math.min(10007, data.length - off));
+        }
+
+        sigOut.close();
+
+        return bOut.toByteArray();
+    }
+
     public void testSHA1WithRSAEncapsulatedBufferedStream()
         throws Exception
     {
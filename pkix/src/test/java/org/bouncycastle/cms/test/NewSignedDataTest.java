@@ -1,7 +1,10 @@
 package org.bouncycastle.cms.test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.MessageDigest;
@@ -19,6 +22,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.Assert;
 import junit.framework.Test;
@@ -68,7 +74,9 @@
 import org.bouncycastle.cms.CMSAttributeTableGenerationException;
 import org.bouncycastle.cms.CMSAttributeTableGenerator;
 import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSProcessable;
 import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSProcessableFile;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.bouncycastle.cms.CMSSignedDataParser;
@@ -99,6 +107,7 @@
 import org.bouncycastle.operator.bc.BcRSAContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.CollectionStore;
 import org.bouncycastle.util.Store;
 import org.bouncycastle.util.encoders.Base64;
@@ -2207,6 +2216,140 @@ else if (_origCert.getSerialNumber().equals(signerId.getSerialNumber()))
         assertTrue(s.verifySignatures(vProv, false));
     }
 
+    public void testMultipleSignerVerification()
+        throws Exception
+    {
+        File dataFile = File.createTempFile("bcTest", ".dat");
+        dataFile.deleteOnExit();
+
+        byte[] data = new byte[100000];
+        for (int i = 0; i != data.length; i++)
+        {
+            data[i] = (byte)i;
+        }
+
+        FileOutputStream fOut = new FileOutputStream(dataFile);
+        fOut.write(data);
+        fOut.close();
+
+        List certList = new ArrayList();
+
+        certList.add(_signCert);
+        certList.add(_origCert);
+
+        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+        DigestCalculatorProvider digProvider = new JcaDigestCalculatorProviderBuilder().setProvider(BC).build();
+
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digProvider).build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_signKP.getPrivate()), _signCert));
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digProvider).build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_origKP.getPrivate()), _origCert));
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digProvider).build(
+            new JcaContentSignerBuilder("SHA384withRSA").setProvider(BC).build(_origKP.getPrivate()), _origCert));
+        gen.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(digProvider).setDirectSignature(true).build(
+            new JcaContentSignerBuilder("SHA256withRSA").setProvider(BC).build(_signKP.getPrivate()), _signCert));
+
+        gen.addCertificates(new JcaCertStore(certList));
+
+        byte[] sigBlock = gen.generate(new CMSProcessableByteArray(data), false).getEncoded();
+
+        SignerInformationVerifierProvider vProv = new SignerInformationVerifierProvider()
+        {
+            public SignerInformationVerifier get(SignerId signerId)
+                throws OperatorCreationException
+            {
+                if (_signCert.getSerialNumber().equals(signerId.getSerialNumber()))
+                {
+                    return new JcaSimpleSignerInfoVerifierBuilder().setProvider(BC).build(_signCert);
+                }
+                return new JcaSimpleSignerInfoVerifierBuilder().setProvider(BC).build(_origCert);
+            }
+        };
+
+        SignerInformationVerifierProvider failingProv = new SignerInformationVerifierProvider()
+        {
+            public SignerInformationVerifier get(SignerId signerId)
+                throws OperatorCreationException
+            {
+                if (_signCert.getSerialNumber().equals(signerId.getSerialNumber()))
+                {
+                    return new JcaSimpleSignerInfoVerifierBuilder().setProvider(BC).build(_signCert);
+                }
+                throw new OperatorCreationException("no verifier");
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            Executor[] executors = { null, executor };
+            for (int i = 0; i != executors.length; i++)
+            {
+                final CMSProcessableFile fileContent = new CMSProcessableFile(dataFile);
+                final int[] writeCount = new int[1];
+                CMSProcessable content = new CMSProcessable()
+                {
+                    public void write(OutputStream out)
+                        throws IOException, CMSException
+                    {
+                        writeCount[0]++;
+                        fileContent.write(out);
+                    }
+
+                    public Object getContent()
+                    {
+                        return fileContent.getContent();
+                    }
+                };
+
+                CMSSignedData s = new CMSSignedData(content, sigBlock);
+
+                assertEquals(4, s.getSignerInfos().size());
+                assertTrue(s.verifySignatures(vProv, false, executors[i]));
+
+                // the content is only read once for all the signers
+                assertEquals(1, writeCount[0]);
+
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256", BC);
+                MessageDigest sha384 = MessageDigest.getInstance("SHA-384", BC);
+                for (Iterator it = s.getSignerInfos().getSigners().iterator(); it.hasNext();)
+                {
+                    SignerInformation signer = (SignerInformation)it.next();
+                    MessageDigest md = signer.getDigestAlgOID().equals(NISTObjectIdentifiers.id_sha384.getId()) ? sha384 : sha256;
+
+                    assertTrue(Arrays.areEqual(md.digest(data), signer.getContentDigest()));
+                }
+
+                // wrong content
+                byte[] altered = Arrays.clone(data);
+                altered[altered.length / 2] ^= 1;
+
+                s = new CMSSignedData(new CMSProcessableByteArray(altered), sigBlock);
+
+                assertFalse(s.verifySignatures(vProv, false, executors[i]));
+
+                // the first signer failing takes precedence over a later one that can't be verified at all
+                assertFalse(s.verifySignatures(failingProv, false, executors[i]));
+
+                s = new CMSSignedData(new CMSProcessableByteArray(data), sigBlock);
+
+                try
+                {
+                    s.verifySignatures(failingProv, false, executors[i]);
+                    fail("no exception");
+                }
+                catch (CMSException e)
+                {
+                    assertEquals("failure in verifier provider: no verifier", e.getMessage());
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     public void testAddDigestAlgorithm()
         throws Exception
     {
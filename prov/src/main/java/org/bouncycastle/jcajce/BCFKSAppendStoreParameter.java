@@ -0,0 +1,42 @@
+package org.bouncycastle.jcajce;
+
+import java.io.OutputStream;
+import java.security.KeyStore;
+
+/**
+ * LoadStoreParameter for writing just the changes made to a BCFKS key store since it was last loaded or stored.
+ * <p>
+ * The changes are written as an authenticated record which follows on from the existing store data, so the
+ * output stream should be positioned at the end of the stream the key store was last loaded from, or stored to,
+ * typically by opening the file for appending. A key store with appended records can be loaded as normal, and
+ * storing it in full again, as with any other store operation, produces a compacted copy without the records.
+ * </p>
+ * <p>
+ * Only key stores protected by a password based MAC support appending.
+ * </p>
+ * <p>
+ * <b>Warning:</b> each record's MAC chains back to the record before it, but nothing marks the last record, so a
+ * store with one or more whole records removed from its end still loads without error, silently losing the
+ * changes in them. If that matters, for example if an attacker could truncate the file, keep the length of the
+ * store or its last record elsewhere, or store the key store in full instead.
+ * </p>
+ * <p>
+ * <b>Warning:</b> versions of the provider that predate appending read only the store data and ignore any
+ * records following it. Such a reader sees the key store as it was when last stored in full: entries added since
+ * are missing, replaced entries have their old values, and deleted entries - including deleted keys - are still
+ * present. Store the key store in full before it has to be read by an older version.
+ * </p>
+ */
+public class BCFKSAppendStoreParameter
+    extends BCLoadStoreParameter
+{
+    public BCFKSAppendStoreParameter(OutputStream out, char[] password)
+    {
+        super(out, password);
+    }
+
+    public BCFKSAppendStoreParameter(OutputStream out, KeyStore.ProtectionParameter protectionParameter)
+    {
+        super(out, protectionParameter);
+    }
+}
@@ -0,0 +1,261 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * An index of the revoked certificates in a CRL by serial number. The index refers into the CRL's own DER encoding
+ * (which may be a memory-mapped file) by the offsets of the entries, with an open addressing hash table over the
+ * hash codes of their serial numbers, so the index itself takes only a few ints per entry, and a lookup only decodes
+ * the entries the table points it at.
+ * <p>
+ * For an indirect CRL, the certificate issuer in effect at each entry (from the certificateIssuer extensions of
+ * the entries before it) is recorded as well.
+ * </p>
+ */
+class CRLEntryIndex
+{
+    private static final int SEQUENCE = 0x30;
+    private static final int INTEGER = 0x02;
+    private static final int UTC_TIME = 0x17;
+    private static final int GENERALIZED_TIME = 0x18;
+
+    private final ByteBuffer encoding;
+    private final int[] offsets;
+    private final int[] hashes;
+    private final int[] table;
+    private final int mask;
+
+    private final int[] previousIssuers;
+    private final X500Name[] issuers;
+
+    /**
+     * Build the index from the encoding of a CRL.
+     *
+     * @param encoding the DER encoding of the CRL, from the buffer's position to its limit; the buffer is kept (but
+     * not modified) by the index.
+     * @param isIndirect true if the CRL is an indirect CRL.
+     */
+    CRLEntryIndex(ByteBuffer encoding, boolean isIndirect)
+        throws IOException
+    {
+        this.encoding = encoding.slice();
+
+        ByteBuffer buf = this.encoding;
+        int[] offsets = new int[16];
+        int[] hashes = new int[16];
+        int[] previousIssuers = isIndirect ? new int[16] : null;
+        List issuers = new ArrayList();
+
+        // CertificateList ::= SEQUENCE { tbsCertList TBSCertList, ... }
+        EncodedObjectList.Header certList = new EncodedObjectList.Header(buf, 0, buf.limit());
+        EncodedObjectList.Header tbsCertList = new EncodedObjectList.Header(buf, certList.contentsOff, certList.contentsEnd);
+        if (certList.tag != SEQUENCE || tbsCertList.tag != SEQUENCE)
+        {
+            throw new IOException("malformed CRL encoding");
+        }
+
+        int pos = tbsCertList.contentsOff, end = tbsCertList.contentsEnd, count = 0;
+        EncodedObjectList.Header revoked = findRevokedCertificates(buf, pos, end);
+        if (revoked != null)
+        {
+            pos = revoked.contentsOff;
+            while (pos < revoked.contentsEnd)
+            {
+                EncodedObjectList.Header h = new EncodedObjectList.Header(buf, pos, revoked.contentsEnd);
+                TBSCertList.CRLEntry entry = decodeEntry(pos, h.contentsEnd);
+
+                if (count == hashes.length)
+                {
+                    offsets = grow(offsets);
+                    hashes = grow(hashes);
+                    if (isIndirect)
+                    {
+                        previousIssuers = grow(previousIssuers);
+                    }
+                }
+
+                offsets[count] = pos;
+                hashes[count] = entry.getUserCertificate().getValue().hashCode();
+
+                if (isIndirect)
+                {
+                    previousIssuers[count] = issuers.size() - 1;
+
+                    X500Name certificateIssuer = getCertificateIssuer(entry);
+                    if (certificateIssuer != null)
+                    {
+                        issuers.add(certificateIssuer);
+                    }
+                }
+
+                pos = h.contentsEnd;
+                ++count;
+            }
+        }
+
+        offsets = Arrays.copyOf(offsets, count + 1);
+        offsets[count] = pos;
+
+        this.offsets = offsets;
+        this.hashes = Arrays.copyOf(hashes, count);
+        this.previousIssuers = isIndirect ? Arrays.copyOf(previousIssuers, count) : null;
+        this.issuers = (X500Name[])issuers.toArray(new X500Name[issuers.size()]);
+
+        // at most half full, so probe sequences stay short
+        int tableSize = 2;
+        while (tableSize < 2 * count)
+        {
+            tableSize <<= 1;
+        }
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+
+        // entries are inserted in order, so the first entry for a serial number is the first one probed
+        for (int i = 0; i < count; ++i)
+        {
+            int slot = spread(hashes[i]) & mask;
+            while (table[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Return the position of the first entry for a serial number.
+     *
+     * @param serialNumber the serial number to look for.
+     * @return the position of the entry, or -1 if there isn't one.
+     */
+    int find(BigInteger serialNumber)
+    {
+        int hash = serialNumber.hashCode();
+
+        int slot = spread(hash) & mask, index;
+        while ((index = table[slot]) != 0)
+        {
+            --index;
+            if (hashes[index] == hash && getEntry(index).getUserCertificate().hasValue(serialNumber))
+            {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    TBSCertList.CRLEntry getEntry(int index)
+    {
+        try
+        {
+            return decodeEntry(offsets[index], offsets[index + 1]);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("unable to decode CRL entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return the certificate issuer set by the entries before an entry, if any.
+     *
+     * @param index the position of the entry.
+     * @return the issuer, or null if the CRL issuer applies (or the CRL is not indirect).
+     */
+    X500Name getPreviousCertificateIssuer(int index)
+    {
+        if (previousIssuers == null)
+        {
+            return null;
+        }
+
+        int issuer = previousIssuers[index];
+        return issuer < 0 ? null : issuers[issuer];
+    }
+
+    static X500Name getCertificateIssuer(TBSCertList.CRLEntry entry)
+    {
+        if (entry.hasExtensions())
+        {
+            Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+
+            if (currentCaName != null)
+            {
+                return X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
+            }
+        }
+
+        return null;
+    }
+
+    private TBSCertList.CRLEntry decodeEntry(int start, int end)
+        throws IOException
+    {
+        ByteBuffer slice = encoding.duplicate();
+        slice.limit(end);
+        slice.position(start);
+
+        return TBSCertList.CRLEntry.getInstance(new ASN1InputStream(slice, true).readObject());
+    }
+
+    /*
+     * TBSCertList ::= SEQUENCE { version INTEGER OPTIONAL, signature AlgorithmIdentifier, issuer Name,
+     *     thisUpdate Time, nextUpdate Time OPTIONAL, revokedCertificates SEQUENCE OF ... OPTIONAL, ... }
+     */
+    private static EncodedObjectList.Header findRevokedCertificates(ByteBuffer buf, int pos, int end)
+        throws IOException
+    {
+        EncodedObjectList.Header h = new EncodedObjectList.Header(buf, pos, end);
+        if (h.tag == INTEGER)
+        {
+            h = new EncodedObjectList.Header(buf, h.contentsEnd, end);
+        }
+
+        // signature, issuer and thisUpdate
+        for (int i = 0; i < 2; ++i)
+        {
+            h = new EncodedObjectList.Header(buf, h.contentsEnd, end);
+        }
+
+        if (h.contentsEnd == end)
+        {
+            return null;
+        }
+        h = new EncodedObjectList.Header(buf, h.contentsEnd, end);
+        if (h.tag == UTC_TIME || h.tag == GENERALIZED_TIME)
+        {
+            if (h.contentsEnd == end)
+            {
+                return null;
+            }
+            h = new EncodedObjectList.Header(buf, h.contentsEnd, end);
+        }
+
+        return h.tag == SEQUENCE ? h : null;
+    }
+
+    private static int[] grow(int[] array)
+    {
+        int[] tmp = new int[array.length * 2];
+        System.arraycopy(array, 0, tmp, 0, array.length);
+        return tmp;
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -2,8 +2,12 @@
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.cert.CRL;
 import java.security.cert.CRLException;
 import java.security.cert.CertPath;
@@ -387,6 +391,141 @@ public Collection engineGenerateCRLs(
         return crls;
     }
 
+    /**
+     * Returns a read-only list view of the certificates in the given file, which is memory mapped rather than
+     * read. The file may contain anything {@link #engineGenerateCertificates(InputStream)} accepts.
+     * <p>
+     * The file is only scanned for the boundaries of the certificates here (except that indefinite-length
+     * encodings have to be parsed to find where they end). Each certificate is decoded (in
+     * place, from the mapped file) when it is fetched from the list, and is not retained by it, so fetching it
+     * again returns a new, equal, object. A certificate that fails to decode causes an IllegalStateException,
+     * wrapping the original exception, from the list's get method. The file should not be modified while the
+     * list is in use.
+     * </p>
+     *
+     * @param file the file to load the certificates from.
+     * @return a list of X509Certificate.
+     */
+    public List engineGenerateCertificates(File file)
+        throws CertificateException
+    {
+        try
+        {
+            return engineGenerateCertificates(mapFile(file));
+        }
+        catch (IOException e)
+        {
+            throw new ExCertificateException("unable to map file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the certificates in the given buffer, from its position to its limit. As
+     * for {@link #engineGenerateCertificates(File)}, but the buffer may be anything the caller wants. The
+     * buffer's position is not changed, and its contents should not be modified while the list is in use.
+     *
+     * @param encoding a buffer containing the certificates.
+     * @return a list of X509Certificate.
+     */
+    public List engineGenerateCertificates(ByteBuffer encoding)
+        throws CertificateException
+    {
+        try
+        {
+            return new EncodedObjectList(encoding, "CERTIFICATE", 0)
+            {
+                Object createObject(ASN1Sequence seq, ByteBuffer encoding)
+                    throws Exception
+                {
+                    return new X509CertificateObject(bcHelper, Certificate.getInstance(seq));
+                }
+            };
+        }
+        catch (Exception e)
+        {
+            throw new ExCertificateException("parsing issue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the CRLs in the given file, which is memory mapped rather than read. The
+     * file may contain anything {@link #engineGenerateCRLs(InputStream)} accepts.
+     * <p>
+     * The file is only scanned for the boundaries of the CRLs here. Each CRL is decoded when it is fetched from
+     * the list, and is not retained by it. The revoked certificate entries of a DER CRL stay in the mapped file
+     * and are decoded one at a time as they are looked up, so even very large CRLs take little memory, unless
+     * the whole set of entries is asked for (or the CRL's encoding, hash code or equality is). A CRL that fails
+     * to decode causes an IllegalStateException, wrapping the original exception, from the list's get method.
+     * The file should not be modified while the list is in use.
+     * </p>
+     *
+     * @param file the file to load the CRLs from.
+     * @return a list of X509CRL.
+     */
+    public List engineGenerateCRLs(File file)
+        throws CRLException
+    {
+        try
+        {
+            return engineGenerateCRLs(mapFile(file));
+        }
+        catch (IOException e)
+        {
+            throw new ExtCRLException("unable to map file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a read-only list view of the CRLs in the given buffer, from its position to its limit. As for
+     * {@link #engineGenerateCRLs(File)}, but the buffer may be anything the caller wants. The buffer's position
+     * is not changed, and its contents should not be modified while the list is in use.
+     *
+     * @param encoding a buffer containing the CRLs.
+     * @return a list of X509CRL.
+     */
+    public List engineGenerateCRLs(ByteBuffer encoding)
+        throws CRLException
+    {
+        try
+        {
+            return new EncodedObjectList(encoding, "CRL", 1)
+            {
+                Object createObject(ASN1Sequence seq, ByteBuffer encoding)
+                    throws Exception
+                {
+                    // NOTE: The CRL's entry index refers into the encoding, so the entries stay in the buffer
+                    return new X509CRLObject(bcHelper, CertificateList.getInstance(seq), encoding);
+                }
+            };
+        }
+        catch (Exception e)
+        {
+            throw new ExtCRLException("parsing issue: " + e.getMessage(), e);
+        }
+    }
+
+    private static ByteBuffer mapFile(File file)
+        throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("file too large to map: " + size + " bytes");
+            }
+
+            // the mapping remains valid after the file is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
     public Iterator engineGetCertPathEncodings()
     {
         return PKIXCertPath.certPathEncodings.iterator();
@@ -0,0 +1,458 @@
+package org.bouncycastle.jcajce.provider.asymmetric.x509;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.ASN1Set;
+import org.bouncycastle.asn1.ASN1TaggedObject;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.SignedData;
+import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Base64;
+import org.bouncycastle.util.encoders.Hex;
+
+/**
+ * A read-only list of the certificates (or CRLs) in a buffer, typically a memory mapped file. Building the list
+ * takes a single pass over the buffer that only records where each entry is; nothing is decoded until an entry
+ * is accessed, and each access decodes the entry again, so the objects are never all held at once.
+ * <p>
+ * The buffer may hold a series of DER encodings, PEM blocks, or PKCS#7 SignedData structures (DER or PEM), whose
+ * certificates (or CRLs) become entries of the list. DER entries are decoded in place from the buffer, with
+ * large values shared with it rather than copied. The end of an indefinite-length (BER) structure can only be found
+ * by parsing it, so those are decoded while the list is built, and their entries kept as DER encodings.
+ * </p>
+ */
+abstract class EncodedObjectList
+    extends AbstractList
+{
+    private static final byte[] SIGNED_DATA_OID = Hex.decode("06092a864886f70d010702");
+
+    private static final int SEQUENCE = 0x30;
+    private static final int CONTEXT_CONSTRUCTED = 0xA0;
+
+    private final List entries = new ArrayList();
+    private final BitSet base64Entries = new BitSet();
+
+    private final byte[][] headers;
+    private final byte[][] footers;
+    private final int pkcs7Tag;
+
+    /**
+     * @param buffer the buffer to index, from its position to its limit; the buffer itself is not modified.
+     * @param pemType the PEM type of the entries (as for {@link PEMUtil}).
+     * @param pkcs7Tag the tag number of the SignedData field holding the entries.
+     */
+    EncodedObjectList(ByteBuffer buffer, String pemType, int pkcs7Tag)
+        throws IOException
+    {
+        String[] types = new String[]{ pemType, "X509 " + pemType, "PKCS7" };
+
+        this.headers = new byte[types.length][];
+        this.footers = new byte[types.length][];
+        for (int i = 0; i != types.length; i++)
+        {
+            headers[i] = Strings.toByteArray("-----BEGIN " + types[i] + "-----");
+            footers[i] = Strings.toByteArray("-----END " + types[i] + "-----");
+        }
+        this.pkcs7Tag = CONTEXT_CONSTRUCTED | pkcs7Tag;
+
+        index(buffer.slice());
+    }
+
+    /**
+     * Create the object for an entry.
+     *
+     * @param seq the (lazily decoded) entry.
+     * @param encoding the DER encoding seq was decoded from, or null if the entry was not held as DER.
+     * @return the certificate or CRL.
+     */
+    abstract Object createObject(ASN1Sequence seq, ByteBuffer encoding)
+        throws Exception;
+
+    public Object get(int index)
+    {
+        ByteBuffer entry = (ByteBuffer)entries.get(index);
+
+        try
+        {
+            if (base64Entries.get(index))
+            {
+                ASN1InputStream aIn = new ASN1InputStream(Base64.decode(toByteArray(entry)), true);
+
+                return createObject(ASN1Sequence.getInstance(aIn.readObject()), null);
+            }
+
+            ASN1InputStream aIn = new ASN1InputStream(entry, true);
+
+            return createObject(ASN1Sequence.getInstance(aIn.readObject()), entry);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("unable to decode entry " + index + ": " + e.getMessage(), e);
+        }
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    private void index(ByteBuffer buf)
+        throws IOException
+    {
+        int pos = 0, end = buf.limit();
+        boolean isFirst = true;
+        while (pos < end)
+        {
+            if ((buf.get(pos) & 0xFF) == SEQUENCE)
+            {
+                pos = indexDER(buf, pos, end);
+            }
+            else
+            {
+                pos = indexPEM(buf, pos, end);
+                if (pos < 0)
+                {
+                    // if we do read some structures we'll accept them even if junk at end of file
+                    if (isFirst)
+                    {
+                        throw new IOException("malformed PEM data: no header found");
+                    }
+                    break;
+                }
+            }
+            isFirst = false;
+        }
+    }
+
+    /*
+     * Index the DER encoded entry, or PKCS#7 SignedData, at pos, returning the position following it.
+     */
+    private int indexDER(ByteBuffer buf, int pos, int end)
+        throws IOException
+    {
+        if (end - pos > 1 && (buf.get(pos + 1) & 0xFF) == 0x80)
+        {
+            return indexBER(buf, pos, end);
+        }
+
+        Header h = new Header(buf, pos, end);
+        if (!isSignedData(buf, h.contentsOff, h.contentsEnd))
+        {
+            addEntry(slice(buf, pos, h.contentsEnd), false);
+            return h.contentsEnd;
+        }
+
+        // ContentInfo ::= SEQUENCE { contentType, [0] EXPLICIT SignedData }
+        Header content = new Header(buf, h.contentsOff + SIGNED_DATA_OID.length, h.contentsEnd);
+        if (content.tag != CONTEXT_CONSTRUCTED)
+        {
+            throw new IOException("malformed PKCS#7 content");
+        }
+
+        // SignedData ::= SEQUENCE { version, digestAlgorithms, encapContentInfo, [0] certificates, [1] crls, ... }
+        Header signedData = new Header(buf, content.contentsOff, content.contentsEnd);
+        if (signedData.tag != SEQUENCE)
+        {
+            throw new IOException("malformed PKCS#7 SignedData");
+        }
+
+        int sdPos = signedData.contentsOff;
+        for (int i = 0; i < 3; ++i)
+        {
+            sdPos = new Header(buf, sdPos, signedData.contentsEnd).contentsEnd;
+        }
+
+        while (sdPos < signedData.contentsEnd)
+        {
+            Header field = new Header(buf, sdPos, signedData.contentsEnd);
+            if (field.tag == pkcs7Tag)
+            {
+                int elementPos = field.contentsOff;
+                while (elementPos < field.contentsEnd)
+                {
+                    Header element = new Header(buf, elementPos, field.contentsEnd);
+                    if (element.tag == SEQUENCE)
+                    {
+                        addEntry(slice(buf, elementPos, element.contentsEnd), false);
+                    }
+                    elementPos = element.contentsEnd;
+                }
+            }
+            sdPos = field.contentsEnd;
+        }
+
+        return h.contentsEnd;
+    }
+
+    /*
+     * Decode the indefinite-length entry, or PKCS#7 SignedData, at pos, returning the position following it.
+     */
+    private int indexBER(ByteBuffer buf, int pos, int end)
+        throws IOException
+    {
+        ByteBuffer input = slice(buf, pos, end);
+        ASN1Sequence seq = ASN1Sequence.getInstance(new ASN1InputStream(new BufferInputStream(input)).readObject());
+
+        if (seq.size() > 1 && PKCSObjectIdentifiers.signedData.equals(seq.getObjectAt(0)))
+        {
+            SignedData signedData = SignedData.getInstance(
+                ASN1Sequence.getInstance((ASN1TaggedObject)seq.getObjectAt(1), true));
+            ASN1Set set = (pkcs7Tag == CONTEXT_CONSTRUCTED) ? signedData.getCertificates() : signedData.getCRLs();
+            if (set != null)
+            {
+                for (int i = 0; i != set.size(); i++)
+                {
+                    ASN1Encodable element = set.getObjectAt(i);
+                    if (element instanceof ASN1Sequence)
+                    {
+                        addEntry(ByteBuffer.wrap(((ASN1Sequence)element).getEncoded(ASN1Encoding.DER)), false);
+                    }
+                }
+            }
+        }
+        else
+        {
+            addEntry(ByteBuffer.wrap(seq.getEncoded(ASN1Encoding.DER)), false);
+        }
+
+        return pos + input.position();
+    }
+
+    /*
+     * Index the next PEM block of one of our types at or after pos, returning the position following it, or -1 if
+     * there isn't one.
+     */
+    private int indexPEM(ByteBuffer buf, int pos, int end)
+        throws IOException
+    {
+        int type = -1, bodyStart = -1;
+
+        while (pos < end)
+        {
+            int lineEnd = pos;
+            while (lineEnd < end && buf.get(lineEnd) != '\r' && buf.get(lineEnd) != '\n')
+            {
+                ++lineEnd;
+            }
+
+            int lineType = findBoundary(buf, pos, lineEnd, headers);
+            if (type < 0)
+            {
+                if (lineType >= 0)
+                {
+                    type = lineType;
+                    bodyStart = lineEnd;
+                }
+                else if (findBoundary(buf, pos, lineEnd, footers) >= 0)
+                {
+                    throw new IOException("malformed PEM data: found footer where header was expected");
+                }
+            }
+            else if (lineType >= 0)
+            {
+                throw new IOException("malformed PEM data: header/footer mismatch");
+            }
+            else
+            {
+                int footerType = findBoundary(buf, pos, lineEnd, footers);
+                if (footerType >= 0)
+                {
+                    if (footerType != type)
+                    {
+                        throw new IOException("malformed PEM data: header/footer mismatch");
+                    }
+
+                    ByteBuffer body = slice(buf, bodyStart, pos);
+                    if (type == headers.length - 1)
+                    {
+                        // PKCS7 - the entries are the certificates (or CRLs) in it
+                        ByteBuffer pkcs7 = ByteBuffer.wrap(Base64.decode(toByteArray(body)));
+                        indexDER(pkcs7, 0, pkcs7.limit());
+                    }
+                    else if (!isBlank(body))
+                    {
+                        addEntry(body, true);
+                    }
+                    return lineEnd;
+                }
+            }
+
+            pos = lineEnd + 1;
+        }
+
+        if (type >= 0)
+        {
+            throw new IOException("malformed PEM data: no footer found");
+        }
+
+        return -1;
+    }
+
+    private void addEntry(ByteBuffer entry, boolean base64)
+    {
+        if (base64)
+        {
+            base64Entries.set(entries.size());
+        }
+        entries.add(entry);
+    }
+
+    private static int findBoundary(ByteBuffer buf, int pos, int end, byte[][] boundaries)
+    {
+        for (int i = 0; i != boundaries.length; i++)
+        {
+            if (startsWith(buf, pos, end, boundaries[i]))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer buf)
+    {
+        for (int i = buf.position(); i < buf.limit(); i++)
+        {
+            if (buf.get(i) > ' ')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSignedData(ByteBuffer buf, int pos, int end)
+    {
+        return startsWith(buf, pos, end, SIGNED_DATA_OID);
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int pos, int end, byte[] prefix)
+    {
+        if (end - pos < prefix.length)
+        {
+            return false;
+        }
+        for (int i = 0; i != prefix.length; i++)
+        {
+            if (buf.get(pos + i) != prefix[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buf, int start, int end)
+    {
+        ByteBuffer dup = buf.duplicate();
+        dup.limit(end);
+        dup.position(start);
+        return dup.slice();
+    }
+
+    private static byte[] toByteArray(ByteBuffer buf)
+    {
+        byte[] bytes = new byte[buf.remaining()];
+        buf.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static class BufferInputStream
+        extends InputStream
+    {
+        private final ByteBuffer buf;
+
+        BufferInputStream(ByteBuffer buf)
+        {
+            this.buf = buf;
+        }
+
+        public int read()
+        {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        public int read(byte[] b, int off, int len)
+        {
+            if (len < 1)
+            {
+                return 0;
+            }
+            if (!buf.hasRemaining())
+            {
+                return -1;
+            }
+
+            int count = Math.min(len, buf.remaining());
+            buf.get(b, off, count);
+            return count;
+        }
+    }
+
+    /**
+     * The identifier and length octets of a definite length DER element.
+     */
+    static class Header
+    {
+        final int tag;
+        final int contentsOff;
+        final int contentsEnd;
+
+        Header(ByteBuffer buf, int pos, int end)
+            throws IOException
+        {
+            if (end - pos < 2)
+            {
+                throw new IOException("EOF found inside tag value.");
+            }
+
+            this.tag = buf.get(pos++) & 0xFF;
+            if ((tag & 0x1F) == 0x1F)
+            {
+                throw new IOException("unexpected high tag number in bulk input");
+            }
+
+            int length = buf.get(pos++) & 0xFF;
+            if (length > 127)
+            {
+                int size = length & 0x7F;
+                if (size == 0)
+                {
+                    throw new IOException("indefinite-length encoding not supported in bulk input");
+                }
+                if (size > 4 || end - pos < size)
+                {
+                    throw new IOException("invalid length in bulk input");
+                }
+
+                length = 0;
+                while (size-- > 0)
+                {
+                    length = (length << 8) | (buf.get(pos++) & 0xFF);
+                }
+                if (length < 0)
+                {
+                    throw new IOException("corrupted stream - negative length found");
+                }
+            }
+
+            if (length > end - pos)
+            {
+                throw new IOException("corrupted stream - out of bounds length found: " + length + " > " + (end - pos));
+            }
+
+            this.contentsOff = pos;
+            this.contentsEnd = pos + length;
+        }
+    }
+}
@@ -4,6 +4,7 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -74,6 +75,9 @@
     protected byte[] sigAlgParams;
     protected boolean isIndirect;
 
+    private final Object entryIndexLock = new Object();
+    private CRLEntryIndex entryIndex;
+
     X509CRLImpl(JcaJceHelper bcHelper, CertificateList c, String sigAlgName, byte[] sigAlgParams, boolean isIndirect)
     {
         this.bcHelper = bcHelper;
@@ -444,30 +448,15 @@ private Set loadCRLEntries()
 
     public X509CRLEntry getRevokedCertificate(BigInteger serialNumber)
     {
-        Enumeration certs = c.getRevokedCertificateEnumeration();
+        CRLEntryIndex index = getEntryIndex();
 
-        X500Name previousCertificateIssuer = null; // the issuer
-        while (certs.hasMoreElements())
+        int entry = index.find(serialNumber);
+        if (entry < 0)
         {
-            TBSCertList.CRLEntry entry = (TBSCertList.CRLEntry)certs.nextElement();
-
-            if (entry.getUserCertificate().hasValue(serialNumber))
-            {
-                return new X509CRLEntryObject(entry, isIndirect, previousCertificateIssuer);
-            }
-
-            if (isIndirect && entry.hasExtensions())
-            {
-                Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
-
-                if (currentCaName != null)
-                {
-                    previousCertificateIssuer = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                }
-            }
+            return null;
         }
 
-        return null;
+        return new X509CRLEntryObject(index.getEntry(entry), isIndirect, index.getPreviousCertificateIssuer(entry));
     }
 
     public Set getRevokedCertificates()
@@ -641,59 +630,98 @@ public boolean isRevoked(Certificate cert)
             throw new IllegalArgumentException("X.509 CRL used with non X.509 Cert");
         }
 
-        Enumeration certs = c.getRevokedCertificateEnumeration();
+        CRLEntryIndex index = getEntryIndex();
 
-        X500Name caName = c.getIssuer();
+        BigInteger serial = ((X509Certificate)cert).getSerialNumber();
 
-        if (certs.hasMoreElements())
+        int position = index.find(serial);
+        if (position < 0)
         {
-            BigInteger serial = ((X509Certificate)cert).getSerialNumber();
+            return false;
+        }
 
-            while (certs.hasMoreElements())
-            {
-                TBSCertList.CRLEntry entry = TBSCertList.CRLEntry.getInstance(certs.nextElement());
+        TBSCertList.CRLEntry entry = index.getEntry(position);
 
-                if (isIndirect && entry.hasExtensions())
-                {
-                    Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+        X500Name caName = null;
+        if (isIndirect)
+        {
+            caName = CRLEntryIndex.getCertificateIssuer(entry);
+            if (caName == null)
+            {
+                caName = index.getPreviousCertificateIssuer(position);
+            }
+        }
+        if (caName == null)
+        {
+            caName = c.getIssuer();
+        }
 
-                    if (currentCaName != null)
-                    {
-                        caName = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                    }
-                }
+        X500Name issuer;
 
-                if (entry.getUserCertificate().hasValue(serial))
-                {
-                    X500Name issuer;
+        if (cert instanceof X509Certificate)
+        {
+            issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
+        }
+        else
+        {
+            try
+            {
+                issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
+            }
+            catch (CertificateEncodingException e)
+            {
+                throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
+            }
+        }
 
-                    if (cert instanceof X509Certificate)
-                    {
-                        issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
-                    }
-                    else
-                    {
-                        try
-                        {
-                            issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
-                        }
-                        catch (CertificateEncodingException e)
-                        {
-                            throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
-                        }
-                    }
+        return caName.equals(issuer);
+    }
 
-                    if (!caName.equals(issuer))
-                    {
-                        return false;
-                    }
+    /**
+     * Return the DER encoding of the CRL, for the entry index to refer into.
+     */
+    ByteBuffer getEncodingBuffer()
+        throws CRLException
+    {
+        return ByteBuffer.wrap(getEncoded());
+    }
 
-                    return true;
-                }
+    /**
+     * Return the index of the revoked certificates, which is built the first time it is needed.
+     */
+    private CRLEntryIndex getEntryIndex()
+    {
+        synchronized (entryIndexLock)
+        {
+            if (null != entryIndex)
+            {
+                return entryIndex;
             }
         }
 
-        return false;
+        CRLEntryIndex temp;
+        try
+        {
+            temp = new CRLEntryIndex(getEncodingBuffer(), isIndirect);
+        }
+        catch (CRLException e)
+        {
+            throw new IllegalStateException("unable to index CRL entries: " + e.getMessage());
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("unable to index CRL entries: " + e.getMessage());
+        }
+
+        synchronized (entryIndexLock)
+        {
+            if (null == entryIndex)
+            {
+                entryIndex = temp;
+            }
+
+            return entryIndex;
+        }
     }
 
     protected static byte[] getExtensionOctets(CertificateList c, String oid)
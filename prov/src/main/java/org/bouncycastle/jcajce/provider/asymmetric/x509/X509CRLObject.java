@@ -1,6 +1,7 @@
 package org.bouncycastle.jcajce.provider.asymmetric.x509;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.security.cert.CRLException;
 
 import org.bouncycastle.asn1.ASN1BitString;
@@ -21,9 +22,31 @@
     private volatile boolean    hashValueSet;
     private volatile int        hashValue;
 
+    private final ByteBuffer encodingBuffer;
+
     X509CRLObject(JcaJceHelper bcHelper, CertificateList c) throws CRLException
+    {
+        this(bcHelper, c, null);
+    }
+
+    /**
+     * @param encodingBuffer the DER encoding c was decoded from, or null if it isn't available.
+     */
+    X509CRLObject(JcaJceHelper bcHelper, CertificateList c, ByteBuffer encodingBuffer) throws CRLException
     {
         super(bcHelper, c, createSigAlgName(c), createSigAlgParams(c), isIndirectCRL(c));
+
+        this.encodingBuffer = encodingBuffer;
+    }
+
+    ByteBuffer getEncodingBuffer() throws CRLException
+    {
+        if (null != encodingBuffer)
+        {
+            return encodingBuffer.duplicate();
+        }
+
+        return ByteBuffer.wrap(getInternalCRL().getEncoded());
     }
 
     public byte[] getEncoded() throws CRLException
@@ -29,12 +29,19 @@
 import java.security.interfaces.RSAKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -48,7 +55,9 @@
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Integer;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.DERNull;
 import org.bouncycastle.asn1.bc.EncryptedObjectStoreData;
 import org.bouncycastle.asn1.bc.EncryptedPrivateKeyData;
@@ -58,6 +67,8 @@
 import org.bouncycastle.asn1.bc.ObjectStore;
 import org.bouncycastle.asn1.bc.ObjectStoreData;
 import org.bouncycastle.asn1.bc.ObjectStoreIntegrityCheck;
+import org.bouncycastle.asn1.bc.ObjectStoreJournalRecord;
+import org.bouncycastle.asn1.bc.ObjectStoreUpdate;
 import org.bouncycastle.asn1.bc.PbkdMacIntegrityCheck;
 import org.bouncycastle.asn1.bc.SecretKeyData;
 import org.bouncycastle.asn1.bc.SignatureCheck;
@@ -85,10 +96,12 @@
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
 import org.bouncycastle.crypto.generators.SCrypt;
+import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.util.PBKDF2Config;
 import org.bouncycastle.crypto.util.PBKDFConfig;
 import org.bouncycastle.crypto.util.ScryptConfig;
+import org.bouncycastle.jcajce.BCFKSAppendStoreParameter;
 import org.bouncycastle.jcajce.BCFKSLoadStoreParameter;
 import org.bouncycastle.jcajce.BCFKSStoreParameter;
 import org.bouncycastle.jcajce.BCLoadStoreParameter;
@@ -99,7 +112,10 @@
 import org.bouncycastle.jcajce.util.JcaJceHelper;
 import org.bouncycastle.jce.interfaces.ECKey;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.Properties;
 import org.bouncycastle.util.Strings;
+import org.bouncycastle.util.encoders.Hex;
 
 class BcFKSKeyStoreSpi
     extends KeyStoreSpi
@@ -156,9 +172,14 @@ private static String getPublicKeyAlg(ASN1ObjectIdentifier oid)
     private final static BigInteger PROTECTED_PRIVATE_KEY = BigInteger.valueOf(3);
     private final static BigInteger PROTECTED_SECRET_KEY = BigInteger.valueOf(4);
 
+    private static final String DERIVED_KEY_CACHE_SIZE = "org.bouncycastle.bcfks.derived_key_cache_size";
+
     private final JcaJceHelper helper;
-    private final Map<String, ObjectData> entries = new HashMap<String, ObjectData>();
-    private final Map<String, PrivateKey> privateKeyCache = new HashMap<String, PrivateKey>();
+    private final Map<String, ObjectData> entries = new ConcurrentHashMap<String, ObjectData>();
+    private final Map<String, PrivateKey> privateKeyCache = new ConcurrentHashMap<String, PrivateKey>();
+    private final Map<String, byte[]> derivedKeyCache;
+    private final byte[] derivedKeySeed;
+    private final Set<String> changedAliases = new LinkedHashSet<String>();
 
     private AlgorithmIdentifier hmacAlgorithm;
     private KeyDerivationFunc hmacPkbdAlgorithm;
@@ -167,15 +188,46 @@ private static String getPublicKeyAlg(ASN1ObjectIdentifier oid)
     private Date lastModifiedDate;
     private ASN1ObjectIdentifier storeEncryptionAlgorithm = NISTObjectIdentifiers.id_aes256_CCM;
 
+    // journal state for appending changes to the last MAC protected store loaded or written.
+    private byte[] journalEncKey;
+    private byte[] journalMacKey;
+    private byte[] journalPasswordCheck;
+    private byte[] journalMac;
+    private BigInteger journalSeq;
+
     BcFKSKeyStoreSpi(JcaJceHelper helper)
     {
         this.helper = helper;
+
+        final int cacheSize = Properties.asInteger(DERIVED_KEY_CACHE_SIZE, 0);
+        if (cacheSize > 0)
+        {
+            this.derivedKeyCache = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true)
+            {
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest)
+                {
+                    if (size() > cacheSize)
+                    {
+                        Arrays.fill(eldest.getValue(), (byte)0);
+                        return true;
+                    }
+                    return false;
+                }
+            });
+            this.derivedKeySeed = new byte[32];
+            getDefaultSecureRandom().nextBytes(derivedKeySeed);
+        }
+        else
+        {
+            this.derivedKeyCache = null;
+            this.derivedKeySeed = null;
+        }
     }
 
     public Key engineGetKey(String alias, char[] password)
         throws NoSuchAlgorithmException, UnrecoverableKeyException
     {
-        ObjectData ent = (ObjectData)entries.get(alias);
+        ObjectData ent = getEntry(alias);
 
         if (ent != null)
         {
@@ -237,7 +289,7 @@ else if (ent.getType().equals(SECRET_KEY) || ent.getType().equals(PROTECTED_SECR
 
     public Certificate[] engineGetCertificateChain(String alias)
     {
-        ObjectData ent = (ObjectData)entries.get(alias);
+        ObjectData ent = getEntry(alias);
 
         if (ent != null)
         {
@@ -261,7 +313,7 @@ public Certificate[] engineGetCertificateChain(String alias)
 
     public Certificate engineGetCertificate(String s)
     {
-        ObjectData ent = (ObjectData)entries.get(s);
+        ObjectData ent = getEntry(s);
 
         if (ent != null)
         {
@@ -313,7 +365,7 @@ private Certificate decodeCertificate(Object cert)
 
     public Date engineGetCreationDate(String s)
     {
-        ObjectData ent = (ObjectData)entries.get(s);
+        ObjectData ent = getEntry(s);
 
         if (ent != null)
         {
@@ -337,7 +389,7 @@ public void engineSetKeyEntry(String alias, Key key, char[] password, Certificat
         Date creationDate = new Date();
         Date lastEditDate = creationDate;
 
-        ObjectData entry = (ObjectData)entries.get(alias);
+        ObjectData entry = getEntry(alias);
         if (entry != null)
         {
             creationDate = extractCreationDate(entry, creationDate);
@@ -473,6 +525,7 @@ else if (key instanceof SecretKey)
         }
 
         lastModifiedDate = lastEditDate;
+        changedAliases.add(alias);
     }
 
     private Cipher createCipher(String algorithm, byte[] keyBytes)
@@ -508,7 +561,7 @@ public void engineSetKeyEntry(String alias, byte[] keyBytes, Certificate[] chain
         Date creationDate = new Date();
         Date lastEditDate = creationDate;
 
-        ObjectData entry = (ObjectData)entries.get(alias);
+        ObjectData entry = getEntry(alias);
         if (entry != null)
         {
             creationDate = extractCreationDate(entry, creationDate);
@@ -550,12 +603,13 @@ public void engineSetKeyEntry(String alias, byte[] keyBytes, Certificate[] chain
         }
 
         lastModifiedDate = lastEditDate;
+        changedAliases.add(alias);
     }
 
     public void engineSetCertificateEntry(String alias, Certificate certificate)
         throws KeyStoreException
     {
-        ObjectData entry = (ObjectData)entries.get(alias);
+        ObjectData entry = getEntry(alias);
         Date creationDate = new Date();
         Date lastEditDate = creationDate;
 
@@ -579,6 +633,7 @@ public void engineSetCertificateEntry(String alias, Certificate certificate)
         }
 
         lastModifiedDate = lastEditDate;
+        changedAliases.add(alias);
     }
 
     private Date extractCreationDate(ObjectData entry, Date creationDate)
@@ -597,7 +652,7 @@ private Date extractCreationDate(ObjectData entry, Date creationDate)
     public void engineDeleteEntry(String alias)
         throws KeyStoreException
     {
-        ObjectData entry = (ObjectData)entries.get(alias);
+        ObjectData entry = getEntry(alias);
 
         if (entry == null)
         {
@@ -608,6 +663,7 @@ public void engineDeleteEntry(String alias)
         entries.remove(alias);
 
         lastModifiedDate = new Date();
+        changedAliases.add(alias);
     }
 
     public Enumeration<String> engineAliases()
@@ -645,7 +701,7 @@ public int engineSize()
 
     public boolean engineIsKeyEntry(String alias)
     {
-        ObjectData ent = (ObjectData)entries.get(alias);
+        ObjectData ent = getEntry(alias);
 
         if (ent != null)
         {
@@ -659,7 +715,7 @@ public boolean engineIsKeyEntry(String alias)
 
     public boolean engineIsCertificateEntry(String alias)
     {
-        ObjectData ent = (ObjectData)entries.get(alias);
+        ObjectData ent = getEntry(alias);
 
         if (ent != null)
         {
@@ -689,7 +745,13 @@ public String engineGetCertificateAlias(Certificate certificate)
         for (Iterator<String> it = entries.keySet().iterator(); it.hasNext(); )
         {
             String alias = (String)it.next();
-            ObjectData ent = (ObjectData)entries.get(alias);
+            ObjectData ent = getEntry(alias);
+
+            if (ent == null)
+            {
+                // deleted since we started
+                continue;
+            }
 
             if (ent.getType().equals(CERTIFICATE))
             {
@@ -718,6 +780,73 @@ else if (ent.getType().equals(PRIVATE_KEY) || ent.getType().equals(PROTECTED_PRI
         return null;
     }
 
+    private ObjectData getEntry(String alias)
+    {
+        return (alias == null) ? null : (ObjectData)entries.get(alias);
+    }
+
+    /**
+     * Return the cache index for a key for decrypting or checking store data, or null if the derived key cache is not
+     * enabled. The index is a MAC over the derivation parameters and the password, keyed by a per-instance random seed.
+     */
+    private String getDerivedKeyId(KeyDerivationFunc pbkdAlgorithm, String purpose, char[] password, int defKeySize)
+        throws IOException
+    {
+        if (derivedKeyCache == null)
+        {
+            return null;
+        }
+
+        HMac hMac = new HMac(new SHA512Digest());
+        hMac.init(new KeyParameter(derivedKeySeed));
+
+        byte[] params = Arrays.concatenate(pbkdAlgorithm.getEncoded(ASN1Encoding.DER), Strings.toUTF8ByteArray(purpose),
+            Pack.intToBigEndian(defKeySize), PBEParametersGenerator.PKCS12PasswordToBytes(password));
+        hMac.update(params, 0, params.length);
+        Arrays.fill(params, (byte)0);
+
+        byte[] mac = new byte[hMac.getMacSize()];
+        hMac.doFinal(mac, 0);
+
+        return Hex.toHexString(mac);
+    }
+
+    /**
+     * Return the key for decrypting or checking store data, from the derived key cache if it is there. A key which is
+     * not cached yet is only added by {@link #cacheDerivedKey(String, byte[])}, once it has been shown to be right.
+     */
+    private byte[] getDerivedKey(String id, KeyDerivationFunc pbkdAlgorithm, String purpose, char[] password, int defKeySize)
+        throws IOException
+    {
+        if (id != null)
+        {
+            byte[] key = (byte[])derivedKeyCache.get(id);
+            if (key != null)
+            {
+                // the cached key is never handed out, just copies of it.
+                return Arrays.clone(key);
+            }
+        }
+
+        return generateKey(pbkdAlgorithm, purpose, password, defKeySize);
+    }
+
+    /**
+     * Add a key which has successfully checked, or decrypted, store data to the derived key cache, so keys derived from
+     * wrong passwords never take the place of good ones.
+     */
+    private void cacheDerivedKey(String id, byte[] key)
+    {
+        if (id != null)
+        {
+            byte[] previous = (byte[])derivedKeyCache.put(id, Arrays.clone(key));
+            if (previous != null)
+            {
+                Arrays.fill(previous, (byte)0);
+            }
+        }
+    }
+
     private byte[] generateKey(KeyDerivationFunc pbkdAlgorithm, String purpose, char[] password, int defKeySize)
         throws IOException
     {
@@ -797,10 +926,10 @@ private void verifySig(ASN1Encodable store, SignatureCheck integrityCheck, Publi
         }
     }
 
-    private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, char[] password)
+    private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, byte[] macKey)
         throws NoSuchAlgorithmException, IOException, NoSuchProviderException
     {
-        byte[] check = calculateMac(content, integrityCheck.getMacAlgorithm(), integrityCheck.getPbkdAlgorithm(), password);
+        byte[] check = calculateMac(content, integrityCheck.getMacAlgorithm(), macKey);
 
         if (!Arrays.constantTimeAreEqual(check, integrityCheck.getMac()))
         {
@@ -808,7 +937,20 @@ private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, cha
         }
     }
 
-    private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDerivationFunc pbkdAlgorithm, char[] password)
+    private String getMacKeyId(KeyDerivationFunc pbkdAlgorithm, char[] password)
+        throws IOException
+    {
+        // no default key size for MAC.
+        return getDerivedKeyId(pbkdAlgorithm, "INTEGRITY_CHECK", ((password != null) ? password : new char[0]), -1);
+    }
+
+    private byte[] getMacKey(String id, KeyDerivationFunc pbkdAlgorithm, char[] password)
+        throws IOException
+    {
+        return getDerivedKey(id, pbkdAlgorithm, "INTEGRITY_CHECK", ((password != null) ? password : new char[0]), -1);
+    }
+
+    private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, byte[] macKey)
         throws NoSuchAlgorithmException, IOException, NoSuchProviderException
     {
         String algorithmId = algorithm.getAlgorithm().getId();
@@ -817,8 +959,7 @@ private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDe
 
         try
         {
-            // no default key size for MAC.
-            mac.init(new SecretKeySpec(generateKey(pbkdAlgorithm, "INTEGRITY_CHECK", ((password != null) ? password : new char[0]), -1), algorithmId));
+            mac.init(new SecretKeySpec(macKey, algorithmId));
         }
         catch (InvalidKeyException e)
         {
@@ -828,6 +969,199 @@ private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDe
         return mac.doFinal(content);
     }
 
+    /**
+     * Set up the journal for appending to a store with the passed in MAC. The journal keys are derived from the
+     * store's MAC key, so appending records does not require running the store's PBKDF again.
+     */
+    private void initJournal(byte[] macKey, byte[] storeMac, char[] password)
+        throws NoSuchAlgorithmException, IOException, NoSuchProviderException
+    {
+        journalEncKey = Arrays.copyOfRange(calculateMac(Strings.toByteArray("JOURNAL_ENCRYPTION"), hmacAlgorithm, macKey), 0, 256 / 8);
+        journalMacKey = calculateMac(Strings.toByteArray("JOURNAL_INTEGRITY"), hmacAlgorithm, macKey);
+        journalPasswordCheck = calculateJournalPasswordCheck(password);
+        journalMac = storeMac;
+        journalSeq = BigInteger.ZERO;
+
+        changedAliases.clear();
+    }
+
+    private void clearJournal()
+    {
+        if (journalEncKey != null)
+        {
+            Arrays.fill(journalEncKey, (byte)0);
+            Arrays.fill(journalMacKey, (byte)0);
+        }
+
+        journalEncKey = null;
+        journalMacKey = null;
+        journalPasswordCheck = null;
+        journalMac = null;
+        journalSeq = null;
+
+        changedAliases.clear();
+    }
+
+    private byte[] calculateJournalPasswordCheck(char[] password)
+        throws NoSuchAlgorithmException, IOException, NoSuchProviderException
+    {
+        return calculateMac(PBEParametersGenerator.PKCS12PasswordToBytes((password != null) ? password : new char[0]), hmacAlgorithm, journalMacKey);
+    }
+
+    private byte[] calculateJournalMac(byte[] previousMac, BigInteger seqNumber, EncryptedObjectStoreData encryptedUpdate)
+        throws NoSuchAlgorithmException, IOException, NoSuchProviderException
+    {
+        // each record's MAC covers the MAC before it, chaining the records back to the store they follow.
+        return calculateMac(Arrays.concatenate(previousMac, new ASN1Integer(seqNumber).getEncoded(ASN1Encoding.DER),
+            encryptedUpdate.getEncoded(ASN1Encoding.DER)), hmacAlgorithm, journalMacKey);
+    }
+
+    /**
+     * Write the entries added, replaced, or deleted since the last load or store as a journal record.
+     */
+    private void appendStore(OutputStream outputStream, char[] password)
+        throws IOException, NoSuchAlgorithmException
+    {
+        if (journalMac == null)
+        {
+            throw new IOException("BCFKS KeyStore can only append to a loaded or stored MAC protected key store");
+        }
+
+        try
+        {
+            if (!Arrays.constantTimeAreEqual(journalPasswordCheck, calculateJournalPasswordCheck(password)))
+            {
+                throw new IOException("BCFKS KeyStore append password does not match key store password");
+            }
+
+            if (changedAliases.isEmpty())
+            {
+                return;
+            }
+
+            List<ObjectData> updated = new ArrayList<ObjectData>();
+            List<String> deleted = new ArrayList<String>();
+            for (Iterator<String> it = changedAliases.iterator(); it.hasNext();)
+            {
+                String alias = it.next();
+                ObjectData entry = getEntry(alias);
+
+                if (entry != null)
+                {
+                    updated.add(entry);
+                }
+                else
+                {
+                    deleted.add(alias);
+                }
+            }
+
+            ObjectStoreUpdate update = new ObjectStoreUpdate(lastModifiedDate,
+                new ObjectDataSequence((ObjectData[])updated.toArray(new ObjectData[updated.size()])), (String[])deleted.toArray(new String[deleted.size()]));
+
+            Cipher c = createCipher("AES/CCM/NoPadding", journalEncKey);
+
+            byte[] encOut = c.doFinal(update.getEncoded());
+
+            EncryptedObjectStoreData encUpdate = new EncryptedObjectStoreData(new AlgorithmIdentifier(NISTObjectIdentifiers.id_aes256_CCM,
+                CCMParameters.getInstance(c.getParameters().getEncoded())), encOut);
+
+            BigInteger seqNumber = journalSeq.add(BigInteger.ONE);
+            byte[] mac = calculateJournalMac(journalMac, seqNumber, encUpdate);
+
+            outputStream.write(new ObjectStoreJournalRecord(seqNumber, encUpdate, mac).getEncoded());
+
+            outputStream.flush();
+
+            journalMac = mac;
+            journalSeq = seqNumber;
+            changedAliases.clear();
+        }
+        catch (NoSuchPaddingException e)
+        {
+            throw new NoSuchAlgorithmException(e.toString());
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new IOException(e.toString());
+        }
+    }
+
+    /**
+     * Apply any journal records following the store data, checking each is the next in the chain.
+     */
+    private void loadJournal(ASN1InputStream aIn)
+        throws IOException
+    {
+        ASN1Primitive obj;
+        while ((obj = aIn.readObject()) != null)
+        {
+            if (journalMac == null)
+            {
+                throw new IOException("BCFKS KeyStore journal records found following a key store without MAC protection");
+            }
+
+            try
+            {
+                ObjectStoreJournalRecord record = ObjectStoreJournalRecord.getInstance(obj);
+                BigInteger seqNumber = journalSeq.add(BigInteger.ONE);
+
+                if (!seqNumber.equals(record.getSequenceNumber()))
+                {
+                    throw new IOException("BCFKS KeyStore corrupted: journal record out of sequence");
+                }
+
+                EncryptedObjectStoreData encUpdate = record.getEncryptedUpdate();
+                byte[] mac = calculateJournalMac(journalMac, seqNumber, encUpdate);
+
+                if (!Arrays.constantTimeAreEqual(mac, record.getMac()))
+                {
+                    throw new IOException("BCFKS KeyStore corrupted: journal record MAC calculation failed");
+                }
+
+                AlgorithmIdentifier encAlg = encUpdate.getEncryptionAlgorithm();
+                if (!encAlg.getAlgorithm().equals(NISTObjectIdentifiers.id_aes256_CCM))
+                {
+                    throw new IOException("BCFKS KeyStore cannot recognize journal encryption algorithm.");
+                }
+
+                AlgorithmParameters algParams = helper.createAlgorithmParameters("CCM");
+                algParams.init(CCMParameters.getInstance(encAlg.getParameters()).getEncoded());
+
+                Cipher c = helper.createCipher("AES/CCM/NoPadding");
+                c.init(Cipher.DECRYPT_MODE, new SecretKeySpec(journalEncKey, "AES"), algParams);
+
+                ObjectStoreUpdate update = ObjectStoreUpdate.getInstance(c.doFinal(encUpdate.getEncryptedContent().getOctets()));
+
+                for (Iterator it = update.getUpdatedObjects().iterator(); it.hasNext(); )
+                {
+                    ObjectData objData = ObjectData.getInstance(it.next());
+
+                    entries.put(objData.getIdentifier(), objData);
+                }
+
+                String[] deleted = update.getDeletedObjects();
+                for (int i = 0; i != deleted.length; i++)
+                {
+                    entries.remove(deleted[i]);
+                }
+
+                lastModifiedDate = update.getLastModifiedDate().getDate();
+
+                journalMac = mac;
+                journalSeq = seqNumber;
+            }
+            catch (IOException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new IOException("BCFKS KeyStore unable to process journal record: " + e.toString());
+            }
+        }
+    }
+
     public void engineStore(KeyStore.LoadStoreParameter parameter)
         throws CertificateException, NoSuchAlgorithmException, IOException
     {
@@ -836,7 +1170,13 @@ public void engineStore(KeyStore.LoadStoreParameter parameter)
             throw new IllegalArgumentException("'parameter' arg cannot be null");
         }
 
-        if (parameter instanceof BCFKSStoreParameter)
+        if (parameter instanceof BCFKSAppendStoreParameter)
+        {
+            BCFKSAppendStoreParameter bcParam = (BCFKSAppendStoreParameter)parameter;
+
+            appendStore(bcParam.getOutputStream(), ParameterUtil.extractPassword(parameter));
+        }
+        else if (parameter instanceof BCFKSStoreParameter)
         {
             BCFKSStoreParameter bcParam = (BCFKSStoreParameter)parameter;
 
@@ -907,6 +1247,9 @@ else if (parameter instanceof BCFKSLoadStoreParameter)
                     bcParam.getOutputStream().write(store.getEncoded());
 
                     bcParam.getOutputStream().flush();
+
+                    // signature protected stores cannot be appended to.
+                    clearJournal();
                 }
                 catch (GeneralSecurityException e)
                 {
@@ -977,10 +1320,13 @@ public void engineStore(OutputStream outputStream, char[] password)
 
             hmacPkbdAlgorithm = generatePkbdAlgorithmIdentifier(hmacPkbdAlgorithm, pbkdf2Params.getKeyLength().intValue());
         }
+        String macKeyId = getMacKeyId(hmacPkbdAlgorithm, password);
+        byte[] macKey = getMacKey(macKeyId, hmacPkbdAlgorithm, password);
         byte[] mac;
         try
         {
-            mac = calculateMac(encStoreData.getEncoded(), hmacAlgorithm, hmacPkbdAlgorithm, password);
+            mac = calculateMac(encStoreData.getEncoded(), hmacAlgorithm, macKey);
+            cacheDerivedKey(macKeyId, macKey);
         }
         catch (NoSuchProviderException e)
         {
@@ -992,6 +1338,20 @@ public void engineStore(OutputStream outputStream, char[] password)
         outputStream.write(store.getEncoded());
 
         outputStream.flush();
+
+        // a full store leaves nothing pending, later changes can be appended to it.
+        try
+        {
+            initJournal(macKey, mac, password);
+        }
+        catch (NoSuchProviderException e)
+        {
+            throw new IOException("cannot calculate mac: " + e.getMessage());
+        }
+        finally
+        {
+            Arrays.fill(macKey, (byte)0);
+        }
     }
 
     private EncryptedObjectStoreData getEncryptedObjectStoreData(AlgorithmIdentifier integrityAlgorithm, char[] password)
@@ -1170,6 +1530,7 @@ public void engineLoad(InputStream inputStream, char[] password)
         // reset any current values
         entries.clear();
         privateKeyCache.clear();
+        clearJournal();
 
         lastModifiedDate = creationDate = null;
         hmacAlgorithm = null;
@@ -1213,14 +1574,23 @@ public void engineLoad(InputStream inputStream, char[] password)
 
             integrityAlg = hmacAlgorithm;
 
+            String macKeyId = getMacKeyId(hmacPkbdAlgorithm, password);
+            byte[] macKey = getMacKey(macKeyId, hmacPkbdAlgorithm, password);
             try
             {
-                verifyMac(store.getStoreData().toASN1Primitive().getEncoded(), pbkdMacIntegrityCheck, password);
+                verifyMac(store.getStoreData().toASN1Primitive().getEncoded(), pbkdMacIntegrityCheck, macKey);
+                cacheDerivedKey(macKeyId, macKey);
+
+                initJournal(macKey, pbkdMacIntegrityCheck.getMac(), password);
             }
             catch (NoSuchProviderException e)
             {
                 throw new IOException(e.getMessage());
             }
+            finally
+            {
+                Arrays.fill(macKey, (byte)0);
+            }
         }
         else if (integrityCheck.getType() == ObjectStoreIntegrityCheck.SIG_CHECK)
         {
@@ -1306,6 +1676,8 @@ else if (integrityCheck.getType() == ObjectStoreIntegrityCheck.SIG_CHECK)
 
             entries.put(objData.getIdentifier(), objData);
         }
+
+        loadJournal(aIn);
     }
 
     private byte[] decryptData(String purpose, AlgorithmIdentifier protectAlgId, char[] password, byte[] encryptedData)
@@ -1342,12 +1714,24 @@ else if (algId.getAlgorithm().equals(NISTObjectIdentifiers.id_aes256_wrap_pad))
                 throw new IOException("BCFKS KeyStore cannot recognize protection encryption algorithm.");
             }
 
-            byte[] keyBytes = generateKey(pbes2Parameters.getKeyDerivationFunc(), purpose, ((password != null) ? password : new char[0]), 32);
+            char[] pwd = (password != null) ? password : new char[0];
+            String keyId = getDerivedKeyId(pbes2Parameters.getKeyDerivationFunc(), purpose, pwd, 32);
+            byte[] keyBytes = getDerivedKey(keyId, pbes2Parameters.getKeyDerivationFunc(), purpose, pwd, 32);
+            try
+            {
+                c.init(Cipher.DECRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), algParams);
+
+                byte[] rv = c.doFinal(encryptedData);
 
-            c.init(Cipher.DECRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), algParams);
+                // all the protection algorithms authenticate the data, so the key is known to be right
+                cacheDerivedKey(keyId, keyBytes);
 
-            byte[] rv = c.doFinal(encryptedData);
-            return rv;
+                return rv;
+            }
+            finally
+            {
+                Arrays.fill(keyBytes, (byte)0);
+            }
         }
         catch (IOException e)
         {
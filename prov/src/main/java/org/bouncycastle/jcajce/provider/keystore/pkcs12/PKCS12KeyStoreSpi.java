@@ -121,6 +121,7 @@
     implements PKCSObjectIdentifiers, X509ObjectIdentifiers, BCKeyStore
 {
     static final String PKCS12_MAX_IT_COUNT_PROPERTY = "org.bouncycastle.pkcs12.max_it_count";
+    static final String PKCS12_LAZY_LOAD_PROPERTY = "org.bouncycastle.pkcs12.lazy_load";
 
     private final JcaJceHelper helper = new BCJcaJceHelper();
 
@@ -130,6 +131,7 @@
     private static final DefaultSecretKeyProvider keySizeProvider = new DefaultSecretKeyProvider();
 
     private IgnoresCaseHashtable keys = new IgnoresCaseHashtable();
+    private LoadPassword lazyLoadPassword;
     private IgnoresCaseHashtable localIds = new IgnoresCaseHashtable();
     private IgnoresCaseHashtable certs = new IgnoresCaseHashtable();
     private Hashtable chainCerts = new Hashtable();
@@ -302,7 +304,11 @@ public void engineDeleteEntry(
             chainCerts.remove(new CertId(cert.getPublicKey()));
         }
 
-        Key key = (Key)keys.remove(alias);
+        Object key = keys.remove(alias);
+        if (key instanceof EncryptedKeyEntry)
+        {
+            ((EncryptedKeyEntry)key).discard();
+        }
         if (key != null)
         {
             String id = (String)localIds.remove(alias);
@@ -507,7 +513,13 @@ public Key engineGetKey(
             throw new IllegalArgumentException("null alias passed to getKey.");
         }
 
-        return (Key)keys.get(alias);
+        Object key = keys.get(alias);
+        if (key instanceof EncryptedKeyEntry)
+        {
+            return ((EncryptedKeyEntry)key).getKey();
+        }
+
+        return (Key)key;
     }
 
     public boolean engineIsCertificateEntry(
@@ -824,6 +836,7 @@ public void engineLoad(
         Vector chain = new Vector();
         boolean unmarkedKey = false;
         boolean wrongPKCS12Zero = false;
+        boolean lazyLoad = Properties.isOverrideSet(PKCS12_LAZY_LOAD_PROPERTY);
 
         if (bag.getMacData() != null)           // check the mac code
         {
@@ -884,6 +897,13 @@ else if (password != null && password.length != 0)
         keys = new IgnoresCaseHashtable();
         localIds = new IgnoresCaseHashtable();
 
+        // any keys from a previous load still waiting to be decrypted are gone, so their password can go too
+        if (lazyLoadPassword != null)
+        {
+            lazyLoadPassword.clear();
+        }
+        lazyLoadPassword = lazyLoad ? new LoadPassword(password) : null;
+
         if (info.getContentType().equals(data))
         {
             ASN1OctetString content = ASN1OctetString.getInstance(info.getContent());
@@ -902,7 +922,7 @@ else if (password != null && password.length != 0)
                         SafeBag b = SafeBag.getInstance(seq.getObjectAt(j));
                         if (b.getBagId().equals(pkcs8ShroudedKeyBag))
                         {
-                            unmarkedKey = processShroudedKeyBag(b, password, wrongPKCS12Zero);
+                            unmarkedKey = processShroudedKeyBag(b, password, wrongPKCS12Zero, lazyLoad);
                         }
                         else if (b.getBagId().equals(certBag))
                         {
@@ -936,7 +956,7 @@ else if (c[i].getContentType().equals(encryptedData))
                         }
                         else if (b.getBagId().equals(pkcs8ShroudedKeyBag))
                         {
-                            unmarkedKey = processShroudedKeyBag(b, password, wrongPKCS12Zero);
+                            unmarkedKey = processShroudedKeyBag(b, password, wrongPKCS12Zero, lazyLoad);
                         }
                         else if (b.getBagId().equals(keyBag))
                         {
@@ -1085,17 +1105,22 @@ else if (oid.equals(pkcs_9_at_localKeyId))
                 }
             }
         }
+
+        // the load's own hold on the password, so it goes as soon as there are no keys left to decrypt
+        if (lazyLoadPassword != null)
+        {
+            lazyLoadPassword.removeEntry();
+        }
     }
 
-    private boolean processShroudedKeyBag(SafeBag b, char[] password, boolean wrongPKCS12Zero)
+    private boolean processShroudedKeyBag(SafeBag b, char[] password, boolean wrongPKCS12Zero, boolean lazyLoad)
         throws IOException
     {
-        org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo eIn = org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo.getInstance(b.getBagValue());
-        PrivateKey privKey = unwrapKey(eIn.getEncryptionAlgorithm(), eIn.getEncryptedData(), password, wrongPKCS12Zero);
-
         //
-        // set the attributes on the key
+        // in lazy mode the key is only decrypted, with the password the store was loaded with, when it is first asked for
         //
+        Object privKey = lazyLoad ? new EncryptedKeyEntry(b, lazyLoadPassword, wrongPKCS12Zero) : unwrapShroudedKey(b, password, wrongPKCS12Zero);
+
         String alias = null;
         ASN1OctetString localId = null;
 
@@ -1112,25 +1137,6 @@ private boolean processShroudedKeyBag(SafeBag b, char[] password, boolean wrongP
                 if (attrSet.size() > 0)
                 {
                     attr = (ASN1Primitive)attrSet.getObjectAt(0);
-
-                    if (privKey instanceof PKCS12BagAttributeCarrier)
-                    {
-                        PKCS12BagAttributeCarrier bagAttr = (PKCS12BagAttributeCarrier)privKey;
-                        ASN1Encodable existing = bagAttr.getBagAttribute(aOid);
-                        if (existing != null)
-                        {
-                            // OK, but the value has to be the same
-                            if (!existing.toASN1Primitive().equals(attr))
-                            {
-                                throw new IOException(
-                                    "attempt to add existing attribute with different value");
-                            }
-                        }
-                        else
-                        {
-                            bagAttr.setBagAttribute(aOid, attr);
-                        }
-                    }
                 }
 
                 if (aOid.equals(pkcs_9_at_friendlyName))
@@ -1166,6 +1172,50 @@ else if (aOid.equals(pkcs_9_at_localKeyId))
         }
     }
 
+    private PrivateKey unwrapShroudedKey(SafeBag b, char[] password, boolean wrongPKCS12Zero)
+        throws IOException
+    {
+        org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo eIn = org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo.getInstance(b.getBagValue());
+        PrivateKey privKey = unwrapKey(eIn.getEncryptionAlgorithm(), eIn.getEncryptedData(), password, wrongPKCS12Zero);
+
+        //
+        // set the attributes on the key
+        //
+        if (b.getBagAttributes() != null && privKey instanceof PKCS12BagAttributeCarrier)
+        {
+            PKCS12BagAttributeCarrier bagAttr = (PKCS12BagAttributeCarrier)privKey;
+
+            Enumeration e = b.getBagAttributes().getObjects();
+            while (e.hasMoreElements())
+            {
+                ASN1Sequence sq = (ASN1Sequence)e.nextElement();
+                ASN1ObjectIdentifier aOid = (ASN1ObjectIdentifier)sq.getObjectAt(0);
+                ASN1Set attrSet = (ASN1Set)sq.getObjectAt(1);
+
+                if (attrSet.size() > 0)
+                {
+                    ASN1Primitive attr = (ASN1Primitive)attrSet.getObjectAt(0);
+                    ASN1Encodable existing = bagAttr.getBagAttribute(aOid);
+                    if (existing != null)
+                    {
+                        // OK, but the value has to be the same
+                        if (!existing.toASN1Primitive().equals(attr))
+                        {
+                            throw new IOException(
+                                "attempt to add existing attribute with different value");
+                        }
+                    }
+                    else
+                    {
+                        bagAttr.setBagAttribute(aOid, attr);
+                    }
+                }
+            }
+        }
+
+        return privKey;
+    }
+
     private void processKeyBag(SafeBag b)
         throws IOException
     {
@@ -1373,7 +1423,7 @@ private void doStore(OutputStream stream, char[] password, boolean useDEREncodin
             random.nextBytes(kSalt);
 
             String name = (String)ks.nextElement();
-            PrivateKey privKey = (PrivateKey)keys.get(name);
+            PrivateKey privKey = getPrivateKey(name, keys.get(name));
             PKCS12PBEParams kParams = new PKCS12PBEParams(kSalt, MIN_ITERATIONS);
             byte[] kBytes = wrapKey(keyAlgorithm.getId(), privKey, kParams, password);
             AlgorithmIdentifier kAlgId = new AlgorithmIdentifier(keyAlgorithm, kParams.toASN1Primitive());
@@ -1768,6 +1818,24 @@ private SafeBag createSafeBag(String certId, Certificate cert)
         return new SafeBag(certBag, cBag.toASN1Primitive(), new DERSet(fName));
     }
 
+    private PrivateKey getPrivateKey(String name, Object key)
+        throws IOException
+    {
+        if (key instanceof EncryptedKeyEntry)
+        {
+            try
+            {
+                return ((EncryptedKeyEntry)key).getKey();
+            }
+            catch (UnrecoverableKeyException e)
+            {
+                throw new IOException("unable to recover key " + name + " for storage - " + e.getMessage());
+            }
+        }
+
+        return (PrivateKey)key;
+    }
+
     private Set getUsedCertificateSet()
     {
         Set usedSet = new HashSet();
@@ -1850,12 +1918,124 @@ public DefPKCS12KeyStore3DES()
         }
     }
 
+    /**
+     * A shrouded key bag which has been indexed, but not decrypted yet. The key is decrypted the first time it
+     * is asked for, using the password the store was loaded with as an eager load would, after which the
+     * decrypted key is returned.
+     */
+    private class EncryptedKeyEntry
+    {
+        private final SafeBag bag;
+        private final boolean wrongPKCS12Zero;
+
+        private LoadPassword password;
+        private PrivateKey key;
+
+        EncryptedKeyEntry(SafeBag bag, LoadPassword password, boolean wrongPKCS12Zero)
+        {
+            this.bag = bag;
+            this.password = password;
+            this.wrongPKCS12Zero = wrongPKCS12Zero;
+
+            password.addEntry();
+        }
+
+        synchronized PrivateKey getKey()
+            throws UnrecoverableKeyException
+        {
+            if (key == null)
+            {
+                char[] pwd = password.getPassword();
+                try
+                {
+                    key = unwrapShroudedKey(bag, pwd, wrongPKCS12Zero);
+                }
+                catch (IOException e)
+                {
+                    throw new UnrecoverableKeyException(e.getMessage());
+                }
+                finally
+                {
+                    if (pwd != null)
+                    {
+                        Arrays.fill(pwd, (char)0);
+                    }
+                }
+
+                discard();
+            }
+
+            return key;
+        }
+
+        synchronized void discard()
+        {
+            if (password != null)
+            {
+                password.removeEntry();
+                password = null;
+            }
+        }
+    }
+
+    /**
+     * The password a store was lazily loaded with, shared by the keys from the load which are still to be
+     * decrypted. It is cleared once they have all been decrypted or removed, or the store is loaded again.
+     */
+    private static class LoadPassword
+    {
+        private char[] password;
+        private boolean cleared;
+        private int entries = 1;    // held by the load until it is finished
+
+        LoadPassword(char[] password)
+        {
+            this.password = Arrays.clone(password);
+        }
+
+        synchronized void addEntry()
+        {
+            ++entries;
+        }
+
+        synchronized void removeEntry()
+        {
+            if (--entries == 0)
+            {
+                clear();
+            }
+        }
+
+        /**
+         * Return a copy of the password, which the caller should clear after use.
+         */
+        synchronized char[] getPassword()
+            throws UnrecoverableKeyException
+        {
+            if (cleared)
+            {
+                throw new UnrecoverableKeyException("key store has been reloaded");
+            }
+            return Arrays.clone(password);
+        }
+
+        synchronized void clear()
+        {
+            if (password != null)
+            {
+                Arrays.fill(password, (char)0);
+                password = null;
+            }
+            cleared = true;
+        }
+    }
+
     private static class IgnoresCaseHashtable
     {
         private Hashtable orig = new Hashtable();
         private Hashtable keys = new Hashtable();
 
-        public void put(String key, Object value)
+        public synchronized void put(String key, Object value)
         {
             String lower = (key == null) ? null : Strings.toLowerCase(key);
             String k = (String)keys.get(lower);
@@ -1873,7 +2053,7 @@ public Enumeration keys()
             return orig.keys();
         }
 
-        public Object remove(String alias)
+        public synchronized Object remove(String alias)
         {
             String k = (String)keys.remove(alias == null ? null : Strings.toLowerCase(alias));
             if (k == null)
@@ -1884,7 +2064,7 @@ public Object remove(String alias)
             return orig.remove(k);
         }
 
-        public Object get(String alias)
+        public synchronized Object get(String alias)
         {
             String k = (String)keys.get(alias == null ? null : Strings.toLowerCase(alias));
             if (k == null)
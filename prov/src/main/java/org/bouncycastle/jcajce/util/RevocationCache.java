@@ -0,0 +1,619 @@
+package org.bouncycastle.jcajce.util;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.asn1.ocsp.OCSPResponse;
+import org.bouncycastle.jcajce.PKIXCRLStore;
+import org.bouncycastle.util.Properties;
+
+/**
+ * A bounded cache for revocation data, such as the CRLs and OCSP responses fetched during certificate path
+ * validation.
+ * <p>
+ * Each value is kept until its next update time (as judged against the validation date it is requested for), or
+ * for a default time-to-live if it doesn't have one, and the cache is bounded by both a number of entries and a
+ * total weight (typically the encoded size of the values), evicting the least recently used entries first.
+ * </p><p>
+ * Only one load for a key is ever in progress: callers asking for a key that is being loaded wait for that load,
+ * while callers asking for other keys are unaffected. Once an entry is in the last part of its validity period
+ * (by default the last 20%, measured from its this update time) the next request for it starts a reload in the
+ * background, and carries on with the cached value, so in steady state callers don't wait on the network.
+ * </p><p>
+ * The defaults for new caches can be set with the following system (or security) properties:
+ * </p>
+ * <ul>
+ * <li>org.bouncycastle.revocation.cache.max_entries - the maximum number of entries (default 1000).</li>
+ * <li>org.bouncycastle.revocation.cache.max_weight - the maximum total weight (default 128 MB).</li>
+ * <li>org.bouncycastle.revocation.cache.default_ttl - the time-to-live, in seconds, for values without a next
+ * update time (default 3600).</li>
+ * <li>org.bouncycastle.revocation.cache.refresh_percent - how far (as a percentage) into a value's validity period
+ * a background reload is started (default 80, 100 disables background reloads).</li>
+ * </ul>
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public class RevocationCache<K, V>
+{
+    private static final String PROPERTY_PREFIX = "org.bouncycastle.revocation.cache.";
+
+    private static final long REFRESH_RETRY_DELAY = 60 * 1000L;
+
+    private static final Executor DEFAULT_EXECUTOR = new ThreadPoolExecutor(0, 2, 60L, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(), new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "BC revocation cache refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    private static final RevocationCache<URI, PKIXCRLStore> crlCache = new Builder().build();
+    private static final RevocationCache<Object, OCSPResponse> ocspCache = new Builder().build();
+
+    /**
+     * Return the cache shared by the BC certificate path validators and revocation checkers for CRLs fetched from
+     * CRL distribution points.
+     *
+     * @return the shared CRL cache.
+     */
+    public static RevocationCache<URI, PKIXCRLStore> getCRLCache()
+    {
+        return crlCache;
+    }
+
+    /**
+     * Return the cache shared by the BC revocation checkers for OCSP responses.
+     *
+     * @return the shared OCSP response cache.
+     */
+    public static RevocationCache<Object, OCSPResponse> getOCSPCache()
+    {
+        return ocspCache;
+    }
+
+    /**
+     * Source of values for a cache.
+     */
+    public interface Loader<K, V>
+    {
+        /**
+         * Fetch the value for a key.
+         *
+         * @param key the key to fetch the value for.
+         * @return the value, with its validity period and weight.
+         * @throws Exception if the value cannot be fetched.
+         */
+        Result<V> load(K key)
+            throws Exception;
+    }
+
+    /**
+     * A value as returned by a {@link Loader}, with its validity period and weight.
+     */
+    public static class Result<V>
+    {
+        private final V value;
+        private final Date thisUpdate;
+        private final Date nextUpdate;
+        private final long weight;
+
+        /**
+         * @param value the value.
+         * @param thisUpdate the time the value was issued, or null if unknown.
+         * @param nextUpdate the time at which the value is superseded, or null if unknown.
+         * @param weight the weight of the value (typically its encoded size), at least 0.
+         */
+        public Result(V value, Date thisUpdate, Date nextUpdate, long weight)
+        {
+            if (value == null)
+            {
+                throw new NullPointerException("'value' cannot be null");
+            }
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("'weight' cannot be negative");
+            }
+
+            this.value = value;
+            this.thisUpdate = thisUpdate;
+            this.nextUpdate = nextUpdate;
+            this.weight = weight;
+        }
+
+        public V getValue()
+        {
+            return value;
+        }
+
+        public Date getThisUpdate()
+        {
+            return thisUpdate;
+        }
+
+        public Date getNextUpdate()
+        {
+            return nextUpdate;
+        }
+
+        public long getWeight()
+        {
+            return weight;
+        }
+    }
+
+    /**
+     * A snapshot of the statistics of a cache.
+     */
+    public static class Stats
+    {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long loadFailureCount;
+        private final long refreshCount;
+        private final long evictionCount;
+        private final int size;
+        private final long weight;
+
+        Stats(long hitCount, long missCount, long loadCount, long loadFailureCount, long refreshCount,
+            long evictionCount, int size, long weight)
+        {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.loadFailureCount = loadFailureCount;
+            this.refreshCount = refreshCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        /**
+         * Return the number of requests answered from the cache.
+         */
+        public long getHitCount()
+        {
+            return hitCount;
+        }
+
+        /**
+         * Return the number of requests that had to wait for a load.
+         */
+        public long getMissCount()
+        {
+            return missCount;
+        }
+
+        /**
+         * Return the number of successful loads, including background reloads.
+         */
+        public long getLoadCount()
+        {
+            return loadCount;
+        }
+
+        /**
+         * Return the number of failed loads, including background reloads.
+         */
+        public long getLoadFailureCount()
+        {
+            return loadFailureCount;
+        }
+
+        /**
+         * Return the number of background reloads started.
+         */
+        public long getRefreshCount()
+        {
+            return refreshCount;
+        }
+
+        /**
+         * Return the number of entries evicted to keep the cache within its bounds.
+         */
+        public long getEvictionCount()
+        {
+            return evictionCount;
+        }
+
+        /**
+         * Return the number of entries in the cache.
+         */
+        public int getSize()
+        {
+            return size;
+        }
+
+        /**
+         * Return the total weight of the entries in the cache.
+         */
+        public long getWeight()
+        {
+            return weight;
+        }
+
+        public String toString()
+        {
+            return "RevocationCache.Stats[hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount
+                + ", loadFailures=" + loadFailureCount + ", refreshes=" + refreshCount + ", evictions="
+                + evictionCount + ", size=" + size + ", weight=" + weight + "]";
+        }
+    }
+
+    /**
+     * Builder for a {@link RevocationCache}, with defaults taken from the properties described there.
+     */
+    public static class Builder
+    {
+        private int maxEntries = Properties.asInteger(PROPERTY_PREFIX + "max_entries", 1000);
+        private long maxWeight = Properties.asInteger(PROPERTY_PREFIX + "max_weight", 128 * 1024 * 1024);
+        private long defaultTimeToLive = Properties.asInteger(PROPERTY_PREFIX + "default_ttl", 3600) * 1000L;
+        private int refreshPercent = Properties.asInteger(PROPERTY_PREFIX + "refresh_percent", 80);
+        private Executor executor = DEFAULT_EXECUTOR;
+
+        public Builder setMaxEntries(int maxEntries)
+        {
+            if (maxEntries < 1)
+            {
+                throw new IllegalArgumentException("'maxEntries' must be at least 1");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder setMaxWeight(long maxWeight)
+        {
+            if (maxWeight < 0)
+            {
+                throw new IllegalArgumentException("'maxWeight' cannot be negative");
+            }
+            this.maxWeight = maxWeight;
+            return this;
+        }
+
+        /**
+         * Set how long values without a next update time are kept.
+         *
+         * @param defaultTimeToLive the time-to-live, in milliseconds.
+         */
+        public Builder setDefaultTimeToLive(long defaultTimeToLive)
+        {
+            if (defaultTimeToLive < 0)
+            {
+                throw new IllegalArgumentException("'defaultTimeToLive' cannot be negative");
+            }
+            this.defaultTimeToLive = defaultTimeToLive;
+            return this;
+        }
+
+        /**
+         * Set how far into the validity period of a value (from its this update time, or its load time if it
+         * has none, to its next update time, or the end of its time-to-live) a background reload is started.
+         *
+         * @param refreshPercent the percentage of the validity period, 100 to never reload in the background.
+         */
+        public Builder setRefreshPercent(int refreshPercent)
+        {
+            if (refreshPercent < 0 || refreshPercent > 100)
+            {
+                throw new IllegalArgumentException("'refreshPercent' must be from 0 to 100");
+            }
+            this.refreshPercent = refreshPercent;
+            return this;
+        }
+
+        /**
+         * Set the executor for background reloads. By default a small shared pool of daemon threads is used.
+         *
+         * @param executor the executor to run background reloads on.
+         */
+        public Builder setExecutor(Executor executor)
+        {
+            if (executor == null)
+            {
+                throw new NullPointerException("'executor' cannot be null");
+            }
+            this.executor = executor;
+            return this;
+        }
+
+        public <K, V> RevocationCache<K, V> build()
+        {
+            return new RevocationCache<K, V>(this);
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long defaultTimeToLive;
+    private final int refreshPercent;
+    private final Executor executor;
+
+    // access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<K, Node<K, V>> entries = new LinkedHashMap<K, Node<K, V>>(16, 0.75f, true);
+    private long totalWeight = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private RevocationCache(Builder builder)
+    {
+        this.maxEntries = builder.maxEntries;
+        this.maxWeight = builder.maxWeight;
+        this.defaultTimeToLive = builder.defaultTimeToLive;
+        this.refreshPercent = builder.refreshPercent;
+        this.executor = builder.executor;
+    }
+
+    /**
+     * Return the value for a key, loading it if there is no cached value that is still valid at the given date.
+     *
+     * @param key the key to return the value for.
+     * @param validDate the date the value has to be valid at (typically the validation date).
+     * @param loader the loader to use if the value has to be (re)loaded.
+     * @return the value.
+     * @throws Exception if the value had to be loaded, and the loader threw an exception.
+     */
+    public V get(K key, Date validDate, Loader<K, V> loader)
+        throws Exception
+    {
+        long now = currentTimeMillis();
+
+        FutureTask<Result<V>> load;
+        boolean runHere = false;
+
+        synchronized (this)
+        {
+            Node<K, V> node = entries.get(key);
+            if (node == null)
+            {
+                node = new Node<K, V>();
+                entries.put(key, node);
+            }
+
+            node.loader = loader;
+
+            Result<V> current = node.result;
+            if (current != null && isValid(node, current, validDate, now))
+            {
+                hitCount.incrementAndGet();
+
+                if (node.load == null && now >= node.refreshTime)
+                {
+                    node.load = createLoad(key, node);
+                    try
+                    {
+                        executor.execute(node.load);
+                        refreshCount.incrementAndGet();
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        // no thread to spare - a later request will try again
+                        node.load = null;
+                    }
+                }
+
+                return current.getValue();
+            }
+
+            missCount.incrementAndGet();
+
+            load = node.load;
+            if (load == null)
+            {
+                load = node.load = createLoad(key, node);
+                runHere = true;
+            }
+        }
+
+        if (runHere)
+        {
+            load.run();
+        }
+
+        try
+        {
+            return load.get().getValue();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception)
+            {
+                throw (Exception)cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Remove the entry for a key, if there is one.
+     *
+     * @param key the key to remove the entry for.
+     */
+    public synchronized void remove(K key)
+    {
+        Node<K, V> node = entries.remove(key);
+        if (node != null && node.result != null)
+        {
+            totalWeight -= node.result.getWeight();
+        }
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Return a snapshot of the statistics of this cache.
+     *
+     * @return the current statistics.
+     */
+    public synchronized Stats getStats()
+    {
+        return new Stats(hitCount.get(), missCount.get(), loadCount.get(), loadFailureCount.get(),
+            refreshCount.get(), evictionCount.get(), entries.size(), totalWeight);
+    }
+
+    protected long currentTimeMillis()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isValid(Node<K, V> node, Result<V> result, Date validDate, long now)
+    {
+        Date nextUpdate = result.getNextUpdate();
+        if (nextUpdate != null)
+        {
+            return !validDate.after(nextUpdate);
+        }
+
+        return now < node.loadTime + defaultTimeToLive;
+    }
+
+    private FutureTask<Result<V>> createLoad(final K key, final Node<K, V> node)
+    {
+        final Loader<K, V> loader = node.loader;
+
+        return new FutureTask<Result<V>>(new Callable<Result<V>>()
+        {
+            public Result<V> call()
+                throws Exception
+            {
+                Result<V> result = null;
+                try
+                {
+                    result = loader.load(key);
+                    if (result == null)
+                    {
+                        throw new IllegalStateException("loader returned null for: " + key);
+                    }
+                    return result;
+                }
+                finally
+                {
+                    completeLoad(key, node, result);
+                }
+            }
+        });
+    }
+
+    private synchronized void completeLoad(K key, Node<K, V> node, Result<V> result)
+    {
+        node.load = null;
+
+        boolean isMapped = entries.get(key) == node;
+
+        if (result == null)
+        {
+            loadFailureCount.incrementAndGet();
+
+            // keep a previous value, as it may still be valid, but don't retry a background reload straight away
+            if (node.result != null)
+            {
+                node.refreshTime = currentTimeMillis() + REFRESH_RETRY_DELAY;
+            }
+            else if (isMapped)
+            {
+                entries.remove(key);
+            }
+            return;
+        }
+
+        loadCount.incrementAndGet();
+
+        if (!isMapped)
+        {
+            // removed while loading
+            return;
+        }
+
+        if (node.result != null)
+        {
+            totalWeight -= node.result.getWeight();
+        }
+        totalWeight += result.getWeight();
+
+        node.result = result;
+        node.loadTime = currentTimeMillis();
+        node.refreshTime = calculateRefreshTime(result, node.loadTime);
+
+        // evict the least recently used entries, never the one just loaded, nor any still waiting for their first
+        // value, as their callers rely on the load in progress being the only one
+        Iterator<Map.Entry<K, Node<K, V>>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && it.hasNext())
+        {
+            Map.Entry<K, Node<K, V>> entry = it.next();
+            Node<K, V> eldest = entry.getValue();
+            if (eldest == node || eldest.result == null)
+            {
+                continue;
+            }
+
+            totalWeight -= eldest.result.getWeight();
+            it.remove();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private long calculateRefreshTime(Result<V> result, long loadTime)
+    {
+        if (refreshPercent >= 100)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        long start = result.getThisUpdate() != null ? result.getThisUpdate().getTime() : loadTime;
+        long end = result.getNextUpdate() != null ? result.getNextUpdate().getTime() : loadTime + defaultTimeToLive;
+        if (end <= start)
+        {
+            return loadTime;
+        }
+
+        return start + (end - start) / 100 * refreshPercent;
+    }
+
+    private static class Node<K, V>
+    {
+        Result<V> result;
+        long loadTime;
+        long refreshTime;
+        Loader<K, V> loader;
+        FutureTask<Result<V>> load;
+    }
+}
@@ -0,0 +1,80 @@
+package org.bouncycastle.jcajce.util;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.security.cert.CRLException;
+import java.security.cert.CertificateException;
+import java.util.List;
+
+import org.bouncycastle.jcajce.provider.asymmetric.x509.CertificateFactory;
+
+/**
+ * Utility methods for loading large sets of certificates and CRLs without holding them all in memory at once.
+ * <p>
+ * The lists returned here are views of the encoding: it is only scanned for the boundaries of each object,
+ * and each object is decoded when it is fetched from the list. This is not available through
+ * {@link java.security.cert.CertificateFactory}, whose stream-based methods must read everything up front.
+ * </p>
+ */
+public class X509LoadUtils
+{
+    private X509LoadUtils()
+    {
+    }
+
+    /**
+     * Return a read-only list of the certificates in a file, which is memory mapped rather than read. The file
+     * may contain a sequence of DER or PEM encoded certificates, or a PKCS#7 certificate set.
+     *
+     * @param file the file to load the certificates from.
+     * @return a list of X509Certificate.
+     * @throws CertificateException if the file cannot be mapped or is not correctly formed.
+     */
+    public static List generateCertificates(File file)
+        throws CertificateException
+    {
+        return new CertificateFactory().engineGenerateCertificates(file);
+    }
+
+    /**
+     * Return a read-only list of the certificates between the position and limit of a buffer. The buffer's
+     * position is not changed, and its contents should not be modified while the list is in use.
+     *
+     * @param encoding a buffer containing the certificates.
+     * @return a list of X509Certificate.
+     * @throws CertificateException if the encoding is not correctly formed.
+     */
+    public static List generateCertificates(ByteBuffer encoding)
+        throws CertificateException
+    {
+        return new CertificateFactory().engineGenerateCertificates(encoding);
+    }
+
+    /**
+     * Return a read-only list of the CRLs in a file, which is memory mapped rather than read. The revoked
+     * certificate entries of a DER encoded CRL are left in the mapped file and decoded as they are looked up.
+     *
+     * @param file the file to load the CRLs from.
+     * @return a list of X509CRL.
+     * @throws CRLException if the file cannot be mapped or is not correctly formed.
+     */
+    public static List generateCRLs(File file)
+        throws CRLException
+    {
+        return new CertificateFactory().engineGenerateCRLs(file);
+    }
+
+    /**
+     * Return a read-only list of the CRLs between the position and limit of a buffer. The buffer's position is
+     * not changed, and its contents should not be modified while the list is in use.
+     *
+     * @param encoding a buffer containing the CRLs.
+     * @return a list of X509CRL.
+     * @throws CRLException if the encoding is not correctly formed.
+     */
+    public static List generateCRLs(ByteBuffer encoding)
+        throws CRLException
+    {
+        return new CertificateFactory().engineGenerateCRLs(encoding);
+    }
+}
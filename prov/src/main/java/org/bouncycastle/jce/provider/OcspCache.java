@@ -3,7 +3,6 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ref.WeakReference;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -12,11 +11,8 @@
 import java.security.cert.Extension;
 import java.security.cert.X509Certificate;
 import java.text.ParseException;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1GeneralizedTime;
@@ -38,72 +34,90 @@
 import org.bouncycastle.asn1.x509.Extensions;
 import org.bouncycastle.jcajce.PKIXCertRevocationCheckerParameters;
 import org.bouncycastle.jcajce.util.JcaJceHelper;
+import org.bouncycastle.jcajce.util.RevocationCache;
 import org.bouncycastle.util.io.Streams;
 
+/**
+ * Fetches OCSP responses, through the shared {@link RevocationCache#getOCSPCache() OCSP response cache}.
+ */
 class OcspCache
 {
     private static final int DEFAULT_TIMEOUT = 15000;
     private static final int DEFAULT_MAX_RESPONSE_SIZE = 32 * 1024;
 
-    private static Map<URI, WeakReference<Map<CertID, OCSPResponse>>> cache
-        = Collections.synchronizedMap(new WeakHashMap<URI, WeakReference<Map<CertID, OCSPResponse>>>());
-
     static OCSPResponse getOcspResponse(
-        CertID certID, PKIXCertRevocationCheckerParameters parameters,
-        URI ocspResponder, X509Certificate responderCert, List<Extension> ocspExtensions,
-        JcaJceHelper helper)
+        final CertID certID, final PKIXCertRevocationCheckerParameters parameters,
+        final URI ocspResponder, final X509Certificate responderCert, List<Extension> ocspExtensions,
+        final JcaJceHelper helper)
         throws CertPathValidatorException
     {
-        Map<CertID, OCSPResponse> responseMap = null;
+        final Extensions requestExtensions = createRequestExtensions(ocspExtensions);
 
-        WeakReference<Map<CertID, OCSPResponse>> markerRef = cache.get(ocspResponder);
-        if (markerRef != null)
+        // a response to a request with a nonce is only good for that request, so is never cached
+        if (requestExtensions != null && requestExtensions.getExtension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce) != null)
         {
-            responseMap = markerRef.get();
+            return fetchOcspResponse(certID, parameters, ocspResponder, responderCert, requestExtensions, helper)
+                .getValue();
         }
 
-        if (responseMap != null)
+        // the key covers everything that goes into the request and its validation, other than the validation date
+        Key key = new Key(ocspResponder, certID, parameters.getSigningCert(), responderCert, requestExtensions);
+
+        try
         {
-            OCSPResponse response = responseMap.get(certID);
-            if (response != null)
-            {
-                BasicOCSPResponse basicResp = BasicOCSPResponse.getInstance(
-                    ASN1OctetString.getInstance(response.getResponseBytes().getResponse()).getOctets());
+            return RevocationCache.getOCSPCache().get(key,
+                parameters.getValidDate(), new RevocationCache.Loader<Object, OCSPResponse>()
+                {
+                    public RevocationCache.Result<OCSPResponse> load(Object key)
+                        throws CertPathValidatorException
+                    {
+                        return fetchOcspResponse(certID, parameters, ocspResponder, responderCert, requestExtensions,
+                            helper);
+                    }
+                });
+        }
+        catch (CertPathValidatorException e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new CertPathValidatorException("unable to fetch OCSP response: " + e.getMessage(),
+                e, parameters.getCertPath(), parameters.getIndex());
+        }
+    }
 
-                ResponseData responseData = ResponseData.getInstance(basicResp.getTbsResponseData());
+    private static Extensions createRequestExtensions(List<Extension> ocspExtensions)
+    {
+        List exts = ocspExtensions;
+        ASN1EncodableVector requestExtensions = new ASN1EncodableVector();
 
-                ASN1Sequence s = responseData.getResponses();
+        for (int i = 0; i != exts.size(); i++)
+        {
+            Extension ext = (Extension)exts.get(i);
 
-                for (int i = 0; i != s.size(); i++)
-                {
-                    SingleResponse resp = SingleResponse.getInstance(s.getObjectAt(i));
+            requestExtensions.add(new org.bouncycastle.asn1.x509.Extension(
+                new ASN1ObjectIdentifier(ext.getId()), ext.isCritical(), ext.getValue()));
+        }
 
-                    if (certID.equals(resp.getCertID()))
-                    {
-                        ASN1GeneralizedTime nextUp = resp.getNextUpdate();
-                        try
-                        {
-                            if (nextUp != null && parameters.getValidDate().after(nextUp.getDate()))
-                            {
-                                responseMap.remove(certID);
-                                response = null;
-                            }
-                        }
-                        catch (ParseException e)
-                        {
-                            // this should never happen, but...
-                            responseMap.remove(certID);
-                            response = null;
-                        }
-                    }
-                }
-                if (response != null)
-                {
-                    return response;
-                }
-            }
+        if (requestExtensions.size() == 0)
+        {
+            return null;
         }
 
+        return Extensions.getInstance(new DERSequence(requestExtensions));
+    }
+
+    private static RevocationCache.Result<OCSPResponse> fetchOcspResponse(
+        CertID certID, PKIXCertRevocationCheckerParameters parameters,
+        URI ocspResponder, X509Certificate responderCert, Extensions requestExtensions,
+        JcaJceHelper helper)
+        throws CertPathValidatorException
+    {
         URL ocspUrl;
         try
         {
@@ -122,35 +136,19 @@ static OCSPResponse getOcspResponse(
 
         requests.add(new Request(certID, null));
 
-        List exts = ocspExtensions;
-        ASN1EncodableVector requestExtensions = new ASN1EncodableVector();
-
         byte[] nonce = null;
-        for (int i = 0; i != exts.size(); i++)
+        if (requestExtensions != null)
         {
-            Extension ext = (Extension)exts.get(i);
-            byte[] value = ext.getValue();
-
-            if (OCSPObjectIdentifiers.id_pkix_ocsp_nonce.getId().equals(ext.getId()))
+            org.bouncycastle.asn1.x509.Extension nonceExt = requestExtensions.getExtension(
+                OCSPObjectIdentifiers.id_pkix_ocsp_nonce);
+            if (nonceExt != null)
             {
-                nonce = value;
+                nonce = nonceExt.getExtnValue().getOctets();
             }
-
-            requestExtensions.add(new org.bouncycastle.asn1.x509.Extension(
-                new ASN1ObjectIdentifier(ext.getId()), ext.isCritical(), value));
         }
 
         // TODO: configure originator
-        TBSRequest tbsReq;
-        if (requestExtensions.size() != 0)
-        {
-            tbsReq = new TBSRequest(null, new DERSequence(requests),
-                Extensions.getInstance(new DERSequence(requestExtensions)));
-        }
-        else
-        {
-            tbsReq = new TBSRequest(null, new DERSequence(requests), (Extensions)null);
-        }
+        TBSRequest tbsReq = new TBSRequest(null, new DERSequence(requests), requestExtensions);
 
         org.bouncycastle.asn1.ocsp.Signature signature = null;
 
@@ -179,7 +177,8 @@ static OCSPResponse getOcspResponse(
                 // TODO: make configurable
                 contentLength = DEFAULT_MAX_RESPONSE_SIZE;
             }
-            OCSPResponse response = OCSPResponse.getInstance(Streams.readAllLimited(reqIn, contentLength));
+            byte[] responseBytes = Streams.readAllLimited(reqIn, contentLength);
+            OCSPResponse response = OCSPResponse.getInstance(responseBytes);
 
             if (OCSPResponseStatus.SUCCESSFUL == response.getResponseStatus().getIntValue())
             {
@@ -199,24 +198,7 @@ static OCSPResponse getOcspResponse(
                         "OCSP response failed to validate", null, parameters.getCertPath(), parameters.getIndex());
                 }
 
-                markerRef = cache.get(ocspResponder);
-                if (markerRef != null)
-                {
-                    responseMap = markerRef.get();
-                }
-
-                if (responseMap != null)
-                {
-                    responseMap.put(certID, response);
-                }
-                else
-                {
-                    responseMap = new HashMap<CertID, OCSPResponse>();
-                    responseMap.put(certID, response);
-                    cache.put(ocspResponder, new WeakReference<Map<CertID, OCSPResponse>>(responseMap));
-                }
-
-                return response;
+                return createResult(certID, response, responseBytes.length);
             }
             else
             {
@@ -231,4 +213,92 @@ static OCSPResponse getOcspResponse(
                      e, parameters.getCertPath(), parameters.getIndex());
         }
     }
+
+    /*
+     * The response is valid for as long as its SingleResponse for our CertID is.
+     */
+    private static RevocationCache.Result<OCSPResponse> createResult(CertID certID, OCSPResponse response, long weight)
+        throws IOException
+    {
+        BasicOCSPResponse basicResp = BasicOCSPResponse.getInstance(
+            ASN1OctetString.getInstance(response.getResponseBytes().getResponse()).getOctets());
+
+        ResponseData responseData = ResponseData.getInstance(basicResp.getTbsResponseData());
+
+        ASN1Sequence s = responseData.getResponses();
+
+        Date thisUpdate = null;
+        Date nextUpdate = null;
+        for (int i = 0; i != s.size(); i++)
+        {
+            SingleResponse resp = SingleResponse.getInstance(s.getObjectAt(i));
+
+            if (certID.equals(resp.getCertID()))
+            {
+                try
+                {
+                    thisUpdate = resp.getThisUpdate().getDate();
+
+                    ASN1GeneralizedTime nextUp = resp.getNextUpdate();
+                    if (nextUp != null)
+                    {
+                        nextUpdate = nextUp.getDate();
+                    }
+                }
+                catch (ParseException e)
+                {
+                    throw new IOException("unable to parse OCSP response times: " + e.getMessage());
+                }
+                break;
+            }
+        }
+
+        return new RevocationCache.Result<OCSPResponse>(response, thisUpdate, nextUpdate, weight);
+    }
+
+    private static class Key
+    {
+        private final URI ocspResponder;
+        private final CertID certID;
+        private final X509Certificate signingCert;
+        private final X509Certificate responderCert;
+        private final Extensions requestExtensions;
+
+        Key(URI ocspResponder, CertID certID, X509Certificate signingCert, X509Certificate responderCert,
+            Extensions requestExtensions)
+        {
+            this.ocspResponder = ocspResponder;
+            this.certID = certID;
+            this.signingCert = signingCert;
+            this.responderCert = responderCert;
+            this.requestExtensions = requestExtensions;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (o == this)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return ocspResponder.equals(other.ocspResponder) && certID.equals(other.certID)
+                && areEqual(signingCert, other.signingCert) && areEqual(responderCert, other.responderCert)
+                && areEqual(requestExtensions, other.requestExtensions);
+        }
+
+        public int hashCode()
+        {
+            return ocspResponder.hashCode() * 31 + certID.hashCode();
+        }
+
+        private static boolean areEqual(Object a, Object b)
+        {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
 }
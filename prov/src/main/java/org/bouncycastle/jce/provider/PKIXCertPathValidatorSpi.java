@@ -123,22 +123,42 @@ else if (params instanceof PKIXExtendedParameters)
         //
         // (d)
         // 
-        TrustAnchor trust;
-        try
-        {
-            trust = CertPathValidatorUtilities.findTrustAnchor((X509Certificate) certs.get(certs.size() - 1),
-                    paramsPKIX.getTrustAnchors(), paramsPKIX.getSigProvider());
+        TrustAnchor trust = null;
 
-            if (trust == null)
+        // if the CA certificates have been through validation before, only the end entity certificate is processed
+        ValidatedPathCache.Key cacheKey = ValidatedPathCache.createKey(certs, paramsPKIX, isForCRLCheck);
+        ValidatedPathCache.Entry cached = null;
+        if (cacheKey != null)
+        {
+            cached = ValidatedPathCache.get(cacheKey, validityDate);
+            if (cached != null)
             {
-                throw new CertPathValidatorException("Trust anchor for certification path not found.", null, certPath, -1);
+                trust = cached.findTrustAnchor(paramsPKIX.getTrustAnchors());
+                if (trust == null)
+                {
+                    cached = null;
+                }
             }
-
-            checkCertificate(trust.getTrustedCert());
         }
-        catch (AnnotatedException e)
+
+        if (trust == null)
         {
-            throw new CertPathValidatorException(e.getMessage(), e.getUnderlyingException(), certPath, certs.size() - 1);
+            try
+            {
+                trust = CertPathValidatorUtilities.findTrustAnchor((X509Certificate) certs.get(certs.size() - 1),
+                        paramsPKIX.getTrustAnchors(), paramsPKIX.getSigProvider());
+
+                if (trust == null)
+                {
+                    throw new CertPathValidatorException("Trust anchor for certification path not found.", null, certPath, -1);
+                }
+
+                checkCertificate(trust.getTrustedCert());
+            }
+            catch (AnnotatedException e)
+            {
+                throw new CertPathValidatorException(e.getMessage(), e.getUnderlyingException(), certPath, certs.size() - 1);
+            }
         }
 
         // RFC 5280 - CRLs must originate from the same trust anchor as the target certificate.
@@ -301,8 +321,35 @@ else if (params instanceof PKIXExtendedParameters)
 
         X509Certificate cert = null;
 
-        for (index = certs.size() - 1; index >= 0; index--)
+        int startIndex = certs.size() - 1;
+        if (cached != null)
         {
+            cached.checkCACertificates(certPath, paramsPKIX, validityDate, revocationChecker, pathCheckers, trust,
+                helper);
+
+            validPolicyTree = cached.copyPolicyTree(policyNodes);
+            acceptablePolicies = cached.getAcceptablePolicies();
+            nameConstraintValidator = cached.nameConstraintValidator;
+            explicitPolicy = cached.explicitPolicy;
+            inhibitAnyPolicy = cached.inhibitAnyPolicy;
+            policyMapping = cached.policyMapping;
+            maxPathLength = cached.maxPathLength;
+            sign = cached.sign;
+            workingIssuerName = cached.workingIssuerName;
+            workingPublicKey = cached.workingPublicKey;
+
+            startIndex = 0;
+        }
+
+        for (index = startIndex; index >= 0; index--)
+        {
+            if (index == 0 && cacheKey != null && cached == null)
+            {
+                ValidatedPathCache.put(cacheKey, new ValidatedPathCache.Entry(certs, trust, validPolicyTree,
+                    policyNodes, acceptablePolicies, nameConstraintValidator, explicitPolicy, inhibitAnyPolicy,
+                    policyMapping, maxPathLength, sign, workingIssuerName, workingPublicKey));
+            }
+
             // try
             // {
             //
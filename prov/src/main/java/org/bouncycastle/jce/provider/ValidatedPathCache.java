@@ -0,0 +1,411 @@
+package org.bouncycastle.jce.provider;
+
+import java.security.PublicKey;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.util.DigestFactory;
+import org.bouncycastle.jcajce.PKIXCertRevocationChecker;
+import org.bouncycastle.jcajce.PKIXCertRevocationCheckerParameters;
+import org.bouncycastle.jcajce.PKIXExtendedParameters;
+import org.bouncycastle.jcajce.util.JcaJceHelper;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.Properties;
+import org.bouncycastle.util.Strings;
+
+/**
+ * Cache of the state of RFC 3280 path validation after the CA certificates of a path have been processed, so
+ * that validating a path through the same CA certificates only has to process its end entity certificate.
+ * <p>
+ * The cache is off by default, and is enabled by setting the property "org.bouncycastle.pkix.validated_path_cache"
+ * to true. Its size (default 1000 paths) can be set with "org.bouncycastle.pkix.validated_path_cache_size".
+ * </p><p>
+ * Entries are keyed on a SHA-256 fingerprint of the CA certificates and the parameters that affect their
+ * processing, and are only used for a trust anchor in the parameters, and a validity date within the validity
+ * periods of all the CA certificates. Revocation checks and any additional path checkers are not cached - they
+ * are run for the CA certificates on every validation.
+ * </p>
+ */
+class ValidatedPathCache
+{
+    static final String CACHE_ENABLED = "org.bouncycastle.pkix.validated_path_cache";
+    static final String CACHE_SIZE = "org.bouncycastle.pkix.validated_path_cache_size";
+
+    private static final Map cache = Collections.synchronizedMap(
+        new LRUMap(Properties.asInteger(CACHE_SIZE, 1000)));
+
+    /**
+     * Return the cache key for a path, if the cache is enabled and the path can be cached.
+     *
+     * @return the key, or null if the path is not to be cached.
+     */
+    static Key createKey(List certs, PKIXExtendedParameters paramsPKIX, boolean isForCRLCheck)
+    {
+        int n = certs.size();
+        if (n < 2 || paramsPKIX.getValidityModel() != PKIXExtendedParameters.PKIX_VALIDITY_MODEL
+            || !Properties.isOverrideSet(CACHE_ENABLED))
+        {
+            return null;
+        }
+
+        Digest digest = DigestFactory.createSHA256();
+
+        update(digest, n);
+        update(digest, isForCRLCheck ? 1 : 0);
+        update(digest, paramsPKIX.isExplicitPolicyRequired() ? 1 : 0);
+        update(digest, paramsPKIX.isAnyPolicyInhibited() ? 1 : 0);
+        update(digest, paramsPKIX.isPolicyMappingInhibited() ? 1 : 0);
+        update(digest, paramsPKIX.getSigProvider());
+
+        Set initialPolicies = new TreeSet(paramsPKIX.getInitialPolicies());
+        update(digest, initialPolicies.size());
+        for (Iterator it = initialPolicies.iterator(); it.hasNext();)
+        {
+            update(digest, (String)it.next());
+        }
+
+        try
+        {
+            for (int i = 1; i != n; i++)
+            {
+                byte[] encoding = ((X509Certificate)certs.get(i)).getEncoded();
+
+                update(digest, encoding.length);
+                digest.update(encoding, 0, encoding.length);
+            }
+        }
+        catch (CertificateEncodingException e)
+        {
+            return null;
+        }
+
+        byte[] fingerprint = new byte[digest.getDigestSize()];
+        digest.doFinal(fingerprint, 0);
+
+        return new Key(fingerprint);
+    }
+
+    /**
+     * Return the entry for a key, if there is one for which the validity date is within the validity
+     * periods of the CA certificates.
+     */
+    static Entry get(Key key, Date validityDate)
+    {
+        Entry entry = (Entry)cache.get(key);
+        if (entry == null || validityDate.before(entry.notBefore) || validityDate.after(entry.notAfter))
+        {
+            return null;
+        }
+
+        return entry;
+    }
+
+    static void put(Key key, Entry entry)
+    {
+        cache.put(key, entry);
+    }
+
+    private static void update(Digest digest, int value)
+    {
+        byte[] bytes = Pack.intToBigEndian(value);
+        digest.update(bytes, 0, bytes.length);
+    }
+
+    private static void update(Digest digest, String value)
+    {
+        if (value == null)
+        {
+            update(digest, -1);
+        }
+        else
+        {
+            byte[] bytes = Strings.toUTF8ByteArray(value);
+            update(digest, bytes.length);
+            digest.update(bytes, 0, bytes.length);
+        }
+    }
+
+    static class Key
+    {
+        private final byte[] fingerprint;
+        private final int hashCode;
+
+        Key(byte[] fingerprint)
+        {
+            this.fingerprint = fingerprint;
+            this.hashCode = Arrays.hashCode(fingerprint);
+        }
+
+        public boolean equals(Object o)
+        {
+            return o instanceof Key && Arrays.areEqual(fingerprint, ((Key)o).fingerprint);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The validation state after processing the CA certificates of a path - section 6.1.4 has been completed for
+     * the last of them.
+     */
+    static class Entry
+    {
+        private final TrustAnchor trust;
+        private final Date notBefore;
+        private final Date notAfter;
+
+        private final PKIXPolicyNode validPolicyTree;
+        private final List[] policyNodes;
+        private final Set acceptablePolicies;
+        final PKIXNameConstraintValidator nameConstraintValidator;
+        final int explicitPolicy;
+        final int inhibitAnyPolicy;
+        final int policyMapping;
+        final int maxPathLength;
+        final X509Certificate sign;
+        final X500Name workingIssuerName;
+        final PublicKey workingPublicKey;
+
+        Entry(List certs, TrustAnchor trust, PKIXPolicyNode validPolicyTree, List[] policyNodes,
+            Set acceptablePolicies, PKIXNameConstraintValidator nameConstraintValidator, int explicitPolicy,
+            int inhibitAnyPolicy, int policyMapping, int maxPathLength, X509Certificate sign,
+            X500Name workingIssuerName, PublicKey workingPublicKey)
+        {
+            Date notBefore = null;
+            Date notAfter = null;
+            for (int i = 1; i != certs.size(); i++)
+            {
+                X509Certificate cert = (X509Certificate)certs.get(i);
+                if (notBefore == null || cert.getNotBefore().after(notBefore))
+                {
+                    notBefore = cert.getNotBefore();
+                }
+                if (notAfter == null || cert.getNotAfter().before(notAfter))
+                {
+                    notAfter = cert.getNotAfter();
+                }
+            }
+
+            this.trust = trust;
+            this.notBefore = notBefore;
+            this.notAfter = notAfter;
+            this.policyNodes = new List[policyNodes.length];
+            this.validPolicyTree = copyPolicyNodes(validPolicyTree, policyNodes, this.policyNodes);
+            this.acceptablePolicies = new HashSet(acceptablePolicies);
+            // only the permitted and excluded checks are made against the validator for the end entity certificate
+            this.nameConstraintValidator = nameConstraintValidator;
+            this.explicitPolicy = explicitPolicy;
+            this.inhibitAnyPolicy = inhibitAnyPolicy;
+            this.policyMapping = policyMapping;
+            this.maxPathLength = maxPathLength;
+            this.sign = sign;
+            this.workingIssuerName = workingIssuerName;
+            this.workingPublicKey = workingPublicKey;
+        }
+
+        /**
+         * Return the trust anchor the path was validated with, as found in a set of trust anchors.
+         *
+         * @return the matching trust anchor, or null if it is not in the set.
+         */
+        TrustAnchor findTrustAnchor(Set trustAnchors)
+        {
+            if (trustAnchors.contains(trust))
+            {
+                return trust;
+            }
+
+            X509Certificate trustedCert = trust.getTrustedCert();
+            for (Iterator it = trustAnchors.iterator(); it.hasNext();)
+            {
+                TrustAnchor anchor = (TrustAnchor)it.next();
+                if (trustedCert != null)
+                {
+                    if (trustedCert.equals(anchor.getTrustedCert()))
+                    {
+                        return anchor;
+                    }
+                }
+                else if (anchor.getTrustedCert() == null && trust.getCAPublicKey().equals(anchor.getCAPublicKey())
+                    && PrincipalUtils.getCA(trust).equals(PrincipalUtils.getCA(anchor)))
+                {
+                    return anchor;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Fill in a fresh copy of the valid policy tree and the policy nodes at each depth.
+         *
+         * @return the valid policy tree.
+         */
+        PKIXPolicyNode copyPolicyTree(List[] policyNodes)
+        {
+            return copyPolicyNodes(validPolicyTree, this.policyNodes, policyNodes);
+        }
+
+        Set getAcceptablePolicies()
+        {
+            return new HashSet(acceptablePolicies);
+        }
+
+        /**
+         * Run the checks that are not cached - revocation and any additional path checkers - for the CA
+         * certificates, in the same order as full validation would.
+         */
+        void checkCACertificates(CertPath certPath, PKIXExtendedParameters paramsPKIX, Date validityDate,
+            PKIXCertRevocationChecker revocationChecker, List pathCheckers, TrustAnchor trust, JcaJceHelper helper)
+            throws CertPathValidatorException
+        {
+            List certs = certPath.getCertificates();
+            int n = certs.size();
+
+            X509Certificate sign = trust.getTrustedCert();
+            PublicKey workingPublicKey = (sign != null) ? sign.getPublicKey() : trust.getCAPublicKey();
+
+            for (int index = n - 1; index > 0; index--)
+            {
+                X509Certificate cert = (X509Certificate)certs.get(index);
+
+                if (revocationChecker != null)
+                {
+                    revocationChecker.initialize(new PKIXCertRevocationCheckerParameters(paramsPKIX, validityDate,
+                        certPath, index, sign, workingPublicKey));
+
+                    revocationChecker.check(cert);
+                }
+
+                // a version 1 trust anchor at the top of the path is skipped by the 6.1.4 processing
+                if (index == n - 1 && cert.getVersion() == 1 && cert.equals(trust.getTrustedCert()))
+                {
+                    continue;
+                }
+
+                RFC3280CertPathUtilities.prepareNextCertO(certPath, index, getUnhandledCriticalExtensions(cert),
+                    pathCheckers);
+
+                if (revocationChecker != null)
+                {
+                    sign = cert;
+                    workingPublicKey = CertPathValidatorUtilities.getNextWorkingKey(certs, index, helper);
+                }
+            }
+        }
+    }
+
+    private static Set getUnhandledCriticalExtensions(X509Certificate cert)
+    {
+        Set criticalExtensions = cert.getCriticalExtensionOIDs();
+        if (criticalExtensions == null)
+        {
+            return new HashSet();
+        }
+
+        criticalExtensions = new HashSet(criticalExtensions);
+
+        // these extensions are handled by the algorithm
+        criticalExtensions.remove(RFC3280CertPathUtilities.KEY_USAGE);
+        criticalExtensions.remove(RFC3280CertPathUtilities.CERTIFICATE_POLICIES);
+        criticalExtensions.remove(RFC3280CertPathUtilities.POLICY_MAPPINGS);
+        criticalExtensions.remove(RFC3280CertPathUtilities.INHIBIT_ANY_POLICY);
+        criticalExtensions.remove(RFC3280CertPathUtilities.ISSUING_DISTRIBUTION_POINT);
+        criticalExtensions.remove(RFC3280CertPathUtilities.DELTA_CRL_INDICATOR);
+        criticalExtensions.remove(RFC3280CertPathUtilities.POLICY_CONSTRAINTS);
+        criticalExtensions.remove(RFC3280CertPathUtilities.BASIC_CONSTRAINTS);
+        criticalExtensions.remove(RFC3280CertPathUtilities.SUBJECT_ALTERNATIVE_NAME);
+        criticalExtensions.remove(RFC3280CertPathUtilities.NAME_CONSTRAINTS);
+
+        return criticalExtensions;
+    }
+
+    /*
+     * Deep copy a policy tree together with the lists of policy nodes at each depth, so that the lists refer to
+     * the nodes of the copy.
+     */
+    private static PKIXPolicyNode copyPolicyNodes(PKIXPolicyNode validPolicyTree, List[] from, List[] to)
+    {
+        Map copies = new IdentityHashMap();
+
+        PKIXPolicyNode treeCopy = copy(validPolicyTree, copies);
+        for (int i = 0; i != from.length; i++)
+        {
+            List nodes = new ArrayList(from[i].size());
+            for (Iterator it = from[i].iterator(); it.hasNext();)
+            {
+                nodes.add(copy((PKIXPolicyNode)it.next(), copies));
+            }
+            to[i] = nodes;
+        }
+
+        return treeCopy;
+    }
+
+    private static PKIXPolicyNode copy(PKIXPolicyNode node, Map copies)
+    {
+        if (node == null)
+        {
+            return null;
+        }
+
+        PKIXPolicyNode copy = (PKIXPolicyNode)copies.get(node);
+        if (copy == null)
+        {
+            copy = new PKIXPolicyNode(new ArrayList(), node.depth, copySet(node.expectedPolicies), null,
+                copySet(node.policyQualifiers), node.validPolicy, node.critical);
+            copies.put(node, copy);
+
+            copy.parent = copy((PKIXPolicyNode)node.parent, copies);
+            for (Iterator it = node.children.iterator(); it.hasNext();)
+            {
+                copy.children.add(copy((PKIXPolicyNode)it.next(), copies));
+            }
+        }
+
+        return copy;
+    }
+
+    private static Set copySet(Set set)
+    {
+        return (set == null) ? null : new HashSet(set);
+    }
+
+    private static class LRUMap
+        extends LinkedHashMap
+    {
+        private final int maxSize;
+
+        LRUMap(int maxSize)
+        {
+            super(16, 0.75f, true);
+
+            this.maxSize = maxSize;
+        }
+
+        protected boolean removeEldestEntry(Map.Entry eldest)
+        {
+            return size() > maxSize;
+        }
+    }
+}
@@ -27,6 +27,7 @@ public static Test suite()
         suite.addTestSuite(HybridRandomProviderTest.class);
         suite.addTestSuite(PrivateConstructorTest.class);
         suite.addTestSuite(RandomTest.class);
+        suite.addTestSuite(RevocationCacheTest.class);
         suite.addTestSuite(RFC3211WrapTest.class);
         suite.addTestSuite(SP80038GTest.class);
         suite.addTestSuite(BouncyCastleProviderTest.class);
@@ -0,0 +1,344 @@
+package org.bouncycastle.jcajce.provider.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.bouncycastle.jcajce.util.RevocationCache;
+
+public class RevocationCacheTest
+    extends TestCase
+{
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    public void testHitAndMiss()
+        throws Exception
+    {
+        RevocationCache<String, String> cache = new RevocationCache.Builder().setRefreshPercent(100).build();
+        CountingLoader loader = new CountingLoader(new Date(), new Date(System.currentTimeMillis() + HOUR));
+
+        Date now = new Date();
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals("b:2", cache.get("b", now, loader));
+        assertEquals(2, loader.count.get());
+
+        RevocationCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getLoadCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(20, stats.getWeight());
+
+        cache.remove("a");
+        assertEquals("a:3", cache.get("a", now, loader));
+
+        cache.clear();
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(0, cache.getStats().getWeight());
+    }
+
+    public void testExpiry()
+        throws Exception
+    {
+        RevocationCache<String, String> cache = new RevocationCache.Builder().setRefreshPercent(100).build();
+        Date nextUpdate = new Date(System.currentTimeMillis() + HOUR);
+        CountingLoader loader = new CountingLoader(new Date(), nextUpdate);
+
+        assertEquals("a:1", cache.get("a", new Date(), loader));
+        assertEquals("a:1", cache.get("a", nextUpdate, loader));
+
+        // not valid at the requested date, so reloaded
+        assertEquals("a:2", cache.get("a", new Date(nextUpdate.getTime() + 1), loader));
+
+        // no next update, so kept for the default time-to-live
+        RevocationCache<String, String> ttlCache = new RevocationCache.Builder()
+            .setRefreshPercent(100).setDefaultTimeToLive(0).build();
+        CountingLoader ttlLoader = new CountingLoader(null, null);
+
+        assertEquals("a:1", ttlCache.get("a", new Date(), ttlLoader));
+        assertEquals("a:2", ttlCache.get("a", new Date(), ttlLoader));
+    }
+
+    public void testLoadFailure()
+        throws Exception
+    {
+        RevocationCache<String, String> cache = new RevocationCache.Builder().build();
+
+        try
+        {
+            cache.get("a", new Date(), new RevocationCache.Loader<String, String>()
+            {
+                public RevocationCache.Result<String> load(String key)
+                    throws IOException
+                {
+                    throw new IOException("no route");
+                }
+            });
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            assertEquals("no route", e.getMessage());
+        }
+
+        RevocationCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getLoadFailureCount());
+        assertEquals(0, stats.getSize());
+    }
+
+    public void testEviction()
+        throws Exception
+    {
+        Date now = new Date();
+        CountingLoader loader = new CountingLoader(now, new Date(now.getTime() + HOUR));
+
+        RevocationCache<String, String> cache = new RevocationCache.Builder()
+            .setMaxEntries(2).setRefreshPercent(100).build();
+
+        cache.get("a", now, loader);
+        cache.get("b", now, loader);
+        cache.get("a", now, loader);
+        cache.get("c", now, loader);
+
+        // b was the least recently used
+        assertEquals(2, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals("b:4", cache.get("b", now, loader));
+
+        RevocationCache<String, String> weighed = new RevocationCache.Builder()
+            .setMaxWeight(25).setRefreshPercent(100).build();
+
+        weighed.get("a", now, loader);
+        weighed.get("b", now, loader);
+        weighed.get("c", now, loader);
+
+        assertEquals(2, weighed.getStats().getSize());
+        assertEquals(20, weighed.getStats().getWeight());
+
+        // an entry heavier than the limit is still kept, on its own
+        RevocationCache<String, String> light = new RevocationCache.Builder()
+            .setMaxWeight(5).setRefreshPercent(100).build();
+
+        light.get("a", now, loader);
+        light.get("b", now, loader);
+
+        assertEquals(1, light.getStats().getSize());
+    }
+
+    public void testSingleFlight()
+        throws Exception
+    {
+        final RevocationCache<String, String> cache = new RevocationCache.Builder().setRefreshPercent(100).build();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger();
+        final Date now = new Date();
+
+        final RevocationCache.Loader<String, String> loader = new RevocationCache.Loader<String, String>()
+        {
+            public RevocationCache.Result<String> load(String key)
+                throws Exception
+            {
+                loads.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return new RevocationCache.Result<String>(key, now, new Date(now.getTime() + HOUR), 1);
+            }
+        };
+
+        final List<Object> results = new ArrayList<Object>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    Object result;
+                    try
+                    {
+                        result = cache.get("a", now, loader);
+                    }
+                    catch (Exception e)
+                    {
+                        result = e;
+                    }
+                    synchronized (results)
+                    {
+                        results.add(result);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        // other keys aren't held up by the load in progress
+        assertEquals("b", cache.get("b", now, new CountingLoader(now, new Date(now.getTime() + HOUR))
+        {
+            public RevocationCache.Result<String> load(String key)
+            {
+                return new RevocationCache.Result<String>(key, now, new Date(now.getTime() + HOUR), 1);
+            }
+        }));
+
+        release.countDown();
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i].join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(threads.length, results.size());
+        for (int i = 0; i != results.size(); i++)
+        {
+            assertEquals("a", results.get(i));
+        }
+    }
+
+    public void testEvictionSkipsLoadInProgress()
+        throws Exception
+    {
+        final RevocationCache<String, String> cache = new RevocationCache.Builder()
+            .setMaxEntries(1).setRefreshPercent(100).build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger();
+        final Date now = new Date();
+
+        final RevocationCache.Loader<String, String> slowLoader = new RevocationCache.Loader<String, String>()
+        {
+            public RevocationCache.Result<String> load(String key)
+                throws Exception
+            {
+                loads.incrementAndGet();
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new RevocationCache.Result<String>(key, now, new Date(now.getTime() + HOUR), 1);
+            }
+        };
+
+        final List<Object> results = new ArrayList<Object>();
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    Object result;
+                    try
+                    {
+                        result = cache.get("a", now, slowLoader);
+                    }
+                    catch (Exception e)
+                    {
+                        result = e;
+                    }
+                    synchronized (results)
+                    {
+                        results.add(result);
+                    }
+                }
+            };
+        }
+
+        threads[0].start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // loading b takes the cache over its limit while a is still being loaded
+        assertEquals("b:1", cache.get("b", now, new CountingLoader(now, new Date(now.getTime() + HOUR))));
+        assertEquals(0, cache.getStats().getEvictionCount());
+
+        // so a later request for a still waits on the first load
+        threads[1].start();
+        while (cache.getStats().getMissCount() < 3)
+        {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i].join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, results.size());
+        assertEquals("a", results.get(0));
+        assertEquals("a", results.get(1));
+
+        // and once a is loaded, b makes way for it
+        RevocationCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals("a", cache.get("a", now, slowLoader));
+        assertEquals(1, loads.get());
+    }
+
+    public void testBackgroundRefresh()
+        throws Exception
+    {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = new Executor()
+        {
+            public void execute(Runnable task)
+            {
+                tasks.add(task);
+            }
+        };
+
+        RevocationCache<String, String> cache = new RevocationCache.Builder()
+            .setRefreshPercent(50).setExecutor(executor).build();
+
+        // more than half way through its validity period
+        Date now = new Date();
+        CountingLoader loader = new CountingLoader(new Date(now.getTime() - 2 * HOUR),
+            new Date(now.getTime() + HOUR));
+
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals(0, tasks.size());
+
+        // the cached value is returned, and a reload started
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals(1, tasks.size());
+
+        // only one reload at a time
+        assertEquals("a:1", cache.get("a", now, loader));
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals("a:2", cache.get("a", now, loader));
+
+        RevocationCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getLoadCount());
+        assertEquals(2, stats.getRefreshCount());
+        assertEquals(1, stats.getSize());
+        assertEquals(10, stats.getWeight());
+    }
+
+    private static class CountingLoader
+        implements RevocationCache.Loader<String, String>
+    {
+        final AtomicInteger count = new AtomicInteger();
+
+        private final Date thisUpdate;
+        private final Date nextUpdate;
+
+        CountingLoader(Date thisUpdate, Date nextUpdate)
+        {
+            this.thisUpdate = thisUpdate;
+            this.nextUpdate = nextUpdate;
+        }
+
+        public RevocationCache.Result<String> load(String key)
+        {
+            return new RevocationCache.Result<String>(key + ":" + count.incrementAndGet(), thisUpdate, nextUpdate, 10);
+        }
+    }
+}
@@ -47,6 +47,7 @@
 import org.bouncycastle.crypto.util.PBKDF2Config;
 import org.bouncycastle.crypto.util.PBKDFConfig;
 import org.bouncycastle.crypto.util.ScryptConfig;
+import org.bouncycastle.jcajce.BCFKSAppendStoreParameter;
 import org.bouncycastle.jcajce.BCFKSLoadStoreParameter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.util.Arrays;
@@ -1088,6 +1089,193 @@ private void failOnRemovesOrOverwrite(String storeName)
         }
     }
 
+    public void shouldCacheDerivedKeys()
+        throws Exception
+    {
+        SecretKey key = new SecretKeySpec(Hex.decode("000102030405060708090a0b0c0d0e0f"), "AES");
+        byte[] storeData;
+        KeyStore store;
+
+        System.setProperty("org.bouncycastle.bcfks.derived_key_cache_size", "16");
+        try
+        {
+            KeyStore store1 = KeyStore.getInstance("BCFKS", "BC");
+
+            store1.load(null, null);
+
+            store1.setKeyEntry("seckey", key, testPassword, null);
+
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+
+            store1.store(bOut, testPassword);
+
+            storeData = bOut.toByteArray();
+
+            store = KeyStore.getInstance("BCFKS", "BC");
+        }
+        finally
+        {
+            System.clearProperty("org.bouncycastle.bcfks.derived_key_cache_size");
+        }
+
+        // reloading and repeated key access use the cached keys
+        for (int i = 0; i != 3; i++)
+        {
+            store.load(new ByteArrayInputStream(storeData), testPassword);
+
+            secretKeyStorageCheck(store, "seckey", key, testPassword);
+            secretKeyStorageCheck(store, "seckey", key, testPassword);
+        }
+
+        // but only for the same password
+        try
+        {
+            store.load(new ByteArrayInputStream(storeData), "wrong".toCharArray());
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isEquals("BCFKS KeyStore corrupted: MAC calculation failed", e.getMessage());
+        }
+
+        store.load(new ByteArrayInputStream(storeData), testPassword);
+
+        try
+        {
+            store.getKey("seckey", "wrong".toCharArray());
+            fail("no exception");
+        }
+        catch (UnrecoverableKeyException e)
+        {
+            isTrue(e.getMessage().startsWith("BCFKS KeyStore unable to recover secret key (seckey)"));
+        }
+
+        secretKeyStorageCheck(store, "seckey", key, testPassword);
+    }
+
+    public void shouldAppendChanges()
+        throws Exception
+    {
+        X509Certificate cert = (X509Certificate)CertificateFactory.getInstance("X.509", "BC").generateCertificate(new ByteArrayInputStream(trustedCertData));
+        SecretKey key1 = new SecretKeySpec(Hex.decode("000102030405060708090a0b0c0d0e0f"), "AES");
+        SecretKey key2 = new SecretKeySpec(Hex.decode("0f0e0d0c0b0a09080706050403020100"), "AES");
+
+        KeyStore store = KeyStore.getInstance("BCFKS", "BC");
+
+        store.load(null, null);
+
+        // nothing to append to yet
+        try
+        {
+            store.store(new BCFKSAppendStoreParameter(new ByteArrayOutputStream(), testPassword));
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isEquals("BCFKS KeyStore can only append to a loaded or stored MAC protected key store", e.getMessage());
+        }
+
+        store.setKeyEntry("seckey", key1, testPassword, null);
+        store.setCertificateEntry("cert", cert);
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+
+        store.store(bOut, testPassword);
+
+        int baseLength = bOut.size();
+
+        // with no changes nothing is written
+        store.store(new BCFKSAppendStoreParameter(bOut, testPassword));
+        isEquals(baseLength, bOut.size());
+
+        store.setKeyEntry("otherkey", key2, testPassword, null);
+        store.deleteEntry("cert");
+
+        store.store(new BCFKSAppendStoreParameter(bOut, testPassword));
+
+        int firstRecordLength = bOut.size() - baseLength;
+
+        store.setKeyEntry("seckey", key2, testPassword, null);
+
+        store.store(new BCFKSAppendStoreParameter(bOut, testPassword));
+
+        // record size follows the change, not the store
+        isTrue(bOut.size() - baseLength - firstRecordLength < firstRecordLength);
+
+        try
+        {
+            store.store(new BCFKSAppendStoreParameter(bOut, "wrong".toCharArray()));
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isEquals("BCFKS KeyStore append password does not match key store password", e.getMessage());
+        }
+
+        byte[] storeData = bOut.toByteArray();
+
+        KeyStore store2 = KeyStore.getInstance("BCFKS", "BC");
+
+        store2.load(new ByteArrayInputStream(storeData), testPassword);
+
+        isEquals(2, store2.size());
+        isTrue(!store2.containsAlias("cert"));
+        secretKeyStorageCheck(store2, "seckey", key2, testPassword);
+        isTrue(Arrays.areEqual(key2.getEncoded(), store2.getKey("otherkey", testPassword).getEncoded()));
+
+        // records can be appended to a loaded store
+        store2.setCertificateEntry("cert", cert);
+
+        bOut = new ByteArrayOutputStream();
+        bOut.write(storeData);
+
+        store2.store(new BCFKSAppendStoreParameter(bOut, testPassword));
+
+        store.load(new ByteArrayInputStream(bOut.toByteArray()), testPassword);
+
+        isEquals(3, store.size());
+        certStorageCheck(store, "cert", cert);
+
+        // a full store compacts the journal
+        ByteArrayOutputStream cOut = new ByteArrayOutputStream();
+
+        store.store(cOut, testPassword);
+
+        isTrue(cOut.size() < bOut.size());
+
+        store2.load(new ByteArrayInputStream(cOut.toByteArray()), testPassword);
+
+        isEquals(3, store2.size());
+        secretKeyStorageCheck(store2, "seckey", key2, testPassword);
+
+        // records are chained, so none can be dropped or altered
+        byte[] corrupted = Arrays.clone(storeData);
+        corrupted[corrupted.length - 2] ^= 1;
+
+        try
+        {
+            store2.load(new ByteArrayInputStream(corrupted), testPassword);
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isEquals("BCFKS KeyStore corrupted: journal record MAC calculation failed", e.getMessage());
+        }
+
+        byte[] reordered = Arrays.concatenate(Arrays.copyOfRange(storeData, 0, baseLength),
+            Arrays.copyOfRange(storeData, baseLength + firstRecordLength, storeData.length));
+
+        try
+        {
+            store2.load(new ByteArrayInputStream(reordered), testPassword);
+            fail("no exception");
+        }
+        catch (IOException e)
+        {
+            isEquals("BCFKS KeyStore corrupted: journal record out of sequence", e.getMessage());
+        }
+    }
+
     public void shouldStoreOneSecretKey()
         throws Exception
     {
@@ -1599,6 +1787,8 @@ public void performTest()
         shouldStoreOnePrivateKeyWithChain();
         shouldStoreOneSecretKey();
         shouldStoreSecretKeys();
+        shouldCacheDerivedKeys();
+        shouldAppendChanges();
         shouldStoreUsingSCRYPT();
         shouldStoreUsingPBKDF2();
         shouldFailOnWrongPassword();
@@ -1,6 +1,7 @@
 package org.bouncycastle.jce.provider.test;
 
 import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
 import java.security.Security;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
@@ -227,11 +228,14 @@ public void indirectCRLTest()
         Iterator it = set.iterator();
         while (it.hasNext())
         {
-            if (((X509CRLEntry)it.next()).getCertificateIssuer() == null)
+            X509CRLEntry entry = (X509CRLEntry)it.next();
+            if (entry.getCertificateIssuer() == null)
             {
                 fail("certificate issuer CRL entry extension is null");
             }
         }
+
+        checkLookup(crl, set);
     } 
 
     public void directCRLTest()
@@ -244,13 +248,40 @@ public void directCRLTest()
         Iterator it = set.iterator();
         while (it.hasNext())
         {
-            if (((X509CRLEntry)it.next()).getCertificateIssuer() != null)
+            X509CRLEntry entry = (X509CRLEntry)it.next();
+            if (entry.getCertificateIssuer() != null)
             {
                 fail("certificate issuer CRL entry extension is not null");
             }
         }
+
+        checkLookup(crl, set);
     }
     
+    private void checkLookup(X509CRL crl, Set set)
+    {
+        Iterator it = set.iterator();
+        while (it.hasNext())
+        {
+            X509CRLEntry entry = (X509CRLEntry)it.next();
+            X509CRLEntry found = crl.getRevokedCertificate(entry.getSerialNumber());
+            if (!entry.equals(found))
+            {
+                fail("CRL entry lookup failed for " + entry.getSerialNumber());
+            }
+            if (entry.getCertificateIssuer() == null
+                ? found.getCertificateIssuer() != null : !entry.getCertificateIssuer().equals(found.getCertificateIssuer()))
+            {
+                fail("certificate issuer of CRL entry lookup wrong for " + entry.getSerialNumber());
+            }
+        }
+
+        if (crl.getRevokedCertificate(BigInteger.valueOf(-1)) != null)
+        {
+            fail("CRL entry found for unknown serial number");
+        }
+    }
+
     public void performTest()
         throws Exception
     {
@@ -6,6 +6,7 @@
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.security.InvalidKeyException;
+import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Principal;
@@ -519,6 +520,126 @@ public void performTest()
         validateWithExtendedKeyUsage();
         testEmptyPath();
         checkInvalidCertPath();
+        checkValidatedPathCache();
+    }
+
+    private void checkValidatedPathCache()
+        throws Exception
+    {
+        Properties.setThreadOverride("org.bouncycastle.pkix.validated_path_cache", true);
+        try
+        {
+            CertificateFactory cf = CertificateFactory.getInstance("X.509", "BC");
+            CertPathValidator cpv = CertPathValidator.getInstance("PKIX", "BC");
+
+            X509Certificate rootCert = (X509Certificate)cf.generateCertificate(new ByteArrayInputStream(CertPathTest.rootCertBin));
+            X509Certificate interCert = (X509Certificate)cf.generateCertificate(new ByteArrayInputStream(CertPathTest.interCertBin));
+            X509Certificate finalCert = (X509Certificate)cf.generateCertificate(new ByteArrayInputStream(CertPathTest.finalCertBin));
+            X509CRL rootCrl = (X509CRL)cf.generateCRL(new ByteArrayInputStream(CertPathTest.rootCrlBin));
+            X509CRL interCrl = (X509CRL)cf.generateCRL(new ByteArrayInputStream(CertPathTest.interCrlBin));
+
+            List list = new ArrayList();
+            list.add(rootCert);
+            list.add(interCert);
+            list.add(finalCert);
+            list.add(rootCrl);
+            list.add(interCrl);
+            CertStore store = CertStore.getInstance("Collection", new CollectionCertStoreParameters(list), "BC");
+            Date validDate = new Date(rootCrl.getThisUpdate().getTime() + 60 * 60 * 1000);
+
+            List certchain = new ArrayList();
+            certchain.add(finalCert);
+            certchain.add(interCert);
+            CertPath cp = cf.generateCertPath(certchain);
+
+            Set trust = new HashSet();
+            trust.add(new TrustAnchor(rootCert, null));
+
+            PKIXParameters param = new PKIXParameters(trust);
+            param.addCertStore(store);
+            param.setDate(validDate);
+
+            PKIXCertPathValidatorResult first = (PKIXCertPathValidatorResult)cpv.validate(cp, param);
+            PKIXCertPathValidatorResult second = (PKIXCertPathValidatorResult)cpv.validate(cp, param);
+
+            isTrue(second.getPublicKey().equals(finalCert.getPublicKey()));
+            isTrue(second.getTrustAnchor().getTrustedCert().equals(rootCert));
+            isEquals(String.valueOf(first.getPolicyTree()), String.valueOf(second.getPolicyTree()));
+
+            // revocation is still checked for the CA certificate
+            list.remove(rootCrl);
+            param.setCertStores(Collections.singletonList(
+                CertStore.getInstance("Collection", new CollectionCertStoreParameters(list), "BC")));
+            checkCachedPathFailure(cpv, cp, param, 1);
+
+            // the CA certificate has to be valid at the validation date
+            param.setRevocationEnabled(false);
+            param.setDate(new Date(interCert.getNotAfter().getTime() + 1000));
+            checkCachedPathFailure(cpv, cp, param, 1);
+
+            // as does the trust anchor
+            param = new PKIXParameters(Collections.singleton(new TrustAnchor(interCert, null)));
+            param.setRevocationEnabled(false);
+            param.setDate(validDate);
+            checkCachedPathFailure(cpv, cp, param, -1);
+
+            // new end entity certificates under a known CA certificate
+            KeyPair rootKp = TestUtils.generateRSAKeyPair();
+            KeyPair interKp = TestUtils.generateRSAKeyPair();
+            KeyPair eeKp = TestUtils.generateRSAKeyPair();
+
+            rootCert = TestUtils.generateRootCert(rootKp);
+            interCert = TestUtils.generateIntermediateCert(interKp.getPublic(), rootKp.getPrivate(), rootCert);
+
+            param = new PKIXParameters(Collections.singleton(new TrustAnchor(rootCert, null)));
+            param.setRevocationEnabled(false);
+            CountingChecker checker = new CountingChecker();
+            param.addCertPathChecker(checker);
+
+            for (int i = 0; i != 3; i++)
+            {
+                finalCert = TestUtils.generateEndEntityCert(eeKp.getPublic(),
+                    new X500Name("CN=Test End Certificate " + i), interKp.getPrivate(), interCert);
+
+                certchain = new ArrayList();
+                certchain.add(finalCert);
+                certchain.add(interCert);
+                cp = cf.generateCertPath(certchain);
+
+                checker.count[0] = 0;
+
+                PKIXCertPathValidatorResult result = (PKIXCertPathValidatorResult)cpv.validate(cp, param);
+
+                isTrue(result.getPublicKey().equals(eeKp.getPublic()));
+                isTrue(result.getTrustAnchor().getTrustedCert().equals(rootCert));
+                isEquals(2, checker.count[0]);
+            }
+
+            // a bad end entity signature is still detected
+            finalCert = TestUtils.generateEndEntityCert(eeKp.getPublic(), eeKp.getPrivate(), interCert);
+            certchain = new ArrayList();
+            certchain.add(finalCert);
+            certchain.add(interCert);
+            checkCachedPathFailure(cpv, cf.generateCertPath(certchain), param, 0);
+        }
+        finally
+        {
+            Properties.removeThreadOverride("org.bouncycastle.pkix.validated_path_cache");
+        }
+    }
+
+    private void checkCachedPathFailure(CertPathValidator cpv, CertPath cp, PKIXParameters param, int index)
+        throws Exception
+    {
+        try
+        {
+            cpv.validate(cp, param);
+            fail("path validated");
+        }
+        catch (CertPathValidatorException e)
+        {
+            isEquals(index, e.getIndex());
+        }
     }
 
     // extended key usage chain
@@ -683,6 +804,32 @@ public int getCount()
         }
     }
 
+    private static class CountingChecker
+        extends PKIXCertPathChecker
+    {
+        // shared with the clones PKIXParameters takes
+        final int[] count = new int[1];
+
+        public void init(boolean forward)
+        {
+        }
+
+        public boolean isForwardCheckingSupported()
+        {
+            return false;
+        }
+
+        public Set getSupportedExtensions()
+        {
+            return null;
+        }
+
+        public void check(Certificate cert, Collection unresolvedCritExts)
+        {
+            count[0]++;
+        }
+    }
+
     public static class X509CertificateObject
         extends X509Certificate
     {
@@ -3,11 +3,15 @@
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.AlgorithmParameters;
 import java.security.KeyFactory;
 import java.security.KeyPair;
@@ -22,6 +26,7 @@
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
 import java.security.cert.X509Certificate;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAPrivateCrtKeySpec;
@@ -30,6 +35,7 @@
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.bouncycastle.asn1.ASN1EncodableVector;
@@ -38,8 +44,10 @@
 import org.bouncycastle.asn1.DERTaggedObject;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.internal.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.jcajce.util.X509LoadUtils;
 import org.bouncycastle.jce.interfaces.ECPublicKey;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Base64;
 import org.bouncycastle.util.io.Streams;
@@ -1784,6 +1792,137 @@ private void pemFileTestWithNl()
         isTrue("collection not empty", certs2.isEmpty());
     }
 
+    private void mappedFileTest()
+        throws Exception
+    {
+        CertificateFactory certFact = CertificateFactory.getInstance("X.509", "BC");
+
+        // PEM
+        byte[] pem = Streams.readAll(this.getClass().getResourceAsStream("cert_chain.txt"));
+        List certs = X509LoadUtils.generateCertificates(writeTempFile(pem));
+        checkSameContents("mapped PEM certs", certFact.generateCertificates(new ByteArrayInputStream(pem)), certs);
+
+        // DER, with junk at the end
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        bOut.write(cert1);
+        bOut.write(cert2);
+        bOut.write(cert3);
+        bOut.write(Strings.toByteArray("z\n"));
+        certs = X509LoadUtils.generateCertificates(writeTempFile(bOut.toByteArray()));
+        isTrue("mapped DER cert count", certs.size() == 3);
+        isTrue("mapped DER cert 1", areEqual(cert1, ((Certificate)certs.get(0)).getEncoded()));
+        isTrue("mapped DER cert 2", areEqual(cert2, ((Certificate)certs.get(1)).getEncoded()));
+        isTrue("mapped DER cert 3", areEqual(cert3, ((Certificate)certs.get(2)).getEncoded()));
+        isTrue("mapped DER cert equality", certs.get(1).equals(certs.get(1)));
+        ((X509Certificate)certs.get(0)).checkValidity(((X509Certificate)certs.get(0)).getNotBefore());
+
+        // PKCS#7, DER and PEM
+        ASN1EncodableVector certVec = new ASN1EncodableVector();
+        certVec.add(new ASN1InputStream(CertPathTest.rootCertBin).readObject());
+        certVec.add(new DERTaggedObject(false, 2, new ASN1InputStream(AttrCertData.attrCert).readObject()));
+        certVec.add(new ASN1InputStream(CertPathTest.interCertBin).readObject());
+        ASN1EncodableVector crlVec = new ASN1EncodableVector();
+        crlVec.add(new ASN1InputStream(CertPathTest.rootCrlBin).readObject());
+        crlVec.add(new ASN1InputStream(CertPathTest.interCrlBin).readObject());
+        SignedData sigData = new SignedData(new DERSet(), new ContentInfo(CMSObjectIdentifiers.data, null),
+            new DERSet(certVec), new DERSet(crlVec), new DERSet());
+        byte[] pkcs7 = new ContentInfo(CMSObjectIdentifiers.signedData, sigData).getEncoded();
+
+        File pkcs7File = writeTempFile(pkcs7);
+        checkSameContents("mapped PKCS7 certs", certFact.generateCertificates(new ByteArrayInputStream(pkcs7)),
+            X509LoadUtils.generateCertificates(pkcs7File));
+        checkSameContents("mapped PKCS7 CRLs", certFact.generateCRLs(new ByteArrayInputStream(pkcs7)),
+            X509LoadUtils.generateCRLs(pkcs7File));
+
+        checkSameContents("mapped PKCS7 problem", certFact.generateCertificates(new ByteArrayInputStream(pkcs7CrlProblem)),
+            X509LoadUtils.generateCertificates(ByteBuffer.wrap(pkcs7CrlProblem)));
+        isTrue("mapped PKCS7 problem CRLs", X509LoadUtils.generateCRLs(ByteBuffer.wrap(pkcs7CrlProblem)).isEmpty());
+
+        certs = X509LoadUtils.generateCertificates(ByteBuffer.wrap(Strings.toByteArray(pemPKCS7)));
+        isTrue("mapped PEM PKCS7 certs", certs.size() == 2);
+
+        // CRL, with revoked certificates looked up in place
+        bOut.reset();
+        bOut.write(crl1);
+        bOut.write(CertPathTest.interCrlBin);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bOut.size() + 3);
+        direct.position(3);
+        direct.put(bOut.toByteArray());
+        direct.position(3);
+
+        List crls = X509LoadUtils.generateCRLs(direct);
+        isTrue("mapped CRL position", direct.position() == 3);
+        checkSameContents("mapped CRLs", certFact.generateCRLs(new ByteArrayInputStream(bOut.toByteArray())), crls);
+        Iterator expectedCRLs = certFact.generateCRLs(new ByteArrayInputStream(bOut.toByteArray())).iterator();
+        for (int i = 0; i != crls.size(); i++)
+        {
+            // look the entries up before anything decodes the mapped CRL's entries as a whole
+            X509CRL crl = (X509CRL)crls.get(i);
+            Set revoked = ((X509CRL)expectedCRLs.next()).getRevokedCertificates();
+            for (Iterator it = revoked.iterator(); it.hasNext();)
+            {
+                X509CRLEntry entry = (X509CRLEntry)it.next();
+                isTrue("mapped CRL entry", entry.equals(crl.getRevokedCertificate(entry.getSerialNumber())));
+            }
+            isTrue("mapped CRL unknown entry", null == crl.getRevokedCertificate(BigInteger.valueOf(-1)));
+            isTrue("mapped CRL entries", revoked.equals(crl.getRevokedCertificates()));
+        }
+
+        try
+        {
+            X509LoadUtils.generateCRLs(writeTempFile(pem));
+            fail("mapped CRLs - no exception");
+        }
+        catch (CRLException e)
+        {
+            isTrue("mapped CRLs cause", e.getCause() != null);
+        }
+
+        try
+        {
+            File missing = writeTempFile(new byte[0]);
+            missing.delete();
+            X509LoadUtils.generateCRLs(missing);
+            fail("mapped missing CRL file - no exception");
+        }
+        catch (CRLException e)
+        {
+            isTrue("mapped missing CRL file cause", e.getCause() instanceof IOException);
+        }
+
+        try
+        {
+            X509LoadUtils.generateCertificates(ByteBuffer.wrap(Arrays.copyOf(cert1, cert1.length - 1)));
+            fail("mapped truncated cert - no exception");
+        }
+        catch (CertificateException e)
+        {
+            // ignore
+        }
+    }
+
+    private void checkSameContents(String label, Collection expected, List actual)
+    {
+        isTrue(label + " size", expected.size() == actual.size());
+        for (int i = 0; i != actual.size(); i++)
+        {
+            isTrue(label + " entry " + i, expected.contains(actual.get(i)));
+        }
+    }
+
+    private File writeTempFile(byte[] data)
+        throws Exception
+    {
+        File file = File.createTempFile("bctest", ".bin");
+        file.deleteOnExit();
+
+        FileOutputStream fOut = new FileOutputStream(file);
+        fOut.write(data);
+        fOut.close();
+
+        return file;
+    }
+
     public void performTest()
         throws Exception
     {
@@ -1862,6 +2001,7 @@ public void performTest()
         pemTest();
         pemFileTest();
         pemFileTestWithNl();
+        mappedFileTest();
         pkcs7Test();
         rfc4491Test();
 
@@ -13,6 +13,7 @@
 import java.security.PublicKey;
 import java.security.Security;
 import java.security.Signature;
+import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.RSAPrivateKey;
@@ -54,6 +55,7 @@
 import org.bouncycastle.pqc.jcajce.spec.FalconParameterSpec;
 import org.bouncycastle.pqc.jcajce.spec.NTRUParameterSpec;
 import org.bouncycastle.pqc.jcajce.spec.SPHINCSPlusParameterSpec;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Base64;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
@@ -2038,6 +2040,158 @@ private void testIterationCount()
         System.clearProperty("org.bouncycastle.pkcs12.max_it_count");
     }
 
+    private void testLazyLoad()
+        throws Exception
+    {
+        KeyStore eager = KeyStore.getInstance("PKCS12", BC);
+
+        eager.load(new ByteArrayInputStream(pkcs12), passwd);
+
+        System.setProperty("org.bouncycastle.pkcs12.lazy_load", "true");
+
+        final KeyStore lazy = KeyStore.getInstance("PKCS12", BC);
+        try
+        {
+            lazy.load(new ByteArrayInputStream(pkcs12), passwd);
+        }
+        finally
+        {
+            System.clearProperty("org.bouncycastle.pkcs12.lazy_load");
+        }
+
+        isEquals(eager.size(), lazy.size());
+
+        for (Enumeration en = eager.aliases(); en.hasMoreElements();)
+        {
+            final String alias = (String)en.nextElement();
+
+            isTrue(lazy.containsAlias(alias));
+            isEquals(eager.isKeyEntry(alias), lazy.isKeyEntry(alias));
+            isTrue(Arrays.areEqual(eager.getCertificateChain(alias), lazy.getCertificateChain(alias)));
+
+            if (!eager.isKeyEntry(alias))
+            {
+                continue;
+            }
+
+            // the first caller decrypts the key, the rest get the same key
+            final Key[] keys = new Key[4];
+            Thread[] threads = new Thread[keys.length];
+            for (int i = 0; i != threads.length; i++)
+            {
+                final int index = i;
+                threads[i] = new Thread()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            keys[index] = lazy.getKey(alias, passwd);
+                        }
+                        catch (Exception e)
+                        {
+                            // picked up by the null check
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+            for (int i = 0; i != threads.length; i++)
+            {
+                threads[i].join();
+            }
+
+            Key key = eager.getKey(alias, null);
+            for (int i = 0; i != keys.length; i++)
+            {
+                isTrue("key not recovered", keys[i] != null);
+                isTrue(keys[i] == keys[0]);
+                isTrue(areEqual(key.getEncoded(), keys[i].getEncoded()));
+            }
+            isTrue(((PKCS12BagAttributeCarrier)keys[0]).getBagAttribute(PKCSObjectIdentifiers.pkcs_9_at_localKeyId) != null);
+        }
+
+        // keys are decrypted with the load password, so the one passed to getKey() is treated as in an eager load
+        KeyStore[] stores = new KeyStore[]{ eager, loadLazily(pkcs12, passwd) };
+        String keyAlias = null;
+        for (Enumeration en = eager.aliases(); en.hasMoreElements();)
+        {
+            String alias = (String)en.nextElement();
+            if (eager.isKeyEntry(alias))
+            {
+                keyAlias = alias;
+            }
+        }
+
+        byte[] keyEnc = eager.getKey(keyAlias, passwd).getEncoded();
+        for (int i = 0; i != stores.length; i++)
+        {
+            isTrue(areEqual(keyEnc, stores[i].getKey(keyAlias, "wrong".toCharArray()).getEncoded()));
+            isTrue(areEqual(keyEnc, stores[i].getKey(keyAlias, null).getEncoded()));
+            isTrue(areEqual(keyEnc, stores[i].getKey(keyAlias, passwd).getEncoded()));
+        }
+
+        // null password on first access
+        KeyStore lazyNull = loadLazily(pkcs12, passwd);
+        isTrue(areEqual(keyEnc, lazyNull.getKey(keyAlias, null).getEncoded()));
+
+        // reloading clears the password kept by the earlier load, and keeps one for the new one
+        KeyStore lazyReload = loadLazily(pkcs12, passwd);
+        System.setProperty("org.bouncycastle.pkcs12.lazy_load", "true");
+        try
+        {
+            lazyReload.load(new ByteArrayInputStream(pkcs12), passwd);
+        }
+        finally
+        {
+            System.clearProperty("org.bouncycastle.pkcs12.lazy_load");
+        }
+        isTrue(areEqual(keyEnc, lazyReload.getKey(keyAlias, null).getEncoded()));
+
+        // entries deleted before being decrypted
+        lazyReload = loadLazily(pkcs12, passwd);
+        lazyReload.deleteEntry(keyAlias);
+        isTrue(!lazyReload.containsAlias(keyAlias));
+
+        // entries still encrypted are decrypted for storage, including under a new password
+        stores = new KeyStore[]{ eager, loadLazily(pkcs12, passwd), loadLazily(pkcs12, passwd) };
+        char[][] storePasswords = new char[][]{ "newPassword".toCharArray(), "newPassword".toCharArray(), passwd };
+        for (int i = 0; i != stores.length; i++)
+        {
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+
+            stores[i].store(bOut, storePasswords[i]);
+
+            KeyStore reloaded = KeyStore.getInstance("PKCS12", BC);
+
+            reloaded.load(new ByteArrayInputStream(bOut.toByteArray()), storePasswords[i]);
+
+            isTrue(areEqual(keyEnc, reloaded.getKey(keyAlias, null).getEncoded()));
+
+            reloaded = loadLazily(bOut.toByteArray(), storePasswords[i]);
+
+            isTrue(areEqual(keyEnc, reloaded.getKey(keyAlias, null).getEncoded()));
+        }
+    }
+
+    private KeyStore loadLazily(byte[] encoding, char[] password)
+        throws Exception
+    {
+        KeyStore store = KeyStore.getInstance("PKCS12", BC);
+
+        System.setProperty("org.bouncycastle.pkcs12.lazy_load", "true");
+        try
+        {
+            store.load(new ByteArrayInputStream(encoding), password);
+        }
+        finally
+        {
+            System.clearProperty("org.bouncycastle.pkcs12.lazy_load");
+        }
+
+        return store;
+    }
+
     private void testBCFKSLoad()
         throws Exception
     {
@@ -2136,6 +2290,7 @@ public void performTest()
         throws Exception
     {
         testIterationCount();
+        testLazyLoad();
         testPKCS12Store();
         testGOSTStore();
         testChainCycle();
@@ -39,6 +39,7 @@ private static <T> List<T> copyList(Collection<T> list)
     private boolean useCipherSuitesOrder;
     private boolean enableRetransmissions = true;
     private int maximumPacketSize = 0;
+    private boolean decryptInPlace = false;
     private String[] applicationProtocols = TlsUtils.EMPTY_STRINGS;
     private String[] signatureSchemes = null;
     private String[] namedGroups = null;
@@ -213,6 +214,23 @@ public void setMaximumPacketSize(int maximumPacketSize)
         this.maximumPacketSize = maximumPacketSize;
     }
 
+    public boolean getDecryptInPlace()
+    {
+        return decryptInPlace;
+    }
+
+    /**
+     * Set whether an SSLEngine decrypts each record in place in the network buffer passed to unwrap, instead of
+     * in a copy. Decrypting in place saves copying the record, but leaves plaintext in the consumed part of the
+     * network buffer, so the caller must then treat its network buffers as holding plaintext. Defaults to false.
+     *
+     * @param decryptInPlace true to decrypt records in place in the network buffer.
+     */
+    public void setDecryptInPlace(boolean decryptInPlace)
+    {
+        this.decryptInPlace = decryptInPlace;
+    }
+
     public String[] getApplicationProtocols()
     {
         return TlsUtils.clone(applicationProtocols);
@@ -0,0 +1,27 @@
+package org.bouncycastle.jsse;
+
+import javax.net.ssl.SSLSessionContext;
+
+/**
+ * A BCJSSE-specific interface providing access to extended session cache functionality.
+ */
+public interface BCSSLSessionContext
+    extends SSLSessionContext
+{
+    /**
+     * Returns the secondary store consulted for sessions that are not in this context's cache.
+     *
+     * @return The {@link BCSSLSessionStore} in use, or null if there is none.
+     */
+    BCSSLSessionStore getSessionStore();
+
+    /**
+     * Set a secondary store for resumable sessions. New resumable sessions are added to the store as well as
+     * to this context's cache, and a session ID that is not found in the cache is looked up in the store. This
+     * allows e.g. the servers in a cluster to resume each other's sessions.
+     *
+     * @param sessionStore
+     *            The {@link BCSSLSessionStore} to use, or null to use this context's cache alone.
+     */
+    void setSessionStore(BCSSLSessionStore sessionStore);
+}
@@ -0,0 +1,34 @@
+package org.bouncycastle.jsse;
+
+/**
+ * A secondary store for resumable sessions, to be set on a {@link BCSSLSessionContext}. Implementations
+ * must be thread-safe, and are responsible for their own capacity limits. The stored sessions include their
+ * master secrets, so any serialized form must be protected accordingly.
+ */
+public interface BCSSLSessionStore
+{
+    /**
+     * Add a newly established resumable session to the store.
+     *
+     * @param session
+     *            The {@link BCSSLStoredSession} to add.
+     */
+    void addSession(BCSSLStoredSession session);
+
+    /**
+     * Look up a session by its session ID.
+     *
+     * @param sessionID
+     *            The session ID.
+     * @return The {@link BCSSLStoredSession} with the given ID, or null if there is none.
+     */
+    BCSSLStoredSession getSession(byte[] sessionID);
+
+    /**
+     * Remove a session, e.g. because it has been invalidated.
+     *
+     * @param sessionID
+     *            The session ID.
+     */
+    void removeSession(byte[] sessionID);
+}
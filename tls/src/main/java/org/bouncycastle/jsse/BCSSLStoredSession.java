@@ -0,0 +1,58 @@
+package org.bouncycastle.jsse;
+
+import org.bouncycastle.tls.TlsUtils;
+
+/**
+ * The state of a resumable session, as exchanged with a {@link BCSSLSessionStore}. The state is held in an
+ * encoded form, independent of the session cache and of the JVM that created it, so a store may keep it
+ * anywhere, e.g. in a database shared by a cluster of servers, and recreate the stored session from the same
+ * three values. The encoded state includes a copy of the session's master secret.
+ */
+public final class BCSSLStoredSession
+{
+    private final byte[] sessionID;
+    private final long creationTime;
+    private final byte[] encoded;
+
+    /**
+     * @param sessionID
+     *            The session ID.
+     * @param creationTime
+     *            The time the session was created, in milliseconds since the epoch.
+     * @param encoded
+     *            The encoded session state, as returned by {@link #getEncoded()}.
+     */
+    public BCSSLStoredSession(byte[] sessionID, long creationTime, byte[] encoded)
+    {
+        if (sessionID == null)
+        {
+            throw new NullPointerException("'sessionID' cannot be null");
+        }
+        if (encoded == null)
+        {
+            throw new NullPointerException("'encoded' cannot be null");
+        }
+
+        this.sessionID = TlsUtils.clone(sessionID);
+        this.creationTime = creationTime;
+        this.encoded = TlsUtils.clone(encoded);
+    }
+
+    public long getCreationTime()
+    {
+        return creationTime;
+    }
+
+    /**
+     * @return The encoded session state. It includes the master secret, so must be protected accordingly.
+     */
+    public byte[] getEncoded()
+    {
+        return TlsUtils.clone(encoded);
+    }
+
+    public byte[] getSessionID()
+    {
+        return TlsUtils.clone(sessionID);
+    }
+}
@@ -31,12 +31,21 @@
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.TlsProtocol;
 import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.util.Arrays;
 
 /*
  * TODO[jsse] Known limitations (relative to SSLEngine javadoc): 1. The wrap() and unwrap() methods
  * are synchronized, so will not execute concurrently with each other. 2. Never delegates tasks i.e.
  * getDelegatedTasks() will always return null; CPU-intensive parts of the handshake will execute
  * during wrap/unwrap calls.
+ *
+ * Once the handshake is complete, application data records go through the record layer without being queued:
+ * wrap gathers the application data straight into dst, where the record is encrypted in place, and unwrap
+ * decrypts a record in place and scatters the plaintext straight into the dsts. By default unwrap first copies
+ * the record into a per-engine array (reused between calls, and zeroed after use); if the engine's
+ * BCSSLParameters enable decryptInPlace, the record is decrypted in the src buffer itself, leaving plaintext in
+ * the consumed region of src. Records the cipher can't encrypt in place (e.g. with record splitting or a key
+ * update pending) go through the TlsProtocol's output queue as before.
  */
 class ProvSSLEngine
     extends SSLEngine
@@ -61,6 +70,12 @@
 
     protected SSLException deferredException = null;
 
+    // Reused across wrap/unwrap calls (which are synchronized); the record arrays are zeroed after use
+    private final byte[] recordHeader = new byte[RecordFormat.FRAGMENT_OFFSET];
+    private byte[] inputRecord = null;
+    private ByteBuffer inputRecordBuffer = null;
+    private byte[] outputData = null;
+
     protected ProvSSLEngine(ContextData contextData)
     {
         this(contextData, null, -1);
@@ -466,7 +481,7 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
             return new SSLEngineResult(Status.OK, initialHandshakeStatus, 0, 0);
         }
 
-        int bytesConsumed = 0;
+        int bytesConsumed = 0, bytesProduced = 0;
         try
         {
             RecordPreview preview = getRecordPreview(src);
@@ -480,10 +495,42 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
             }
 
             bytesConsumed = preview.getRecordSize();
-            byte[] record = new byte[bytesConsumed];
-            src.get(record);
 
-            protocol.offerInput(record, 0, record.length);
+            if (sslParameters.getDecryptInPlace() && !src.isReadOnly())
+            {
+                // NOTE: The record is decrypted in place, overwriting the (consumed) ciphertext in src
+                int position = src.position(), limit = src.limit();
+                src.limit(position + bytesConsumed);
+                try
+                {
+                    if (protocol.offerInputInPlace(src))
+                    {
+                        bytesProduced = putPlaintext(src, dsts, offset, length);
+                    }
+                }
+                finally
+                {
+                    src.limit(limit);
+                    src.position(position + bytesConsumed);
+                }
+            }
+            else
+            {
+                ByteBuffer record = getInputRecord(bytesConsumed);
+                src.get(record.array(), 0, bytesConsumed);
+
+                try
+                {
+                    if (protocol.offerInputInPlace(record))
+                    {
+                        bytesProduced = putPlaintext(record, dsts, offset, length);
+                    }
+                }
+                finally
+                {
+                    Arrays.fill(record.array(), 0, bytesConsumed, (byte)0);
+                }
+            }
         }
         catch (IOException e)
         {
@@ -507,7 +554,7 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
             return new SSLEngineResult(Status.OK, HandshakeStatus.NEED_WRAP, bytesConsumed, 0);
         }
 
-        int appDataAvailable = protocol.getAvailableInputBytes(), bytesProduced = 0;
+        int appDataAvailable = protocol.getAvailableInputBytes();
         for (int dstIndex = 0; appDataAvailable > 0; ++dstIndex)
         {
             ByteBuffer dst = dsts[offset + dstIndex];
@@ -614,22 +661,52 @@ else if (protocol.isConnected())
                         return new SSLEngineResult(Status.BUFFER_OVERFLOW, HandshakeStatus.NOT_HANDSHAKING, 0, 0);
                     }
 
-                    // TODO Support writing application data using ByteBuffer array directly
+                    int dstPosition = dst.position();
+                    int written = protocol.writeApplicationData(srcs, offset, length, dst);
+                    if (written >= 0)
+                    {
+                        // The record was gathered straight into dst and encrypted there
+                        bytesConsumed = written;
+                        bytesProduced = dst.position() - dstPosition;
+
+                        return new SSLEngineResult(getStatus(), HandshakeStatus.NOT_HANDSHAKING, bytesConsumed,
+                            bytesProduced);
+                    }
 
-                    byte[] buffer = new byte[srcLimit];
+                    ByteBuffer firstSrc = getFirstRemaining(srcs, offset, length);
+                    if (firstSrc.hasArray() && firstSrc.remaining() >= srcLimit)
+                    {
+                        // The whole record comes from a single heap buffer, so encrypt straight from it
+                        int position = firstSrc.position();
+                        firstSrc.position(position + srcLimit);
+                        bytesConsumed = srcLimit;
 
-                    for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
+                        protocol.writeApplicationData(firstSrc.array(), firstSrc.arrayOffset() + position, srcLimit);
+                    }
+                    else
                     {
-                        ByteBuffer src = srcs[offset + srcIndex];
-                        int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
-                        if (count > 0)
+                        byte[] buffer = getOutputData(srcLimit);
+
+                        for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
                         {
-                            src.get(buffer, bytesConsumed, count);
-                            bytesConsumed += count;
+                            ByteBuffer src = srcs[offset + srcIndex];
+                            int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
+                            if (count > 0)
+                            {
+                                src.get(buffer, bytesConsumed, count);
+                                bytesConsumed += count;
+                            }
                         }
-                    }
 
-                    protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                        try
+                        {
+                            protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                        }
+                        finally
+                        {
+                            Arrays.fill(buffer, 0, bytesConsumed, (byte)0);
+                        }
+                    }
 
                     bytesProduced = protocol.getAvailableOutputBytes();
                     assert bytesProduced <= dstLimit;
@@ -730,8 +807,6 @@ private RecordPreview getRecordPreview(ByteBuffer src)
             return null;
         }
 
-        byte[] recordHeader = new byte[RecordFormat.FRAGMENT_OFFSET];
-
         int position = src.position();
         src.get(recordHeader);
         src.position(position);
@@ -739,6 +814,61 @@ private RecordPreview getRecordPreview(ByteBuffer src)
         return protocol.previewInputRecord(recordHeader);
     }
 
+    private ByteBuffer getFirstRemaining(ByteBuffer[] bufs, int off, int len)
+    {
+        for (int i = 0; i < len; ++i)
+        {
+            ByteBuffer buf = bufs[off + i];
+            if (buf.hasRemaining())
+            {
+                return buf;
+            }
+        }
+        throw new IllegalStateException("no remaining data");
+    }
+
+    private ByteBuffer getInputRecord(int size)
+    {
+        if (null == inputRecord || inputRecord.length < size)
+        {
+            this.inputRecord = new byte[size];
+            this.inputRecordBuffer = ByteBuffer.wrap(inputRecord);
+        }
+        inputRecordBuffer.clear();
+        inputRecordBuffer.limit(size);
+        return inputRecordBuffer;
+    }
+
+    private byte[] getOutputData(int size)
+    {
+        if (null == outputData || outputData.length < size)
+        {
+            this.outputData = new byte[Math.max(size, protocol.getApplicationDataLimit())];
+        }
+        return outputData;
+    }
+
+    private static int putPlaintext(ByteBuffer plaintext, ByteBuffer[] dsts, int offset, int length)
+    {
+        int bytesProduced = 0;
+        for (int dstIndex = 0; dstIndex < length && plaintext.hasRemaining(); ++dstIndex)
+        {
+            ByteBuffer dst = dsts[offset + dstIndex];
+            int count = Math.min(dst.remaining(), plaintext.remaining());
+            if (count > 0)
+            {
+                int limit = plaintext.limit();
+                plaintext.limit(plaintext.position() + count);
+                dst.put(plaintext);
+                plaintext.limit(limit);
+
+                bytesProduced += count;
+            }
+        }
+        assert !plaintext.hasRemaining();
+        return bytesProduced;
+    }
+
     private Status getStatus()
     {
         return protocol.isClosed() ? Status.CLOSED : Status.OK;
@@ -42,6 +42,7 @@ private static <T> List<T> copyList(Collection<T> list)
     private boolean useCipherSuitesOrder = true;
     private boolean enableRetransmissions = true;
     private int maximumPacketSize = 0;
+    private boolean decryptInPlace = false;
     private String[] applicationProtocols = TlsUtils.EMPTY_STRINGS;
     private String[] signatureSchemes = null;
     private String[] namedGroups = null;
@@ -70,6 +71,7 @@ ProvSSLParameters copy()
         p.useCipherSuitesOrder = useCipherSuitesOrder;
         p.enableRetransmissions = enableRetransmissions;
         p.maximumPacketSize = maximumPacketSize;
+        p.decryptInPlace = decryptInPlace;
         p.applicationProtocols = applicationProtocols;
         p.signatureSchemes = signatureSchemes;
         p.namedGroups = namedGroups;
@@ -237,6 +239,16 @@ public void setMaximumPacketSize(int maximumPacketSize)
         this.maximumPacketSize = maximumPacketSize;
     }
 
+    public boolean getDecryptInPlace()
+    {
+        return decryptInPlace;
+    }
+
+    public void setDecryptInPlace(boolean decryptInPlace)
+    {
+        this.decryptInPlace = decryptInPlace;
+    }
+
     public String[] getApplicationProtocols()
     {
         return applicationProtocols.clone();
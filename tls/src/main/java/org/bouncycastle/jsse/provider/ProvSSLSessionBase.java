@@ -39,13 +39,18 @@
     protected final AtomicLong lastAccessedTime;
 
     ProvSSLSessionBase(ProvSSLSessionContext sslSessionContext, String peerHost, int peerPort)
+    {
+        this(sslSessionContext, peerHost, peerPort, System.currentTimeMillis());
+    }
+
+    ProvSSLSessionBase(ProvSSLSessionContext sslSessionContext, String peerHost, int peerPort, long creationTime)
     {
         this.sslSessionContext = new AtomicReference<ProvSSLSessionContext>(sslSessionContext);
         this.isFips = (null == sslSessionContext) ? false : sslSessionContext.getSSLContext().isFips();
         this.crypto = (null == sslSessionContext) ? null : sslSessionContext.getCrypto();
         this.peerHost = peerHost;
         this.peerPort = peerPort;
-        this.creationTime = System.currentTimeMillis();
+        this.creationTime = creationTime;
         this.exportSSLSession = SSLSessionUtil.exportSSLSession(this);
         this.lastAccessedTime = new AtomicLong(creationTime);
     }
@@ -1,58 +1,88 @@
 package org.bouncycastle.jsse.provider;
 
+import java.io.IOException;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.net.ssl.SSLSession;
-import javax.net.ssl.SSLSessionContext;
 
+import org.bouncycastle.jsse.BCSSLSessionContext;
+import org.bouncycastle.jsse.BCSSLSessionStore;
+import org.bouncycastle.jsse.BCSSLStoredSession;
+import org.bouncycastle.tls.DefaultTlsSessionTicketHandler;
 import org.bouncycastle.tls.SessionID;
 import org.bouncycastle.tls.TlsSession;
+import org.bouncycastle.tls.TlsSessionTicketHandler;
 import org.bouncycastle.tls.TlsUtils;
 import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsCrypto;
-
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsSessionTicketSealer;
+
+/*
+ * Lookups by session ID or peer go straight to concurrent maps and take no locks. LRU order is kept per
+ * segment (selected by session ID hash), so adding sessions only contends within a segment; a lookup
+ * refreshes the LRU position only if its segment lock is immediately available. The cache size limit applies
+ * to the total across the segments: a new session displaces the LRU sessions of its own segment first, and only
+ * if that has none to spare are the LRU sessions of the other segments removed, one segment at a time.
+ */
 class ProvSSLSessionContext
-    implements SSLSessionContext
+    implements BCSSLSessionContext
 {
     private static final Logger LOG = Logger.getLogger(ProvSSLSessionContext.class.getName());
 
     private static final int provSessionCacheSize = PropertyUtils
         .getIntegerSystemProperty("javax.net.ssl.sessionCacheSize", 20480, 0, Integer.MAX_VALUE);
 
-    // NOTE: This is configured as a simple LRU cache using the "access order" constructor
-    @SuppressWarnings("serial")
-    protected final Map<SessionID, SessionEntry> sessionsByID = new LinkedHashMap<SessionID, SessionEntry>(16, 0.75f, true)
+    private static final int SEGMENT_COUNT = 16;
+
+    // Limits on the session store lookups made for session IDs missing from the cache
+    private static final int STORE_MAX_LOOKUPS = 8;
+    private static final int STORE_MISS_CACHE_SIZE = 1024;
+    private static final long STORE_MISS_TIMEOUT_MILLIS = 10000L;
+
+    protected final ConcurrentMap<SessionID, SessionEntry> sessionsByID = new ConcurrentHashMap<SessionID, SessionEntry>();
+    protected final ConcurrentMap<String, SessionEntry> sessionsByPeer = new ConcurrentHashMap<String, SessionEntry>();
+    protected final ReferenceQueue<ProvSSLSession> sessionsQueue = new ReferenceQueue<ProvSSLSession>();
+    protected final Segment[] segments = new Segment[SEGMENT_COUNT];
+    protected final AtomicInteger sessionCount = new AtomicInteger();
+    protected final AtomicInteger nextEvictionSegment = new AtomicInteger();
+    protected final AtomicInteger storeLookups = new AtomicInteger();
+    protected final Map<SessionID, Long> storeMisses = new LinkedHashMap<SessionID, Long>()
     {
-        protected boolean removeEldestEntry(Map.Entry<SessionID, SessionEntry> eldest)
+        protected boolean removeEldestEntry(Map.Entry<SessionID, Long> eldest)
         {
-            boolean shouldRemove = sessionCacheSize > 0 && size() > sessionCacheSize;
-            if (shouldRemove)
-            {
-                removeSessionByPeer(eldest.getValue());
-            }
-            return shouldRemove;
+            return size() > STORE_MISS_CACHE_SIZE;
         }
     };
-    protected final Map<String, SessionEntry> sessionsByPeer = new HashMap<String, SessionEntry>();
-    protected final ReferenceQueue<ProvSSLSession> sessionsQueue = new ReferenceQueue<ProvSSLSession>();
 
     protected final ContextData contextData;
 
-    protected int sessionCacheSize = provSessionCacheSize;
-    protected int sessionTimeoutSeconds = 86400; // 24hrs (in seconds)
+    protected volatile int sessionCacheSize = provSessionCacheSize;
+    protected volatile int sessionTimeoutSeconds = 86400; // 24hrs (in seconds)
+    protected volatile BCSSLSessionStore sessionStore = null;
+    protected volatile TlsSessionTicketHandler sessionTicketHandler = null;
+    protected byte[] sessionTicketKey = null;
 
     ProvSSLSessionContext(ContextData contextData)
     {
         this.contextData = contextData;
+
+        for (int i = 0; i < SEGMENT_COUNT; ++i)
+        {
+            segments[i] = new Segment();
+        }
     }
 
     ProvSSLContextSpi getSSLContext()
@@ -65,14 +95,62 @@ JcaTlsCrypto getCrypto()
         return contextData.getCrypto();
     }
 
-    synchronized ProvSSLSession getSessionImpl(byte[] sessionID)
+    /**
+     * The handler for (TLS 1.3) session tickets issued by servers using this context. The ticket key is fixed
+     * for the lifetime of the context; the ticket lifetime follows the session timeout (capped at 7 days).
+     */
+    TlsSessionTicketHandler getSessionTicketHandler()
+    {
+        TlsSessionTicketHandler handler = sessionTicketHandler;
+        if (null == handler)
+        {
+            synchronized (this)
+            {
+                handler = sessionTicketHandler;
+                if (null == handler)
+                {
+                    JcaTlsCrypto crypto = getCrypto();
+
+                    if (null == sessionTicketKey)
+                    {
+                        sessionTicketKey = new byte[32];
+                        crypto.getSecureRandom().nextBytes(sessionTicketKey);
+                    }
+
+                    long ticketLifetime = sessionTimeoutSeconds;
+                    if (ticketLifetime < 1 || ticketLifetime > 604800L)
+                    {
+                        ticketLifetime = 604800L;
+                    }
+
+                    handler = new DefaultTlsSessionTicketHandler(crypto, new JcaTlsSessionTicketSealer(crypto),
+                        sessionTicketKey, ticketLifetime, DefaultTlsSessionTicketHandler.DEFAULT_MAX_TICKET_AGE_SKEW);
+                    this.sessionTicketHandler = handler;
+                }
+            }
+        }
+        return handler;
+    }
+
+    ProvSSLSession getSessionImpl(byte[] sessionID)
     {
         processQueue();
 
-        return accessSession(mapGet(sessionsByID, makeSessionID(sessionID)));
+        SessionID id = makeSessionID(sessionID);
+        SessionEntry sessionEntry = mapGet(sessionsByID, id);
+        ProvSSLSession session = accessSession(sessionEntry);
+        if (session != null)
+        {
+            touchSession(sessionEntry);
+        }
+        else if (id != null)
+        {
+            session = loadSession(id);
+        }
+        return session;
     }
 
-    synchronized ProvSSLSession getSessionImpl(String hostName, int port)
+    ProvSSLSession getSessionImpl(String hostName, int port)
     {
         processQueue();
 
@@ -80,22 +158,40 @@ synchronized ProvSSLSession getSessionImpl(String hostName, int port)
         ProvSSLSession session = accessSession(sessionEntry);
         if (session != null)
         {
-            // NOTE: For the current simple cache implementation, need to 'access' the sessionByIDs entry
-            sessionsByID.get(sessionEntry.getSessionID());
+            touchSession(sessionEntry);
         }
         return session;
     }
 
-    synchronized void removeSession(byte[] sessionID)
+    void removeSession(byte[] sessionID)
     {
-        SessionEntry sessionEntry = mapRemove(sessionsByID, makeSessionID(sessionID));
+        SessionID id = makeSessionID(sessionID);
+        if (null == id)
+        {
+            return;
+        }
+
+        SessionEntry sessionEntry = mapGet(sessionsByID, id);
         if (null != sessionEntry)
         {
-            removeSessionByPeer(sessionEntry);
+            removeSession(sessionEntry);
+        }
+
+        BCSSLSessionStore store = this.sessionStore;
+        if (null != store)
+        {
+            try
+            {
+                store.removeSession(sessionID);
+            }
+            catch (RuntimeException e)
+            {
+                LOG.log(Level.WARNING, "Failed to remove session from session store", e);
+            }
         }
     }
 
-    synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSession tlsSession,
+    ProvSSLSession reportSession(String peerHost, int peerPort, TlsSession tlsSession,
         JsseSessionParameters jsseSessionParameters, boolean addToCache)
     {
         processQueue();
@@ -106,29 +202,66 @@ synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSess
         }
 
         SessionID sessionID = makeSessionID(tlsSession.getSessionID());
-        SessionEntry sessionEntry = mapGet(sessionsByID, sessionID);
+        if (null == sessionID)
+        {
+            return new ProvSSLSession(this, peerHost, peerPort, tlsSession, jsseSessionParameters);
+        }
+
+        ProvSSLSession session;
+        boolean added = false;
 
-        ProvSSLSession session = sessionEntry == null ? null : sessionEntry.get();
-        if (null == session || session.getTlsSession() != tlsSession)
+        Segment segment = getSegment(sessionID);
+        segment.lock.lock();
+        try
         {
-            session = new ProvSSLSession(this, peerHost, peerPort, tlsSession, jsseSessionParameters);
+            SessionEntry sessionEntry = segment.sessions.get(sessionID);
 
-            if (null != sessionID)
+            session = sessionEntry == null ? null : sessionEntry.get();
+            if (null == session || session.getTlsSession() != tlsSession)
+            {
+                session = new ProvSSLSession(this, peerHost, peerPort, tlsSession, jsseSessionParameters);
+                sessionEntry = addSession(segment, sessionID, session);
+                added = true;
+            }
+            else
             {
-                sessionEntry = new SessionEntry(sessionID, session, sessionsQueue);
-                sessionsByID.put(sessionID, sessionEntry);
+                mapAdd(sessionsByPeer, sessionEntry.getPeerKey(), sessionEntry);
             }
         }
+        finally
+        {
+            segment.lock.unlock();
+        }
 
-        if (null != sessionEntry)
+        if (!added)
         {
-            mapAdd(sessionsByPeer, sessionEntry.getPeerKey(), sessionEntry);
+            return session;
+        }
+
+        removeExcessSessions(segment);
+
+        BCSSLSessionStore store = this.sessionStore;
+        if (null != store)
+        {
+            try
+            {
+                store.addSession(StoredSessionEncoding.encode(getCrypto(), tlsSession, session.getCreationTime(),
+                    jsseSessionParameters));
+            }
+            catch (IOException e)
+            {
+                LOG.log(Level.WARNING, "Failed to encode session for session store", e);
+            }
+            catch (RuntimeException e)
+            {
+                LOG.log(Level.WARNING, "Failed to add session to session store", e);
+            }
         }
 
         return session;
     }
 
-    public synchronized Enumeration<byte[]> getIds()
+    public Enumeration<byte[]> getIds()
     {
         removeAllExpiredSessions();
 
@@ -150,12 +283,17 @@ public SSLSession getSession(byte[] sessionID)
         return getSessionImpl(sessionID);
     }
 
-    public synchronized int getSessionCacheSize()
+    public int getSessionCacheSize()
     {
         return sessionCacheSize;
     }
 
-    public synchronized int getSessionTimeout()
+    public BCSSLSessionStore getSessionStore()
+    {
+        return sessionStore;
+    }
+
+    public int getSessionTimeout()
     {
         return sessionTimeoutSeconds;
     }
@@ -174,23 +312,17 @@ public synchronized void setSessionCacheSize(int size) throws IllegalArgumentExc
 
         this.sessionCacheSize = size;
 
+        // Immediately remove expired sessions, and LRU sessions in excess of the new limit
         removeAllExpiredSessions();
+    }
 
-        // Immediately remove LRU sessions in excess of the new limit
-        if (sessionCacheSize > 0)
+    public void setSessionStore(BCSSLSessionStore sessionStore)
+    {
+        this.sessionStore = sessionStore;
+
+        synchronized (storeMisses)
         {
-            int currentSize = sessionsByID.size();
-            if (currentSize > sessionCacheSize)
-            {
-                Iterator<SessionEntry> iter = sessionsByID.values().iterator();
-                while (iter.hasNext() && currentSize > sessionCacheSize)
-                {
-                    SessionEntry sessionEntry = iter.next();
-                    iter.remove();
-                    removeSessionByPeer(sessionEntry);
-                    --currentSize;
-                }
-            }
+            storeMisses.clear();
         }
     }
 
@@ -207,6 +339,7 @@ public synchronized void setSessionTimeout(int seconds) throws IllegalArgumentEx
         }
 
         this.sessionTimeoutSeconds = seconds;
+        this.sessionTicketHandler = null;
 
         removeAllExpiredSessions();
     }
@@ -231,9 +364,48 @@ private ProvSSLSession accessSession(SessionEntry sessionEntry)
         return null;
     }
 
+    // NOTE: Call with the segment lock held
+    private SessionEntry addSession(Segment segment, SessionID sessionID, ProvSSLSession session)
+    {
+        SessionEntry sessionEntry = new SessionEntry(sessionID, session, sessionsQueue);
+
+        SessionEntry previous = segment.sessions.remove(sessionID);
+        if (null != previous)
+        {
+            sessionCount.decrementAndGet();
+            removeSessionByPeer(previous);
+        }
+
+        // Make room for the new session in this segment, if it has sessions to spare
+        removeEldestSessions(segment, getCreationTimeLimit(System.currentTimeMillis()), 1);
+
+        segment.sessions.put(sessionID, sessionEntry);
+        sessionCount.incrementAndGet();
+
+        sessionsByID.put(sessionID, sessionEntry);
+        mapAdd(sessionsByPeer, sessionEntry.getPeerKey(), sessionEntry);
+
+        return sessionEntry;
+    }
+
     private long getCreationTimeLimit(long expiryTimeMillis)
     {
-        return sessionTimeoutSeconds < 1 ? Long.MIN_VALUE : (expiryTimeMillis - 1000L * sessionTimeoutSeconds);
+        int timeoutSeconds = sessionTimeoutSeconds;
+        return timeoutSeconds < 1 ? Long.MIN_VALUE : (expiryTimeMillis - 1000L * timeoutSeconds);
+    }
+
+    private Segment getSegment(SessionID sessionID)
+    {
+        int hash = sessionID.hashCode();
+        hash ^= (hash >>> 16);
+        hash ^= (hash >>> 8);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    private int getExcessSessions(int reserve)
+    {
+        int cacheSize = sessionCacheSize;
+        return cacheSize < 1 ? 0 : sessionCount.get() + reserve - cacheSize;
     }
 
     private boolean invalidateIfCreatedBefore(SessionEntry sessionEntry, long creationTimeLimit)
@@ -250,6 +422,107 @@ private boolean invalidateIfCreatedBefore(SessionEntry sessionEntry, long creati
         return !session.isValid();
     }
 
+    private ProvSSLSession loadSession(SessionID sessionID)
+    {
+        BCSSLSessionStore store = this.sessionStore;
+        if (null == store)
+        {
+            return null;
+        }
+
+        /*
+         * Session IDs are chosen by the peer, so don't let repeated (or a flood of) lookups for unknown IDs each
+         * go to the store: misses are remembered for a while, and there's a limit on concurrent lookups.
+         */
+        long currentTimeMillis = System.currentTimeMillis();
+        if (isStoreMiss(sessionID, currentTimeMillis))
+        {
+            return null;
+        }
+
+        if (storeLookups.incrementAndGet() > STORE_MAX_LOOKUPS)
+        {
+            storeLookups.decrementAndGet();
+            return null;
+        }
+
+        BCSSLStoredSession storedSession;
+        try
+        {
+            storedSession = store.getSession(sessionID.getBytes());
+        }
+        catch (RuntimeException e)
+        {
+            LOG.log(Level.WARNING, "Failed to get session from session store", e);
+            return null;
+        }
+        finally
+        {
+            storeLookups.decrementAndGet();
+        }
+
+        if (null == storedSession
+            || !sessionID.equals(makeSessionID(storedSession.getSessionID()))
+            || storedSession.getCreationTime() < getCreationTimeLimit(currentTimeMillis))
+        {
+            addStoreMiss(sessionID, currentTimeMillis);
+            return null;
+        }
+
+        ProvSSLSession session;
+        try
+        {
+            session = StoredSessionEncoding.decode(this, storedSession);
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to decode session from session store", e);
+            addStoreMiss(sessionID, currentTimeMillis);
+            return null;
+        }
+
+        Segment segment = getSegment(sessionID);
+        segment.lock.lock();
+        try
+        {
+            addSession(segment, sessionID, session);
+        }
+        finally
+        {
+            segment.lock.unlock();
+        }
+
+        removeExcessSessions(segment);
+
+        return session;
+    }
+
+    private void addStoreMiss(SessionID sessionID, long currentTimeMillis)
+    {
+        synchronized (storeMisses)
+        {
+            storeMisses.put(sessionID, Long.valueOf(currentTimeMillis));
+        }
+    }
+
+    private boolean isStoreMiss(SessionID sessionID, long currentTimeMillis)
+    {
+        synchronized (storeMisses)
+        {
+            Long missTime = storeMisses.get(sessionID);
+            if (null == missTime)
+            {
+                return false;
+            }
+            if (currentTimeMillis - missTime.longValue() < STORE_MISS_TIMEOUT_MILLIS)
+            {
+                return true;
+            }
+            storeMisses.remove(sessionID);
+            return false;
+        }
+    }
+
     private void processQueue()
     {
         int count = 0;
@@ -273,28 +546,145 @@ private void removeAllExpiredSessions()
 
         long creationTimeLimit = getCreationTimeLimit(System.currentTimeMillis());
 
-        Iterator<SessionEntry> iter = sessionsByID.values().iterator();
+        for (int i = 0; i < SEGMENT_COUNT; ++i)
+        {
+            Segment segment = segments[i];
+            segment.lock.lock();
+            try
+            {
+                Iterator<SessionEntry> iter = segment.sessions.values().iterator();
+                while (iter.hasNext())
+                {
+                    SessionEntry sessionEntry = iter.next();
+                    if (invalidateIfCreatedBefore(sessionEntry, creationTimeLimit))
+                    {
+                        iter.remove();
+                        sessionCount.decrementAndGet();
+                        removeSessionMappings(sessionEntry);
+                    }
+                }
+            }
+            finally
+            {
+                segment.lock.unlock();
+            }
+        }
+
+        removeExcessSessions(null);
+    }
+
+    /*
+     * Remove LRU sessions while the cache (with room for 'reserve' more sessions) exceeds its size limit, as well as
+     * any expired sessions found at the LRU end.
+     * NOTE: Call with the segment lock held.
+     */
+    private void removeEldestSessions(Segment segment, long creationTimeLimit, int reserve)
+    {
+        Iterator<SessionEntry> iter = segment.sessions.values().iterator();
         while (iter.hasNext())
         {
             SessionEntry sessionEntry = iter.next();
-            if (invalidateIfCreatedBefore(sessionEntry, creationTimeLimit))
+            if (getExcessSessions(reserve) <= 0 && !invalidateIfCreatedBefore(sessionEntry, creationTimeLimit))
             {
-                iter.remove();
-                removeSessionByPeer(sessionEntry);
+                break;
+            }
+
+            iter.remove();
+            sessionCount.decrementAndGet();
+            removeSessionMappings(sessionEntry);
+        }
+    }
+
+    /*
+     * Remove the LRU session of each segment in turn (other than 'exclude', which holds only a just added session
+     * if the cache is still over its limit), until the cache is within its size limit.
+     */
+    private void removeExcessSessions(Segment exclude)
+    {
+        boolean removed = true;
+        while (removed && getExcessSessions(0) > 0)
+        {
+            removed = false;
+
+            int start = nextEvictionSegment.getAndIncrement();
+            for (int i = 0; i < SEGMENT_COUNT && getExcessSessions(0) > 0; ++i)
+            {
+                Segment segment = segments[(start + i) & (SEGMENT_COUNT - 1)];
+                if (segment == exclude)
+                {
+                    continue;
+                }
+
+                segment.lock.lock();
+                try
+                {
+                    Iterator<SessionEntry> iter = segment.sessions.values().iterator();
+                    if (iter.hasNext())
+                    {
+                        SessionEntry sessionEntry = iter.next();
+                        iter.remove();
+                        sessionCount.decrementAndGet();
+                        removeSessionMappings(sessionEntry);
+                        removed = true;
+                    }
+                }
+                finally
+                {
+                    segment.lock.unlock();
+                }
             }
         }
     }
 
     private void removeSession(SessionEntry sessionEntry)
     {
-        mapRemove(sessionsByID, sessionEntry.getSessionID(), sessionEntry);
+        Segment segment = getSegment(sessionEntry.getSessionID());
+        segment.lock.lock();
+        try
+        {
+            if (mapRemove(segment.sessions, sessionEntry.getSessionID(), sessionEntry))
+            {
+                sessionCount.decrementAndGet();
+            }
+        }
+        finally
+        {
+            segment.lock.unlock();
+        }
 
-        removeSessionByPeer(sessionEntry);
+        removeSessionMappings(sessionEntry);
     }
 
     private boolean removeSessionByPeer(SessionEntry sessionEntry)
     {
-        return mapRemove(sessionsByPeer, sessionEntry.getPeerKey(), sessionEntry);
+        String peerKey = sessionEntry.getPeerKey();
+        return peerKey != null && sessionsByPeer.remove(peerKey, sessionEntry);
+    }
+
+    private void removeSessionMappings(SessionEntry sessionEntry)
+    {
+        sessionsByID.remove(sessionEntry.getSessionID(), sessionEntry);
+
+        removeSessionByPeer(sessionEntry);
+    }
+
+    /*
+     * Refresh the LRU position of a session, unless another thread is updating its segment.
+     */
+    private void touchSession(SessionEntry sessionEntry)
+    {
+        Segment segment = getSegment(sessionEntry.getSessionID());
+        if (segment.lock.tryLock())
+        {
+            try
+            {
+                segment.sessions.get(sessionEntry.getSessionID());
+            }
+            finally
+            {
+                segment.lock.unlock();
+            }
+        }
     }
 
     private static String makePeerKey(ProvSSLSession session)
@@ -333,15 +723,6 @@ private static <K, V> V mapGet(Map<K, V> map, K key)
         return key == null ? null : map.get(key);
     }
 
-    private static <K, V> V mapRemove(Map<K, V> map, K key)
-    {
-        if (map == null)
-        {
-            throw new NullPointerException();
-        }
-        return key == null ? null : map.remove(key);
-    }
-
     private static <K, V> boolean mapRemove(Map<K, V> map, K key, V value)
     {
         if (map == null || value == null)
@@ -350,7 +731,7 @@ private static <K, V> boolean mapRemove(Map<K, V> map, K key, V value)
         }
         if (key != null)
         {
-            // TODO[jsse] From 1.8 there is a 2-argument remove method to accomplish this 
+            // TODO[jsse] From 1.8 there is a 2-argument remove method to accomplish this
             V removed = map.remove(key);
             if (removed == value)
             {
@@ -364,6 +745,15 @@ private static <K, V> boolean mapRemove(Map<K, V> map, K key, V value)
         return false;
     }
 
+    private static final class Segment
+    {
+        final ReentrantLock lock = new ReentrantLock();
+
+        // NOTE: This is configured as a simple LRU list using the "access order" constructor
+        final LinkedHashMap<SessionID, SessionEntry> sessions = new LinkedHashMap<SessionID, SessionEntry>(16, 0.75f,
+            true);
+    }
+
     private static final class SessionEntry
         extends SoftReference<ProvSSLSession>
     {
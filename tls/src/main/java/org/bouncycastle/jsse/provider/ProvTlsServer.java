@@ -43,6 +43,7 @@
 import org.bouncycastle.tls.TlsExtensionsUtils;
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.TlsSession;
+import org.bouncycastle.tls.TlsSessionTicketHandler;
 import org.bouncycastle.tls.TlsUtils;
 import org.bouncycastle.tls.TrustedAuthority;
 import org.bouncycastle.tls.crypto.DHGroup;
@@ -688,6 +689,21 @@ public byte[] getNewSessionID()
         return context.getNonceGenerator().generateNonce(32);
     }
 
+    @Override
+    public TlsSessionTicketHandler getSessionTicketHandler()
+    {
+        /*
+         * NOTE: A resumed TLS 1.3 session is authenticated by the PSK alone, so don't issue (or accept) tickets
+         * when client authentication is configured.
+         */
+        if (!provServerEnableSessionResumption || isClientAuthEnabled())
+        {
+            return null;
+        }
+
+        return manager.getContextData().getServerSessionContext().getSessionTicketHandler();
+    }
+
     @Override
     public void notifySession(TlsSession session)
     {
@@ -0,0 +1,345 @@
+package org.bouncycastle.jsse.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+import org.bouncycastle.jsse.BCSNIServerName;
+import org.bouncycastle.jsse.BCSSLStoredSession;
+import org.bouncycastle.tls.AlertDescription;
+import org.bouncycastle.tls.Certificate;
+import org.bouncycastle.tls.CertificateEntry;
+import org.bouncycastle.tls.ServerName;
+import org.bouncycastle.tls.SessionParameters;
+import org.bouncycastle.tls.TlsFatalAlert;
+import org.bouncycastle.tls.TlsSession;
+import org.bouncycastle.tls.TlsUtils;
+import org.bouncycastle.tls.crypto.TlsCertificate;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.TlsSecret;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Integers;
+import org.bouncycastle.util.Strings;
+
+/*
+ * struct {
+ *     uint8 version = 1;
+ *     CipherSuite cipher_suite;
+ *     ProtocolVersion negotiated_version;
+ *     uint8 extended_master_secret;
+ *     opaque master_secret<1..2^8-1>;
+ *     Optional<opaque psk_identity<0..2^16-1>>;
+ *     Optional<opaque srp_identity<0..2^16-1>>;
+ *     Optional<Extension server_extensions<0..2^16-1>>;
+ *     Optional<CertificateState> local_certificate;
+ *     Optional<CertificateState> peer_certificate;
+ *     Optional<opaque endpoint_id_algorithm<0..2^16-1>>;
+ *     Optional<ServerName> matched_sni_server_name;
+ * } StoredSessionState;
+ *
+ * where Optional<T> is a uint8 (0 or 1) followed, if 1, by a T.
+ */
+final class StoredSessionEncoding
+{
+    private static final short VERSION = 1;
+
+    static BCSSLStoredSession encode(TlsCrypto crypto, TlsSession tlsSession, long creationTime,
+        JsseSessionParameters jsseSessionParameters) throws IOException
+    {
+        SessionParameters sessionParameters = tlsSession.exportSessionParameters();
+        if (null == sessionParameters)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        // NOTE: The stored state gets its own copy of the master secret; extracting it destroys the copy only
+        byte[] masterSecret = crypto.adoptSecret(sessionParameters.getMasterSecret()).extract();
+        SecretBuffer buf = new SecretBuffer();
+        try
+        {
+            TlsUtils.writeUint8(VERSION, buf);
+            TlsUtils.writeUint16(sessionParameters.getCipherSuite(), buf);
+            TlsUtils.writeVersion(sessionParameters.getNegotiatedVersion(), buf);
+            TlsUtils.writeUint8(sessionParameters.isExtendedMasterSecret() ? 1 : 0, buf);
+            TlsUtils.writeOpaque8(masterSecret, buf);
+            writeOptionalOpaque16(sessionParameters.getPSKIdentity(), buf);
+            writeOptionalOpaque16(sessionParameters.getSRPIdentity(), buf);
+            writeExtensions(sessionParameters.readServerExtensions(), buf);
+            writeCertificate(sessionParameters.getLocalCertificate(), buf);
+            writeCertificate(sessionParameters.getPeerCertificate(), buf);
+
+            String endpointIDAlgorithm = jsseSessionParameters.getEndpointIDAlgorithm();
+            writeOptionalOpaque16(null == endpointIDAlgorithm ? null : Strings.toUTF8ByteArray(endpointIDAlgorithm),
+                buf);
+
+            BCSNIServerName matchedSNIServerName = jsseSessionParameters.getMatchedSNIServerName();
+            if (null == matchedSNIServerName)
+            {
+                TlsUtils.writeUint8(0, buf);
+            }
+            else
+            {
+                TlsUtils.writeUint8(1, buf);
+                new ServerName((short)matchedSNIServerName.getType(), matchedSNIServerName.getEncoded()).encode(buf);
+            }
+
+            byte[] encoded = buf.toByteArray();
+            try
+            {
+                return new BCSSLStoredSession(tlsSession.getSessionID(), creationTime, encoded);
+            }
+            finally
+            {
+                Arrays.fill(encoded, (byte)0);
+            }
+        }
+        finally
+        {
+            Arrays.fill(masterSecret, (byte)0);
+            buf.clear();
+        }
+    }
+
+    static ProvSSLSession decode(ProvSSLSessionContext sslSessionContext, BCSSLStoredSession storedSession)
+        throws IOException
+    {
+        TlsCrypto crypto = sslSessionContext.getCrypto();
+
+        byte[] encoded = storedSession.getEncoded();
+        byte[] masterSecret = null;
+        try
+        {
+            ByteArrayInputStream input = new ByteArrayInputStream(encoded);
+            if (TlsUtils.readUint8(input) != VERSION)
+            {
+                throw new TlsFatalAlert(AlertDescription.decode_error);
+            }
+
+            int cipherSuite = TlsUtils.readUint16(input);
+            SessionParameters.Builder builder = new SessionParameters.Builder()
+                .setCipherSuite(cipherSuite)
+                .setNegotiatedVersion(TlsUtils.readVersion(input))
+                .setExtendedMasterSecret(readBoolean(input));
+
+            masterSecret = TlsUtils.readOpaque8(input, 1);
+
+            builder
+                .setPSKIdentity(readOptionalOpaque16(input))
+                .setSRPIdentity(readOptionalOpaque16(input))
+                .setServerExtensions(readExtensions(input))
+                .setLocalCertificate(readCertificate(crypto, input))
+                .setPeerCertificate(readCertificate(crypto, input));
+
+            byte[] endpointIDAlgorithm = readOptionalOpaque16(input);
+            BCSNIServerName matchedSNIServerName = readBoolean(input)
+                ?   JsseUtils.convertSNIServerName(ServerName.parse(input))
+                :   null;
+
+            if (input.available() != 0)
+            {
+                throw new TlsFatalAlert(AlertDescription.decode_error);
+            }
+
+            SessionParameters sessionParameters = builder.setMasterSecret(crypto.createSecret(masterSecret)).build();
+            TlsSession tlsSession = TlsUtils.importSession(storedSession.getSessionID(), sessionParameters);
+
+            JsseSessionParameters jsseSessionParameters = new JsseSessionParameters(
+                null == endpointIDAlgorithm ? null : Strings.fromUTF8ByteArray(endpointIDAlgorithm),
+                matchedSNIServerName);
+
+            return new ProvSSLSession(sslSessionContext, null, -1, tlsSession, jsseSessionParameters,
+                storedSession.getCreationTime());
+        }
+        finally
+        {
+            Arrays.fill(encoded, (byte)0);
+            if (null != masterSecret)
+            {
+                Arrays.fill(masterSecret, (byte)0);
+            }
+        }
+    }
+
+    private static boolean readBoolean(InputStream input) throws IOException
+    {
+        short b = TlsUtils.readUint8(input);
+        switch (b)
+        {
+        case 0:
+            return false;
+        case 1:
+            return true;
+        default:
+            throw new TlsFatalAlert(AlertDescription.decode_error);
+        }
+    }
+
+    private static byte[] readOptionalOpaque16(InputStream input) throws IOException
+    {
+        return readBoolean(input) ? TlsUtils.readOpaque16(input) : null;
+    }
+
+    private static void writeOptionalOpaque16(byte[] data, OutputStream output) throws IOException
+    {
+        if (null == data)
+        {
+            TlsUtils.writeUint8(0, output);
+            return;
+        }
+
+        TlsUtils.writeUint8(1, output);
+        TlsUtils.writeOpaque16(data, output);
+    }
+
+    private static Hashtable readExtensions(InputStream input) throws IOException
+    {
+        byte[] extBytes = readOptionalOpaque16(input);
+        if (null == extBytes)
+        {
+            return null;
+        }
+
+        Hashtable extensions = new Hashtable();
+        ByteArrayInputStream buf = new ByteArrayInputStream(extBytes);
+        while (buf.available() > 0)
+        {
+            Integer extensionType = Integers.valueOf(TlsUtils.readUint16(buf));
+            byte[] extensionData = TlsUtils.readOpaque16(buf);
+            if (null != extensions.put(extensionType, extensionData))
+            {
+                throw new TlsFatalAlert(AlertDescription.decode_error);
+            }
+        }
+        return extensions;
+    }
+
+    private static void writeExtensions(Hashtable extensions, OutputStream output) throws IOException
+    {
+        if (null == extensions)
+        {
+            TlsUtils.writeUint8(0, output);
+            return;
+        }
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        Enumeration keys = extensions.keys();
+        while (keys.hasMoreElements())
+        {
+            Integer extensionType = (Integer)keys.nextElement();
+            TlsUtils.writeUint16(extensionType.intValue(), buf);
+            TlsUtils.writeOpaque16((byte[])extensions.get(extensionType), buf);
+        }
+
+        writeOptionalOpaque16(buf.toByteArray(), output);
+    }
+
+    /*
+     * struct {
+     *     CertificateType certificate_type;
+     *     Optional<opaque certificate_request_context<0..2^8-1>>;
+     *     opaque cert_data<0..2^24-1><0..2^24-1>;
+     * } CertificateState;
+     */
+    private static Certificate readCertificate(TlsCrypto crypto, InputStream input) throws IOException
+    {
+        if (!readBoolean(input))
+        {
+            return null;
+        }
+
+        short certificateType = TlsUtils.readUint8(input);
+        byte[] certificateRequestContext = readBoolean(input) ? TlsUtils.readOpaque8(input) : null;
+        byte[] certListData = TlsUtils.readOpaque24(input);
+
+        ByteArrayInputStream buf = new ByteArrayInputStream(certListData);
+        Vector entries = new Vector();
+        while (buf.available() > 0)
+        {
+            TlsCertificate cert = crypto.createCertificate(certificateType, TlsUtils.readOpaque24(buf, 1));
+            entries.addElement(new CertificateEntry(cert, null));
+        }
+
+        CertificateEntry[] certificateEntryList = new CertificateEntry[entries.size()];
+        entries.copyInto(certificateEntryList);
+
+        return new Certificate(certificateType, certificateRequestContext, certificateEntryList);
+    }
+
+    private static void writeCertificate(Certificate certificate, OutputStream output) throws IOException
+    {
+        if (null == certificate)
+        {
+            TlsUtils.writeUint8(0, output);
+            return;
+        }
+
+        TlsUtils.writeUint8(1, output);
+        TlsUtils.writeUint8(certificate.getCertificateType(), output);
+
+        byte[] certificateRequestContext = certificate.getCertificateRequestContext();
+        if (null == certificateRequestContext)
+        {
+            TlsUtils.writeUint8(0, output);
+        }
+        else
+        {
+            TlsUtils.writeUint8(1, output);
+            TlsUtils.writeOpaque8(certificateRequestContext, output);
+        }
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        for (int i = 0; i < certificate.getLength(); ++i)
+        {
+            TlsUtils.writeOpaque24(certificate.getCertificateAt(i).getEncoded(), buf);
+        }
+        TlsUtils.writeOpaque24(buf.toByteArray(), output);
+    }
+
+    /*
+     * Holds the encoding while it is built. It contains the master secret, so the array is zeroed when it is
+     * replaced by a larger one, and by clear().
+     */
+    private static class SecretBuffer
+        extends ByteArrayOutputStream
+    {
+        SecretBuffer()
+        {
+            super(512);
+        }
+
+        public synchronized void write(int b)
+        {
+            ensureCapacity(1);
+            super.write(b);
+        }
+
+        public synchronized void write(byte[] b, int off, int len)
+        {
+            ensureCapacity(len);
+            super.write(b, off, len);
+        }
+
+        synchronized void clear()
+        {
+            Arrays.fill(buf, (byte)0);
+            count = 0;
+        }
+
+        private void ensureCapacity(int len)
+        {
+            int required = count + len;
+            if (required > buf.length)
+            {
+                byte[] newBuf = new byte[Math.max(required, buf.length * 2)];
+                System.arraycopy(buf, 0, newBuf, 0, count);
+                Arrays.fill(buf, (byte)0);
+                buf = newBuf;
+            }
+        }
+    }
+}
@@ -319,6 +319,21 @@ public TlsPSKExternal getExternalPSK(Vector identities)
         return null;
     }
 
+    /**
+     * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+     * 
+     * Return the {@link TlsSessionTicketHandler} used to issue TLS 1.3 session tickets and to open the tickets
+     * offered for resumption. Offered tickets are only considered when {@link #getExternalPSK(Vector)} selects
+     * no PSK.
+     * 
+     * @return the {@link TlsSessionTicketHandler} to use, or null (the default) to neither issue nor accept
+     *         tickets.
+     */
+    public TlsSessionTicketHandler getSessionTicketHandler()
+    {
+        return null;
+    }
+
     public void notifySession(TlsSession session)
     {
     }
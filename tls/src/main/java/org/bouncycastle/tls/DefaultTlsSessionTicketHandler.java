@@ -0,0 +1,343 @@
+package org.bouncycastle.tls;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Vector;
+
+import org.bouncycastle.tls.crypto.CryptoHashAlgorithm;
+import org.bouncycastle.tls.crypto.TlsCertificate;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.TlsSecret;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.Strings;
+
+/**
+ * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+ * <p>
+ * A {@link TlsSessionTicketHandler} that keeps no per-session state: the session is carried in the ticket
+ * itself, sealed by a {@link TlsSessionTicketSealer} under a key derived from a master key.
+ * </p><p>
+ * Ticket keys rotate once per ticket lifetime, and are derived from the master key and the index of the
+ * rotation period, so servers configured with the same master key (and sealer) can open each other's tickets
+ * without any further coordination. Tickets are accepted under the current and previous period's keys (and for
+ * no longer than the ticket lifetime). A ticket is
+ * </p>
+ * <pre>
+ *     uint64 period; opaque nonce[Nn]; opaque sealed_state[n];
+ * </pre>
+ * <p>
+ * where sealed_state is the state sealed using the key HKDF-Expand(HKDF-Extract(0, master_key),
+ * "tls13 ticket key" + period, Nk) and the ticket header (the period and nonce) as additional data, with Nk and
+ * Nn the sealer's key and nonce lengths. The state is the cipher suite, negotiated version, ticket_age_add,
+ * issue time, PSK, and the local and peer certificates.
+ * </p>
+ */
+public class DefaultTlsSessionTicketHandler
+    implements TlsSessionTicketHandler
+{
+    /** The default ticket lifetime, in seconds (one day). */
+    public static final long DEFAULT_TICKET_LIFETIME = 86400L;
+
+    /** The default limit on the difference between the client's and the server's view of a ticket's age, in milliseconds. */
+    public static final long DEFAULT_MAX_TICKET_AGE_SKEW = 10000L;
+
+    private static final int MASTER_KEY_LENGTH = 32;
+
+    private static final byte[] KEY_LABEL = Strings.toByteArray("tls13 ticket key");
+
+    protected final TlsCrypto crypto;
+    protected final TlsSessionTicketSealer sealer;
+    protected final byte[] masterKey;
+    protected final long ticketLifetime;
+    protected final long maxTicketAgeSkew;
+
+    /**
+     * Create a handler with a random master key and the default ticket lifetime and age skew limit.
+     *
+     * @param crypto the {@link TlsCrypto} to use.
+     * @param sealer the {@link TlsSessionTicketSealer} to protect tickets with.
+     */
+    public DefaultTlsSessionTicketHandler(TlsCrypto crypto, TlsSessionTicketSealer sealer)
+    {
+        this(crypto, sealer, null, DEFAULT_TICKET_LIFETIME, DEFAULT_MAX_TICKET_AGE_SKEW);
+    }
+
+    /**
+     * @param crypto the {@link TlsCrypto} to use.
+     * @param sealer the {@link TlsSessionTicketSealer} to protect tickets with.
+     * @param masterKey a secret key of at least 32 bytes, shared by all servers that should accept each
+     *            other's tickets, or null to generate a random one.
+     * @param ticketLifetime the ticket lifetime in seconds (1 to 604800), which is also the key rotation period.
+     * @param maxTicketAgeSkew the largest accepted difference (in milliseconds) between the ticket age
+     *            reported by the client and the age the server calculates, or a negative value to not check it.
+     */
+    public DefaultTlsSessionTicketHandler(TlsCrypto crypto, TlsSessionTicketSealer sealer, byte[] masterKey,
+        long ticketLifetime, long maxTicketAgeSkew)
+    {
+        if (null == crypto)
+        {
+            throw new NullPointerException("'crypto' cannot be null");
+        }
+        if (null == sealer)
+        {
+            throw new NullPointerException("'sealer' cannot be null");
+        }
+        if (null != masterKey && masterKey.length < MASTER_KEY_LENGTH)
+        {
+            throw new IllegalArgumentException("'masterKey' must be at least " + MASTER_KEY_LENGTH + " bytes");
+        }
+        if (ticketLifetime < 1 || ticketLifetime > 604800L)
+        {
+            throw new IllegalArgumentException("'ticketLifetime' must be from 1 to 604800 seconds");
+        }
+
+        this.crypto = crypto;
+        this.sealer = sealer;
+        this.ticketLifetime = ticketLifetime;
+        this.maxTicketAgeSkew = maxTicketAgeSkew;
+
+        if (null == masterKey)
+        {
+            masterKey = new byte[MASTER_KEY_LENGTH];
+            crypto.getSecureRandom().nextBytes(masterKey);
+        }
+        else
+        {
+            masterKey = Arrays.clone(masterKey);
+        }
+        this.masterKey = masterKey;
+    }
+
+    public long getTicketLifetime()
+    {
+        return ticketLifetime;
+    }
+
+    public byte[] createTicket(TlsServerContext context, SessionParameters sessionParameters, long ticketAgeAdd)
+        throws IOException
+    {
+        long now = System.currentTimeMillis();
+        long period = getPeriod(now);
+
+        int nonceLength = sealer.getNonceLength();
+        byte[] header = new byte[8 + nonceLength];
+        Pack.longToBigEndian(period, header, 0);
+        byte[] nonce = context.getNonceGenerator().generateNonce(nonceLength);
+        System.arraycopy(nonce, 0, header, 8, nonceLength);
+
+        byte[] state = encodeState(sessionParameters, ticketAgeAdd, now);
+        byte[] key = deriveKey(period);
+        try
+        {
+            return Arrays.concatenate(header, sealer.seal(key, nonce, header, state));
+        }
+        finally
+        {
+            Arrays.fill(key, (byte)0);
+            Arrays.fill(state, (byte)0);
+        }
+    }
+
+    public SessionParameters openTicket(TlsServerContext context, PskIdentity identity)
+        throws IOException
+    {
+        byte[] ticket = identity.getIdentity();
+        int headerLength = 8 + sealer.getNonceLength();
+        if (ticket.length <= headerLength)
+        {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long period = Pack.bigEndianToLong(ticket, 0);
+        long currentPeriod = getPeriod(now);
+        if (period != currentPeriod && period != currentPeriod - 1)
+        {
+            return null;
+        }
+
+        byte[] header = Arrays.copyOfRange(ticket, 0, headerLength);
+        byte[] nonce = Arrays.copyOfRange(ticket, 8, headerLength);
+        byte[] state = null;
+
+        byte[] key = deriveKey(period);
+        try
+        {
+            state = sealer.open(key, nonce, header, ticket, headerLength, ticket.length - headerLength);
+            if (null == state)
+            {
+                return null;
+            }
+
+            try
+            {
+                return decodeState(identity, new ByteArrayInputStream(state), now);
+            }
+            catch (IOException e)
+            {
+                // e.g. sealed by a server using a different state encoding
+                return null;
+            }
+        }
+        finally
+        {
+            Arrays.fill(key, (byte)0);
+            if (null != state)
+            {
+                Arrays.fill(state, (byte)0);
+            }
+        }
+    }
+
+    protected long getPeriod(long timeMillis)
+    {
+        return timeMillis / (ticketLifetime * 1000L);
+    }
+
+    private SessionParameters decodeState(PskIdentity identity, ByteArrayInputStream input, long now)
+        throws IOException
+    {
+        int cipherSuite = TlsUtils.readUint16(input);
+        ProtocolVersion negotiatedVersion = TlsUtils.readVersion(input);
+        long ticketAgeAdd = TlsUtils.readUint32(input);
+        long issueTime = Pack.bigEndianToLong(TlsUtils.readFully(8, input), 0);
+
+        long serverAge = now - issueTime;
+        if (serverAge < 0 || serverAge > ticketLifetime * 1000L)
+        {
+            return null;
+        }
+
+        if (maxTicketAgeSkew >= 0)
+        {
+            long clientAge = (identity.getObfuscatedTicketAge() - ticketAgeAdd) & 0xFFFFFFFFL;
+            if (Math.abs(serverAge - clientAge) > maxTicketAgeSkew)
+            {
+                return null;
+            }
+        }
+
+        byte[] psk = TlsUtils.readOpaque8(input, 1);
+        Certificate localCertificate = readCertificate(input);
+        Certificate peerCertificate = readCertificate(input);
+        TlsProtocol.assertEmpty(input);
+
+        TlsSecret masterSecret = crypto.createSecret(psk);
+        Arrays.fill(psk, (byte)0);
+
+        return new SessionParameters.Builder()
+            .setCipherSuite(cipherSuite)
+            .setExtendedMasterSecret(true)
+            .setLocalCertificate(localCertificate)
+            .setMasterSecret(masterSecret)
+            .setNegotiatedVersion(negotiatedVersion)
+            .setPeerCertificate(peerCertificate)
+            .build();
+    }
+
+    private byte[] deriveKey(long period)
+    {
+        byte[] info = new byte[KEY_LABEL.length + 8];
+        System.arraycopy(KEY_LABEL, 0, info, 0, KEY_LABEL.length);
+        Pack.longToBigEndian(period, info, KEY_LABEL.length);
+
+        TlsSecret ikm = crypto.createSecret(masterKey);
+        TlsSecret prk;
+        try
+        {
+            prk = crypto.hkdfInit(CryptoHashAlgorithm.sha256).hkdfExtract(CryptoHashAlgorithm.sha256, ikm);
+        }
+        finally
+        {
+            ikm.destroy();
+        }
+
+        try
+        {
+            return prk.hkdfExpand(CryptoHashAlgorithm.sha256, info, sealer.getKeyLength()).extract();
+        }
+        finally
+        {
+            prk.destroy();
+        }
+    }
+
+    private byte[] encodeState(SessionParameters sessionParameters, long ticketAgeAdd, long issueTime)
+        throws IOException
+    {
+        byte[] psk = sessionParameters.getMasterSecret().extract();
+        if (!TlsUtils.isValidUint8(psk.length))
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        TlsUtils.writeUint16(sessionParameters.getCipherSuite(), buf);
+        TlsUtils.writeVersion(sessionParameters.getNegotiatedVersion(), buf);
+        TlsUtils.writeUint32(ticketAgeAdd, buf);
+        TlsUtils.writeUint64(issueTime, buf);
+        TlsUtils.writeOpaque8(psk, buf);
+        Arrays.fill(psk, (byte)0);
+        writeCertificate(sessionParameters.getLocalCertificate(), buf);
+        writeCertificate(sessionParameters.getPeerCertificate(), buf);
+        return buf.toByteArray();
+    }
+
+    /*
+     * struct {
+     *     uint8 present;
+     *     select (present) {
+     *         case 0: struct {};
+     *         case 1: CertificateType certificate_type; opaque cert_data<0..2^24-1><0..2^24-1>;
+     *     };
+     * } CertificateState;
+     */
+    private Certificate readCertificate(InputStream input)
+        throws IOException
+    {
+        if (TlsUtils.readUint8(input) == 0)
+        {
+            return null;
+        }
+
+        short certificateType = TlsUtils.readUint8(input);
+        byte[] certListData = TlsUtils.readOpaque24(input);
+
+        ByteArrayInputStream buf = new ByteArrayInputStream(certListData);
+        Vector entries = new Vector();
+        while (buf.available() > 0)
+        {
+            TlsCertificate cert = crypto.createCertificate(certificateType, TlsUtils.readOpaque24(buf, 1));
+            entries.addElement(new CertificateEntry(cert, null));
+        }
+
+        CertificateEntry[] certificateEntryList = new CertificateEntry[entries.size()];
+        entries.copyInto(certificateEntryList);
+
+        return new Certificate(certificateType, TlsUtils.EMPTY_BYTES, certificateEntryList);
+    }
+
+    private static void writeCertificate(Certificate certificate, OutputStream output)
+        throws IOException
+    {
+        if (null == certificate)
+        {
+            TlsUtils.writeUint8(0, output);
+            return;
+        }
+
+        TlsUtils.writeUint8(1, output);
+        TlsUtils.writeUint8(certificate.getCertificateType(), output);
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        for (int i = 0; i < certificate.getLength(); ++i)
+        {
+            TlsUtils.writeOpaque24(certificate.getCertificateAt(i).getEncoded(), buf);
+        }
+        TlsUtils.writeOpaque24(buf.toByteArray(), output);
+    }
+}
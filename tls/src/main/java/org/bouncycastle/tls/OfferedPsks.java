@@ -36,13 +36,18 @@
         final TlsPSK psk;
         final short[] pskKeyExchangeModes;
         final TlsSecret earlySecret;
+        final boolean isExternalPSK;
+        final SessionParameters ticketSession;
 
-        SelectedConfig(int index, TlsPSK psk, short[] pskKeyExchangeModes, TlsSecret earlySecret)
+        SelectedConfig(int index, TlsPSK psk, short[] pskKeyExchangeModes, TlsSecret earlySecret,
+            SessionParameters ticketSession)
         {
             this.index = index;
             this.psk = psk;
             this.pskKeyExchangeModes = pskKeyExchangeModes;
             this.earlySecret = earlySecret;
+            this.isExternalPSK = (null == ticketSession);
+            this.ticketSession = ticketSession;
         }
     }
 
@@ -5,11 +5,14 @@
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+import org.bouncycastle.tls.crypto.TlsByteBufferCipher;
 import org.bouncycastle.tls.crypto.TlsCipher;
 import org.bouncycastle.tls.crypto.TlsDecodeResult;
 import org.bouncycastle.tls.crypto.TlsEncodeResult;
 import org.bouncycastle.tls.crypto.TlsNullNullCipher;
+import org.bouncycastle.util.Arrays;
 
 /**
  * An implementation of the TLS 1.0/1.1/1.2 record layer.
@@ -19,6 +22,7 @@
     private static int DEFAULT_PLAINTEXT_LIMIT = (1 << 14);
 
     private final Record inputRecord = new Record();
+    private final byte[] recordHeader = new byte[RecordFormat.FRAGMENT_OFFSET];
     private final SequenceNumber readSeqNo = new SequenceNumber(), writeSeqNo = new SequenceNumber();
 
     private TlsProtocol handler;
@@ -35,6 +39,9 @@
     private int ciphertextLimit = DEFAULT_PLAINTEXT_LIMIT;
     private boolean ignoreChangeCipherSpec = false;
 
+    // Holds records from buffers without an accessible array for ciphers that only work on arrays
+    private byte[] decodeScratch = null;
+
     RecordStream(TlsProtocol handler, InputStream input, OutputStream output)
     {
         this.handler = handler;
@@ -210,6 +217,61 @@ boolean readFullRecord(byte[] input, int inputOff, int inputLen)
         return true;
     }
 
+    /**
+     * Decode, in place, the single full record between the position and limit of the passed in buffer.
+     *
+     * @return the content type of the record, with the buffer's position and limit delimiting the plaintext, or
+     *         -1 if the record was ignored (the buffer's position is then at its limit).
+     */
+    short readFullRecord(ByteBuffer record)
+        throws IOException
+    {
+        int recordPos = record.position();
+        for (int i = 0; i < RecordFormat.FRAGMENT_OFFSET; ++i)
+        {
+            recordHeader[i] = record.get(recordPos + i);
+        }
+
+        short recordType = checkRecordType(recordHeader, RecordFormat.TYPE_OFFSET);
+
+        ProtocolVersion recordVersion = TlsUtils.readVersion(recordHeader, RecordFormat.VERSION_OFFSET);
+
+        int length = TlsUtils.readUint16(recordHeader, RecordFormat.LENGTH_OFFSET);
+
+        checkLength(length, ciphertextLimit, AlertDescription.record_overflow);
+
+        int fragmentPos = recordPos + RecordFormat.FRAGMENT_OFFSET;
+        if (record.limit() != fragmentPos + length)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        record.position(fragmentPos);
+
+        if (ignoreChangeCipherSpec && ContentType.change_cipher_spec == recordType)
+        {
+            checkChangeCipherSpec(record, fragmentPos, length);
+            record.position(record.limit());
+            return -1;
+        }
+
+        long seqNo = readSeqNo.nextValue(AlertDescription.unexpected_message);
+
+        short contentType;
+        if (readCipher instanceof TlsByteBufferCipher)
+        {
+            contentType = ((TlsByteBufferCipher)readCipher).decodeCiphertext(seqNo, recordType, recordVersion, record);
+        }
+        else
+        {
+            contentType = decodeInPlace(seqNo, recordType, recordVersion, record);
+        }
+
+        checkDecoded(contentType, record.remaining());
+
+        return contentType;
+    }
+
     boolean readRecord()
         throws IOException
     {
@@ -254,16 +316,7 @@ TlsDecodeResult decodeAndVerify(short recordType, ProtocolVersion recordVersion,
         long seqNo = readSeqNo.nextValue(AlertDescription.unexpected_message);
         TlsDecodeResult decoded = readCipher.decodeCiphertext(seqNo, recordType, recordVersion, ciphertext, off, len);
 
-        checkLength(decoded.len, plaintextLimit, AlertDescription.record_overflow);
-
-        /*
-         * RFC 5246 6.2.1 Implementations MUST NOT send zero-length fragments of Handshake, Alert,
-         * or ChangeCipherSpec content types.
-         */
-        if (decoded.len < 1 && decoded.contentType != ContentType.application_data)
-        {
-            throw new TlsFatalAlert(AlertDescription.illegal_parameter);
-        }
+        checkDecoded(decoded.contentType, decoded.len);
 
         return decoded;
     }
@@ -316,6 +369,92 @@ void writeRecord(short contentType, byte[] plaintext, int plaintextOffset, int p
         output.flush();
     }
 
+    /**
+     * Write a record of application data gathered from the passed in buffers, encoding it in place in output
+     * (which must have room for it, see {@link #previewOutputRecordSize(int)}).
+     *
+     * @return false, without consuming any input, if the current cipher can't encode in place.
+     */
+    boolean writeRecord(short contentType, ByteBuffer[] srcs, int offset, int length, int plaintextLength,
+        ByteBuffer output) throws IOException
+    {
+        // NOTE: Application data is never written before the write version is known
+        if (!(writeCipher instanceof TlsByteBufferCipher) || writeVersion == null)
+        {
+            return false;
+        }
+
+        /*
+         * RFC 5246 6.2.1 The length should not exceed 2^14.
+         */
+        checkLength(plaintextLength, plaintextLimit, AlertDescription.internal_error);
+
+        /*
+         * RFC 5246 6.2.1 Implementations MUST NOT send zero-length fragments of Handshake, Alert,
+         * or ChangeCipherSpec content types.
+         */
+        if (plaintextLength < 1 && contentType != ContentType.application_data)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        TlsByteBufferCipher cipher = (TlsByteBufferCipher)writeCipher;
+
+        long seqNo = writeSeqNo.nextValue(AlertDescription.internal_error);
+        ProtocolVersion recordVersion = writeVersion;
+
+        int recordPos = output.position();
+        int fragmentPos = recordPos + RecordFormat.FRAGMENT_OFFSET;
+        int plaintextPos = fragmentPos + cipher.getPlaintextEncodeOffset();
+
+        output.position(plaintextPos);
+        for (int i = 0, remaining = plaintextLength; i < length && remaining > 0; ++i)
+        {
+            ByteBuffer src = srcs[offset + i];
+            int count = Math.min(src.remaining(), remaining);
+            if (count > 0)
+            {
+                int srcLimit = src.limit();
+                src.limit(src.position() + count);
+                output.put(src);
+                src.limit(srcLimit);
+                remaining -= count;
+            }
+        }
+        output.position(fragmentPos);
+
+        short recordType;
+        boolean encoded = false;
+        try
+        {
+            recordType = cipher.encodePlaintext(seqNo, contentType, recordVersion, output, plaintextLength);
+            encoded = true;
+        }
+        finally
+        {
+            if (!encoded)
+            {
+                // Don't leave the plaintext behind in the output
+                for (int i = plaintextPos; i < plaintextPos + plaintextLength; ++i)
+                {
+                    output.put(i, (byte)0);
+                }
+                output.position(recordPos);
+            }
+        }
+
+        int ciphertextLength = output.position() - fragmentPos;
+        TlsUtils.checkUint16(ciphertextLength);
+
+        output.put(recordPos + RecordFormat.TYPE_OFFSET, (byte)recordType);
+        output.put(recordPos + RecordFormat.VERSION_OFFSET, (byte)recordVersion.getMajorVersion());
+        output.put(recordPos + RecordFormat.VERSION_OFFSET + 1, (byte)recordVersion.getMinorVersion());
+        output.put(recordPos + RecordFormat.LENGTH_OFFSET, (byte)(ciphertextLength >>> 8));
+        output.put(recordPos + RecordFormat.LENGTH_OFFSET + 1, (byte)ciphertextLength);
+
+        return true;
+    }
+
     void close() throws IOException
     {
         inputRecord.reset();
@@ -363,6 +502,90 @@ private void checkChangeCipherSpec(byte[] buf, int off, int len)
         }
     }
 
+    private void checkDecoded(short contentType, int len)
+        throws IOException
+    {
+        checkLength(len, plaintextLimit, AlertDescription.record_overflow);
+
+        /*
+         * RFC 5246 6.2.1 Implementations MUST NOT send zero-length fragments of Handshake, Alert,
+         * or ChangeCipherSpec content types.
+         */
+        if (len < 1 && contentType != ContentType.application_data)
+        {
+            throw new TlsFatalAlert(AlertDescription.illegal_parameter);
+        }
+    }
+
+    /*
+     * Decode the fragment between the position and limit of record with a cipher that only works on arrays,
+     * leaving the plaintext at the start of the fragment (unless decoded in place in the record's own array).
+     */
+    private short decodeInPlace(long seqNo, short recordType, ProtocolVersion recordVersion, ByteBuffer record)
+        throws IOException
+    {
+        int fragmentPos = record.position();
+        int length = record.remaining();
+
+        if (record.hasArray())
+        {
+            byte[] array = record.array();
+            int arrayOffset = record.arrayOffset();
+
+            TlsDecodeResult decoded = readCipher.decodeCiphertext(seqNo, recordType, recordVersion, array,
+                arrayOffset + fragmentPos, length);
+
+            if (decoded.buf == array)
+            {
+                record.limit(decoded.off - arrayOffset + decoded.len);
+                record.position(decoded.off - arrayOffset);
+            }
+            else
+            {
+                putPlaintext(record, fragmentPos, decoded);
+            }
+            return decoded.contentType;
+        }
+
+        if (null == decodeScratch || decodeScratch.length < length)
+        {
+            this.decodeScratch = new byte[length];
+        }
+
+        try
+        {
+            record.get(decodeScratch, 0, length);
+
+            TlsDecodeResult decoded = readCipher.decodeCiphertext(seqNo, recordType, recordVersion, decodeScratch, 0,
+                length);
+
+            putPlaintext(record, fragmentPos, decoded);
+            return decoded.contentType;
+        }
+        finally
+        {
+            Arrays.fill(decodeScratch, 0, length, (byte)0);
+        }
+    }
+
+    private static void putPlaintext(ByteBuffer record, int fragmentPos, TlsDecodeResult decoded)
+    {
+        record.limit(fragmentPos + decoded.len);
+        record.position(fragmentPos);
+        record.put(decoded.buf, decoded.off, decoded.len);
+        record.position(fragmentPos);
+    }
+
+    private void checkChangeCipherSpec(ByteBuffer buf, int off, int len)
+        throws IOException
+    {
+        if (1 != len || (byte)ChangeCipherSpec.change_cipher_spec != buf.get(off))
+        {
+            throw new TlsFatalAlert(AlertDescription.unexpected_message,
+                "Malformed " + ContentType.getText(ContentType.change_cipher_spec));
+        }
+    }
+
     private short checkRecordType(byte[] buf, int off)
         throws IOException
     {
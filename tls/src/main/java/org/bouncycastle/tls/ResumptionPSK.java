@@ -0,0 +1,36 @@
+package org.bouncycastle.tls;
+
+import org.bouncycastle.tls.crypto.TlsSecret;
+
+/**
+ * The resumption PSK recovered from a session ticket, with the ticket as its identity.
+ */
+class ResumptionPSK
+    implements TlsPSK
+{
+    private final byte[] identity;
+    private final TlsSecret key;
+    private final int prfAlgorithm;
+
+    ResumptionPSK(byte[] identity, TlsSecret key, int prfAlgorithm)
+    {
+        this.identity = identity;
+        this.key = key;
+        this.prfAlgorithm = prfAlgorithm;
+    }
+
+    public byte[] getIdentity()
+    {
+        return identity;
+    }
+
+    public TlsSecret getKey()
+    {
+        return key;
+    }
+
+    public int getPRFAlgorithm()
+    {
+        return prfAlgorithm;
+    }
+}
@@ -942,6 +942,87 @@ protected boolean safeReadFullRecord(byte[] input, int inputOff, int inputLen)
         }
     }
 
+    protected boolean safeReadFullRecord(ByteBuffer record)
+        throws IOException
+    {
+        try
+        {
+            short contentType = recordStream.readFullRecord(record);
+            if (contentType < 0)
+            {
+                return false;
+            }
+
+            // Application data goes straight to the caller, unless earlier data is still waiting to be read
+            if (ContentType.application_data == contentType && applicationDataQueue.available() == 0)
+            {
+                if (!appDataReady)
+                {
+                    throw new TlsFatalAlert(AlertDescription.unexpected_message);
+                }
+                return true;
+            }
+
+            int len = record.remaining();
+            if (record.hasArray())
+            {
+                processRecord(contentType, record.array(), record.arrayOffset() + record.position(), len);
+            }
+            else
+            {
+                byte[] buf = new byte[len];
+                record.get(buf);
+                processRecord(contentType, buf, 0, len);
+            }
+            record.position(record.limit());
+            return false;
+        }
+        catch (TlsFatalAlertReceived e)
+        {
+            // Connection failure already handled at source
+            throw e;
+        }
+        catch (TlsFatalAlert e)
+        {
+            handleException(e.getAlertDescription(), "Failed to process record", e);
+            throw e;
+        }
+        catch (IOException e)
+        {
+            handleException(AlertDescription.internal_error, "Failed to process record", e);
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            handleException(AlertDescription.internal_error, "Failed to process record", e);
+            throw new TlsFatalAlert(AlertDescription.internal_error, e);
+        }
+    }
+
+    protected boolean safeWriteRecord(short type, ByteBuffer[] srcs, int offset, int length, int plaintextLength,
+        ByteBuffer output) throws IOException
+    {
+        try
+        {
+            return recordStream.writeRecord(type, srcs, offset, length, plaintextLength, output);
+        }
+        catch (TlsFatalAlert e)
+        {
+            handleException(e.getAlertDescription(), "Failed to write record", e);
+            throw e;
+        }
+        catch (IOException e)
+        {
+            handleException(AlertDescription.internal_error, "Failed to write record", e);
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            handleException(AlertDescription.internal_error, "Failed to write record", e);
+            throw new TlsFatalAlert(AlertDescription.internal_error, e);
+        }
+    }
+
     protected void safeWriteRecord(short type, byte[] buf, int offset, int len)
         throws IOException
     {
@@ -1073,6 +1154,69 @@ else if (recordStream.needsKeyUpdate())
         }
     }
 
+    /**
+     * Write a single record of application data, gathered from the remaining bytes of a sequence of
+     * {@link ByteBuffer}s, straight into an output {@link ByteBuffer} where it is encrypted in place. The record
+     * doesn't pass through the output queue read by {@link #readOutput(ByteBuffer, int)}. Only allowed in
+     * non-blocking mode, for record-aligned output.<br>
+     * <br>
+     * The record holds at most {@link #getApplicationDataLimit()} bytes, and output must have at least
+     * {@link #previewOutputRecord(int)}<code>.getRecordSize()</code> bytes remaining for it. When the record
+     * can't be written this way (the current cipher doesn't support it, or a record splitting mode or pending
+     * key update needs extra records), nothing is consumed or written and -1 is returned; use
+     * {@link #writeApplicationData(byte[], int, int)} instead.
+     *
+     * @param srcs The buffers containing application data to send
+     * @param offset The index of the first buffer to gather from
+     * @param length The number of buffers to gather from
+     * @param output The buffer the record is written into, from its position
+     * @return The number of bytes of application data consumed, or -1 if the record could not be written.
+     * @throws IllegalStateException If called before the initial handshake has completed.
+     * @throws IOException           If connection is already closed, or for encryption errors.
+     */
+    public int writeApplicationData(ByteBuffer[] srcs, int offset, int length, ByteBuffer output)
+        throws IOException
+    {
+        if (!appDataReady)
+        {
+            throw new IllegalStateException("Cannot write application data until initial handshake completed.");
+        }
+        if (blocking)
+        {
+            throw new IllegalStateException("Cannot write application data to a ByteBuffer in blocking mode!");
+        }
+        if (outputBuffer.getBuffer().available() != 0)
+        {
+            throw new IllegalStateException("Can only write application data to a ByteBuffer for record-aligned output.");
+        }
+
+        synchronized (recordWriteLock)
+        {
+            if (closed)
+            {
+                throw new IOException("Cannot write application data on closed/failed TLS connection");
+            }
+
+            if (appDataSplitEnabled || (keyUpdateEnabled && (keyUpdatePendingSend || recordStream.needsKeyUpdate())))
+            {
+                return -1;
+            }
+
+            int plaintextLength = 0, plaintextLimit = recordStream.getPlaintextLimit();
+            for (int i = 0; i < length && plaintextLength < plaintextLimit; ++i)
+            {
+                plaintextLength += Math.min(srcs[offset + i].remaining(), plaintextLimit - plaintextLength);
+            }
+
+            if (!safeWriteRecord(ContentType.application_data, srcs, offset, length, plaintextLength, output))
+            {
+                return -1;
+            }
+
+            return plaintextLength;
+        }
+    }
+
     public int getAppDataSplitMode()
     {
         return appDataSplitMode;
@@ -1411,6 +1555,63 @@ public void offerInput(byte[] input, int inputOff, int inputLen) throws IOExcept
         }
     }
 
+    /**
+     * Offer a single, complete record held in a {@link ByteBuffer}, which is decrypted in place. Only allowed
+     * in non-blocking mode, for record-aligned input.<br>
+     * <br>
+     * The record must lie exactly between the buffer's position and limit (see
+     * {@link #previewInputRecord(byte[])}); its bytes in the buffer are overwritten by the decryption. If it
+     * holds application data, true is returned and the decrypted data is left between the buffer's position and
+     * limit, for the caller to consume; it is not made available via {@link #readInput(ByteBuffer, int)}, unless
+     * earlier application data is still waiting to be read there, in which case it is added after that data and
+     * false returned. Otherwise the record is processed as for {@link #offerInput(byte[], int, int)}, false is
+     * returned, and the buffer's position is left at its limit.
+     *
+     * @param record The buffer holding the record
+     * @return true if the buffer holds decrypted application data for the caller.
+     * @throws IOException If an error occurs while decrypting or processing the record
+     */
+    public boolean offerInputInPlace(ByteBuffer record) throws IOException
+    {
+        if (blocking)
+        {
+            throw new IllegalStateException("Cannot use offerInputInPlace() in blocking mode!");
+        }
+        if (inputBuffers.available() != 0)
+        {
+            throw new IllegalStateException("Can only use offerInputInPlace() for record-aligned input.");
+        }
+        if (closed)
+        {
+            throw new IOException("Connection is closed, cannot accept any more input");
+        }
+
+        if (record.remaining() < RecordFormat.FRAGMENT_OFFSET)
+        {
+            throw new IllegalArgumentException("'record' must hold a complete record");
+        }
+
+        int lengthPos = record.position() + RecordFormat.LENGTH_OFFSET;
+        int length = ((record.get(lengthPos) & 0xFF) << 8) | (record.get(lengthPos + 1) & 0xFF);
+        if (record.remaining() != RecordFormat.FRAGMENT_OFFSET + length)
+        {
+            throw new IllegalArgumentException("'record' must hold exactly one complete record");
+        }
+
+        boolean result = safeReadFullRecord(record);
+
+        if (closed)
+        {
+            if (!appDataReady)
+            {
+                // NOTE: Any close during the handshake should have raised an exception.
+                throw new TlsFatalAlert(AlertDescription.internal_error);
+            }
+        }
+
+        return result;
+    }
+
     public int getApplicationDataLimit()
     {
         return recordStream.getPlaintextLimit();
@@ -10,6 +10,7 @@
 
 import org.bouncycastle.tls.crypto.TlsAgreement;
 import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.TlsCryptoUtils;
 import org.bouncycastle.tls.crypto.TlsDHConfig;
 import org.bouncycastle.tls.crypto.TlsECConfig;
 import org.bouncycastle.tls.crypto.TlsSecret;
@@ -181,6 +182,18 @@ protected ServerHello generate13ServerHello(ClientHello clientHello, HandshakeMe
                 throw new TlsFatalAlert(AlertDescription.internal_error);
             }
 
+            // TODO[tls13] Maybe filter the offered PSKs by PRF algorithm before server selection instead
+            if (null != selectedPSK && selectedPSK.psk.getPRFAlgorithm() != securityParameters.getPRFAlgorithm())
+            {
+                if (selectedPSK.isExternalPSK)
+                {
+                    throw new TlsFatalAlert(AlertDescription.illegal_parameter);
+                }
+
+                // A resumption PSK issued under a different cipher suite; fall back to a full handshake
+                selectedPSK = null;
+            }
+
             if (null == selectedPSK)
             {
                 /*
@@ -193,14 +206,6 @@ protected ServerHello generate13ServerHello(ClientHello clientHello, HandshakeMe
                     throw new TlsFatalAlert(AlertDescription.missing_extension);
                 }
             }
-            else
-            {
-                // TODO[tls13] Maybe filter the offered PSKs by PRF algorithm before server selection instead
-                if (selectedPSK.psk.getPRFAlgorithm() != securityParameters.getPRFAlgorithm())
-                {
-                    throw new TlsFatalAlert(AlertDescription.illegal_parameter);
-                }
-            }
 
             /*
              * TODO[tls13] Confirm fields in the ClientHello haven't changed
@@ -260,13 +265,13 @@ protected ServerHello generate13ServerHello(ClientHello clientHello, HandshakeMe
             tlsServer.processClientExtensions(clientHelloExtensions);
 
             /*
-             * NOTE: Currently no server support for session resumption
+             * NOTE: Resumption from a session ticket is only decided once the cipher suite is known (see
+             * below), so start from a new session here.
              * 
              * If adding support, ensure securityParameters.tlsUnique is set to the localVerifyData, but
              * ONLY when extended_master_secret has been negotiated (otherwise NULL).
              */
             {
-                // TODO[tls13] Resumption/PSK
                 securityParameters.resumedSession = false;
 
                 this.tlsSession = TlsUtils.importSession(TlsUtils.EMPTY_BYTES, null);
@@ -293,6 +298,21 @@ protected ServerHello generate13ServerHello(ClientHello clientHello, HandshakeMe
                 TlsUtils.negotiatedCipherSuite(securityParameters, cipherSuite);
             }
 
+            /*
+             * RFC 8446 4.6.1. Any ticket MUST only be resumed with a cipher suite that has the same KDF
+             * hash algorithm as that used to establish the original connection.
+             */
+            if (null != selectedPSK && !selectedPSK.isExternalPSK
+                && selectedPSK.psk.getPRFAlgorithm() != securityParameters.getPRFAlgorithm())
+            {
+                selectedPSK = null;
+
+                if (null == securityParameters.getClientSigAlgs())
+                {
+                    throw new TlsFatalAlert(AlertDescription.missing_extension);
+                }
+            }
+
             int[] clientSupportedGroups = securityParameters.getClientSupportedGroups();
             int[] serverSupportedGroups = securityParameters.getServerSupportedGroups();
 
@@ -389,6 +409,18 @@ protected ServerHello generate13ServerHello(ClientHello clientHello, HandshakeMe
 
             this.selectedPSK13 = true;
 
+            if (!selectedPSK.isExternalPSK)
+            {
+                /*
+                 * Resuming the session from a ticket; completeHandshake restores its certificates (identities)
+                 * into the security parameters.
+                 */
+                securityParameters.resumedSession = true;
+
+                this.sessionParameters = selectedPSK.ticketSession;
+                this.tlsSession = TlsUtils.importSession(securityParameters.getSessionID(), sessionParameters);
+            }
+
             TlsExtensionsUtils.addPreSharedKeyServerHello(serverHelloExtensions, selectedPSK.index);
         }
 
@@ -960,6 +992,14 @@ protected void handle13HandshakeMessage(short type, HandshakeMessageInput buf)
                 // NOTE: Completes the switch to application-data phase (server entered after CS_SERVER_FINISHED).
                 recordStream.enablePendingCipherRead(false);
 
+                TlsSessionTicketHandler sessionTicketHandler = TlsUtils.getSessionTicketHandler(tlsServer);
+                if (null != sessionTicketHandler)
+                {
+                    buf.updateHash(handshakeHash);
+
+                    send13NewSessionTicketMessage(sessionTicketHandler);
+                }
+
                 completeHandshake();
                 break;
             }
@@ -1002,11 +1042,6 @@ protected void handleHandshakeMessage(short type, HandshakeMessageInput buf)
         if (connection_state > CS_CLIENT_HELLO
             && TlsUtils.isTLSv13(securityParameters.getNegotiatedVersion()))
         {
-            if (securityParameters.isResumedSession())
-            {
-                throw new TlsFatalAlert(AlertDescription.internal_error);
-            }
-
             handle13HandshakeMessage(type, buf);
             return;
         }
@@ -1679,6 +1714,89 @@ protected void sendNewSessionTicketMessage(NewSessionTicket newSessionTicket)
         message.send(this);
     }
 
+    protected void send13NewSessionTicketMessage(TlsSessionTicketHandler sessionTicketHandler)
+        throws IOException
+    {
+        SecurityParameters securityParameters = tlsServerContext.getSecurityParametersHandshake();
+
+        TlsSecret resumptionMasterSecret = TlsUtils.deriveSecret(securityParameters,
+            securityParameters.getMasterSecret(), "res master", TlsUtils.getCurrentPRFHash(handshakeHash));
+
+        byte[] ticketNonce = tlsServerContext.getNonceGenerator().generateNonce(8);
+
+        TlsSecret resumptionPSK = TlsCryptoUtils.hkdfExpandLabel(resumptionMasterSecret,
+            securityParameters.getPRFCryptoHashAlgorithm(), "resumption", ticketNonce,
+            securityParameters.getPRFHashLength());
+
+        long ticketAgeAdd = tlsServerContext.getCrypto().getSecureRandom().nextInt() & 0xFFFFFFFFL;
+
+        // NOTE: A resumed session keeps the certificates of the handshake that established it
+        Certificate localCertificate, peerCertificate;
+        if (securityParameters.isResumedSession())
+        {
+            localCertificate = sessionParameters.getLocalCertificate();
+            peerCertificate = sessionParameters.getPeerCertificate();
+        }
+        else
+        {
+            localCertificate = securityParameters.getLocalCertificate();
+            peerCertificate = securityParameters.getPeerCertificate();
+        }
+
+        SessionParameters ticketSession = new SessionParameters.Builder()
+            .setCipherSuite(securityParameters.getCipherSuite())
+            .setExtendedMasterSecret(true)
+            .setLocalCertificate(localCertificate)
+            .setMasterSecret(resumptionPSK)
+            .setNegotiatedVersion(securityParameters.getNegotiatedVersion())
+            .setPeerCertificate(peerCertificate)
+            .build();
+
+        byte[] ticket;
+        try
+        {
+            ticket = sessionTicketHandler.createTicket(tlsServerContext, ticketSession, ticketAgeAdd);
+        }
+        finally
+        {
+            resumptionMasterSecret.destroy();
+        }
+
+        if (null == ticket)
+        {
+            return;
+        }
+        if (ticket.length < 1 || !TlsUtils.isValidUint16(ticket.length))
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        long ticketLifetime = sessionTicketHandler.getTicketLifetime();
+        if (ticketLifetime < 0 || ticketLifetime > 604800L)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        /*
+         * RFC 8446 4.6.1.
+         * 
+         * struct {
+         *     uint32 ticket_lifetime;
+         *     uint32 ticket_age_add;
+         *     opaque ticket_nonce<0..255>;
+         *     opaque ticket<1..2^16-1>;
+         *     Extension extensions<0..2^16-2>;
+         * } NewSessionTicket;
+         */
+        HandshakeMessageOutput message = new HandshakeMessageOutput(HandshakeType.new_session_ticket);
+        TlsUtils.writeUint32(ticketLifetime, message);
+        TlsUtils.writeUint32(ticketAgeAdd, message);
+        TlsUtils.writeOpaque8(ticketNonce, message);
+        TlsUtils.writeOpaque16(ticket, message);
+        TlsUtils.writeUint16(0, message);
+        message.send(this);
+    }
+
     protected void sendServerHelloDoneMessage()
         throws IOException
     {
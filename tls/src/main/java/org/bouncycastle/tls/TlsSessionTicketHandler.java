@@ -0,0 +1,53 @@
+package org.bouncycastle.tls;
+
+import java.io.IOException;
+
+/**
+ * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+ * <p>
+ * Server-side support for (D)TLS 1.3 session resumption. After each full handshake a resumption PSK is
+ * issued to the client in a NewSessionTicket message, with a ticket (the PSK identity) created by
+ * {@link #createTicket(TlsServerContext, SessionParameters, long)}. When a client later offers the ticket in a
+ * "pre_shared_key" extension, {@link #openTicket(TlsServerContext, PskIdentity)} recovers the session, and the
+ * handshake proceeds without the server certificate and signature.
+ * </p>
+ * See {@link DefaultTlsSessionTicketHandler} for an implementation that keeps no per-session state.
+ */
+public interface TlsSessionTicketHandler
+{
+    /**
+     * @return the ticket lifetime in seconds, at most 604800 (7 days). The client will not offer a ticket
+     *         once it is older than this.
+     */
+    long getTicketLifetime();
+
+    /**
+     * Create a ticket from which {@link #openTicket(TlsServerContext, PskIdentity)} can later recover the
+     * passed session, along with its issue time and ticket age offset.
+     *
+     * @param context
+     *            the {@link TlsServerContext} of the (completed) handshake the ticket is issued for.
+     * @param sessionParameters
+     *            the {@link SessionParameters} of the session: the cipher suite, negotiated version, local
+     *            and peer certificates, with the resumption PSK as the master secret.
+     * @param ticketAgeAdd
+     *            the (uint32) value the client will add to the ticket age it reports.
+     * @return the ticket, or null to not issue one.
+     */
+    byte[] createTicket(TlsServerContext context, SessionParameters sessionParameters, long ticketAgeAdd)
+        throws IOException;
+
+    /**
+     * Recover the session from a ticket offered by a client. Implementations should decline tickets that
+     * have expired, or whose reported age is inconsistent with their issue time.
+     *
+     * @param context
+     *            the {@link TlsServerContext} of the handshake in progress.
+     * @param identity
+     *            the offered {@link PskIdentity}, holding the ticket and the obfuscated ticket age.
+     * @return the {@link SessionParameters} passed to
+     *         {@link #createTicket(TlsServerContext, SessionParameters, long)}, or null if the ticket is not
+     *         acceptable.
+     */
+    SessionParameters openTicket(TlsServerContext context, PskIdentity identity) throws IOException;
+}
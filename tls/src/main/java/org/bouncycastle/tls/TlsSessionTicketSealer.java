@@ -0,0 +1,51 @@
+package org.bouncycastle.tls;
+
+import java.io.IOException;
+
+/**
+ * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+ * <p>
+ * The authenticated encryption used by {@link DefaultTlsSessionTicketHandler} to protect the session state
+ * carried in a ticket. Implementations are provided by the crypto packages, for example
+ * {@link org.bouncycastle.tls.crypto.impl.bc.BcTlsSessionTicketSealer} and
+ * {@link org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsSessionTicketSealer}, both of which use AES-256-GCM.
+ * </p>
+ */
+public interface TlsSessionTicketSealer
+{
+    /**
+     * @return the length, in bytes, of the keys passed to {@link #seal(byte[], byte[], byte[], byte[])} and
+     *         {@link #open(byte[], byte[], byte[], byte[], int, int)}.
+     */
+    int getKeyLength();
+
+    /**
+     * @return the length, in bytes, of the nonces passed to {@link #seal(byte[], byte[], byte[], byte[])} and
+     *         {@link #open(byte[], byte[], byte[], byte[], int, int)}.
+     */
+    int getNonceLength();
+
+    /**
+     * Encrypt and authenticate a ticket's state.
+     *
+     * @param key the key to use.
+     * @param nonce a nonce, never used before with the same key.
+     * @param additionalData data to authenticate along with the state.
+     * @param plaintext the state.
+     * @return the sealed state.
+     */
+    byte[] seal(byte[] key, byte[] nonce, byte[] additionalData, byte[] plaintext) throws IOException;
+
+    /**
+     * Authenticate and decrypt state sealed by {@link #seal(byte[], byte[], byte[], byte[])}.
+     *
+     * @param key the key to use.
+     * @param nonce the nonce the state was sealed with.
+     * @param additionalData the additional data the state was sealed with.
+     * @param buf the buffer containing the sealed state.
+     * @param off the offset of the sealed state in buf.
+     * @param len the length of the sealed state.
+     * @return the state, or null if the sealed state fails to authenticate.
+     */
+    byte[] open(byte[] key, byte[] nonce, byte[] additionalData, byte[] buf, int off, int len) throws IOException;
+}
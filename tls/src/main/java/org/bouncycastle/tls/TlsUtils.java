@@ -5988,6 +5988,14 @@ static OfferedPsks.BindersConfig addPreSharedKeyToClientHelloRetry(TlsClientCont
         return result;
     }
 
+    static TlsSessionTicketHandler getSessionTicketHandler(TlsServer server)
+    {
+        // NOTE: Session tickets are opt-in, via AbstractTlsServer.getSessionTicketHandler
+        return server instanceof AbstractTlsServer
+            ?   ((AbstractTlsServer)server).getSessionTicketHandler()
+            :   null;
+    }
+
     static OfferedPsks.SelectedConfig selectPreSharedKey(TlsServerContext serverContext, TlsServer server,
         Hashtable clientHelloExtensions, HandshakeMessageInput clientHelloMessage, TlsHandshakeHash handshakeHash,
         boolean afterHelloRetryRequest) throws IOException
@@ -6006,11 +6014,41 @@ static OfferedPsks.SelectedConfig selectPreSharedKey(TlsServerContext serverCont
             // TODO[tls13] Add support for psk_ke?
             if (Arrays.contains(pskKeyExchangeModes, PskKeyExchangeMode.psk_dhe_ke))
             {
+                TlsPSK psk = null;
+                int index = -1;
+                SessionParameters ticketSession = null;
+
                 // TODO[tls13] Prefer to get the exact index from the server?
-                TlsPSKExternal psk = server.getExternalPSK(offeredPsks.getIdentities());
+                TlsPSKExternal externalPSK = server.getExternalPSK(offeredPsks.getIdentities());
+                if (null != externalPSK)
+                {
+                    psk = externalPSK;
+                    index = offeredPsks.getIndexOfIdentity(new PskIdentity(externalPSK.getIdentity(), 0L));
+                }
+                else
+                {
+                    TlsSessionTicketHandler ticketHandler = getSessionTicketHandler(server);
+                    if (null != ticketHandler)
+                    {
+                        Vector identities = offeredPsks.getIdentities();
+                        for (int i = 0; i < identities.size(); ++i)
+                        {
+                            PskIdentity identity = (PskIdentity)identities.elementAt(i);
+                            SessionParameters sessionParameters = ticketHandler.openTicket(serverContext, identity);
+                            if (null != sessionParameters)
+                            {
+                                psk = new ResumptionPSK(identity.getIdentity(), sessionParameters.getMasterSecret(),
+                                    getPRFAlgorithm13(sessionParameters.getCipherSuite()));
+                                index = i;
+                                ticketSession = sessionParameters;
+                                break;
+                            }
+                        }
+                    }
+                }
+
                 if (null != psk)
                 {
-                    int index = offeredPsks.getIndexOfIdentity(new PskIdentity(psk.getIdentity(), 0L));
                     if (index >= 0)
                     {
                         byte[] binder = (byte[])offeredPsks.getBinders().elementAt(index);
@@ -6018,8 +6056,6 @@ static OfferedPsks.SelectedConfig selectPreSharedKey(TlsServerContext serverCont
                         TlsCrypto crypto = serverContext.getCrypto();
                         TlsSecret earlySecret = getPSKEarlySecret(crypto, psk);
 
-                        // TODO[tls13-psk] Handle resumption PSKs
-                        boolean isExternalPSK = true;
                         int pskCryptoHashAlgorithm = TlsCryptoUtils.getHashForPRF(psk.getPRFAlgorithm());
 
                         byte[] transcriptHash;
@@ -6042,12 +6078,13 @@ static OfferedPsks.SelectedConfig selectPreSharedKey(TlsServerContext serverCont
                             clientHelloMessage.updateHashSuffix(handshakeHash, bindersSize);
                         }
 
-                        byte[] calculatedBinder = calculatePSKBinder(crypto, isExternalPSK, pskCryptoHashAlgorithm,
-                            earlySecret, transcriptHash);
+                        byte[] calculatedBinder = calculatePSKBinder(crypto, null == ticketSession,
+                            pskCryptoHashAlgorithm, earlySecret, transcriptHash);
 
                         if (Arrays.constantTimeAreEqual(calculatedBinder, binder))
                         {
-                            return new OfferedPsks.SelectedConfig(index, psk, pskKeyExchangeModes, earlySecret);
+                            return new OfferedPsks.SelectedConfig(index, psk, pskKeyExchangeModes, earlySecret,
+                                ticketSession);
                         }
                     }
                 }
@@ -0,0 +1,52 @@
+package org.bouncycastle.tls.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.tls.ProtocolVersion;
+
+/**
+ * Optional interface for a {@link TlsCipher} that can encode and decode a record fragment in place, in a
+ * {@link ByteBuffer} (which may be a direct buffer).
+ */
+public interface TlsByteBufferCipher
+    extends TlsCipher
+{
+    /**
+     * Return the number of bytes an encoded fragment holds ahead of the plaintext (e.g. an explicit nonce).
+     *
+     * @return the offset of the plaintext within an encoded fragment.
+     */
+    int getPlaintextEncodeOffset();
+
+    /**
+     * Encode, in place, the plaintext of a record fragment. The fragment starts at the buffer's position, and
+     * the plaintext must already have been written {@link #getPlaintextEncodeOffset()} bytes after it. At
+     * least {@link #getCiphertextEncodeLimit(int) getCiphertextEncodeLimit(len)} bytes must remain in the
+     * buffer. On return the buffer's position is at the end of the encoded fragment.
+     *
+     * @param seqNo sequence number of the message represented by plaintext.
+     * @param contentType content type of the message represented by plaintext.
+     * @param recordVersion {@link ProtocolVersion} used for the record.
+     * @param fragment buffer holding the fragment, positioned at its start.
+     * @param len length of the plaintext.
+     * @return the record type to use for the record.
+     * @throws IOException
+     */
+    short encodePlaintext(long seqNo, short contentType, ProtocolVersion recordVersion, ByteBuffer fragment, int len)
+        throws IOException;
+
+    /**
+     * Decode, in place, the ciphertext between the position and limit of the passed in buffer. On return the
+     * buffer's position and limit delimit the plaintext.
+     *
+     * @param seqNo sequence number of the message represented by ciphertext.
+     * @param recordType content type used in the record for this message.
+     * @param recordVersion {@link ProtocolVersion} used for the record.
+     * @param ciphertext buffer holding the ciphertext between its position and limit.
+     * @return the content type of the decoded message.
+     * @throws IOException
+     */
+    short decodeCiphertext(long seqNo, short recordType, ProtocolVersion recordVersion, ByteBuffer ciphertext)
+        throws IOException;
+}
@@ -1,6 +1,7 @@
 package org.bouncycastle.tls.crypto;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.ProtocolVersion;
@@ -10,7 +11,7 @@
  * The cipher for TLS_NULL_WITH_NULL_NULL.
  */
 public class TlsNullNullCipher
-    implements TlsCipher
+    implements TlsByteBufferCipher
 {
     public static final TlsNullNullCipher INSTANCE = new TlsNullNullCipher();
 
@@ -48,6 +49,24 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
         return new TlsDecodeResult(ciphertext, offset, len, recordType);
     }
 
+    public int getPlaintextEncodeOffset()
+    {
+        return 0;
+    }
+
+    public short encodePlaintext(long seqNo, short contentType, ProtocolVersion recordVersion, ByteBuffer fragment,
+        int len) throws IOException
+    {
+        fragment.position(fragment.position() + len);
+        return contentType;
+    }
+
+    public short decodeCiphertext(long seqNo, short recordType, ProtocolVersion recordVersion, ByteBuffer ciphertext)
+        throws IOException
+    {
+        return recordType;
+    }
+
     public void rekeyDecoder() throws IOException
     {
         throw new TlsFatalAlert(AlertDescription.internal_error);
@@ -1,6 +1,7 @@
 package org.bouncycastle.tls.crypto.impl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.ContentType;
@@ -8,7 +9,7 @@
 import org.bouncycastle.tls.SecurityParameters;
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.TlsUtils;
-import org.bouncycastle.tls.crypto.TlsCipher;
+import org.bouncycastle.tls.crypto.TlsByteBufferCipher;
 import org.bouncycastle.tls.crypto.TlsCryptoParameters;
 import org.bouncycastle.tls.crypto.TlsCryptoUtils;
 import org.bouncycastle.tls.crypto.TlsDecodeResult;
@@ -18,9 +19,13 @@
 
 /**
  * A generic TLS 1.2 AEAD cipher.
+ * <p>
+ * Records in {@link ByteBuffer}s are processed in place. A buffer without an accessible array is handed to the
+ * cipher implementation directly if it is a {@link TlsByteBufferAEADCipherImpl}, otherwise the record is copied
+ * through a scratch array (kept for reuse, and cleared after each record).
  */
 public final class TlsAEADCipher
-    implements TlsCipher
+    implements TlsByteBufferCipher
 {
     public static final int AEAD_CCM = 1;
     public static final int AEAD_CHACHA20_POLY1305 = 2;
@@ -44,6 +49,8 @@
     private final boolean isTLSv13;
     private final int nonceMode;
 
+    private byte[] decryptScratch = null, encryptScratch = null;
+
     public TlsAEADCipher(TlsCryptoParameters cryptoParams, TlsAEADCipherImpl encryptCipher, TlsAEADCipherImpl decryptCipher,
         int keySize, int macSize, int aeadType) throws IOException
     {
@@ -154,25 +161,7 @@ public int getPlaintextEncodeLimit(int ciphertextLimit)
     public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVersion recordVersion,
         int headerAllocation, byte[] plaintext, int plaintextOffset, int plaintextLength) throws IOException
     {
-        byte[] nonce = new byte[encryptNonce.length + record_iv_length];
-
-        switch (nonceMode)
-        {
-        case NONCE_RFC5288:
-            System.arraycopy(encryptNonce, 0, nonce, 0, encryptNonce.length);
-            // RFC 5288/6655: The nonce_explicit MAY be the 64-bit sequence number.
-            TlsUtils.writeUint64(seqNo, nonce, encryptNonce.length);
-            break;
-        case NONCE_RFC7905:
-            TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
-            for (int i = 0; i < encryptNonce.length; ++i)
-            {
-                nonce[i] ^= encryptNonce[i];
-            }
-            break;
-        default:
-            throw new TlsFatalAlert(AlertDescription.internal_error);
-        }
+        byte[] nonce = createEncryptNonce(seqNo);
 
         // TODO[tls13, cid] If we support adding padding to (D)TLSInnerPlaintext, this will need review
         int innerPlaintextLength = plaintextLength + (encryptUseInnerPlaintext ? 1 : 0);
@@ -233,23 +222,10 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
             throw new TlsFatalAlert(AlertDescription.decode_error);
         }
 
-        byte[] nonce = new byte[decryptNonce.length + record_iv_length];
-
-        switch (nonceMode)
+        byte[] nonce = createDecryptNonce(seqNo);
+        if (record_iv_length != 0)
         {
-        case NONCE_RFC5288:
-            System.arraycopy(decryptNonce, 0, nonce, 0, decryptNonce.length);
             System.arraycopy(ciphertext, ciphertextOffset, nonce, nonce.length - record_iv_length, record_iv_length);
-            break;
-        case NONCE_RFC7905:
-            TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
-            for (int i = 0; i < decryptNonce.length; ++i)
-            {
-                nonce[i] ^= decryptNonce[i];
-            }
-            break;
-        default:
-            throw new TlsFatalAlert(AlertDescription.internal_error);
         }
 
         decryptCipher.init(nonce, macSize);
@@ -303,6 +279,137 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
         return new TlsDecodeResult(ciphertext, encryptionOffset, plaintextLength, contentType);
     }
 
+    public int getPlaintextEncodeOffset()
+    {
+        return record_iv_length;
+    }
+
+    public short encodePlaintext(long seqNo, short contentType, ProtocolVersion recordVersion, ByteBuffer fragment,
+        int plaintextLength) throws IOException
+    {
+        byte[] nonce = createEncryptNonce(seqNo);
+
+        // TODO[tls13, cid] If we support adding padding to (D)TLSInnerPlaintext, this will need review
+        int innerPlaintextLength = plaintextLength + (encryptUseInnerPlaintext ? 1 : 0);
+
+        encryptCipher.init(nonce, macSize);
+
+        int encryptionLength = encryptCipher.getOutputSize(innerPlaintextLength);
+        int ciphertextLength = record_iv_length + encryptionLength;
+
+        if (fragment.remaining() < ciphertextLength)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        int fragmentPos = fragment.position();
+        for (int i = 0; i < record_iv_length; ++i)
+        {
+            fragment.put(fragmentPos + i, nonce[nonce.length - record_iv_length + i]);
+        }
+
+        int encryptionPos = fragmentPos + record_iv_length;
+
+        short recordType = contentType;
+        if (encryptUseInnerPlaintext)
+        {
+            recordType = isTLSv13 ? ContentType.application_data : ContentType.tls12_cid;
+
+            fragment.put(encryptionPos + plaintextLength, (byte)contentType);
+        }
+
+        byte[] additionalData = getAdditionalData(seqNo, recordType, recordVersion, ciphertextLength,
+            innerPlaintextLength, encryptConnectionID);
+
+        int outputLength;
+        try
+        {
+            outputLength = doFinal(true, additionalData, fragment, encryptionPos, innerPlaintextLength);
+        }
+        catch (RuntimeException e)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error, e);
+        }
+
+        if (outputLength != encryptionLength)
+        {
+            // NOTE: The additional data mechanism for AEAD ciphers requires exact output size prediction.
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        fragment.position(encryptionPos + encryptionLength);
+        return recordType;
+    }
+
+    public short decodeCiphertext(long seqNo, short recordType, ProtocolVersion recordVersion, ByteBuffer ciphertext)
+        throws IOException
+    {
+        int ciphertextPos = ciphertext.position();
+        int ciphertextLength = ciphertext.remaining();
+
+        if (getPlaintextDecodeLimit(ciphertextLength) < 0)
+        {
+            throw new TlsFatalAlert(AlertDescription.decode_error);
+        }
+
+        byte[] nonce = createDecryptNonce(seqNo);
+        for (int i = 0; i < record_iv_length; ++i)
+        {
+            nonce[nonce.length - record_iv_length + i] = ciphertext.get(ciphertextPos + i);
+        }
+
+        decryptCipher.init(nonce, macSize);
+
+        int encryptionPos = ciphertextPos + record_iv_length;
+        int encryptionLength = ciphertextLength - record_iv_length;
+        int innerPlaintextLength = decryptCipher.getOutputSize(encryptionLength);
+
+        byte[] additionalData = getAdditionalData(seqNo, recordType, recordVersion, ciphertextLength,
+            innerPlaintextLength, decryptConnectionID);
+
+        int outputLength;
+        try
+        {
+            outputLength = doFinal(false, additionalData, ciphertext, encryptionPos, encryptionLength);
+        }
+        catch (RuntimeException e)
+        {
+            throw new TlsFatalAlert(AlertDescription.bad_record_mac, e);
+        }
+
+        if (outputLength != innerPlaintextLength)
+        {
+            // NOTE: The additional data mechanism for AEAD ciphers requires exact output size prediction.
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        short contentType = recordType;
+        int plaintextLength = innerPlaintextLength;
+
+        if (decryptUseInnerPlaintext)
+        {
+            // Strip padding and read true content type from TLSInnerPlaintext
+            for (;;)
+            {
+                if (--plaintextLength < 0)
+                {
+                    throw new TlsFatalAlert(AlertDescription.unexpected_message);
+                }
+
+                byte octet = ciphertext.get(encryptionPos + plaintextLength);
+                if (0 != octet)
+                {
+                    contentType = (short)(octet & 0xFF);
+                    break;
+                }
+            }
+        }
+
+        ciphertext.limit(encryptionPos + plaintextLength);
+        ciphertext.position(encryptionPos);
+        return contentType;
+    }
+
     public void rekeyDecoder() throws IOException
     {
         rekeyCipher(cryptoParams.getSecurityParametersConnection(), decryptCipher, decryptNonce, !cryptoParams.isServer());
@@ -323,6 +430,115 @@ public boolean usesOpaqueRecordTypeEncode()
         return encryptUseInnerPlaintext;
     }
 
+    private byte[] createDecryptNonce(long seqNo) throws IOException
+    {
+        byte[] nonce = new byte[decryptNonce.length + record_iv_length];
+
+        switch (nonceMode)
+        {
+        case NONCE_RFC5288:
+            System.arraycopy(decryptNonce, 0, nonce, 0, decryptNonce.length);
+            // NOTE: The caller fills in the nonce_explicit from the record
+            break;
+        case NONCE_RFC7905:
+            TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
+            for (int i = 0; i < decryptNonce.length; ++i)
+            {
+                nonce[i] ^= decryptNonce[i];
+            }
+            break;
+        default:
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        return nonce;
+    }
+
+    private byte[] createEncryptNonce(long seqNo) throws IOException
+    {
+        byte[] nonce = new byte[encryptNonce.length + record_iv_length];
+
+        switch (nonceMode)
+        {
+        case NONCE_RFC5288:
+            System.arraycopy(encryptNonce, 0, nonce, 0, encryptNonce.length);
+            // RFC 5288/6655: The nonce_explicit MAY be the 64-bit sequence number.
+            TlsUtils.writeUint64(seqNo, nonce, encryptNonce.length);
+            break;
+        case NONCE_RFC7905:
+            TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
+            for (int i = 0; i < encryptNonce.length; ++i)
+            {
+                nonce[i] ^= encryptNonce[i];
+            }
+            break;
+        default:
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        return nonce;
+    }
+
+    /*
+     * Run the cipher in place over len bytes of buf, starting at the (absolute) index off.
+     */
+    private int doFinal(boolean encrypt, byte[] additionalData, ByteBuffer buf, int off, int len)
+        throws IOException
+    {
+        TlsAEADCipherImpl cipher = encrypt ? encryptCipher : decryptCipher;
+
+        if (buf.hasArray())
+        {
+            byte[] array = buf.array();
+            int arrayOff = buf.arrayOffset() + off;
+            return cipher.doFinal(additionalData, array, arrayOff, len, array, arrayOff);
+        }
+
+        if (cipher instanceof TlsByteBufferAEADCipherImpl)
+        {
+            return ((TlsByteBufferAEADCipherImpl)cipher).doFinal(additionalData, buf, off, len);
+        }
+
+        int outputLength = cipher.getOutputSize(len);
+        byte[] scratch = getScratch(encrypt, Math.max(len, outputLength));
+
+        int pos = buf.position();
+        try
+        {
+            buf.position(off);
+            buf.get(scratch, 0, len);
+
+            outputLength = cipher.doFinal(additionalData, scratch, 0, len, scratch, 0);
+
+            buf.position(off);
+            buf.put(scratch, 0, outputLength);
+            return outputLength;
+        }
+        finally
+        {
+            buf.position(pos);
+            Arrays.fill(scratch, (byte)0);
+        }
+    }
+
+    private byte[] getScratch(boolean encrypt, int size)
+    {
+        byte[] scratch = encrypt ? encryptScratch : decryptScratch;
+        if (null == scratch || scratch.length < size)
+        {
+            scratch = new byte[size];
+            if (encrypt)
+            {
+                this.encryptScratch = scratch;
+            }
+            else
+            {
+                this.decryptScratch = scratch;
+            }
+        }
+        return scratch;
+    }
+
     private byte[] getAdditionalData(long seqNo, short recordType, ProtocolVersion recordVersion,
         int ciphertextLength, int plaintextLength, byte[] connectionID) throws IOException
     {
@@ -0,0 +1,25 @@
+package org.bouncycastle.tls.crypto.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Optional interface for an AEAD cipher implementation that can work in place on a {@link ByteBuffer}
+ * without an accessible array, such as a direct buffer.
+ */
+public interface TlsByteBufferAEADCipherImpl
+    extends TlsAEADCipherImpl
+{
+    /**
+     * Perform the cipher encryption/decryption in place, the output overwriting the input from its start.
+     *
+     * @param additionalData any additional data to be included in the MAC calculation.
+     * @param buf buffer holding the input data, and to hold the cipher output.
+     * @param offset the (absolute) index in buf the input data starts at.
+     * @param length length of the input data.
+     * @return the amount of data written to buf.
+     * @throws IOException in case of failure.
+     */
+    int doFinal(byte[] additionalData, ByteBuffer buf, int offset, int length)
+        throws IOException;
+}
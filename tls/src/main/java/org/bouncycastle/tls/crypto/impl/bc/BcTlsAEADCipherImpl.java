@@ -11,11 +11,11 @@
 import org.bouncycastle.tls.crypto.impl.TlsAEADCipherImpl;
 import org.bouncycastle.util.Arrays;
 
-final class BcTlsAEADCipherImpl
+class BcTlsAEADCipherImpl
     implements TlsAEADCipherImpl
 {
-    private final boolean isEncrypting;
-    private final AEADBlockCipher cipher;
+    final boolean isEncrypting;
+    final AEADBlockCipher cipher;
 
     private KeyParameter key;
 
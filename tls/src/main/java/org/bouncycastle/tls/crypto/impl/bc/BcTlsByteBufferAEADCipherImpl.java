@@ -0,0 +1,58 @@
+package org.bouncycastle.tls.crypto.impl.bc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.ByteBufferAEADCipher;
+import org.bouncycastle.tls.AlertDescription;
+import org.bouncycastle.tls.TlsFatalAlert;
+import org.bouncycastle.tls.crypto.impl.TlsByteBufferAEADCipherImpl;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A {@link BcTlsAEADCipherImpl} for an AEAD cipher that is also a {@link ByteBufferAEADCipher}, so records in
+ * direct buffers can be processed in place without being copied.
+ */
+final class BcTlsByteBufferAEADCipherImpl
+    extends BcTlsAEADCipherImpl
+    implements TlsByteBufferAEADCipherImpl
+{
+    BcTlsByteBufferAEADCipherImpl(AEADBlockCipher cipher, boolean isEncrypting)
+    {
+        super(cipher, isEncrypting);
+    }
+
+    public int doFinal(byte[] additionalData, ByteBuffer buf, int offset, int length)
+        throws IOException
+    {
+        ByteBufferAEADCipher cipher = (ByteBufferAEADCipher)this.cipher;
+
+        // NOTE: Views are not kept between calls, so a caller's (possibly pooled) buffer isn't held on to
+        ByteBuffer input = buf.duplicate();
+        input.limit(offset + length);
+        input.position(offset);
+
+        ByteBuffer output = buf.duplicate();
+        output.position(offset);
+
+        if (!Arrays.isNullOrEmpty(additionalData))
+        {
+            cipher.processAADBytes(additionalData, 0, additionalData.length);
+        }
+
+        int len = cipher.processBytes(input, output);
+
+        try
+        {
+            len += cipher.doFinal(output);
+        }
+        catch (InvalidCipherTextException e)
+        {
+            throw new TlsFatalAlert(AlertDescription.bad_record_mac, e);
+        }
+
+        return len;
+    }
+}
@@ -25,6 +25,7 @@
 import org.bouncycastle.crypto.engines.SM4Engine;
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.ByteBufferAEADCipher;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.modes.CCMBlockCipher;
 import org.bouncycastle.crypto.modes.GCMBlockCipher;
@@ -574,8 +575,8 @@ protected TlsCipher createChaCha20Poly1305(TlsCryptoParameters cryptoParams) thr
     protected TlsAEADCipher createCipher_AES_CCM(TlsCryptoParameters cryptoParams, int cipherKeySize, int macSize)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_AES_CCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_AES_CCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_AES_CCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_AES_CCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, cipherKeySize, macSize, TlsAEADCipher.AEAD_CCM);
     }
@@ -583,8 +584,8 @@ protected TlsAEADCipher createCipher_AES_CCM(TlsCryptoParameters cryptoParams, i
     protected TlsAEADCipher createCipher_AES_GCM(TlsCryptoParameters cryptoParams, int cipherKeySize, int macSize)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_AES_GCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_AES_GCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_AES_GCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_AES_GCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, cipherKeySize, macSize, TlsAEADCipher.AEAD_GCM);
     }
@@ -592,8 +593,8 @@ protected TlsAEADCipher createCipher_AES_GCM(TlsCryptoParameters cryptoParams, i
     protected TlsAEADCipher createCipher_ARIA_GCM(TlsCryptoParameters cryptoParams, int cipherKeySize, int macSize)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_ARIA_GCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_ARIA_GCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_ARIA_GCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_ARIA_GCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, cipherKeySize, macSize, TlsAEADCipher.AEAD_GCM);
     }
@@ -601,8 +602,8 @@ protected TlsAEADCipher createCipher_ARIA_GCM(TlsCryptoParameters cryptoParams,
     protected TlsAEADCipher createCipher_Camellia_GCM(TlsCryptoParameters cryptoParams, int cipherKeySize, int macSize)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_Camellia_GCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_Camellia_GCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_Camellia_GCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_Camellia_GCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, cipherKeySize, macSize, TlsAEADCipher.AEAD_GCM);
     }
@@ -622,8 +623,8 @@ protected TlsCipher createCipher_CBC(TlsCryptoParameters cryptoParams, int encry
     protected TlsAEADCipher createCipher_SM4_CCM(TlsCryptoParameters cryptoParams)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_SM4_CCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_SM4_CCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_SM4_CCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_SM4_CCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, 16, 16, TlsAEADCipher.AEAD_CCM);
     }
@@ -631,8 +632,8 @@ protected TlsAEADCipher createCipher_SM4_CCM(TlsCryptoParameters cryptoParams)
     protected TlsAEADCipher createCipher_SM4_GCM(TlsCryptoParameters cryptoParams)
         throws IOException
     {
-        BcTlsAEADCipherImpl encrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_SM4_GCM(), true);
-        BcTlsAEADCipherImpl decrypt = new BcTlsAEADCipherImpl(createAEADBlockCipher_SM4_GCM(), false);
+        BcTlsAEADCipherImpl encrypt = createAEADCipherImpl(createAEADBlockCipher_SM4_GCM(), true);
+        BcTlsAEADCipherImpl decrypt = createAEADCipherImpl(createAEADBlockCipher_SM4_GCM(), false);
 
         return new TlsAEADCipher(cryptoParams, encrypt, decrypt, 16, 16, TlsAEADCipher.AEAD_GCM);
     }
@@ -715,6 +716,15 @@ protected AEADBlockCipher createAEADBlockCipher_SM4_GCM()
         return createGCMMode(createSM4Engine());
     }
 
+    private static BcTlsAEADCipherImpl createAEADCipherImpl(AEADBlockCipher cipher, boolean isEncrypting)
+    {
+        if (cipher instanceof ByteBufferAEADCipher)
+        {
+            return new BcTlsByteBufferAEADCipherImpl(cipher, isEncrypting);
+        }
+        return new BcTlsAEADCipherImpl(cipher, isEncrypting);
+    }
+
     public TlsHMAC createHMAC(int macAlgorithm)
     {
         switch (macAlgorithm)
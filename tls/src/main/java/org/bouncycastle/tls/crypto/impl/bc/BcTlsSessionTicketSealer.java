@@ -0,0 +1,108 @@
+package org.bouncycastle.tls.crypto.impl.bc;
+
+import java.io.IOException;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.tls.AlertDescription;
+import org.bouncycastle.tls.TlsFatalAlert;
+import org.bouncycastle.tls.TlsSessionTicketSealer;
+
+/**
+ * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+ * <p>
+ * A {@link TlsSessionTicketSealer} using AES-256-GCM, with a 12 byte nonce and a 16 byte tag.
+ * </p>
+ */
+public class BcTlsSessionTicketSealer
+    implements TlsSessionTicketSealer
+{
+    private static final int KEY_LENGTH = 32;
+    private static final int NONCE_LENGTH = 12;
+    private static final int MAC_SIZE = 128;
+
+    protected final BcTlsCrypto crypto;
+
+    public BcTlsSessionTicketSealer(BcTlsCrypto crypto)
+    {
+        if (null == crypto)
+        {
+            throw new NullPointerException("'crypto' cannot be null");
+        }
+
+        this.crypto = crypto;
+    }
+
+    public int getKeyLength()
+    {
+        return KEY_LENGTH;
+    }
+
+    public int getNonceLength()
+    {
+        return NONCE_LENGTH;
+    }
+
+    public byte[] seal(byte[] key, byte[] nonce, byte[] additionalData, byte[] plaintext)
+        throws IOException
+    {
+        AEADBlockCipher cipher = createCipher(true, key, nonce, additionalData);
+
+        byte[] output = new byte[cipher.getOutputSize(plaintext.length)];
+        int len = cipher.processBytes(plaintext, 0, plaintext.length, output, 0);
+
+        try
+        {
+            len += cipher.doFinal(output, len);
+        }
+        catch (InvalidCipherTextException e)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error, e);
+        }
+
+        if (len != output.length)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+        return output;
+    }
+
+    public byte[] open(byte[] key, byte[] nonce, byte[] additionalData, byte[] buf, int off, int len)
+        throws IOException
+    {
+        AEADBlockCipher cipher = createCipher(false, key, nonce, additionalData);
+
+        byte[] output = new byte[cipher.getOutputSize(len)];
+        int outLen = cipher.processBytes(buf, off, len, output, 0);
+
+        try
+        {
+            outLen += cipher.doFinal(output, outLen);
+        }
+        catch (InvalidCipherTextException e)
+        {
+            return null;
+        }
+
+        if (outLen != output.length)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+        return output;
+    }
+
+    private AEADBlockCipher createCipher(boolean forEncryption, byte[] key, byte[] nonce, byte[] additionalData)
+        throws IOException
+    {
+        if (key.length != KEY_LENGTH || nonce.length != NONCE_LENGTH)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        AEADBlockCipher cipher = crypto.createAEADBlockCipher_AES_GCM();
+        cipher.init(forEncryption, new AEADParameters(new KeyParameter(key), MAC_SIZE, nonce, additionalData));
+        return cipher;
+    }
+}
@@ -0,0 +1,104 @@
+package org.bouncycastle.tls.crypto.impl.jcajce;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.BadPaddingException;
+
+import org.bouncycastle.tls.AlertDescription;
+import org.bouncycastle.tls.TlsFatalAlert;
+import org.bouncycastle.tls.TlsSessionTicketSealer;
+import org.bouncycastle.tls.crypto.impl.TlsAEADCipherImpl;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * WARNING: EXPERIMENTAL FEATURE, UNSTABLE API
+ * <p>
+ * A {@link TlsSessionTicketSealer} using AES-256-GCM, with a 12 byte nonce and a 16 byte tag.
+ * </p>
+ */
+public class JcaTlsSessionTicketSealer
+    implements TlsSessionTicketSealer
+{
+    private static final int KEY_LENGTH = 32;
+    private static final int NONCE_LENGTH = 12;
+    private static final int MAC_SIZE = 16;
+
+    protected final JcaTlsCrypto crypto;
+
+    public JcaTlsSessionTicketSealer(JcaTlsCrypto crypto)
+    {
+        if (null == crypto)
+        {
+            throw new NullPointerException("'crypto' cannot be null");
+        }
+
+        this.crypto = crypto;
+    }
+
+    public int getKeyLength()
+    {
+        return KEY_LENGTH;
+    }
+
+    public int getNonceLength()
+    {
+        return NONCE_LENGTH;
+    }
+
+    public byte[] seal(byte[] key, byte[] nonce, byte[] additionalData, byte[] plaintext)
+        throws IOException
+    {
+        TlsAEADCipherImpl cipher = createCipher(true, key, nonce);
+
+        byte[] output = new byte[cipher.getOutputSize(plaintext.length)];
+        int len = cipher.doFinal(additionalData, plaintext, 0, plaintext.length, output, 0);
+        return len == output.length ? output : Arrays.copyOf(output, len);
+    }
+
+    public byte[] open(byte[] key, byte[] nonce, byte[] additionalData, byte[] buf, int off, int len)
+        throws IOException
+    {
+        TlsAEADCipherImpl cipher = createCipher(false, key, nonce);
+
+        byte[] output = new byte[cipher.getOutputSize(len)];
+        int outLen;
+        try
+        {
+            outLen = cipher.doFinal(additionalData, buf, off, len, output, 0);
+        }
+        catch (IllegalStateException e)
+        {
+            // a failed tag check (AEADBadTagException) is reported as a BadPaddingException
+            if (e.getCause() instanceof BadPaddingException)
+            {
+                return null;
+            }
+            throw e;
+        }
+        return outLen == output.length ? output : Arrays.copyOf(output, outLen);
+    }
+
+    private TlsAEADCipherImpl createCipher(boolean isEncrypting, byte[] key, byte[] nonce)
+        throws IOException
+    {
+        if (key.length != KEY_LENGTH || nonce.length != NONCE_LENGTH)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error);
+        }
+
+        TlsAEADCipherImpl cipher;
+        try
+        {
+            cipher = crypto.createAEADCipher("AES/GCM/NoPadding", "AES", KEY_LENGTH, isEncrypting);
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new TlsFatalAlert(AlertDescription.internal_error, e);
+        }
+
+        cipher.setKey(key, 0, key.length);
+        cipher.init(nonce, MAC_SIZE);
+        return cipher;
+    }
+}
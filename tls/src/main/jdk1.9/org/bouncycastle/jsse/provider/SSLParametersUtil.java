@@ -53,6 +53,7 @@ static BCSSLParameters getParameters(ProvSSLParameters prov)
         ssl.setApplicationProtocols(prov.getApplicationProtocols());
         ssl.setEnableRetransmissions(prov.getEnableRetransmissions());
         ssl.setMaximumPacketSize(prov.getMaximumPacketSize());
+        ssl.setDecryptInPlace(prov.getDecryptInPlace());
         ssl.setSignatureSchemes(prov.getSignatureSchemes());
         ssl.setNamedGroups(prov.getNamedGroups());
 
@@ -277,6 +278,8 @@ static void setParameters(ProvSSLParameters prov, BCSSLParameters ssl)
 
         prov.setMaximumPacketSize(ssl.getMaximumPacketSize());
 
+        prov.setDecryptInPlace(ssl.getDecryptInPlace());
+
         prov.setSignatureSchemes(ssl.getSignatureSchemes());
 
         prov.setNamedGroups(ssl.getNamedGroups());
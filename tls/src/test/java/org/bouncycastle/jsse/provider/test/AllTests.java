@@ -30,6 +30,7 @@ public static Test suite()
         suite.addTestSuite(PSSCredentialsTest.class);
         suite.addTestSuite(SSLServerSocketTest.class);
         suite.addTestSuite(SSLSocketTest.class);
+        suite.addTestSuite(SessionCacheTest.class);
 
         if (hasClass("javax.net.ssl.CertPathTrustManagerParameters"))
         {
@@ -12,6 +12,8 @@
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.TrustManagerFactory;
 
+import org.bouncycastle.jsse.BCSSLEngine;
+import org.bouncycastle.jsse.BCSSLParameters;
 import org.bouncycastle.util.Arrays;
 
 import junit.framework.TestCase;
@@ -65,11 +67,13 @@ protected void runTest() throws Throwable
             return;
         }
 
-        runTestConnection();
-        runTestConnection();
+        runTestConnection(false, false);
+        runTestConnection(true, false);
+        runTestConnection(false, true);
+        runTestConnection(true, true);
     }
 
-    private void runTestConnection() throws Throwable
+    private void runTestConnection(boolean directNetBuffers, boolean decryptInPlace) throws Throwable
     {
         SSLContext clientContext = createSSLContextClient();
         SSLContext serverContext = createSSLContextServer();
@@ -85,6 +89,12 @@ private void runTestConnection() throws Throwable
         serverEngine.setUseClientMode(false);
         serverEngine.setWantClientAuth(false);
 
+        if (decryptInPlace)
+        {
+            setDecryptInPlace(clientEngine);
+            setDecryptInPlace(serverEngine);
+        }
+
         SSLSession clientSession = clientEngine.getSession();
         SSLSession serverSession = serverEngine.getSession();
 
@@ -97,11 +107,11 @@ private void runTestConnection() throws Throwable
         ByteBuffer clientIn = ByteBuffer.allocate(clientAppBufSize + 64);
         ByteBuffer serverIn = ByteBuffer.allocate(serverAppBufSize + 64);
 
-        ByteBuffer clientToServer = ByteBuffer.allocate(clientNetBufSize);
-        ByteBuffer serverToClient = ByteBuffer.allocate(serverNetBufSize);
+        ByteBuffer clientToServer = allocate(directNetBuffers, clientNetBufSize);
+        ByteBuffer serverToClient = allocate(directNetBuffers, serverNetBufSize);
 
-        ByteBuffer clientOut = ByteBuffer.wrap("Dear Prudence, won't you come out to play?".getBytes("UTF-8"));
-        ByteBuffer serverOut = ByteBuffer.wrap("Impudence! I won't come out to today.".getBytes("UTF-8"));
+        ByteBuffer clientOut = wrap(directNetBuffers, "Dear Prudence, won't you come out to play?".getBytes("UTF-8"));
+        ByteBuffer serverOut = wrap(directNetBuffers, "Impudence! I won't come out to today.".getBytes("UTF-8"));
 
         SSLEngineResult clientResult;
         SSLEngineResult serverResult;
@@ -150,6 +160,31 @@ private void runTestConnection() throws Throwable
         TestCase.assertTrue(Arrays.areEqual(clientTlsUnique, serverTlsUnique));
     }
 
+    private static void setDecryptInPlace(SSLEngine engine)
+    {
+        BCSSLEngine bcEngine = (BCSSLEngine)engine;
+        BCSSLParameters parameters = bcEngine.getParameters();
+        parameters.setDecryptInPlace(true);
+        bcEngine.setParameters(parameters);
+    }
+
+    private static ByteBuffer allocate(boolean direct, int capacity)
+    {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static ByteBuffer wrap(boolean direct, byte[] data)
+    {
+        if (!direct)
+        {
+            return ByteBuffer.wrap(data);
+        }
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(data.length);
+        buf.put(data).flip();
+        return buf;
+    }
+
     private static void checkData(ByteBuffer a, ByteBuffer b) throws Exception
     {
         a.flip();
@@ -0,0 +1,303 @@
+package org.bouncycastle.jsse.provider.test;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.bouncycastle.jsse.BCSSLSessionContext;
+import org.bouncycastle.jsse.BCSSLSessionStore;
+import org.bouncycastle.jsse.BCSSLStoredSession;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.encoders.Hex;
+
+import junit.framework.TestCase;
+
+public class SessionCacheTest
+    extends TestCase
+{
+    private static final String HOST = "localhost";
+
+    private static char[] serverPassword = "serverPassword".toCharArray();
+
+    private KeyStore serverKeyStore;
+    private KeyStore clientTrustStore;
+
+    protected void setUp()
+        throws Exception
+    {
+        ProviderUtils.setupLowPriority(false);
+
+        KeyPair caKeyPair = TestUtils.generateECKeyPair();
+        X509Certificate caCert = TestUtils.generateRootCert(caKeyPair);
+
+        serverKeyStore = KeyStore.getInstance("JKS");
+        serverKeyStore.load(null, null);
+        serverKeyStore.setKeyEntry("server", caKeyPair.getPrivate(), serverPassword, new X509Certificate[]{ caCert });
+
+        clientTrustStore = KeyStore.getInstance("JKS");
+        clientTrustStore.load(null, null);
+        clientTrustStore.setCertificateEntry("ca", caCert);
+    }
+
+    public void testResumption()
+        throws Exception
+    {
+        SSLContext clientContext = createClientContext();
+        SSLContext serverContext = createServerContext();
+
+        SSLSession first = connect(clientContext, serverContext, 1001);
+        SSLSession second = connect(clientContext, serverContext, 1001);
+
+        assertTrue(Arrays.areEqual(first.getId(), second.getId()));
+        assertNotNull(serverContext.getServerSessionContext().getSession(first.getId()));
+
+        first.invalidate();
+
+        SSLSession third = connect(clientContext, serverContext, 1001);
+        assertFalse(Arrays.areEqual(first.getId(), third.getId()));
+    }
+
+    public void testCacheSize()
+        throws Exception
+    {
+        SSLContext clientContext = createClientContext();
+        SSLContext serverContext = createServerContext();
+
+        for (int port = 2001; port <= 2040; ++port)
+        {
+            connect(clientContext, serverContext, port);
+        }
+
+        BCSSLSessionContext serverSessionContext = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        assertEquals(40, Collections.list(serverSessionContext.getIds()).size());
+
+        serverSessionContext.setSessionCacheSize(16);
+        assertEquals(16, Collections.list(serverSessionContext.getIds()).size());
+
+        serverSessionContext.setSessionTimeout(1);
+        Thread.sleep(1100);
+        assertEquals(0, Collections.list(serverSessionContext.getIds()).size());
+    }
+
+    public void testCacheSizeLimit()
+        throws Exception
+    {
+        SSLContext clientContext = createClientContext();
+        SSLContext serverContext = createServerContext();
+
+        // limits smaller than the number of cache segments still hold across all of them
+        BCSSLSessionContext serverSessionContext = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        serverSessionContext.setSessionCacheSize(1);
+
+        SSLSession last = null;
+        for (int port = 2101; port <= 2120; ++port)
+        {
+            last = connect(clientContext, serverContext, port);
+            assertEquals(1, Collections.list(serverSessionContext.getIds()).size());
+        }
+        assertTrue(Arrays.areEqual(last.getId(), (byte[])serverSessionContext.getIds().nextElement()));
+
+        serverSessionContext.setSessionCacheSize(20);
+        for (int port = 2121; port <= 2160; ++port)
+        {
+            connect(clientContext, serverContext, port);
+            assertTrue(Collections.list(serverSessionContext.getIds()).size() <= 20);
+        }
+        assertEquals(20, Collections.list(serverSessionContext.getIds()).size());
+    }
+
+    public void testSessionStore()
+        throws Exception
+    {
+        SimpleSessionStore store = new SimpleSessionStore();
+
+        SSLContext clientContext = createClientContext();
+        SSLContext serverContext1 = createServerContext();
+        SSLContext serverContext2 = createServerContext();
+
+        ((BCSSLSessionContext)serverContext1.getServerSessionContext()).setSessionStore(store);
+        ((BCSSLSessionContext)serverContext2.getServerSessionContext()).setSessionStore(store);
+
+        SSLSession first = connect(clientContext, serverContext1, 3001);
+        assertEquals(1, store.sessions.size());
+
+        // A different server instance sharing the store can resume the session
+        SSLSession second = connect(clientContext, serverContext2, 3001);
+        assertTrue(Arrays.areEqual(first.getId(), second.getId()));
+        assertEquals(first.getCreationTime(), second.getCreationTime());
+
+        serverContext2.getServerSessionContext().getSession(first.getId()).invalidate();
+        assertEquals(0, store.sessions.size());
+
+        // Repeated lookups of an unknown session ID only go to the store once
+        byte[] unknownID = new byte[32];
+        int lookups = store.lookups;
+        assertNull(serverContext1.getServerSessionContext().getSession(unknownID));
+        assertNull(serverContext1.getServerSessionContext().getSession(unknownID));
+        assertEquals(lookups + 1, store.lookups);
+    }
+
+    public void testTls13TicketResumption()
+        throws Exception
+    {
+        // BCJSSE clients don't yet use TLS 1.3 tickets, so resume from a SunJSSE client
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance("PKIX", "SunJSSE");
+        tmf.init(clientTrustStore);
+
+        SSLContext clientContext = SSLContext.getInstance("TLSv1.3", "SunJSSE");
+        clientContext.init(null, tmf.getTrustManagers(), new SecureRandom());
+        SSLContext serverContext = createServerContext();
+
+        SSLEngine[] first = handshake(clientContext, serverContext, 4001, "TLSv1.3");
+        Certificate[] localCertificates = first[1].getSession().getLocalCertificates();
+        assertNotNull(localCertificates);
+
+        // A session resumed from a ticket keeps the original session's creation time and identity
+        Thread.sleep(10);
+        SSLEngine[] second = handshake(clientContext, serverContext, 4001, "TLSv1.3");
+        assertEquals(first[0].getSession().getCreationTime(), second[0].getSession().getCreationTime());
+        assertTrue(java.util.Arrays.equals(localCertificates, second[1].getSession().getLocalCertificates()));
+
+        // Tickets from a different server context (with a different ticket key) are not accepted
+        Thread.sleep(10);
+        SSLEngine[] third = handshake(clientContext, createServerContext(), 4001, "TLSv1.3");
+        assertTrue(first[0].getSession().getCreationTime() != third[0].getSession().getCreationTime());
+        assertNotNull(third[1].getSession().getLocalCertificates());
+    }
+
+    private SSLSession connect(SSLContext clientContext, SSLContext serverContext, int port)
+        throws Exception
+    {
+        SSLEngine[] engines = handshake(clientContext, serverContext, port, "TLSv1.2");
+
+        SSLSession session = engines[0].getSession();
+        assertTrue(Arrays.areEqual(session.getId(), engines[1].getSession().getId()));
+        return session;
+    }
+
+    private SSLEngine[] handshake(SSLContext clientContext, SSLContext serverContext, int port, String protocol)
+        throws Exception
+    {
+        SSLEngine clientEngine = clientContext.createSSLEngine(HOST, port);
+        clientEngine.setEnabledProtocols(new String[]{ protocol });
+        clientEngine.setUseClientMode(true);
+
+        SSLEngine serverEngine = serverContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        ByteBuffer clientToServer = ByteBuffer.allocate(clientEngine.getSession().getPacketBufferSize());
+        ByteBuffer serverToClient = ByteBuffer.allocate(serverEngine.getSession().getPacketBufferSize());
+        ByteBuffer clientIn = ByteBuffer.allocate(clientEngine.getSession().getApplicationBufferSize());
+        ByteBuffer serverIn = ByteBuffer.allocate(serverEngine.getSession().getApplicationBufferSize());
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+
+        // Keep exchanging records for a couple of rounds after the handshake (e.g. TLS 1.3 NewSessionTicket)
+        int finalRounds = 2;
+        for (int i = 0; i < 100; ++i)
+        {
+            if (clientEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && serverEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && --finalRounds < 0)
+            {
+                return new SSLEngine[]{ clientEngine, serverEngine };
+            }
+
+            clientEngine.wrap(empty, clientToServer);
+            serverEngine.wrap(empty, serverToClient);
+
+            clientToServer.flip();
+            serverToClient.flip();
+
+            clientEngine.unwrap(serverToClient, clientIn);
+            serverEngine.unwrap(clientToServer, serverIn);
+
+            clientToServer.compact();
+            serverToClient.compact();
+
+            runDelegatedTasks(clientEngine);
+            runDelegatedTasks(serverEngine);
+        }
+
+        fail("handshake did not complete");
+        return null;
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine)
+    {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null)
+        {
+            task.run();
+        }
+    }
+
+    private SSLContext createClientContext()
+        throws Exception
+    {
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        tmf.init(clientTrustStore);
+
+        SSLContext clientContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        clientContext.init(null, tmf.getTrustManagers(), SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+        return clientContext;
+    }
+
+    private SSLContext createServerContext()
+        throws Exception
+    {
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        kmf.init(serverKeyStore, serverPassword);
+
+        SSLContext serverContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        serverContext.init(kmf.getKeyManagers(), null, SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+        return serverContext;
+    }
+
+    private static class SimpleSessionStore
+        implements BCSSLSessionStore
+    {
+        // Keeps only what an external store would: the ID, creation time and encoded state
+        final Map<String, Object[]> sessions = Collections.synchronizedMap(new HashMap<String, Object[]>());
+
+        volatile int lookups = 0;
+
+        public void addSession(BCSSLStoredSession session)
+        {
+            sessions.put(Hex.toHexString(session.getSessionID()),
+                new Object[]{ Long.valueOf(session.getCreationTime()), session.getEncoded() });
+        }
+
+        public BCSSLStoredSession getSession(byte[] sessionID)
+        {
+            ++lookups;
+
+            Object[] stored = sessions.get(Hex.toHexString(sessionID));
+            if (null == stored)
+            {
+                return null;
+            }
+            return new BCSSLStoredSession(sessionID, ((Long)stored[0]).longValue(), (byte[])stored[1]);
+        }
+
+        public void removeSession(byte[] sessionID)
+        {
+            sessions.remove(Hex.toHexString(sessionID));
+        }
+    }
+}
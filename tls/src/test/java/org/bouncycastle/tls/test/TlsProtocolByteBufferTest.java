@@ -0,0 +1,221 @@
+package org.bouncycastle.tls.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Hashtable;
+
+import org.bouncycastle.tls.CipherSuite;
+import org.bouncycastle.tls.TlsClient;
+import org.bouncycastle.tls.TlsClientProtocol;
+import org.bouncycastle.tls.TlsExtensionsUtils;
+import org.bouncycastle.tls.TlsProtocol;
+import org.bouncycastle.tls.TlsServer;
+import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link TlsProtocol#writeApplicationData(ByteBuffer[], int, int, ByteBuffer)} and
+ * {@link TlsProtocol#offerInputInPlace(ByteBuffer)}, with full-size records in heap and direct buffers.
+ */
+public class TlsProtocolByteBufferTest
+    extends TestCase
+{
+    public void testTLSv12AESGCM() throws IOException
+    {
+        runTest12(CipherSuite.TLS_PSK_WITH_AES_128_GCM_SHA256, true);
+    }
+
+    public void testTLSv12AESCCM() throws IOException
+    {
+        runTest12(CipherSuite.TLS_PSK_WITH_AES_128_CCM, true);
+    }
+
+    public void testTLSv12ChaCha20Poly1305() throws IOException
+    {
+        runTest12(CipherSuite.TLS_ECDHE_PSK_WITH_CHACHA20_POLY1305_SHA256, true);
+    }
+
+    public void testTLSv12AESCBC() throws IOException
+    {
+        // Records can't be written in place, but can still be offered in place
+        runTest12(CipherSuite.TLS_PSK_WITH_AES_128_CBC_SHA256, false);
+    }
+
+    public void testTLSv13AESGCM() throws IOException
+    {
+        runTest13(CipherSuite.TLS_AES_128_GCM_SHA256);
+    }
+
+    public void testTLSv13AESCCM() throws IOException
+    {
+        runTest13(CipherSuite.TLS_AES_128_CCM_SHA256);
+    }
+
+    public void testTLSv13ChaCha20Poly1305() throws IOException
+    {
+        runTest13(CipherSuite.TLS_CHACHA20_POLY1305_SHA256);
+    }
+
+    private static void runTest12(final int cipherSuite, boolean writeInPlace) throws IOException
+    {
+        for (int i = 0; i < 2; ++i)
+        {
+            MockPSKTlsClient client = new MockPSKTlsClient(null)
+            {
+                protected int[] getSupportedCipherSuites()
+                {
+                    return new int[]{ cipherSuite };
+                }
+
+                public Hashtable getClientExtensions() throws IOException
+                {
+                    // Allow full-size records
+                    Hashtable clientExtensions = super.getClientExtensions();
+                    clientExtensions.remove(TlsExtensionsUtils.EXT_max_fragment_length);
+                    return clientExtensions;
+                }
+            };
+            MockPSKTlsServer server = new MockPSKTlsServer()
+            {
+                protected int[] getSupportedCipherSuites()
+                {
+                    return new int[]{ cipherSuite };
+                }
+            };
+
+            runTest(client, server, i != 0, writeInPlace);
+        }
+    }
+
+    private static void runTest13(final int cipherSuite) throws IOException
+    {
+        for (int i = 0; i < 2; ++i)
+        {
+            MockPSKTls13Client client = new MockPSKTls13Client()
+            {
+                protected int[] getSupportedCipherSuites()
+                {
+                    return new int[]{ cipherSuite };
+                }
+            };
+            MockPSKTls13Server server = new MockPSKTls13Server();
+
+            runTest(client, server, i != 0, true);
+        }
+    }
+
+    private static void runTest(TlsClient client, TlsServer server, boolean direct, boolean writeInPlace)
+        throws IOException
+    {
+        TlsClientProtocol clientProtocol = new TlsClientProtocol();
+        TlsServerProtocol serverProtocol = new TlsServerProtocol();
+
+        clientProtocol.connect(client);
+        serverProtocol.accept(server);
+
+        // pump handshake
+        boolean hadDataFromServer = true;
+        boolean hadDataFromClient = true;
+        while (hadDataFromServer || hadDataFromClient)
+        {
+            hadDataFromServer = pumpData(serverProtocol, clientProtocol);
+            hadDataFromClient = pumpData(clientProtocol, serverProtocol);
+        }
+
+        assertEquals(16384, clientProtocol.getApplicationDataLimit());
+
+        // several full-size records, and a partial one
+        byte[] data = new byte[3 * 16384 + 1000];
+        client.getCrypto().getSecureRandom().nextBytes(data);
+
+        writeAndRead(clientProtocol, serverProtocol, data, direct, writeInPlace);
+        writeAndRead(serverProtocol, clientProtocol, data, direct, writeInPlace);
+
+        // close the connection, offering the close_notify in place
+        clientProtocol.close();
+        ByteBuffer record = readRecord(clientProtocol, direct);
+        assertFalse(serverProtocol.offerInputInPlace(record));
+        assertFalse(record.hasRemaining());
+        serverProtocol.closeInput();
+        assertTrue(serverProtocol.isClosed());
+        assertTrue(clientProtocol.isClosed());
+    }
+
+    private static void writeAndRead(TlsProtocol writer, TlsProtocol reader, byte[] data, boolean direct,
+        boolean writeInPlace) throws IOException
+    {
+        // the data is gathered from two buffers, split part way through a record
+        int split = data.length / 2 + 7;
+        ByteBuffer[] srcs = new ByteBuffer[]{ allocate(direct, split), allocate(direct, data.length - split) };
+        srcs[0].put(data, 0, split).flip();
+        srcs[1].put(data, split, data.length - split).flip();
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        while (srcs[1].hasRemaining())
+        {
+            int expected = Math.min(srcs[0].remaining() + srcs[1].remaining(), writer.getApplicationDataLimit());
+
+            ByteBuffer record = allocate(direct, writer.previewOutputRecord(expected).getRecordSize());
+            int written = writer.writeApplicationData(srcs, 0, srcs.length, record);
+            if (!writeInPlace)
+            {
+                assertEquals(-1, written);
+                assertEquals(0, record.position());
+
+                byte[] buf = new byte[expected];
+                int len0 = Math.min(srcs[0].remaining(), expected);
+                srcs[0].get(buf, 0, len0);
+                srcs[1].get(buf, len0, expected - len0);
+                writer.writeApplicationData(buf, 0, expected);
+                record = readRecord(writer, direct);
+            }
+            else
+            {
+                assertEquals(expected, written);
+                assertFalse(record.hasRemaining());
+                record.flip();
+            }
+
+            assertTrue(reader.offerInputInPlace(record));
+            assertEquals(expected, record.remaining());
+
+            byte[] plaintext = new byte[record.remaining()];
+            record.get(plaintext);
+            received.write(plaintext, 0, plaintext.length);
+        }
+
+        assertEquals(0, reader.getAvailableInputBytes());
+        assertTrue(Arrays.areEqual(data, received.toByteArray()));
+    }
+
+    private static ByteBuffer readRecord(TlsProtocol from, boolean direct) throws IOException
+    {
+        ByteBuffer record = allocate(direct, from.getAvailableOutputBytes());
+        from.readOutput(record, record.remaining());
+        record.flip();
+        return record;
+    }
+
+    private static boolean pumpData(TlsProtocol from, TlsProtocol to) throws IOException
+    {
+        int byteCount = from.getAvailableOutputBytes();
+        if (byteCount == 0)
+        {
+            return false;
+        }
+
+        byte[] buffer = new byte[byteCount];
+        from.readOutput(buffer, 0, buffer.length);
+        to.offerInput(buffer);
+
+        return true;
+    }
+
+    private static ByteBuffer allocate(boolean direct, int size)
+    {
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+}